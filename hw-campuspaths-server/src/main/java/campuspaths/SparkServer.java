@@ -13,14 +13,41 @@ package campuspaths;
 
 import campuspaths.utils.CORSFilter;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import graph.Deadline;
+import graph.SearchMetrics;
+import graph.SearchResult;
+import org.slf4j.LoggerFactory;
 import pathfinder.CampusMap;
+import pathfinder.Isochrone;
+import pathfinder.RouteTable;
+import pathfinder.RoutingMode;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
 import spark.Spark;
 
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Main class that sets up the campus path server, which allows users to read information about the campus map
  */
 public class SparkServer {
 
+    /** The most alternative routes /findKPaths returns for one request. */
+    private static final int MAX_ALTERNATIVES = 10;
+
+    /** The most building names /distanceMatrix takes in each of its lists. */
+    private static final int MAX_MATRIX_NAMES = 64;
+
+    /** How long a search may hold a worker thread before the request is answered with 503. */
+    private static final long SEARCH_TIMEOUT_MILLIS = 2000;
+
     /**
      * main method to run the server and read information about the campus map
      * @param args running main
@@ -29,12 +56,20 @@ public class SparkServer {
         CORSFilter corsFilter = new CORSFilter();
         corsFilter.apply();
 
-        CampusMap map = new CampusMap();
+        // Routing tables are computed on the first run and loaded from these files afterwards.
+        CampusMap map = new CampusMap(Paths.get("campus-landmarks.bin"), Paths.get("campus-hierarchy.bin"));
+        RouteTable<Point> routes = map.routeTable();
+        LoggerFactory.getLogger("CampusPaths Server").info("Route table: " + routes.size() + " buildings, built in "
+                + routes.buildMillis() + " ms, " + routes.footprintBytes() / 1024 + " KB");
+
+        // Totals of every search the server ran since it started, per algorithm, served by /metrics.
+        SearchMetrics metrics = new SearchMetrics();
 
         Spark.get("/findShortPath", (req, res) -> {
             res.type("text/PathPoint");
             String startName = req.queryParams("startName");
             String endName = req.queryParams("endName");
+            String modeName = req.queryParams("mode");
             if (startName == null) {
                 res.status(400);
                 return "startName missing";
@@ -43,11 +78,163 @@ public class SparkServer {
                 res.status(400);
                 return "endName missing";
             }
+            RoutingMode mode;
+            try {
+                mode = modeName == null ? RoutingMode.ROUTE_TABLE : RoutingMode.valueOf(modeName);
+            } catch (IllegalArgumentException e) {
+                res.status(400);
+                return "unknown mode " + modeName;
+            }
+            SearchMetrics query = new SearchMetrics();
+            SearchResult<Path<Point>> path = map.findShortestPath(startName, endName, mode,
+                    Deadline.after(SEARCH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS), metrics.andThen(query));
+            res.header("Server-Timing", serverTiming(query));
+            if (path.isTimedOut()) {
+                res.status(503);
+                return "search timed out";
+            }
             Gson gson = new Gson();
-            String jsonPath = gson.toJson(map.findShortestPath(startName, endName));
+            String jsonPath = gson.toJson(path.value());
             return jsonPath;
         });
 
+        Spark.get("/findKPaths", (req, res) -> {
+            res.type("application/json");
+            String startName = req.queryParams("startName");
+            String endName = req.queryParams("endName");
+            String count = req.queryParams("k");
+            if (startName == null) {
+                res.status(400);
+                return "startName missing";
+            }
+            if (endName == null) {
+                res.status(400);
+                return "endName missing";
+            }
+            if (!map.shortNameExists(startName) || !map.shortNameExists(endName)) {
+                res.status(400);
+                return "unknown building";
+            }
+            int k;
+            try {
+                k = count == null ? 2 : Integer.parseInt(count);
+            } catch (NumberFormatException e) {
+                k = 0;
+            }
+            if (k < 1 || k > MAX_ALTERNATIVES) {
+                res.status(400);
+                return "k must be between 1 and " + MAX_ALTERNATIVES;
+            }
+            SearchMetrics query = new SearchMetrics();
+            SearchResult<List<Path<Point>>> paths = map.findKShortestPaths(startName, endName, k,
+                    Deadline.after(SEARCH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS), metrics.andThen(query));
+            res.header("Server-Timing", serverTiming(query));
+            if (paths.isTimedOut()) {
+                res.status(503);
+                return "search timed out";
+            }
+            Gson gson = new Gson();
+            return gson.toJson(paths.value());
+        });
+
+        Spark.get("/distanceMatrix", (req, res) -> {
+            res.type("application/json");
+            String startNames = req.queryParams("startNames");
+            String endNames = req.queryParams("endNames");
+            if (startNames == null) {
+                res.status(400);
+                return "startNames missing";
+            }
+            if (endNames == null) {
+                res.status(400);
+                return "endNames missing";
+            }
+            List<String> starts = List.of(startNames.split(","));
+            List<String> ends = List.of(endNames.split(","));
+            if (starts.size() > MAX_MATRIX_NAMES || ends.size() > MAX_MATRIX_NAMES) {
+                res.status(400);
+                return "at most " + MAX_MATRIX_NAMES + " startNames and " + MAX_MATRIX_NAMES + " endNames";
+            }
+            for (String name : starts) {
+                if (!map.shortNameExists(name)) {
+                    res.status(400);
+                    return "unknown building " + name;
+                }
+            }
+            for (String name : ends) {
+                if (!map.shortNameExists(name)) {
+                    res.status(400);
+                    return "unknown building " + name;
+                }
+            }
+            SearchMetrics query = new SearchMetrics();
+            SearchResult<double[][]> matrix = map.distanceMatrix(starts, ends,
+                    Deadline.after(SEARCH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS), metrics.andThen(query));
+            res.header("Server-Timing", serverTiming(query));
+            if (matrix.isTimedOut()) {
+                res.status(503);
+                return "search timed out";
+            }
+            // Unreachable pairs are Infinity, which plain JSON can't hold.
+            Gson gson = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+            return gson.toJson(matrix.value());
+        });
+
+        Spark.get("/reachable", (req, res) -> {
+            res.type("application/json");
+            String startName = req.queryParams("startName");
+            String budgetParam = req.queryParams("budget");
+            if (startName == null) {
+                res.status(400);
+                return "startName missing";
+            }
+            if (budgetParam == null) {
+                res.status(400);
+                return "budget missing";
+            }
+            if (!map.shortNameExists(startName)) {
+                res.status(400);
+                return "unknown building " + startName;
+            }
+            double budget;
+            try {
+                budget = Double.parseDouble(budgetParam);
+            } catch (NumberFormatException e) {
+                budget = Double.NaN;
+            }
+            if (!(budget >= 0) || Double.isInfinite(budget)) {
+                res.status(400);
+                return "budget must be a non-negative number of feet";
+            }
+            SearchMetrics query = new SearchMetrics();
+            SearchResult<Isochrone<Point>> result = map.reachableWithin(startName, budget,
+                    Deadline.after(SEARCH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS), metrics.andThen(query));
+            res.header("Server-Timing", serverTiming(query));
+            if (result.isTimedOut()) {
+                res.status(503);
+                return "search timed out";
+            }
+            Isochrone<Point> reached = result.value();
+            List<Map<String, Double>> points = new ArrayList<>();
+            reached.distances().forEach((point, distance) ->
+                    points.add(Map.of("x", point.getX(), "y", point.getY(), "distance", distance)));
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("budget", budget);
+            body.put("buildings", map.buildingsReached(reached));
+            body.put("points", points);
+            Gson gson = new Gson();
+            return gson.toJson(body);
+        });
+
+        Spark.get("/metrics", (req, res) -> {
+            res.type("application/json");
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("searches", metrics.snapshot());
+            body.put("treeCache", Map.of("hits", map.treeCache().hits(), "misses", map.treeCache().misses()));
+            Gson gson = new Gson();
+            return gson.toJson(body);
+        });
+
         Spark.get("/allShortNames", (req,res) -> {
             res.type("list");
             Gson gson = new Gson();
@@ -62,4 +249,19 @@ public class SparkServer {
             return jsonLongNameSet;
         });
     }
+
+    /**
+     * Describe the searches one request ran as a Server-Timing header value, one metric per
+     * algorithm, so browser developer tools show the time and work of each next to the request.
+     *
+     * @param query the statistics recorded while answering the request
+     * @return the header value, such as ROUTE_TABLE;dur=0.012;desc="settled=0 relaxed=0 pushes=0 peak=0"
+     */
+    private static String serverTiming(SearchMetrics query) {
+        List<String> timings = new ArrayList<>();
+        query.snapshot().forEach((algorithm, summary) -> timings.add(String.format(Locale.ROOT,
+                "%s;dur=%.3f;desc=\"settled=%d relaxed=%d pushes=%d peak=%d\"", algorithm, summary.totalMillis(),
+                summary.settled(), summary.relaxed(), summary.pushes(), summary.peakQueue())));
+        return String.join(", ", timings);
+    }
 }
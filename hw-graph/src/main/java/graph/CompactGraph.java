@@ -0,0 +1,247 @@
+package graph;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * An immutable, read-only snapshot of a {@link Graph} laid out in compressed sparse row (CSR) form.
+ * Every node is given a dense integer id in [0, nodeCount()), and the outgoing edges of node v are
+ * the edge indices in [firstEdge(v), lastEdge(v)). Each edge stores its destination id, a numeric
+ * weight and the original label, so traversals are plain array scans with no per-edge objects.
+ *
+ * @param <T> A set of vertices
+ * @param <E> A set of edges
+ */
+public final class CompactGraph<T, E> implements IndexedGraph<T, E> {
+
+    // AF(this) = a directed labeled graph where node v holds values[v], and for every edge index e
+    // in [offsets[v], offsets[v + 1]) there is an edge from v to targets[e] with weight weights[e]
+    // and label labels[e]. ids maps every node value back to its dense id.
+    //
+    // Rep invariant: all arrays != null, offsets.length == values.length + 1, offsets[0] == 0,
+    // offsets is non-decreasing, offsets[values.length] == targets.length == weights.length
+    // == labels.length, 0 <= targets[e] < values.length, no value or label is null, and
+    // ids.get(values[v]) == v for every v.
+
+    private final Object[] values;
+    private final Map<T, Integer> ids;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final Object[] labels;
+
+    /**
+     * Constructor wraps already laid out CSR arrays. The arrays are owned by the new graph and
+     * must not be modified afterwards.
+     *
+     * @param values node values indexed by id
+     * @param offsets edge offsets, length values.length + 1
+     * @param targets destination id of each edge
+     * @param weights weight of each edge
+     * @param labels label of each edge
+     * @spec.requires the arrays satisfy the rep invariant
+     */
+    CompactGraph(Object[] values, int[] offsets, int[] targets, double[] weights, Object[] labels) {
+        this.values = values;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.labels = labels;
+        this.ids = new HashMap<>(values.length * 4 / 3 + 1);
+        for (int v = 0; v < values.length; v++) {
+            ids.put(valueOf(v), v);
+        }
+        checkRep();
+    }
+
+    /**
+     * Lay out a snapshot of a graph given its nodes and a way to list the outgoing edges of each.
+     * Nodes are given dense ids in the order of values, and the outgoing edges of each node keep
+     * the order edges returns them in unless an order is given.
+     *
+     * @param values the values of all nodes of the graph
+     * @param edges function listing the outgoing edges of the node holding a value
+     * @param weigher function mapping an edge label to the numeric weight stored for that edge
+     * @param order the order of the outgoing edges of each node, or null to keep their order
+     * @return a compact snapshot of the graph
+     * @throws RuntimeException if weigher is null.
+     * @spec.requires every edge listed points to a node in values
+     */
+    static <T, E> CompactGraph<T, E> of(List<T> values, Function<? super T, ? extends Collection<Graph.Edge<T, E>>> edges,
+                                        ToDoubleFunction<? super E> weigher, Comparator<? super Graph.Edge<T, E>> order) {
+        if (weigher == null) {
+            throw new RuntimeException("Weigher can't be null");
+        }
+        Map<T, Integer> ids = new HashMap<>(values.size() * 4 / 3 + 1);
+        int edgeCount = 0;
+        for (T value : values) {
+            ids.put(value, ids.size());
+            edgeCount += edges.apply(value).size();
+        }
+        int[] offsets = new int[values.size() + 1];
+        int[] targets = new int[edgeCount];
+        double[] weights = new double[edgeCount];
+        Object[] labels = new Object[edgeCount];
+        int e = 0;
+        for (int v = 0; v < values.size(); v++) {
+            Collection<Graph.Edge<T, E>> out = edges.apply(values.get(v));
+            if (order != null) {
+                List<Graph.Edge<T, E>> sorted = new ArrayList<>(out);
+                sorted.sort(order);
+                out = sorted;
+            }
+            for (Graph.Edge<T, E> edge : out) {
+                targets[e] = ids.get(edge.getDes().getNode());
+                weights[e] = weigher.applyAsDouble(edge.getLabel());
+                labels[e] = edge.getLabel();
+                e++;
+            }
+            offsets[v + 1] = e;
+        }
+        return new CompactGraph<>(values.toArray(), offsets, targets, weights, labels);
+    }
+
+    /**
+     * Return number of nodes in the graph.
+     *
+     * @return Return the number of nodes in the graph.
+     */
+    @Override
+    public int nodeCount() {
+        return values.length;
+    }
+
+    /**
+     * Return number of edges in the graph.
+     *
+     * @return Return the number of edges in the graph.
+     */
+    @Override
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Find the dense id of the node holding the given value.
+     *
+     * @param value the value to look up
+     * @return the id of the node holding value, or -1 if no node holds it.
+     */
+    @Override
+    public int idOf(T value) {
+        Integer id = ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Check whether the graph contain a node holding the given value.
+     *
+     * @param value The value will be checked
+     * @return Return true if the graph contain the value, return false otherwise.
+     */
+    @Override
+    public boolean containsValue(T value) {
+        return ids.containsKey(value);
+    }
+
+    /**
+     * Return the value stored in the node with the given id.
+     *
+     * @param id the node id
+     * @return the value stored in that node
+     * @throws IndexOutOfBoundsException if id is not a node id of this graph.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T valueOf(int id) {
+        return (T) values[id];
+    }
+
+    /**
+     * Return the index of the first edge pointing out from the given node.
+     *
+     * @param id the node id
+     * @return the index of the first outgoing edge of id
+     */
+    @Override
+    public int firstEdge(int id) {
+        return offsets[id];
+    }
+
+    /**
+     * Return one past the index of the last edge pointing out from the given node.
+     *
+     * @param id the node id
+     * @return the exclusive end index of the outgoing edges of id
+     */
+    @Override
+    public int lastEdge(int id) {
+        return offsets[id + 1];
+    }
+
+    /**
+     * Return the destination node id of the given edge.
+     *
+     * @param edge the edge index
+     * @return the id of the node the edge points to
+     */
+    @Override
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Return the weight of the given edge.
+     *
+     * @param edge the edge index
+     * @return the weight of the edge
+     */
+    @Override
+    public double weight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Return the label of the given edge.
+     *
+     * @param edge the edge index
+     * @return the label of the edge
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E label(int edge) {
+        return (E) labels[edge];
+    }
+
+    /**
+     * Check if rep invariant holds.
+     *
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkRep() {
+        if (offsets.length != values.length + 1 || offsets[0] != 0) {
+            throw new RuntimeException("Offsets don't match the node table");
+        }
+        if (targets.length != offsets[values.length] || weights.length != targets.length
+                || labels.length != targets.length) {
+            throw new RuntimeException("Edge arrays don't match the offsets");
+        }
+        if (ids.size() != values.length) {
+            throw new RuntimeException("The graph can't have multiple nodes with same value");
+        }
+        for (int v = 0; v < values.length; v++) {
+            if (values[v] == null) {
+                throw new RuntimeException("The node can't be null");
+            }
+            if (offsets[v] > offsets[v + 1]) {
+                throw new RuntimeException("Offsets must be non-decreasing");
+            }
+        }
+        for (int e = 0; e < targets.length; e++) {
+            if (targets[e] < 0 || targets[e] >= values.length || labels[e] == null) {
+                throw new RuntimeException("The edge can't point outside the graph or be unlabeled");
+            }
+        }
+    }
+}
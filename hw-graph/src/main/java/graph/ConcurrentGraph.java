@@ -0,0 +1,603 @@
+package graph;
+
+import graph.Graph.Edge;
+import graph.Graph.Node;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A thread-safe multi graph where edges are labeled, with the same operations as {@link Graph}.
+ * The graph can't have multiple nodes with same value in them. No 2 edges with the same parent and
+ * child nodes will have the same edge label.
+ *
+ * <p>Writers lock only the stripes of the nodes they change, so writers touching different parts of
+ * the graph run in parallel. Readers never lock: every node publishes its outgoing and incoming edges
+ * as immutable lists that writers replace rather than modify, and a per-node sequence number lets a
+ * reader detect and retry around a writer that is half way through changing that node. Reads are
+ * therefore cheap and many routing threads can traverse while a writer adds or removes edges, at the
+ * price of writes costing O(degree) to copy the changed lists.
+ *
+ * <p>Unless a method says otherwise it is linearizable: it appears to take effect at a single
+ * instant between its call and its return, and every thread agrees on the order of those instants.
+ * A multi-node write such as addEdge or deleteNode is seen by readers either completely or not at
+ * all, never half applied. size(), isEmpty() and allNodes() are only weakly consistent, like the
+ * views of {@link ConcurrentHashMap}.
+ *
+ * @param <T> A set of vertices
+ * @param <E> A set of edges
+ */
+public class ConcurrentGraph<T, E> implements LabeledGraph<T, E> {
+
+    // AF(this) = a directed graph with labeled edge is represented by
+    // a ConcurrentHashMap where key is the value stored in each node and the value
+    // is the interned node holding it, the list of edges pointing from this node
+    // to other nodes in the order they were added, and the list of edges pointing to it.
+    //
+    // Rep invariant: the graph != null, the nodes in graph != null, each edge
+    // that connect between nodes != null, graph.get(v).node holds v, no out list
+    // holds 2 equal edges, and every edge in graph.get(a).out pointing to b is also
+    // in graph.get(b).in and vice versa. The invariant may be broken for a node only
+    // while its stripe is locked and its sequence number is odd.
+
+    private static final int STRIPES = 64;
+
+    private final ConcurrentHashMap<T, Vertex<T, E>> graph;
+    private final ReentrantLock[] locks;
+
+    /**
+     * Constructor create an empty graph.
+     *
+     * @spec.effects create an empty graph where the graph will be added nodes and edges later.
+     */
+    public ConcurrentGraph() {
+        this.graph = new ConcurrentHashMap<>();
+        this.locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        checkRep();
+    }
+
+    /**
+     * Return true if node doesn't exist in the graph and successfully add to the graph. Return false
+     * if the node already in the graph and can't be added again. Linearizable at the insertion into
+     * the node table; doesn't lock.
+     *
+     * @param node The node will be added to the graph
+     * @spec.modifies modify the graph by adding the nodes
+     * @spec.requires node != null
+     * @return return true if node is successfully be added, return false otherwise.
+     */
+    @Override
+    public boolean addNode(Node<T> node) {
+        return node != null && graph.putIfAbsent(node.getNode(), new Vertex<>(node)) == null;
+    }
+
+    /**
+     * Return true if node exist in the graph and successfully delete it and every edge touching it
+     * from the graph. Return false if the node doesn't in the graph. Locks the stripes of the node
+     * and all its neighbours, and is linearizable at the removal from the node table.
+     *
+     * @param node The node will be deleted from the graph.
+     * @spec.modifies modify the graph by removing the nodes
+     * @spec.requires node != null
+     * @return return true if the node is removed successfully from the graph, return false otherwise
+     */
+    @Override
+    public boolean deleteNode(Node<T> node) {
+        while (true) {
+            Vertex<T, E> vertex = vertex(node);
+            if (vertex == null) {
+                return false;
+            }
+            List<Edge<T, E>> out = vertex.out;
+            List<Edge<T, E>> in = vertex.in;
+            Set<Vertex<T, E>> touched = new HashSet<>();
+            touched.add(vertex);
+            for (Edge<T, E> edge : out) {
+                touched.add(graph.get(edge.getDes().getNode()));
+            }
+            for (Edge<T, E> edge : in) {
+                touched.add(graph.get(edge.getSource().getNode()));
+            }
+            touched.remove(null);
+            boolean[] held = lockAll(touched);
+            try {
+                if (vertex.removed) {
+                    continue;
+                }
+                if (vertex.out != out || vertex.in != in) {
+                    // An edge was added or removed before we got the locks, so the neighbours
+                    // we locked may be stale.
+                    continue;
+                }
+                begin(touched);
+                for (Edge<T, E> edge : out) {
+                    if (edge.getDes() != vertex.node) {
+                        Vertex<T, E> to = graph.get(edge.getDes().getNode());
+                        to.in = without(to.in, edge);
+                    }
+                }
+                for (Edge<T, E> edge : in) {
+                    if (edge.getSource() != vertex.node) {
+                        Vertex<T, E> from = graph.get(edge.getSource().getNode());
+                        from.out = without(from.out, edge);
+                    }
+                }
+                vertex.removed = true;
+                graph.remove(node.getNode(), vertex);
+                end(touched);
+                return true;
+            } finally {
+                unlockAll(held);
+            }
+        }
+    }
+
+    /**
+     * Add an edge labeled with name that connect the start node and the end node. Locks the
+     * stripes of both nodes, and is linearizable while holding them.
+     *
+     * @param start The starting node
+     * @param end The ending node
+     * @param labelNum the edge with a name that connect with starting and ending node
+     * @spec.modifies modify the graph by adding the edges between nodes
+     * @spec.requires start != null, labelNum != null, end != null.
+     * @return Return true if successfully add the edge, return false if either node is missing or
+     * the edge is already in the graph.
+     */
+    @Override
+    public boolean addEdge(Node<T> start, Node<T> end, E labelNum) {
+        while (true) {
+            Vertex<T, E> from = vertex(start);
+            Vertex<T, E> to = vertex(end);
+            if (from == null || to == null || labelNum == null) {
+                return false;
+            }
+            Set<Vertex<T, E>> touched = from == to ? Set.of(from) : Set.of(from, to);
+            boolean[] held = lockAll(touched);
+            try {
+                if (from.removed || to.removed) {
+                    // Deleted, and maybe added again, since we looked it up.
+                    continue;
+                }
+                Edge<T, E> edge = new Edge<>(from.node, to.node, labelNum);
+                if (from.out.contains(edge)) {
+                    return false;
+                }
+                begin(touched);
+                from.out = with(from.out, edge);
+                to.in = with(to.in, edge);
+                end(touched);
+                return true;
+            } finally {
+                unlockAll(held);
+            }
+        }
+    }
+
+    /**
+     * Remove an edge labeled with name that connect the start node and the end node. Locks the
+     * stripes of both nodes, and is linearizable while holding them.
+     *
+     * @param start The starting node
+     * @param end The ending node
+     * @param labelNum the edge with a name that connect with starting and ending node
+     * @spec.modifies modify the graph by removing the edges between the nodes
+     * @spec.requires start != null, labelNum != null, end != null.
+     * @return return true if successfully remove the edge, return false otherwise.
+     */
+    @Override
+    public boolean deleteEdge(Node<T> start, Node<T> end, E labelNum) {
+        while (true) {
+            Vertex<T, E> from = vertex(start);
+            Vertex<T, E> to = vertex(end);
+            if (from == null || to == null || labelNum == null) {
+                return false;
+            }
+            Set<Vertex<T, E>> touched = from == to ? Set.of(from) : Set.of(from, to);
+            boolean[] held = lockAll(touched);
+            try {
+                if (from.removed || to.removed) {
+                    continue;
+                }
+                Edge<T, E> edge = new Edge<>(from.node, to.node, labelNum);
+                if (!from.out.contains(edge)) {
+                    return false;
+                }
+                begin(touched);
+                from.out = without(from.out, edge);
+                to.in = without(to.in, edge);
+                end(touched);
+                return true;
+            } finally {
+                unlockAll(held);
+            }
+        }
+    }
+
+    /**
+     * Get and return all the child nodes of the given node. Linearizable; doesn't lock.
+     *
+     * @param node the given node
+     * @throws RuntimeException if the node is null or not in the graph.
+     * @return Return all the child nodes of the given node.
+     */
+    @Override
+    public List<Node<T>> getChild(Node<T> node) {
+        if (node == null) {
+            throw new RuntimeException("Node can't be null");
+        }
+        List<Node<T>> children = new ArrayList<>();
+        for (Edge<T, E> edge : edgesFrom(node.getNode())) {
+            children.add(edge.getDes());
+        }
+        return children;
+    }
+
+    /**
+     * Get and return all the edges that pointing out from the given node. Linearizable; doesn't
+     * lock.
+     *
+     * @param node the given node
+     * @throws RuntimeException if the node is not in the graph.
+     * @return a list of edges where all those edges are pointing out from the given node
+     */
+    @Override
+    public List<Edge<T, E>> getAllEdgesFrom(Node<T> node) {
+        if (node == null) {
+            throw new RuntimeException("The given node is not in the graph");
+        }
+        return new ArrayList<>(edgesFrom(node.getNode()));
+    }
+
+    /**
+     * Get and return all the edges that pointing towards to the given node, in the order
+     * they were added. Linearizable; doesn't lock.
+     *
+     * @param node the given node
+     * @throws RuntimeException if the node is null.
+     * @return a list of edges pointing towards the given node, empty if it's not in the graph
+     */
+    @Override
+    public List<Edge<T, E>> getAllEdgesTo(Node<T> node) {
+        if (node == null) {
+            throw new RuntimeException("Node can't be null");
+        }
+        Vertex<T, E> vertex = graph.get(node.getNode());
+        if (vertex == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(read(vertex, false));
+    }
+
+    /**
+     * Get an immutable snapshot of the edges pointing out from the node holding the given value,
+     * in the order they were added. Unlike {@link Graph#edgesFrom} the result doesn't reflect later
+     * changes. Linearizable; doesn't lock or copy.
+     *
+     * @param value the value stored in the given node
+     * @throws RuntimeException if no node holds the value.
+     * @return the edges pointing out from the node holding value
+     */
+    @Override
+    public Collection<Edge<T, E>> edgesFrom(T value) {
+        Vertex<T, E> vertex = graph.get(value);
+        if (vertex == null) {
+            throw new RuntimeException("The given node is not in the graph");
+        }
+        return read(vertex, true);
+    }
+
+    /**
+     * Get an immutable snapshot of the edges pointing towards the node holding the given value,
+     * in the order they were added. Unlike {@link Graph#edgesTo} the result doesn't reflect later
+     * changes. Linearizable; doesn't lock or copy.
+     *
+     * @param value the value stored in the given node
+     * @throws RuntimeException if no node holds the value.
+     * @return the edges pointing towards the node holding value
+     */
+    @Override
+    public Collection<Edge<T, E>> edgesTo(T value) {
+        Vertex<T, E> vertex = graph.get(value);
+        if (vertex == null) {
+            throw new RuntimeException("The given node is not in the graph");
+        }
+        return read(vertex, false);
+    }
+
+    /**
+     * Pass every edge pointing out from the node holding the given value to action, in the
+     * order they were added. The edges are those of one linearizable edgesFrom read, so action
+     * may change the graph without affecting this iteration.
+     *
+     * @param value the value stored in the given node
+     * @param action the action to perform on each edge
+     * @throws RuntimeException if no node holds the value or action is null.
+     */
+    @Override
+    public void forEachEdge(T value, Consumer<? super Edge<T, E>> action) {
+        if (action == null) {
+            throw new RuntimeException("Action can't be null");
+        }
+        for (Edge<T, E> edge : edgesFrom(value)) {
+            action.accept(edge);
+        }
+    }
+
+    /**
+     * Return the node the graph stores for the given value. Linearizable; doesn't lock.
+     *
+     * @param value the value stored in the given node
+     * @return the node holding value, or null if no node holds it.
+     */
+    @Override
+    public Node<T> nodeOf(T value) {
+        Vertex<T, E> vertex = value == null ? null : graph.get(value);
+        return vertex == null ? null : vertex.node;
+    }
+
+    /**
+     * Get and return all the nodes in the graph as list. Weakly consistent: every node that is in
+     * the graph for the whole call is listed, and nodes added or deleted during the call may or
+     * may not be.
+     *
+     * @return return all the nodes as list in the graph.
+     */
+    @Override
+    public List<Node<T>> allNodes() {
+        List<Node<T>> nodes = new ArrayList<>(graph.size());
+        for (Vertex<T, E> vertex : graph.values()) {
+            nodes.add(vertex.node);
+        }
+        return nodes;
+    }
+
+    /**
+     * Check whether the graph contain the node. Linearizable; doesn't lock.
+     *
+     * @param node The node will be checked
+     * @return Return true if the graph contain the node, return false otherwise.
+     */
+    @Override
+    public boolean containsNode(Node<T> node) {
+        return node != null && graph.containsKey(node.getNode());
+    }
+
+    /**
+     * Check whether the graph contain a node holding the given value. Linearizable; doesn't lock.
+     *
+     * @param value The value will be checked
+     * @return Return true if the graph contain the value, return false otherwise.
+     */
+    @Override
+    public boolean containsValue(T value) {
+        return value != null && graph.containsKey(value);
+    }
+
+    /**
+     * Return number of nodes in the graph, that is the size of the graph. Weakly consistent: the
+     * result is exact when no node is being added or deleted concurrently.
+     *
+     * @return Return the number of nodes in the graph.
+     */
+    @Override
+    public int size() {
+        return graph.size();
+    }
+
+    /**
+     * Check whether the graph is empty. Weakly consistent, like size().
+     *
+     * @return Return true is the graph is empty, return false otherwise.
+     */
+    @Override
+    public boolean isEmpty() {
+        return graph.isEmpty();
+    }
+
+    /**
+     * Take an immutable compact snapshot of the graph for read-only traversals. Nodes are given
+     * dense ids in the order allNodes() lists them, and the outgoing edges of each node keep the
+     * order they were added in.
+     *
+     * @param weigher function mapping an edge label to the numeric weight stored for that edge
+     * @return a compact snapshot of the graph as it is now
+     * @throws RuntimeException if weigher is null.
+     */
+    @Override
+    public CompactGraph<T, E> freeze(ToDoubleFunction<? super E> weigher) {
+        return freeze(weigher, null);
+    }
+
+    /**
+     * Take an immutable compact snapshot of the graph, with the outgoing edges of every node
+     * sorted by the given order. Locks every stripe for the duration of the copy, so writers wait
+     * but readers don't, and the snapshot is linearizable.
+     *
+     * @param weigher function mapping an edge label to the numeric weight stored for that edge
+     * @param order the order of the outgoing edges of each node, or null to keep insertion order
+     * @return a compact snapshot of the graph as it is now
+     * @throws RuntimeException if weigher is null.
+     */
+    @Override
+    public CompactGraph<T, E> freeze(ToDoubleFunction<? super E> weigher, Comparator<? super Edge<T, E>> order) {
+        if (weigher == null) {
+            throw new RuntimeException("Weigher can't be null");
+        }
+        boolean[] held = new boolean[STRIPES];
+        Arrays.fill(held, true);
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            // addNode doesn't lock, so take the node table once and only follow edges into it.
+            Map<T, List<Edge<T, E>>> out = new LinkedHashMap<>();
+            for (Vertex<T, E> vertex : graph.values()) {
+                out.put(vertex.node.getNode(), vertex.out);
+            }
+            return CompactGraph.of(new ArrayList<>(out.keySet()), out::get, weigher, order);
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * Look up the entry of the given node in the graph.
+     *
+     * @param node the given node
+     * @return the entry of node, or null if node is null or not in the graph.
+     */
+    private Vertex<T, E> vertex(Node<T> node) {
+        return node == null ? null : graph.get(node.getNode());
+    }
+
+    /**
+     * Read one edge list of the given entry without locking. Retries while a writer is changing
+     * the entry, so the list returned is one the entry held at some instant during the call.
+     *
+     * @param vertex the entry to read
+     * @param out true to read the outgoing edges, false for the incoming ones
+     * @return the immutable edge list read
+     */
+    private List<Edge<T, E>> read(Vertex<T, E> vertex, boolean out) {
+        while (true) {
+            long seq = vertex.seq;
+            if ((seq & 1) == 0) {
+                List<Edge<T, E>> edges = out ? vertex.out : vertex.in;
+                if (vertex.seq == seq) {
+                    return edges;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Lock the stripes of the given entries in stripe order, so writers can't deadlock.
+     *
+     * @param vertices the entries the caller is about to change
+     * @return which stripes were locked, to pass to unlockAll
+     */
+    private boolean[] lockAll(Collection<Vertex<T, E>> vertices) {
+        boolean[] held = new boolean[STRIPES];
+        for (Vertex<T, E> vertex : vertices) {
+            held[stripe(vertex)] = true;
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            if (held[i]) {
+                locks[i].lock();
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Unlock the stripes locked by lockAll.
+     *
+     * @param held which stripes are locked
+     */
+    private void unlockAll(boolean[] held) {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            if (held[i]) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Return the stripe guarding the given entry.
+     *
+     * @param vertex the entry
+     * @return the index of its lock
+     */
+    private static int stripe(Vertex<?, ?> vertex) {
+        int h = vertex.node.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * Mark the given entries as being changed, so readers retry until end() is called. Every
+     * entry is marked before any is changed, which makes the whole write appear atomic.
+     *
+     * @param vertices the locked entries about to change
+     */
+    private static void begin(Collection<? extends Vertex<?, ?>> vertices) {
+        for (Vertex<?, ?> vertex : vertices) {
+            vertex.seq++;
+        }
+    }
+
+    /**
+     * Publish the changes to the given entries started by begin().
+     *
+     * @param vertices the entries that changed
+     */
+    private static void end(Collection<? extends Vertex<?, ?>> vertices) {
+        for (Vertex<?, ?> vertex : vertices) {
+            vertex.seq++;
+        }
+    }
+
+    /**
+     * Return a new immutable list holding edges followed by edge.
+     *
+     * @param edges the current list
+     * @param edge the edge to append
+     * @return the new list
+     */
+    private static <T, E> List<Edge<T, E>> with(List<Edge<T, E>> edges, Edge<T, E> edge) {
+        List<Edge<T, E>> copy = new ArrayList<>(edges.size() + 1);
+        copy.addAll(edges);
+        copy.add(edge);
+        return Collections.unmodifiableList(copy);
+    }
+
+    /**
+     * Return a new immutable list holding edges without edge.
+     *
+     * @param edges the current list
+     * @param edge the edge to remove
+     * @return the new list
+     */
+    private static <T, E> List<Edge<T, E>> without(List<Edge<T, E>> edges, Edge<T, E> edge) {
+        List<Edge<T, E>> copy = new ArrayList<>(edges);
+        copy.remove(edge);
+        return Collections.unmodifiableList(copy);
+    }
+
+    /**
+     * Check if rep invariant holds.
+     *
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkRep() {
+        if (graph == null || locks == null) {
+            throw new RuntimeException("The graph can't be null");
+        }
+    }
+
+    /**
+     * The interned node for one value together with its outgoing and incoming edges. The edge
+     * lists are immutable and replaced whole under the entry's stripe lock, and seq is odd while
+     * a writer is replacing them.
+     */
+    private static class Vertex<T, E> {
+        private final Node<T> node;
+        private volatile List<Edge<T, E>> out;
+        private volatile List<Edge<T, E>> in;
+        private volatile long seq;
+        private volatile boolean removed;
+
+        private Vertex(Node<T> node) {
+            this.node = node;
+            this.out = Collections.emptyList();
+            this.in = Collections.emptyList();
+        }
+    }
+}
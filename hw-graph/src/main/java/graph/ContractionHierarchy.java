@@ -0,0 +1,934 @@
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A contraction hierarchy over an {@link IndexedGraph}, answering shortest path queries by two
+ * small searches instead of one that grows over the whole graph.
+ *
+ * <p>Preprocessing contracts the nodes one at a time, least important first. Contracting v removes
+ * it from the remaining graph, and for every pair of remaining neighbours u and w whose shortest
+ * path runs through v it adds a shortcut arc from u to w with the cost of that path. A bounded
+ * witness search from u looks for another path to w that is no longer; if one exists, no shortcut
+ * is needed. Importance is the edge difference: the shortcuts contracting a node would add, minus
+ * the arcs it would remove, plus the number of its neighbours already contracted. Each round
+ * contracts every remaining node whose importance is smaller than all its remaining neighbours',
+ * which no two neighbours can both be, so the round's witness searches and the importance updates
+ * after it run in parallel. Witness searches in a round avoid all the round's nodes, so the result
+ * doesn't depend on how many threads ran them.
+ *
+ * <p>A query searches forward from the source over arcs to nodes contracted later, and backward
+ * from the target over arcs from nodes contracted later. Both searches climb the hierarchy, and
+ * every shortest path has a highest node where they meet. Shortcuts on the path found are then
+ * unpacked, so routes are reported as edge indices of the original graph.
+ *
+ * <p>Hierarchies are built by build() and saved and loaded with write() and read(). The file is
+ * big-endian:
+ * <pre>
+ *   header     7 ints: MAGIC, FORMAT, N, E, A, U, D, then a long: the graph fingerprint, then 0
+ *   arcs       A ints each: from, to, original edge (or -1), first half, second half (or -1),
+ *              then A doubles: the weight of each arc
+ *   up         N + 1 offsets, then U arc ids, the arcs from each node to later ones
+ *   down       N + 1 offsets, then D arc ids, the arcs into each node from later ones
+ * </pre>
+ * The fingerprint is a hash of the graph's edges and weights. Arcs name original edges by
+ * index, so a file saved for an older version of the graph is refused even when its node and
+ * edge counts haven't changed, rather than unpacking routes into the wrong edges.
+ */
+public final class ContractionHierarchy {
+
+    // AF(this) = a hierarchy over a graph with nodeCount nodes, edgeCount edges and fingerprint
+    // fingerprint, where arc a
+    // goes from arcFrom[a] to arcTo[a] with weight arcWeight[a] and is the original edge
+    // arcEdge[a], or if that is -1, the shortcut made of arcs arcFirst[a] then arcSecond[a].
+    // The arcs from node v to nodes contracted after it are upArcs[upOffsets[v]..upOffsets[v+1])
+    // and the arcs into v from nodes contracted after it are downArcs[downOffsets[v]..downOffsets[v+1]).
+    //
+    // Rep invariant: all arrays != null, the arc arrays have the same length, every arc joins
+    // nodes in [0, nodeCount), every arcEdge is -1 or in [0, edgeCount), every shortcut's
+    // halves come before it and join at a node, the offsets are non-decreasing and end at the
+    // length of their arc lists, every id in upArcs and downArcs is an arc, and every arc in
+    // upArcs starts at its node and every arc in downArcs ends at its node.
+
+    /** The first int of every hierarchy file. */
+    public static final int MAGIC = 0x43434847;
+
+    /** The layout version this class reads and writes. */
+    public static final int FORMAT = 2;
+
+    /** The algorithm name route reports its counters under. */
+    public static final String CONTRACTION_HIERARCHY = "CONTRACTION_HIERARCHY";
+
+    private static final int HEADER_BYTES = 40;
+
+    /** The most nodes a witness search settles before giving up and keeping the shortcut. */
+    private static final int WITNESS_LIMIT = 500;
+
+    private final int nodeCount;
+    private final int edgeCount;
+    private final long fingerprint;
+    private final int[] arcFrom;
+    private final int[] arcTo;
+    private final int[] arcEdge;
+    private final int[] arcFirst;
+    private final int[] arcSecond;
+    private final double[] arcWeight;
+    private final int[] upOffsets;
+    private final int[] upArcs;
+    private final int[] downOffsets;
+    private final int[] downArcs;
+
+    /**
+     * Constructor wraps already built arrays, which are owned by the new hierarchy.
+     *
+     * @spec.requires the arrays satisfy the rep invariant
+     */
+    private ContractionHierarchy(int nodeCount, int edgeCount, long fingerprint, int[] arcFrom, int[] arcTo,
+                                 int[] arcEdge, int[] arcFirst, int[] arcSecond, double[] arcWeight,
+                                 int[] upOffsets, int[] upArcs, int[] downOffsets, int[] downArcs) {
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.fingerprint = fingerprint;
+        this.arcFrom = arcFrom;
+        this.arcTo = arcTo;
+        this.arcEdge = arcEdge;
+        this.arcFirst = arcFirst;
+        this.arcSecond = arcSecond;
+        this.arcWeight = arcWeight;
+        this.upOffsets = upOffsets;
+        this.upArcs = upArcs;
+        this.downOffsets = downOffsets;
+        this.downArcs = downArcs;
+        checkRep();
+    }
+
+    /**
+     * Build a hierarchy over the given graph using every available processor.
+     *
+     * @param graph the graph to build the hierarchy over
+     * @return the hierarchy of graph
+     * @throws RuntimeException if graph is null.
+     * @spec.requires every edge weight of graph is non-negative
+     */
+    public static ContractionHierarchy build(IndexedGraph<?, ?> graph) {
+        return build(graph, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Build a hierarchy over the given graph, running witness searches on the given number of
+     * threads. The hierarchy is the same for any number of threads.
+     *
+     * @param graph the graph to build the hierarchy over
+     * @param parallelism the number of threads to use
+     * @return the hierarchy of graph
+     * @throws RuntimeException if graph is null or parallelism is less than 1.
+     * @spec.requires every edge weight of graph is non-negative
+     */
+    public static ContractionHierarchy build(IndexedGraph<?, ?> graph, int parallelism) {
+        if (graph == null || parallelism < 1) {
+            throw new RuntimeException("The graph can't be null and parallelism must be positive");
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return new Builder(graph, pool).build();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Load a hierarchy saved by write() for the given graph.
+     *
+     * @param graph the graph the hierarchy was built over
+     * @param file the file written by write()
+     * @return the hierarchy held in the file
+     * @throws UncheckedIOException if the file can't be read.
+     * @throws RuntimeException if an argument is null, the file doesn't hold a hierarchy of this
+     * format or is corrupt, or it was built for a graph with different edges or weights.
+     */
+    public static ContractionHierarchy read(IndexedGraph<?, ?> graph, Path file) {
+        if (graph == null || file == null) {
+            throw new RuntimeException("Parameters can't be null");
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            long size = Files.size(file);
+            if (size < HEADER_BYTES || in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                throw new RuntimeException("Not a hierarchy file of format " + FORMAT);
+            }
+            int n = in.readInt();
+            int m = in.readInt();
+            int a = in.readInt();
+            int u = in.readInt();
+            int d = in.readInt();
+            long fingerprint = in.readLong();
+            in.readInt();
+            if (n != graph.nodeCount() || m != graph.edgeCount() || fingerprint != GraphFiles.fingerprint(graph)) {
+                throw new RuntimeException("The hierarchy file was built for a different graph");
+            }
+            if (a < 0 || u < 0 || d < 0 || size != HEADER_BYTES + 28L * a + 4L * (2L * n + 2 + u + d)) {
+                throw new RuntimeException("The hierarchy file is truncated or corrupt");
+            }
+            int[] arcFrom = readInts(in, a);
+            int[] arcTo = readInts(in, a);
+            int[] arcEdge = readInts(in, a);
+            int[] arcFirst = readInts(in, a);
+            int[] arcSecond = readInts(in, a);
+            double[] arcWeight = new double[a];
+            for (int i = 0; i < a; i++) {
+                arcWeight[i] = in.readDouble();
+            }
+            int[] upOffsets = readInts(in, n + 1);
+            int[] upArcs = readInts(in, u);
+            int[] downOffsets = readInts(in, n + 1);
+            int[] downArcs = readInts(in, d);
+            return new ContractionHierarchy(n, m, fingerprint, arcFrom, arcTo, arcEdge, arcFirst, arcSecond,
+                    arcWeight, upOffsets, upArcs, downOffsets, downArcs);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read hierarchy file " + file, e);
+        }
+    }
+
+    /**
+     * @param in the stream to read from
+     * @param count the number of ints to read
+     * @return the ints read
+     * @throws IOException if the stream can't be read.
+     */
+    private static int[] readInts(DataInputStream in, int count) throws IOException {
+        int[] ints = new int[count];
+        for (int i = 0; i < count; i++) {
+            ints[i] = in.readInt();
+        }
+        return ints;
+    }
+
+    /**
+     * @param out the stream to write to
+     * @param ints the ints to write
+     * @throws IOException if the stream can't be written.
+     */
+    private static void writeInts(DataOutputStream out, int[] ints) throws IOException {
+        for (int i : ints) {
+            out.writeInt(i);
+        }
+    }
+
+    /**
+     * Check whether the given file holds a hierarchy that read() would accept for the given graph,
+     * by its header alone, so a caller can rebuild the hierarchy instead of failing when the
+     * graph has changed since it was saved.
+     *
+     * @param graph the graph the hierarchy is wanted for
+     * @param file the file that may hold a hierarchy written by write()
+     * @return true if file exists and its header is of this format and matches graph's
+     * fingerprint, false otherwise.
+     * @throws UncheckedIOException if the file exists but can't be read.
+     * @throws RuntimeException if an argument is null.
+     */
+    public static boolean matches(IndexedGraph<?, ?> graph, Path file) {
+        if (graph == null || file == null) {
+            throw new RuntimeException("Parameters can't be null");
+        }
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (Files.size(file) < HEADER_BYTES || in.readInt() != MAGIC || in.readInt() != FORMAT
+                    || in.readInt() != graph.nodeCount() || in.readInt() != graph.edgeCount()) {
+                return false;
+            }
+            in.skipBytes(12);
+            return in.readLong() == GraphFiles.fingerprint(graph);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read hierarchy file " + file, e);
+        }
+    }
+
+    /**
+     * Save this hierarchy to a file in the layout above. Like MappedGraph.write(), the file is
+     * written beside its final name and moved into place.
+     *
+     * @param file the file to create or replace
+     * @throws UncheckedIOException if the file can't be written.
+     * @throws RuntimeException if file is null.
+     */
+    public void write(Path file) {
+        if (file == null) {
+            throw new RuntimeException("The file can't be null");
+        }
+        Path temp = null;
+        try {
+            temp = GraphFiles.tempFile(file);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeInt(nodeCount);
+                out.writeInt(edgeCount);
+                out.writeInt(arcTo.length);
+                out.writeInt(upArcs.length);
+                out.writeInt(downArcs.length);
+                out.writeLong(fingerprint);
+                out.writeInt(0);
+                writeInts(out, arcFrom);
+                writeInts(out, arcTo);
+                writeInts(out, arcEdge);
+                writeInts(out, arcFirst);
+                writeInts(out, arcSecond);
+                for (double weight : arcWeight) {
+                    out.writeDouble(weight);
+                }
+                writeInts(out, upOffsets);
+                writeInts(out, upArcs);
+                writeInts(out, downOffsets);
+                writeInts(out, downArcs);
+            }
+            GraphFiles.replace(temp, file);
+        } catch (IOException e) {
+            GraphFiles.discard(temp);
+            throw new UncheckedIOException("Can't write hierarchy file " + file, e);
+        }
+    }
+
+    /**
+     * Return the number of shortcut arcs preprocessing added to the graph.
+     *
+     * @return the number of shortcuts
+     */
+    public int shortcutCount() {
+        int count = 0;
+        for (int edge : arcEdge) {
+            if (edge < 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Find a shortest path between two nodes of the graph the hierarchy was built over. Queries
+     * keep no state in the hierarchy, so any number of threads can run them at once.
+     *
+     * @param source the id of the node to start at
+     * @param target the id of the node to end at
+     * @return the original edge indices along a shortest path from source to target in order,
+     * an empty array if source == target, or null if target can't be reached from source.
+     * @throws RuntimeException if source or target is not a node id of the graph.
+     */
+    public int[] route(int source, int target) {
+        return route(source, target, SearchStatistics.NONE);
+    }
+
+    /**
+     * Find a shortest path like {@link #route(int, int)}, reporting the counters of the query to
+     * the given statistics as CONTRACTION_HIERARCHY. The forward and backward searches count
+     * toward the same totals, and the queue peak is that of both queues together.
+     *
+     * @param source the id of the node to start at
+     * @param target the id of the node to end at
+     * @param statistics where to report the query's counters
+     * @return the original edge indices along a shortest path from source to target in order,
+     * an empty array if source == target, or null if target can't be reached from source.
+     * @throws RuntimeException if statistics is null or source or target is not a node id of
+     * the graph.
+     */
+    public int[] route(int source, int target, SearchStatistics statistics) {
+        if (source < 0 || source >= nodeCount || target < 0 || target >= nodeCount) {
+            throw new RuntimeException("The node source or target or both are not in the graph");
+        }
+        if (statistics == null) {
+            throw new RuntimeException("The statistics can't be null");
+        }
+        long begin = System.nanoTime();
+        if (source == target) {
+            statistics.record(CONTRACTION_HIERARCHY, 0, 0, 0, 0, System.nanoTime() - begin);
+            return new int[0];
+        }
+        double[] distFrom = new double[nodeCount];
+        double[] distTo = new double[nodeCount];
+        int[] arcIn = new int[nodeCount];
+        int[] arcOut = new int[nodeCount];
+        Arrays.fill(distFrom, Double.POSITIVE_INFINITY);
+        Arrays.fill(distTo, Double.POSITIVE_INFINITY);
+        distFrom[source] = 0;
+        distTo[target] = 0;
+        arcIn[source] = -1;
+        arcOut[target] = -1;
+        PriorityQueue<Active> forward = new PriorityQueue<>();
+        PriorityQueue<Active> backward = new PriorityQueue<>();
+        forward.add(new Active(source, 0));
+        backward.add(new Active(target, 0));
+        double best = Double.POSITIVE_INFINITY;
+        int meet = -1;
+        long settled = 0;
+        long relaxed = 0;
+        long pushes = 2;
+        int peak = 2;
+
+        while (!forward.isEmpty() || !backward.isEmpty()) {
+            boolean isForward = backward.isEmpty()
+                    || (!forward.isEmpty() && forward.peek().cost <= backward.peek().cost);
+            PriorityQueue<Active> active = isForward ? forward : backward;
+            Active min = active.remove();
+            if (min.cost >= best) {
+                // Both frontiers are at least as far as the best path found.
+                break;
+            }
+            double[] dist = isForward ? distFrom : distTo;
+            if (min.cost > dist[min.node]) {
+                continue;
+            }
+            settled++;
+            double through = distFrom[min.node] + distTo[min.node];
+            if (through < best) {
+                best = through;
+                meet = min.node;
+            }
+            if (isForward) {
+                for (int i = upOffsets[min.node]; i < upOffsets[min.node + 1]; i++) {
+                    int arc = upArcs[i];
+                    double cost = min.cost + arcWeight[arc];
+                    relaxed++;
+                    if (cost < distFrom[arcTo[arc]]) {
+                        distFrom[arcTo[arc]] = cost;
+                        arcIn[arcTo[arc]] = arc;
+                        forward.add(new Active(arcTo[arc], cost));
+                        pushes++;
+                    }
+                }
+            } else {
+                for (int i = downOffsets[min.node]; i < downOffsets[min.node + 1]; i++) {
+                    int arc = downArcs[i];
+                    double cost = min.cost + arcWeight[arc];
+                    relaxed++;
+                    if (cost < distTo[arcFrom[arc]]) {
+                        distTo[arcFrom[arc]] = cost;
+                        arcOut[arcFrom[arc]] = arc;
+                        backward.add(new Active(arcFrom[arc], cost));
+                        pushes++;
+                    }
+                }
+            }
+            peak = Math.max(peak, forward.size() + backward.size());
+        }
+        statistics.record(CONTRACTION_HIERARCHY, settled, relaxed, pushes, peak, System.nanoTime() - begin);
+        if (meet < 0) {
+            return null;
+        }
+
+        List<Integer> arcs = new ArrayList<>();
+        for (int v = meet; v != source; v = arcFrom[arcIn[v]]) {
+            arcs.add(arcIn[v]);
+        }
+        Collections.reverse(arcs);
+        for (int v = meet; v != target; v = arcTo[arcOut[v]]) {
+            arcs.add(arcOut[v]);
+        }
+        List<Integer> edges = new ArrayList<>();
+        int[] stack = new int[arcTo.length + 1];
+        for (int arc : arcs) {
+            // Unpack each shortcut into its halves, first half first.
+            int top = 0;
+            stack[top++] = arc;
+            while (top > 0) {
+                int a = stack[--top];
+                if (arcEdge[a] >= 0) {
+                    edges.add(arcEdge[a]);
+                } else {
+                    stack[top++] = arcSecond[a];
+                    stack[top++] = arcFirst[a];
+                }
+            }
+        }
+        int[] route = new int[edges.size()];
+        for (int i = 0; i < route.length; i++) {
+            route[i] = edges.get(i);
+        }
+        return route;
+    }
+
+    /**
+     * Check if rep invariant holds.
+     *
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkRep() {
+        int arcs = arcTo.length;
+        if (arcFrom.length != arcs || arcEdge.length != arcs || arcFirst.length != arcs
+                || arcSecond.length != arcs || arcWeight.length != arcs) {
+            throw new RuntimeException("The arc arrays don't match");
+        }
+        for (int a = 0; a < arcs; a++) {
+            if (arcFrom[a] < 0 || arcFrom[a] >= nodeCount || arcTo[a] < 0 || arcTo[a] >= nodeCount
+                    || arcEdge[a] < -1 || arcEdge[a] >= edgeCount) {
+                throw new RuntimeException("An arc must join two nodes and name an edge of the graph");
+            }
+            if (arcEdge[a] < 0 && (arcFirst[a] < 0 || arcFirst[a] >= a || arcSecond[a] < 0 || arcSecond[a] >= a
+                    || arcTo[arcFirst[a]] != arcFrom[arcSecond[a]])) {
+                throw new RuntimeException("A shortcut must join two earlier arcs");
+            }
+        }
+        if (upOffsets.length != nodeCount + 1 || downOffsets.length != nodeCount + 1
+                || upOffsets[nodeCount] != upArcs.length || downOffsets[nodeCount] != downArcs.length) {
+            throw new RuntimeException("Offsets don't match the arc lists");
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            if (upOffsets[v] < 0 || upOffsets[v] > upOffsets[v + 1]
+                    || downOffsets[v] < 0 || downOffsets[v] > downOffsets[v + 1]) {
+                throw new RuntimeException("Offsets must be non-decreasing");
+            }
+        }
+        for (int arc : upArcs) {
+            if (arc < 0 || arc >= arcs) {
+                throw new RuntimeException("An upward arc must be an arc");
+            }
+        }
+        for (int arc : downArcs) {
+            if (arc < 0 || arc >= arcs) {
+                throw new RuntimeException("A downward arc must be an arc");
+            }
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            for (int i = upOffsets[v]; i < upOffsets[v + 1]; i++) {
+                if (arcFrom[upArcs[i]] != v) {
+                    throw new RuntimeException("An upward arc must start at its node");
+                }
+            }
+            for (int i = downOffsets[v]; i < downOffsets[v + 1]; i++) {
+                if (arcTo[downArcs[i]] != v) {
+                    throw new RuntimeException("A downward arc must end at its node");
+                }
+            }
+        }
+    }
+
+    /**
+     * The mutable state of one preprocessing run. Arcs and adjacency lists are only changed
+     * between parallel phases, by the thread driving the build.
+     */
+    private static final class Builder {
+        private static final int LIVE = 0;
+        private static final int CONTRACTING = 1;
+        private static final int CONTRACTED = 2;
+
+        private final IndexedGraph<?, ?> graph;
+        private final ForkJoinPool pool;
+        private final int n;
+
+        private int arcs;
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private int[] edge = new int[16];
+        private int[] first = new int[16];
+        private int[] second = new int[16];
+        private double[] weight = new double[16];
+
+        // The arcs between remaining nodes, out of and into each node.
+        private final int[][] out;
+        private final int[] outSize;
+        private final int[][] in;
+        private final int[] inSize;
+
+        private final int[] state;
+        private final int[] priority;
+        private final int[] contractedNeighbours;
+        private final int[][] up;
+        private final int[][] down;
+        private final ThreadLocal<Witness> witness;
+
+        /**
+         * Constructor copy the edges of the graph as the first arcs.
+         *
+         * @param graph the graph to build the hierarchy over
+         * @param pool the pool to run parallel phases in
+         */
+        private Builder(IndexedGraph<?, ?> graph, ForkJoinPool pool) {
+            this.graph = graph;
+            this.pool = pool;
+            this.n = graph.nodeCount();
+            out = new int[n][];
+            in = new int[n][];
+            outSize = new int[n];
+            inSize = new int[n];
+            for (int v = 0; v < n; v++) {
+                out[v] = new int[4];
+                in[v] = new int[4];
+            }
+            state = new int[n];
+            priority = new int[n];
+            contractedNeighbours = new int[n];
+            up = new int[n][];
+            down = new int[n][];
+            witness = ThreadLocal.withInitial(Witness::new);
+            for (int v = 0; v < n; v++) {
+                for (int e = graph.firstEdge(v); e < graph.lastEdge(v); e++) {
+                    if (graph.target(e) != v) {
+                        addArc(v, graph.target(e), graph.weight(e), e, -1, -1);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Contract every node, round by round, and lay out the result.
+         *
+         * @return the finished hierarchy
+         */
+        private ContractionHierarchy build() {
+            pool.submit(() -> IntStream.range(0, n).parallel().forEach(v -> priority[v] = priority(v))).join();
+            int remaining = n;
+            while (remaining > 0) {
+                int[] round = IntStream.range(0, n).filter(this::isLocalMinimum).toArray();
+                for (int v : round) {
+                    state[v] = CONTRACTING;
+                }
+                Shortcut[][] found = new Shortcut[round.length][];
+                pool.submit(() -> IntStream.range(0, round.length).parallel()
+                        .forEach(i -> found[i] = shortcuts(round[i]))).join();
+                boolean[] touched = new boolean[n];
+                for (int i = 0; i < round.length; i++) {
+                    contract(round[i], found[i], touched);
+                }
+                remaining -= round.length;
+                int[] update = IntStream.range(0, n).filter(v -> touched[v] && state[v] == LIVE).toArray();
+                pool.submit(() -> Arrays.stream(update).parallel().forEach(v -> priority[v] = priority(v))).join();
+            }
+
+            int[] upOffsets = new int[n + 1];
+            int[] downOffsets = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                upOffsets[v + 1] = upOffsets[v] + up[v].length;
+                downOffsets[v + 1] = downOffsets[v] + down[v].length;
+            }
+            int[] upArcs = new int[upOffsets[n]];
+            int[] downArcs = new int[downOffsets[n]];
+            for (int v = 0; v < n; v++) {
+                System.arraycopy(up[v], 0, upArcs, upOffsets[v], up[v].length);
+                System.arraycopy(down[v], 0, downArcs, downOffsets[v], down[v].length);
+            }
+            return new ContractionHierarchy(n, graph.edgeCount(), GraphFiles.fingerprint(graph),
+                    Arrays.copyOf(from, arcs), Arrays.copyOf(to, arcs),
+                    Arrays.copyOf(edge, arcs), Arrays.copyOf(first, arcs), Arrays.copyOf(second, arcs),
+                    Arrays.copyOf(weight, arcs), upOffsets, upArcs, downOffsets, downArcs);
+        }
+
+        /**
+         * @param v a node id
+         * @return true if v is remaining and less important than all its remaining neighbours,
+         * ties going to the smaller id.
+         */
+        private boolean isLocalMinimum(int v) {
+            if (state[v] != LIVE) {
+                return false;
+            }
+            for (int i = 0; i < outSize[v]; i++) {
+                if (!beats(v, to[out[v][i]])) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < inSize[v]; i++) {
+                if (!beats(v, from[in[v][i]])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @param v a remaining node id
+         * @param x a neighbour of v
+         * @return true if x doesn't stop v from being contracted before it.
+         */
+        private boolean beats(int v, int x) {
+            return x == v || state[x] != LIVE || priority[v] < priority[x] || (priority[v] == priority[x] && v < x);
+        }
+
+        /**
+         * @param v a remaining node id
+         * @return the edge difference of v, plus the number of its contracted neighbours.
+         */
+        private int priority(int v) {
+            int removed = 0;
+            for (int i = 0; i < outSize[v]; i++) {
+                removed += state[to[out[v][i]]] == LIVE ? 1 : 0;
+            }
+            for (int i = 0; i < inSize[v]; i++) {
+                removed += state[from[in[v][i]]] == LIVE ? 1 : 0;
+            }
+            return shortcuts(v).length - removed + contractedNeighbours[v];
+        }
+
+        /**
+         * Find the shortcuts contracting v would need: for each remaining u with an arc into v
+         * and w with an arc out of v, one from u to w unless a witness search from u that avoids
+         * v and every node not remaining finds a path to w no longer than through v.
+         *
+         * @param v a node id that is remaining or being contracted
+         * @return the shortcuts needed, in order of u then w
+         */
+        private Shortcut[] shortcuts(int v) {
+            Witness search = witness.get();
+            int[] ins = search.cheapest(in[v], inSize[v], v, false);
+            int[] outs = search.cheapest(out[v], outSize[v], v, true);
+            double farthest = 0;
+            for (int b : outs) {
+                farthest = Math.max(farthest, weight[b]);
+            }
+            List<Shortcut> result = new ArrayList<>();
+            for (int a : ins) {
+                int u = from[a];
+                search.run(u, v, weight[a] + farthest);
+                for (int b : outs) {
+                    double cost = weight[a] + weight[b];
+                    if (to[b] != u && search.distance(to[b]) > cost) {
+                        result.add(new Shortcut(a, b, cost));
+                    }
+                }
+                search.reset();
+            }
+            return result.toArray(new Shortcut[0]);
+        }
+
+        /**
+         * Remove v from the remaining graph, add its shortcuts, and record its arcs to and from
+         * the remaining nodes, all of which are contracted later.
+         *
+         * @param v the node being contracted
+         * @param shortcuts the shortcuts v needs
+         * @param touched marks the remaining neighbours of v, whose priority changes
+         */
+        private void contract(int v, Shortcut[] shortcuts, boolean[] touched) {
+            up[v] = liveArcs(out[v], outSize[v], true);
+            down[v] = liveArcs(in[v], inSize[v], false);
+            for (Shortcut shortcut : shortcuts) {
+                addShortcut(shortcut);
+            }
+            state[v] = CONTRACTED;
+            for (int arc : up[v]) {
+                int w = to[arc];
+                touched[w] = true;
+                contractedNeighbours[w]++;
+                inSize[w] = removeArcs(in[w], inSize[w], v, false);
+            }
+            for (int arc : down[v]) {
+                int u = from[arc];
+                touched[u] = true;
+                contractedNeighbours[u]++;
+                outSize[u] = removeArcs(out[u], outSize[u], v, true);
+            }
+            out[v] = null;
+            in[v] = null;
+        }
+
+        /**
+         * @return the arcs in list[0..size) whose other end is remaining.
+         */
+        private int[] liveArcs(int[] list, int size, boolean outgoing) {
+            return Arrays.stream(list, 0, size).filter(a -> state[outgoing ? to[a] : from[a]] == LIVE).toArray();
+        }
+
+        /**
+         * Remove from list[0..size) every arc whose other end is v, keeping the order of the rest.
+         *
+         * @return the new size of the list
+         */
+        private int removeArcs(int[] list, int size, int v, boolean outgoing) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if ((outgoing ? to[list[i]] : from[list[i]]) != v) {
+                    list[kept++] = list[i];
+                }
+            }
+            return kept;
+        }
+
+        /**
+         * Add a shortcut unless the remaining graph already has an arc between its ends that is
+         * no longer, replacing a longer one.
+         *
+         * @param shortcut the shortcut to add
+         */
+        private void addShortcut(Shortcut shortcut) {
+            int u = from[shortcut.first];
+            int w = to[shortcut.second];
+            for (int i = 0; i < outSize[u]; i++) {
+                int arc = out[u][i];
+                if (to[arc] == w && weight[arc] <= shortcut.weight) {
+                    return;
+                }
+            }
+            outSize[u] = removeArcs(out[u], outSize[u], w, true);
+            inSize[w] = removeArcs(in[w], inSize[w], u, false);
+            addArc(u, w, shortcut.weight, -1, shortcut.first, shortcut.second);
+        }
+
+        /**
+         * Append an arc to the arc table and the adjacency lists of its ends.
+         */
+        private void addArc(int u, int w, double cost, int original, int firstHalf, int secondHalf) {
+            if (arcs == to.length) {
+                int size = arcs * 2;
+                from = Arrays.copyOf(from, size);
+                to = Arrays.copyOf(to, size);
+                edge = Arrays.copyOf(edge, size);
+                first = Arrays.copyOf(first, size);
+                second = Arrays.copyOf(second, size);
+                weight = Arrays.copyOf(weight, size);
+            }
+            from[arcs] = u;
+            to[arcs] = w;
+            edge[arcs] = original;
+            first[arcs] = firstHalf;
+            second[arcs] = secondHalf;
+            weight[arcs] = cost;
+            if (outSize[u] == out[u].length) {
+                out[u] = Arrays.copyOf(out[u], outSize[u] * 2);
+            }
+            out[u][outSize[u]++] = arcs;
+            if (inSize[w] == in[w].length) {
+                in[w] = Arrays.copyOf(in[w], inSize[w] * 2);
+            }
+            in[w][inSize[w]++] = arcs;
+            arcs++;
+        }
+
+        /**
+         * The scratch space of one thread's witness searches, reset after every search in time
+         * proportional to the nodes it reached.
+         */
+        private final class Witness {
+            private final double[] dist = new double[n];
+            private final int[] best = new int[n];
+            private final int[] reached = new int[n];
+            private int reachedCount;
+            private final PriorityQueue<Active> active = new PriorityQueue<>();
+
+            private Witness() {
+                Arrays.fill(dist, Double.POSITIVE_INFINITY);
+                Arrays.fill(best, -1);
+            }
+
+            /**
+             * For each remaining node at the other end of an arc in list[0..size), other than v,
+             * pick the cheapest such arc, the first listed among equals.
+             *
+             * @return the picked arcs, in order of first appearance
+             */
+            private int[] cheapest(int[] list, int size, int v, boolean outgoing) {
+                int[] picked = new int[size];
+                int count = 0;
+                for (int i = 0; i < size; i++) {
+                    int arc = list[i];
+                    int x = outgoing ? to[arc] : from[arc];
+                    if (x == v || state[x] != LIVE) {
+                        continue;
+                    }
+                    if (best[x] < 0) {
+                        best[x] = count;
+                        picked[count++] = arc;
+                    } else if (weight[arc] < weight[picked[best[x]]]) {
+                        picked[best[x]] = arc;
+                    }
+                }
+                for (int i = 0; i < count; i++) {
+                    best[outgoing ? to[picked[i]] : from[picked[i]]] = -1;
+                }
+                return Arrays.copyOf(picked, count);
+            }
+
+            /**
+             * Search from source over remaining nodes other than skip, until every node within
+             * limit is settled or WITNESS_LIMIT nodes are.
+             */
+            private void run(int source, int skip, double limit) {
+                visit(source, 0);
+                active.add(new Active(source, 0));
+                int settled = 0;
+                while (!active.isEmpty() && settled < WITNESS_LIMIT) {
+                    Active min = active.remove();
+                    if (min.cost > limit) {
+                        break;
+                    }
+                    if (min.cost > dist[min.node]) {
+                        continue;
+                    }
+                    settled++;
+                    for (int i = 0; i < outSize[min.node]; i++) {
+                        int arc = out[min.node][i];
+                        int child = to[arc];
+                        double cost = min.cost + weight[arc];
+                        if (child != skip && state[child] == LIVE && cost < dist[child]) {
+                            visit(child, cost);
+                            active.add(new Active(child, cost));
+                        }
+                    }
+                }
+            }
+
+            private void visit(int node, double cost) {
+                if (dist[node] == Double.POSITIVE_INFINITY) {
+                    reached[reachedCount++] = node;
+                }
+                dist[node] = cost;
+            }
+
+            private double distance(int node) {
+                return dist[node];
+            }
+
+            private void reset() {
+                for (int i = 0; i < reachedCount; i++) {
+                    dist[reached[i]] = Double.POSITIVE_INFINITY;
+                }
+                reachedCount = 0;
+                active.clear();
+            }
+        }
+    }
+
+    /**
+     * A shortcut around a node: the arc into it, the arc out of it and their total weight.
+     */
+    private static final class Shortcut {
+        private final int first;
+        private final int second;
+        private final double weight;
+
+        private Shortcut(int first, int second, double weight) {
+            this.first = first;
+            this.second = second;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * A node waiting in an active queue, with the distance it was queued at.
+     */
+    private static final class Active implements Comparable<Active> {
+        private final int node;
+        private final double cost;
+
+        private Active(int node, double cost) {
+            this.node = node;
+            this.cost = cost;
+        }
+
+        @Override
+        public int compareTo(Active other) {
+            return Double.compare(cost, other.cost);
+        }
+    }
+}
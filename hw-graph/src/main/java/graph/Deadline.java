@@ -0,0 +1,97 @@
+package graph;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time after which a search should give up, which can also be cancelled early from
+ * another thread. Searches poll it every {@link #CHECK_INTERVAL} settled nodes rather than every
+ * step, so the check costs next to nothing and a search overruns its deadline by at most that
+ * many nodes of work.
+ */
+public final class Deadline {
+
+    // AF(this) = a deadline that has passed once System.nanoTime() - expiresAt >= 0 if bounded,
+    // or once cancelled is true.
+    //
+    // Rep invariant: true; any expiresAt is valid, and it is ignored unless bounded.
+
+    /** The number of nodes a search settles between checks of its deadline. */
+    public static final int CHECK_INTERVAL = 256;
+
+    private final boolean bounded;
+    private final long expiresAt;
+    private volatile boolean cancelled;
+
+    /**
+     * @param bounded whether the deadline passes at expiresAt
+     * @param expiresAt the System.nanoTime() at which the deadline passes
+     */
+    private Deadline(boolean bounded, long expiresAt) {
+        this.bounded = bounded;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Return a deadline the given time from now.
+     *
+     * @param timeout how long from now the deadline passes
+     * @param unit the unit of timeout
+     * @return a deadline that passes after timeout, or when cancelled
+     * @throws RuntimeException if unit is null or timeout is negative.
+     */
+    public static Deadline after(long timeout, TimeUnit unit) {
+        if (unit == null || timeout < 0) {
+            throw new RuntimeException("The unit can't be null and timeout can't be negative");
+        }
+        return new Deadline(true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Return a deadline with no time limit, which passes only when cancelled.
+     *
+     * @return a deadline that passes only when cancelled
+     */
+    public static Deadline none() {
+        return new Deadline(false, 0);
+    }
+
+    /**
+     * Make this deadline pass now, so every search polling it stops at its next check.
+     *
+     * @spec.modifies this
+     * @spec.effects this has passed.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Check whether this deadline has passed or been cancelled.
+     *
+     * @return true if a search polling this deadline should stop, false otherwise.
+     */
+    public boolean expired() {
+        return cancelled || (bounded && System.nanoTime() - expiresAt >= 0);
+    }
+
+    /**
+     * Return how long is left before this deadline passes.
+     *
+     * @param unit the unit to measure in
+     * @return the time left in unit, 0 if it has passed, or Long.MAX_VALUE if it has no time
+     * limit and hasn't been cancelled
+     * @throws RuntimeException if unit is null.
+     */
+    public long remaining(TimeUnit unit) {
+        if (unit == null) {
+            throw new RuntimeException("The unit can't be null");
+        }
+        if (cancelled) {
+            return 0;
+        }
+        if (!bounded) {
+            return Long.MAX_VALUE;
+        }
+        return unit.convert(Math.max(0, expiresAt - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+}
@@ -1,6 +1,10 @@
 package graph;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
 
 /**
  * An object that create a multi graph where edges are labeled and make connection between the nodes, and node is for
@@ -10,27 +14,70 @@ import java.util.*;
  * @param <T> A set of vertices
  * @param <E> A set of edges
  */
-public class Graph<T, E> {
+public class Graph<T, E> implements LabeledGraph<T, E> {
 
     // AF(this) = a directed graph with labeled edge is represented by
-    // a HashMap where key is the nodes in map and the value is a list
-    // of edges that pointing from this node to other nodes.
+    // a HashMap where key is the value stored in each node and the value
+    // is the interned node holding it, the insertion-ordered set of edges
+    // pointing from this node to other nodes, and the set of edges
+    // pointing to it.
     //
     // Rep invariant: the graph != null, the nodes in graph != null,
-    // each edge that connect between nodes != null.
+    // each edge that connect between nodes != null, graph.get(v).node
+    // holds v, and every edge in graph.get(a).out pointing to b is also
+    // in graph.get(b).in and vice versa.
 
-    private final HashMap<Node<T>, List<Edge<T, E>>> graph;
+    private final HashMap<T, Vertex<T, E>> graph;
+    private final Verification verification;
+    private int sinceFullCheck;
 
     /**
-     * Constructor create an empty graph.
+     * Constructor create an empty graph that verifies its rep invariant with the default policy.
+     * The default is INCREMENTAL unless the system property graph.verification names another
+     * Verification.
      *
      * @spec.effects create an empty graph where the graph will be added nodes and edges later.
      */
     public Graph() {
-        graph = new HashMap<>();
+        this(defaultVerification());
+    }
+
+    /**
+     * Constructor create an empty graph that verifies its rep invariant with the given policy.
+     *
+     * @param verification how much of the rep invariant to check on reads and mutations
+     * @throws RuntimeException if verification is null.
+     * @spec.effects create an empty graph where the graph will be added nodes and edges later.
+     */
+    public Graph(Verification verification) {
+        this(verification, 0);
+    }
+
+    /**
+     * Constructor create an empty graph with room for the given number of nodes.
+     *
+     * @param verification how much of the rep invariant to check on reads and mutations
+     * @param expectedNodes the number of nodes the graph is sized for
+     * @throws RuntimeException if verification is null.
+     */
+    private Graph(Verification verification, int expectedNodes) {
+        if (verification == null) {
+            throw new RuntimeException("Verification can't be null");
+        }
+        this.graph = new HashMap<>(capacityFor(expectedNodes));
+        this.verification = verification;
         checkRep();
     }
 
+    /**
+     * Return the policy this graph uses to verify its rep invariant.
+     *
+     * @return the verification policy of this graph
+     */
+    public Verification verification() {
+        return verification;
+    }
+
     /**
      * Return true if node doesn't exist in the graph and successfully add to the graph. Return false
      * if the node already in the graph and can't be added again.
@@ -40,9 +87,12 @@ public class Graph<T, E> {
      * @spec.requires node != null
      * @return return true if node is successfully be added, return false otherwise.
      */
+    @Override
     public boolean addNode(Node<T> node) {
-        if (!graph.containsKey(node) && node != null) {
-            graph.put(node, new ArrayList<>());
+        if (node != null && !graph.containsKey(node.getNode())) {
+            Vertex<T, E> vertex = new Vertex<>(node);
+            graph.put(node.getNode(), vertex);
+            checkMutated(vertex, vertex, null, false);
             return true;
         }
         return false;
@@ -57,19 +107,25 @@ public class Graph<T, E> {
      * @return return true if the node is removed successfully from the graph, return false otherwise
      * @spec.requires node != null
      */
+    @Override
     public boolean deleteNode(Node<T> node) {
-        if (node != null && graph.containsKey(node)) {
-            graph.remove(node);
-            for (Node<T> childNode : graph.keySet()) {
-                for (Edge<T, E> edge : graph.get(childNode)) {
-                    if (edge.getDes().equals(node)) {
-                        this.deleteEdge(childNode, node, edge.getLabel());
-                    }
-                }
+        Vertex<T, E> vertex = vertex(node);
+        if (vertex == null) {
+            return false;
+        }
+        graph.remove(node.getNode());
+        for (Edge<T, E> edge : vertex.out) {
+            if (edge.getDes() != vertex.node) {
+                graph.get(edge.getDes().getNode()).in.remove(edge);
             }
-            return true;
         }
-        return false;
+        for (Edge<T, E> edge : vertex.in) {
+            if (edge.getSource() != vertex.node) {
+                graph.get(edge.getSource().getNode()).out.remove(edge);
+            }
+        }
+        checkDeleted(vertex);
+        return true;
     }
 
     /**
@@ -85,16 +141,19 @@ public class Graph<T, E> {
      * graph is empty or there the duplicates edge will be added between nodes, return false.
      * @spec.requires start != null, labelNum != null, end != null.
      */
+    @Override
     public boolean addEdge(Node<T> start, Node<T> end, E labelNum) {
-        if (!graph.containsKey(start) || !graph.containsKey(end) || start == null || end == null || labelNum == null) {
+        Vertex<T, E> from = vertex(start);
+        Vertex<T, E> to = vertex(end);
+        if (from == null || to == null || labelNum == null) {
             return false;
         }
-        for (Edge<T, E> edge : graph.get(start)) {
-            if (edge.getDes() == end && edge.getLabel() == labelNum) {
-                return false;
-            }
+        Edge<T, E> edge = new Edge<>(from.node, to.node, labelNum);
+        if (!from.out.add(edge)) {
+            return false;
         }
-        graph.get(start).add(new Edge<>(start, end, labelNum));
+        to.in.add(edge);
+        checkMutated(from, to, edge, true);
         return true;
     }
 
@@ -108,17 +167,20 @@ public class Graph<T, E> {
      * @spec.requires start != null, labelNum != null, end != null.
      * @return return true if successfully remove the edge, return false otherwise.
      */
+    @Override
     public boolean deleteEdge(Node<T> start, Node<T> end, E labelNum) {
-        if (!graph.containsKey(start) || !graph.containsKey(end) || start == null || end == null || labelNum == null) {
+        Vertex<T, E> from = vertex(start);
+        Vertex<T, E> to = vertex(end);
+        if (from == null || to == null || labelNum == null) {
             return false;
         }
-        for (Edge<T, E> edge : graph.get(start)) {
-            if (edge.getDes() == end && edge.getLabel() == labelNum) {
-                graph.get(start).remove(new Edge<>(start, end, labelNum));
-                return true;
-            }
+        Edge<T, E> edge = new Edge<>(from.node, to.node, labelNum);
+        if (!from.out.remove(edge)) {
+            return false;
         }
-        return false;
+        to.in.remove(edge);
+        checkMutated(from, to, edge, false);
+        return true;
     }
 
     /**
@@ -127,12 +189,13 @@ public class Graph<T, E> {
      * @param node the given node
      * @return Return all the child nodes of the given node.
      */
+    @Override
     public List<Node<T>> getChild(Node<T> node) {
         if (node == null) {
             throw new RuntimeException("Node can't be null");
         }
         List<Node<T>> children = new ArrayList<>();
-        for (Edge<T, E> edge : graph.get(node)) {
+        for (Edge<T, E> edge : graph.get(node.getNode()).out) {
             children.add(edge.getDes());
         }
         return children;
@@ -145,42 +208,112 @@ public class Graph<T, E> {
      * @throws RuntimeException if the node is not in the graph.
      * @return a list of edges where all those edges are pointing out from the given node
      */
+    @Override
     public List<Edge<T, E>> getAllEdgesFrom(Node<T> node) {
-        checkRep();
-        if (!graph.containsKey(node)) {
+        checkRead();
+        if (!containsNode(node)) {
             throw new RuntimeException("The given node is not in the graph");
         }
-        return new ArrayList<>(graph.get(node));
+        return new ArrayList<>(graph.get(node.getNode()).out);
     }
 
     /**
-     * Get and return all the edges that pointing towards to the given node.
+     * Get and return all the edges that pointing towards to the given node, in the order
+     * they were added.
      *
      * @param node the given node
      * @throws RuntimeException if the node is null.
      * @return a list of edges where all those edges are pointing towards to the given node
      */
+    @Override
     public List<Edge<T, E>> getAllEdgesTo(Node<T> node) {
         if (node == null) {
             throw new RuntimeException("Node can't be null");
         }
-        List<Edge<T, E>> edges = new ArrayList<>();
-        for (Node<T> currNode : graph.keySet()) {
-            for (Edge<T, E> edge : graph.get(currNode)) {
-                if (edge.getDes().equals(node)) {
-                    edges.add(edge);
-                }
-            }
+        if (!containsNode(node)) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(graph.get(node.getNode()).in);
+    }
+
+    /**
+     * Get a read-only view of the edges pointing out from the node holding the given value,
+     * without wrapping the value in a node or copying the edges. The view reflects later
+     * changes to the graph.
+     *
+     * @param value the value stored in the given node
+     * @throws RuntimeException if no node holds the value.
+     * @return a read-only view of the edges pointing out from the node holding value
+     */
+    @Override
+    public Collection<Edge<T, E>> edgesFrom(T value) {
+        Vertex<T, E> vertex = graph.get(value);
+        if (vertex == null) {
+            throw new RuntimeException("The given node is not in the graph");
+        }
+        return vertex.outView;
+    }
+
+    /**
+     * Get a read-only view of the edges pointing towards the node holding the given value,
+     * without wrapping the value in a node or copying the edges. The view reflects later
+     * changes to the graph.
+     *
+     * @param value the value stored in the given node
+     * @throws RuntimeException if no node holds the value.
+     * @return a read-only view of the edges pointing towards the node holding value
+     */
+    @Override
+    public Collection<Edge<T, E>> edgesTo(T value) {
+        Vertex<T, E> vertex = graph.get(value);
+        if (vertex == null) {
+            throw new RuntimeException("The given node is not in the graph");
+        }
+        return vertex.inView;
+    }
+
+    /**
+     * Pass every edge pointing out from the node holding the given value to action, in the
+     * order they were added.
+     *
+     * @param value the value stored in the given node
+     * @param action the action to perform on each edge
+     * @throws RuntimeException if no node holds the value or action is null.
+     */
+    @Override
+    public void forEachEdge(T value, Consumer<? super Edge<T, E>> action) {
+        if (action == null) {
+            throw new RuntimeException("Action can't be null");
+        }
+        for (Edge<T, E> edge : edgesFrom(value)) {
+            action.accept(edge);
         }
-        return edges;
+    }
+
+    /**
+     * Return the node the graph stores for the given value, so callers that need a node can
+     * reuse it instead of creating a new one.
+     *
+     * @param value the value stored in the given node
+     * @return the node holding value, or null if no node holds it.
+     */
+    @Override
+    public Node<T> nodeOf(T value) {
+        Vertex<T, E> vertex = graph.get(value);
+        return vertex == null ? null : vertex.node;
     }
 
     /** Get and return all the nodes in the graph as list
      *
      * @return return all the nodes as list in the graph.
      */
+    @Override
     public List<Node<T>> allNodes() {
-        return new ArrayList<>(graph.keySet());
+        List<Node<T>> nodes = new ArrayList<>(graph.size());
+        for (Vertex<T, E> vertex : graph.values()) {
+            nodes.add(vertex.node);
+        }
+        return nodes;
     }
 
     /**
@@ -189,8 +322,20 @@ public class Graph<T, E> {
      * @param node The node will be checked
      * @return Return true if the graph contain the node, return false otherwise.
      */
+    @Override
     public boolean containsNode(Node<T> node) {
-        return graph.containsKey(node);
+        return node != null && graph.containsKey(node.getNode());
+    }
+
+    /**
+     * Check whether the graph contain a node holding the given value.
+     *
+     * @param value The value will be checked
+     * @return Return true if the graph contain the value, return false otherwise.
+     */
+    @Override
+    public boolean containsValue(T value) {
+        return value != null && graph.containsKey(value);
     }
 
     /**
@@ -198,6 +343,7 @@ public class Graph<T, E> {
      *
      * @return Return the number of nodes in the graph.
      */
+    @Override
     public int size() {
         return graph.size();
     }
@@ -207,28 +353,576 @@ public class Graph<T, E> {
      *
      * @return Return true is the graph is empty, return false otherwise.
      */
+    @Override
     public boolean isEmpty() {
         return graph.size() == 0;
     }
 
     /**
-     * Check if rep invariant holds.
+     * Take an immutable compact snapshot of the graph for read-only traversals. Nodes are given
+     * dense ids in the order allNodes() lists them, and the outgoing edges of each node keep the
+     * order getAllEdgesFrom returns them in. Later changes to this graph don't affect the snapshot.
+     *
+     * @param weigher function mapping an edge label to the numeric weight stored for that edge
+     * @return a compact snapshot of the graph as it is now
+     * @throws RuntimeException if weigher is null.
+     */
+    @Override
+    public CompactGraph<T, E> freeze(ToDoubleFunction<? super E> weigher) {
+        return freeze(weigher, null);
+    }
+
+    /**
+     * Take an immutable compact snapshot of the graph for read-only traversals, with the outgoing
+     * edges of every node sorted by the given order. Traversals that need a fixed edge order can
+     * then scan the snapshot directly instead of sorting on every visit.
+     *
+     * @param weigher function mapping an edge label to the numeric weight stored for that edge
+     * @param order the order of the outgoing edges of each node, or null to keep insertion order
+     * @return a compact snapshot of the graph as it is now
+     * @throws RuntimeException if weigher is null.
+     */
+    @Override
+    public CompactGraph<T, E> freeze(ToDoubleFunction<? super E> weigher, Comparator<? super Edge<T, E>> order) {
+        if (weigher == null) {
+            throw new RuntimeException("Weigher can't be null");
+        }
+        checkRead();
+        return CompactGraph.of(new ArrayList<>(graph.keySet()), value -> graph.get(value).out, weigher, order);
+    }
+
+    /**
+     * Return the verification policy Graph() uses: the one named by the graph.verification
+     * system property, or INCREMENTAL if it isn't set.
+     *
+     * @return the default verification policy
+     */
+    private static Verification defaultVerification() {
+        return Verification.valueOf(System.getProperty("graph.verification", Verification.INCREMENTAL.name()));
+    }
+
+    /**
+     * Return the initial capacity a hashed collection needs to hold the given number of
+     * elements without resizing.
+     *
+     * @param expected the number of elements
+     * @return the initial capacity to request
+     */
+    private static int capacityFor(int expected) {
+        return Math.max(16, (int) (expected / 0.75f) + 1);
+    }
+
+    /**
+     * Look up the entry of the given node in the graph.
+     *
+     * @param node the given node
+     * @return the entry of node, or null if node is null or not in the graph.
+     */
+    private Vertex<T, E> vertex(Node<T> node) {
+        return node == null ? null : graph.get(node.getNode());
+    }
+
+    /**
+     * Check the rep invariant before a read, as much as the verification policy asks for.
+     *
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkRead() {
+        if (verification == Verification.FULL || (verification == Verification.SAMPLED && fullCheckDue())) {
+            checkRep();
+        }
+    }
+
+    /**
+     * Check the rep invariant after a mutation touching the given entries, as much as the
+     * verification policy asks for.
+     *
+     * @param from the entry whose outgoing edges changed
+     * @param to the entry whose incoming edges changed
+     * @param edge the edge the mutation added or removed, or null if it changed no edge
+     * @param present true if the mutation added edge, false if it removed it
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkMutated(Vertex<T, E> from, Vertex<T, E> to, Edge<T, E> edge, boolean present) {
+        if (verification == Verification.FULL || (verification == Verification.SAMPLED && fullCheckDue())) {
+            checkRep();
+        } else if (verification != Verification.OFF) {
+            checkEntry(from);
+            checkEntry(to);
+            if (edge != null && (edge.getSource() != from.node || edge.getDes() != to.node)) {
+                throw new RuntimeException("The edge must point between nodes in the graph");
+            }
+            if (edge != null && (from.out.contains(edge) != present || to.in.contains(edge) != present)) {
+                throw new RuntimeException("The incoming edges don't match the outgoing edges");
+            }
+        }
+    }
+
+    /**
+     * Check the rep invariant after the given entry was deleted, as much as the verification
+     * policy asks for. Only the neighbours of the deleted node were touched.
+     *
+     * @param deleted the entry removed from the graph
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkDeleted(Vertex<T, E> deleted) {
+        if (verification == Verification.FULL || (verification == Verification.SAMPLED && fullCheckDue())) {
+            checkRep();
+        } else if (verification != Verification.OFF) {
+            if (graph.containsKey(deleted.node.getNode())) {
+                throw new RuntimeException("The deleted node is still in the graph");
+            }
+            for (Edge<T, E> edge : deleted.out) {
+                if (edge.getDes() != deleted.node) {
+                    checkEntry(graph.get(edge.getDes().getNode()));
+                }
+            }
+            for (Edge<T, E> edge : deleted.in) {
+                if (edge.getSource() != deleted.node) {
+                    checkEntry(graph.get(edge.getSource().getNode()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Count one more checked operation for the SAMPLED policy.
+     *
+     * @return true if enough operations have passed since the last full check to run another
+     */
+    private boolean fullCheckDue() {
+        sinceFullCheck++;
+        if (sinceFullCheck < graph.size()) {
+            return false;
+        }
+        sinceFullCheck = 0;
+        return true;
+    }
+
+    /**
+     * Check if rep invariant holds for the whole graph.
      *
      * @throws RuntimeException if violate rep invariant
      */
     private void checkRep() {
-        if (graph == null) {
+        if (graph == null || verification == null) {
             throw new RuntimeException("The graph can't be null");
         }
-        for (Node<T> node : graph.keySet()) {
-            if (node == null) {
+        if (verification == Verification.OFF) {
+            return;
+        }
+        for (T value : graph.keySet()) {
+            Vertex<T, E> vertex = graph.get(value);
+            if (value == null) {
                 throw new RuntimeException("The node can't be null");
             }
-            for (Edge<T, E> edge : graph.get(node)) {
-                if (edge == null) {
-                    throw new RuntimeException("The node can't be null");
+            checkEntry(vertex);
+            checkEdges(vertex);
+        }
+    }
+
+    /**
+     * Check if the given entry is in the graph and holds a node.
+     *
+     * @param vertex the entry to check
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkEntry(Vertex<T, E> vertex) {
+        if (vertex == null || vertex.node == null || graph.get(vertex.node.getNode()) != vertex) {
+            throw new RuntimeException("The node can't be null");
+        }
+    }
+
+    /**
+     * Check if the edges of one entry are not null, start or end at its node, point between
+     * nodes that are in the graph, and are held by the entry at their other end too: every
+     * outgoing edge is in its target's incoming edges and every incoming edge is in its
+     * source's outgoing edges. The edge sets are hashed, so this is O(1) per edge.
+     *
+     * @param vertex the entry to check
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkEdges(Vertex<T, E> vertex) {
+        for (Edge<T, E> edge : vertex.out) {
+            if (edge == null) {
+                throw new RuntimeException("The edge can't be null");
+            }
+            if (edge.getSource() != vertex.node || nodeOf(edge.getDes().getNode()) != edge.getDes()) {
+                throw new RuntimeException("The edge must point between nodes in the graph");
+            }
+            if (!graph.get(edge.getDes().getNode()).in.contains(edge)) {
+                throw new RuntimeException("The incoming edges don't match the outgoing edges");
+            }
+        }
+        for (Edge<T, E> edge : vertex.in) {
+            if (edge == null) {
+                throw new RuntimeException("The edge can't be null");
+            }
+            if (edge.getDes() != vertex.node || nodeOf(edge.getSource().getNode()) != edge.getSource()) {
+                throw new RuntimeException("The edge must point between nodes in the graph");
+            }
+            if (!graph.get(edge.getSource().getNode()).out.contains(edge)) {
+                throw new RuntimeException("The incoming edges don't match the outgoing edges");
+            }
+        }
+    }
+
+    /**
+     * How much of its rep invariant a graph checks. Checks throw RuntimeException on the first
+     * violation they find.
+     */
+    public enum Verification {
+        /** Check the whole graph on every read and after every mutation. Costs O(V+E) per call. */
+        FULL,
+        /**
+         * Check what each mutation touched, plus the whole graph about once every size()
+         * reads or mutations. Costs amortized O(average degree) per call.
+         */
+        SAMPLED,
+        /**
+         * Check only the nodes and edge each mutation touched, in O(1) per node. Reads are
+         * not checked.
+         */
+        INCREMENTAL,
+        /** Don't check. */
+        OFF
+    }
+
+    /**
+     * The interned node for one value together with its outgoing and incoming edges. The edge
+     * sets are hashed so duplicate checks and removals are O(1), and keep insertion order so
+     * traversals see edges in the order they were added.
+     */
+    private static class Vertex<T, E> {
+        private final Node<T> node;
+        private final Set<Edge<T, E>> out;
+        private final Set<Edge<T, E>> in;
+        private final Collection<Edge<T, E>> outView;
+        private final Collection<Edge<T, E>> inView;
+
+        private Vertex(Node<T> node) {
+            this(node, 0, 0);
+        }
+
+        private Vertex(Node<T> node, int outDegree, int inDegree) {
+            this.node = node;
+            this.out = new LinkedHashSet<>(capacityFor(outDegree));
+            this.in = new LinkedHashSet<>(capacityFor(inDegree));
+            this.outView = Collections.unmodifiableSet(out);
+            this.inView = Collections.unmodifiableSet(in);
+        }
+    }
+
+    /**
+     * Collects nodes and edges in bulk and turns them into a Graph or a CompactGraph in one pass.
+     * Adding an edge also adds its endpoints. Nothing is deduplicated or checked until build(),
+     * which sizes every table from the collected counts, drops duplicate edges and checks the
+     * rep invariant once. A builder can be built more than once and keeps its contents.
+     *
+     * @param <T> A set of vertices
+     * @param <E> A set of edges
+     */
+    public static class Builder<T, E> {
+
+        // AF(this) = the graph with a node for every value in values, and for every i < edgeCount
+        // an edge from values[sources[i]] to values[targets[i]] labeled labels[i].
+        //
+        // Rep invariant: ids.get(values.get(v)) == v for every v, no value or label is null,
+        // and 0 <= sources[i], targets[i] < values.size() for every i < edgeCount.
+
+        private final Map<T, Integer> ids;
+        private final List<T> values;
+        private int[] sources;
+        private int[] targets;
+        private Object[] labels;
+        private int edgeCount;
+
+        /**
+         * Constructor create an empty builder.
+         */
+        public Builder() {
+            this(16, 16);
+        }
+
+        /**
+         * Constructor create an empty builder sized for the given number of nodes and edges.
+         * The counts are only hints; the builder grows past them as needed.
+         *
+         * @param expectedNodes the number of nodes expected
+         * @param expectedEdges the number of edges expected
+         * @throws RuntimeException if either count is negative.
+         */
+        public Builder(int expectedNodes, int expectedEdges) {
+            if (expectedNodes < 0 || expectedEdges < 0) {
+                throw new RuntimeException("Expected counts can't be negative");
+            }
+            ids = new HashMap<>(capacityFor(expectedNodes));
+            values = new ArrayList<>(expectedNodes);
+            sources = new int[expectedEdges];
+            targets = new int[expectedEdges];
+            labels = new Object[expectedEdges];
+        }
+
+        /**
+         * Add a node holding the given value, if no node holds it yet.
+         *
+         * @param value the value stored in the node
+         * @return this builder
+         * @throws RuntimeException if value is null.
+         */
+        public Builder<T, E> addNode(T value) {
+            idFor(value);
+            return this;
+        }
+
+        /**
+         * Add an edge labeled with the given label from the node holding start to the node
+         * holding end, adding either node if it isn't there yet.
+         *
+         * @param start the value stored in the starting node
+         * @param end the value stored in the ending node
+         * @param label the edge label
+         * @return this builder
+         * @throws RuntimeException if any argument is null.
+         */
+        public Builder<T, E> addEdge(T start, T end, E label) {
+            if (label == null) {
+                throw new RuntimeException("Label can't be null");
+            }
+            reserve(1);
+            sources[edgeCount] = idFor(start);
+            targets[edgeCount] = idFor(end);
+            labels[edgeCount] = label;
+            edgeCount++;
+            return this;
+        }
+
+        /**
+         * Add a batch of edges, where edge i goes from starts[i] to ends[i] labeled labels[i].
+         *
+         * @param starts the values stored in the starting nodes
+         * @param ends the values stored in the ending nodes
+         * @param labels the edge labels
+         * @return this builder
+         * @throws RuntimeException if any array is null, the arrays have different lengths, or
+         * any element is null.
+         */
+        public Builder<T, E> addEdges(T[] starts, T[] ends, E[] labels) {
+            if (starts == null || ends == null || labels == null) {
+                throw new RuntimeException("Edge arrays can't be null");
+            }
+            if (starts.length != ends.length || starts.length != labels.length) {
+                throw new RuntimeException("Edge arrays must have the same length");
+            }
+            reserve(starts.length);
+            for (int i = 0; i < starts.length; i++) {
+                addEdge(starts[i], ends[i], labels[i]);
+            }
+            return this;
+        }
+
+        /**
+         * Add one edge for every record in the stream, reading its endpoints and label with the
+         * given functions.
+         *
+         * @param records the records to add edges for
+         * @param start function reading the value stored in the starting node
+         * @param end function reading the value stored in the ending node
+         * @param label function reading the edge label
+         * @param <R> the type of the records
+         * @return this builder
+         * @throws RuntimeException if any argument is null or any function returns null.
+         */
+        public <R> Builder<T, E> addEdges(Stream<R> records, Function<? super R, ? extends T> start,
+                                          Function<? super R, ? extends T> end, Function<? super R, ? extends E> label) {
+            if (records == null || start == null || end == null || label == null) {
+                throw new RuntimeException("Records and functions can't be null");
+            }
+            records.forEachOrdered(r -> addEdge(start.apply(r), end.apply(r), label.apply(r)));
+            return this;
+        }
+
+        /**
+         * Build a mutable graph holding every node and edge added so far, verified with the
+         * default policy of Graph().
+         *
+         * @return a new graph with the collected nodes and edges
+         */
+        public Graph<T, E> build() {
+            return build(defaultVerification());
+        }
+
+        /**
+         * Build a mutable graph holding every node and edge added so far. Duplicate edges are
+         * dropped, and the rep invariant is checked once over the finished graph.
+         *
+         * @param verification the verification policy of the new graph
+         * @return a new graph with the collected nodes and edges
+         * @throws RuntimeException if verification is null.
+         */
+        @SuppressWarnings("unchecked")
+        public Graph<T, E> build(Verification verification) {
+            Graph<T, E> graph = new Graph<>(verification, values.size());
+            int[] outDegree = new int[values.size()];
+            int[] inDegree = new int[values.size()];
+            for (int i = 0; i < edgeCount; i++) {
+                outDegree[sources[i]]++;
+                inDegree[targets[i]]++;
+            }
+            List<Vertex<T, E>> vertices = new ArrayList<>(values.size());
+            for (int v = 0; v < values.size(); v++) {
+                Vertex<T, E> vertex = new Vertex<>(new Node<>(values.get(v)), outDegree[v], inDegree[v]);
+                vertices.add(vertex);
+                graph.graph.put(values.get(v), vertex);
+            }
+            for (int i = 0; i < edgeCount; i++) {
+                Vertex<T, E> from = vertices.get(sources[i]);
+                Vertex<T, E> to = vertices.get(targets[i]);
+                Edge<T, E> edge = new Edge<>(from.node, to.node, (E) labels[i]);
+                if (from.out.add(edge)) {
+                    to.in.add(edge);
                 }
             }
+            graph.checkRep();
+            return graph;
+        }
+
+        /**
+         * Build an immutable compact graph holding every node and edge added so far, without
+         * building a mutable graph first. Nodes get ids in the order they were first added, and
+         * each node keeps its edges in the order they were added, with duplicates dropped.
+         *
+         * @param weigher function mapping an edge label to the numeric weight stored for that edge
+         * @return a new compact graph with the collected nodes and edges
+         * @throws RuntimeException if weigher is null.
+         */
+        public CompactGraph<T, E> buildCompact(ToDoubleFunction<? super E> weigher) {
+            return buildCompact(weigher, null);
+        }
+
+        /**
+         * Build an immutable compact graph holding every node and edge added so far, with the
+         * outgoing edges of every node sorted by the given order.
+         *
+         * @param weigher function mapping an edge label to the numeric weight stored for that edge
+         * @param order the order of the outgoing edges of each node, or null to keep insertion order
+         * @return a new compact graph with the collected nodes and edges
+         * @throws RuntimeException if weigher is null.
+         */
+        @SuppressWarnings("unchecked")
+        public CompactGraph<T, E> buildCompact(ToDoubleFunction<? super E> weigher,
+                                               Comparator<? super Edge<T, E>> order) {
+            if (weigher == null) {
+                throw new RuntimeException("Weigher can't be null");
+            }
+            int nodeCount = values.size();
+            // Counting sort of the edges by source, stable so insertion order is kept.
+            int[] bySource = new int[edgeCount];
+            int[] cursor = new int[nodeCount + 1];
+            for (int i = 0; i < edgeCount; i++) {
+                cursor[sources[i] + 1]++;
+            }
+            for (int v = 0; v < nodeCount; v++) {
+                cursor[v + 1] += cursor[v];
+            }
+            for (int i = 0; i < edgeCount; i++) {
+                bySource[cursor[sources[i]]++] = i;
+            }
+
+            Map<Object, Integer> labelIds = new HashMap<>();
+            Set<Long> seen = new HashSet<>();
+            Node<T>[] nodes = order == null ? null : (Node<T>[]) new Node<?>[nodeCount];
+            int[] offsets = new int[nodeCount + 1];
+            int[] csrTargets = new int[edgeCount];
+            double[] weights = new double[edgeCount];
+            Object[] csrLabels = new Object[edgeCount];
+            int begin = 0;
+            int e = 0;
+            for (int v = 0; v < nodeCount; v++) {
+                int end = cursor[v];
+                int first = e;
+                seen.clear();
+                for (int k = begin; k < end; k++) {
+                    int i = bySource[k];
+                    labelIds.putIfAbsent(labels[i], labelIds.size());
+                    if (end - begin == 1 || seen.add((long) labelIds.get(labels[i]) * nodeCount + targets[i])) {
+                        csrTargets[e] = targets[i];
+                        csrLabels[e] = labels[i];
+                        e++;
+                    }
+                }
+                if (order != null && e - first > 1) {
+                    List<Edge<T, E>> edges = new ArrayList<>(e - first);
+                    for (int k = first; k < e; k++) {
+                        edges.add(new Edge<>(nodeFor(nodes, v), nodeFor(nodes, csrTargets[k]), (E) csrLabels[k]));
+                    }
+                    edges.sort(order);
+                    for (int k = first; k < e; k++) {
+                        Edge<T, E> edge = edges.get(k - first);
+                        csrTargets[k] = ids.get(edge.getDes().getNode());
+                        csrLabels[k] = edge.getLabel();
+                    }
+                }
+                for (int k = first; k < e; k++) {
+                    weights[k] = weigher.applyAsDouble((E) csrLabels[k]);
+                }
+                offsets[v + 1] = e;
+                begin = end;
+            }
+            Object[] nodeValues = values.toArray();
+            if (e < edgeCount) {
+                return new CompactGraph<>(nodeValues, offsets, Arrays.copyOf(csrTargets, e),
+                        Arrays.copyOf(weights, e), Arrays.copyOf(csrLabels, e));
+            }
+            return new CompactGraph<>(nodeValues, offsets, csrTargets, weights, csrLabels);
+        }
+
+        /**
+         * Make sure the edge arrays have room for the given number of additional edges.
+         *
+         * @param additional the number of edges about to be added
+         */
+        private void reserve(int additional) {
+            if (edgeCount + additional > sources.length) {
+                int capacity = Math.max(edgeCount + additional, Math.max(16, sources.length * 2));
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                labels = Arrays.copyOf(labels, capacity);
+            }
+        }
+
+        /**
+         * Return the id of the node holding the given value, adding the node if needed.
+         *
+         * @param value the value stored in the node
+         * @return the id of the node holding value
+         * @throws RuntimeException if value is null.
+         */
+        private int idFor(T value) {
+            if (value == null) {
+                throw new RuntimeException("Node can't be null");
+            }
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        /**
+         * Return the node holding the value with the given id, creating it on first use.
+         *
+         * @param nodes the nodes created so far, indexed by id
+         * @param id the node id
+         * @return the node holding the value with that id
+         */
+        private Node<T> nodeFor(Node<T>[] nodes, int id) {
+            if (nodes[id] == null) {
+                nodes[id] = new Node<>(values.get(id));
+            }
+            return nodes[id];
         }
     }
 
@@ -242,6 +936,7 @@ public class Graph<T, E> {
         // Rep invariant: the data != null.
 
         private final T val;
+        private final int hash;
 
         /**
          * Constructor create a node and name it.
@@ -252,6 +947,7 @@ public class Graph<T, E> {
         public Node(T val) {
             this.val = val;
             checkRep();
+            this.hash = 5 * val.hashCode();
         }
 
         /**
@@ -285,8 +981,8 @@ public class Graph<T, E> {
          */
         @Override
         public int hashCode() {
-            checkRep();
-            return 5 * this.getNode().hashCode();
+            // val never changes and is checked non-null on construction, so the hash is computed once.
+            return hash;
         }
 
         /**
@@ -312,6 +1008,7 @@ public class Graph<T, E> {
         private final Node<T> source;
         private final Node<T> dest;
         private final E labelNum;
+        private final int hash;
 
         /**
          * Constructor create a labeled edge that connect to the source node and dest node.
@@ -325,6 +1022,7 @@ public class Graph<T, E> {
             this.dest = dest;
             this.labelNum = labelNum;
             checkRep();
+            this.hash = 5 * source.hashCode() + 7 * dest.hashCode() + 11 * labelNum.hashCode();
         }
 
         /**
@@ -366,7 +1064,7 @@ public class Graph<T, E> {
                 return false;
             }
             Graph.Edge<?, ?> edge = (Graph.Edge<?, ?>) obj;
-            return this.getSource().equals(edge.getSource()) &&
+            return this.hash == edge.hash && this.getSource().equals(edge.getSource()) &&
                     this.getDes().equals(edge.getDes()) && this.getLabel().equals(edge.getLabel());
         }
 
@@ -377,8 +1075,8 @@ public class Graph<T, E> {
          */
         @Override
         public int hashCode() {
-            checkRep();
-            return 5 * this.getSource().hashCode() + 7 * this.getDes().hashCode() + 11 * this.getLabel().hashCode();
+            // The endpoints and label never change, so the hash is computed once.
+            return hash;
         }
 
         /**
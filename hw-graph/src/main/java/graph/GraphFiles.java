@@ -0,0 +1,89 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Helpers shared by the classes that save their tables to files. Every file is written to a
+ * temporary file of its own beside the final name and then moved into place, so processes that
+ * write the same file at once never write into each other's bytes, and a reader sees either the
+ * old file or a complete new one.
+ */
+final class GraphFiles {
+
+    private GraphFiles() {
+    }
+
+    /**
+     * Create an empty temporary file in the same directory as the given file, with a name no
+     * other writer will pick.
+     *
+     * @param file the file that will be replaced
+     * @return the new temporary file
+     * @throws IOException if the file can't be created.
+     */
+    static Path tempFile(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        return Files.createTempFile(directory, file.getFileName() + ".", ".tmp");
+    }
+
+    /**
+     * Move a finished temporary file over the given file, atomically where the file system
+     * allows it.
+     *
+     * @param temp the file written by the caller, from tempFile(file)
+     * @param file the file to create or replace
+     * @throws IOException if the file can't be moved.
+     */
+    static void replace(Path temp, Path file) throws IOException {
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Delete a temporary file that won't be moved into place after all, if there is one. A
+     * failure to delete it is ignored, since the write that made it has already failed.
+     *
+     * @param temp the temporary file, or null if none was created
+     */
+    static void discard(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            // Leave it; a later write uses a new name.
+        }
+    }
+
+    /**
+     * Compute a fingerprint of the structure and weights of the given graph: its node and edge
+     * counts, the first edge of every node, and the target and weight of every edge. Tables
+     * saved for a graph store it, so a file saved for an older version of the graph is caught
+     * even when the node and edge counts still match.
+     *
+     * @param graph the graph to fingerprint
+     * @return a 64-bit hash of graph's layout and weights
+     */
+    static long fingerprint(IndexedGraph<?, ?> graph) {
+        // FNV-1a over 64-bit words.
+        long hash = 0xCBF29CE484222325L;
+        hash = (hash ^ graph.nodeCount()) * 0x100000001B3L;
+        hash = (hash ^ graph.edgeCount()) * 0x100000001B3L;
+        for (int v = 0; v < graph.nodeCount(); v++) {
+            hash = (hash ^ graph.firstEdge(v)) * 0x100000001B3L;
+        }
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            hash = (hash ^ graph.target(e)) * 0x100000001B3L;
+            hash = (hash ^ Double.doubleToLongBits(graph.weight(e))) * 0x100000001B3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,93 @@
+package graph;
+
+/**
+ * A read-only directed graph whose nodes are numbered with dense integer ids in [0, nodeCount())
+ * and whose edges are numbered so the outgoing edges of node v are [firstEdge(v), lastEdge(v)).
+ * Each edge has a destination id, a numeric weight and a label. Searches written against this
+ * type walk plain ids instead of node and edge objects, and run on any layout that provides them,
+ * such as a {@link CompactGraph} in memory or a {@link MappedGraph} read from a file.
+ *
+ * @param <T> A set of vertices
+ * @param <E> A set of edges
+ */
+public interface IndexedGraph<T, E> {
+
+    /**
+     * Return number of nodes in the graph.
+     *
+     * @return Return the number of nodes in the graph.
+     */
+    int nodeCount();
+
+    /**
+     * Return number of edges in the graph.
+     *
+     * @return Return the number of edges in the graph.
+     */
+    int edgeCount();
+
+    /**
+     * Find the dense id of the node holding the given value.
+     *
+     * @param value the value to look up
+     * @return the id of the node holding value, or -1 if no node holds it.
+     */
+    int idOf(T value);
+
+    /**
+     * Check whether the graph contain a node holding the given value.
+     *
+     * @param value The value will be checked
+     * @return Return true if the graph contain the value, return false otherwise.
+     */
+    boolean containsValue(T value);
+
+    /**
+     * Return the value stored in the node with the given id.
+     *
+     * @param id the node id
+     * @return the value stored in that node
+     * @throws IndexOutOfBoundsException if id is not a node id of this graph.
+     */
+    T valueOf(int id);
+
+    /**
+     * Return the index of the first edge pointing out from the given node.
+     *
+     * @param id the node id
+     * @return the index of the first outgoing edge of id
+     */
+    int firstEdge(int id);
+
+    /**
+     * Return one past the index of the last edge pointing out from the given node.
+     *
+     * @param id the node id
+     * @return the exclusive end index of the outgoing edges of id
+     */
+    int lastEdge(int id);
+
+    /**
+     * Return the destination node id of the given edge.
+     *
+     * @param edge the edge index
+     * @return the id of the node the edge points to
+     */
+    int target(int edge);
+
+    /**
+     * Return the weight of the given edge.
+     *
+     * @param edge the edge index
+     * @return the weight of the edge
+     */
+    double weight(int edge);
+
+    /**
+     * Return the label of the given edge.
+     *
+     * @param edge the edge index
+     * @return the label of the edge
+     */
+    E label(int edge);
+}
@@ -0,0 +1,191 @@
+package graph;
+
+import graph.Graph.Edge;
+import graph.Graph.Node;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The operations of a directed multi graph where edges are labeled, shared by the single-threaded
+ * {@link Graph} and the thread-safe {@link ConcurrentGraph}. The graph can't have multiple nodes
+ * with same value in them, and no 2 edges with the same parent and child nodes will have the same
+ * edge label. Searches that only traverse a graph should take this type, so they run on either.
+ *
+ * @param <T> A set of vertices
+ * @param <E> A set of edges
+ */
+public interface LabeledGraph<T, E> {
+
+    /**
+     * Return true if node doesn't exist in the graph and successfully add to the graph. Return false
+     * if the node already in the graph and can't be added again.
+     *
+     * @param node The node will be added to the graph
+     * @spec.modifies modify the graph by adding the nodes
+     * @spec.requires node != null
+     * @return return true if node is successfully be added, return false otherwise.
+     */
+    boolean addNode(Node<T> node);
+
+    /**
+     * Return true if node exist in the graph and successfully delete it and every edge touching it
+     * from the graph. Return false if the node doesn't in the graph.
+     *
+     * @param node The node will be deleted from the graph.
+     * @spec.modifies modify the graph by removing the nodes
+     * @spec.requires node != null
+     * @return return true if the node is removed successfully from the graph, return false otherwise
+     */
+    boolean deleteNode(Node<T> node);
+
+    /**
+     * Add an edge labeled with name that connect the start node and the end node.
+     *
+     * @param start The starting node
+     * @param end The ending node
+     * @param labelNum the edge with a name that connect with starting and ending node
+     * @spec.modifies modify the graph by adding the edges between nodes
+     * @spec.requires start != null, labelNum != null, end != null.
+     * @return Return true if successfully add the edge, return false if either node is missing or
+     * the edge is already in the graph.
+     */
+    boolean addEdge(Node<T> start, Node<T> end, E labelNum);
+
+    /**
+     * Remove an edge labeled with name that connect the start node and the end node.
+     *
+     * @param start The starting node
+     * @param end The ending node
+     * @param labelNum the edge with a name that connect with starting and ending node
+     * @spec.modifies modify the graph by removing the edges between the nodes
+     * @spec.requires start != null, labelNum != null, end != null.
+     * @return return true if successfully remove the edge, return false otherwise.
+     */
+    boolean deleteEdge(Node<T> start, Node<T> end, E labelNum);
+
+    /**
+     * Get and return all the child nodes of the given node.
+     *
+     * @param node the given node
+     * @return Return all the child nodes of the given node.
+     */
+    List<Node<T>> getChild(Node<T> node);
+
+    /**
+     * Get and return all the edges that pointing out from the given node.
+     *
+     * @param node the given node
+     * @throws RuntimeException if the node is not in the graph.
+     * @return a list of edges where all those edges are pointing out from the given node
+     */
+    List<Edge<T, E>> getAllEdgesFrom(Node<T> node);
+
+    /**
+     * Get and return all the edges that pointing towards to the given node, in the order
+     * they were added.
+     *
+     * @param node the given node
+     * @throws RuntimeException if the node is null.
+     * @return a list of edges pointing towards the given node, empty if it's not in the graph
+     */
+    List<Edge<T, E>> getAllEdgesTo(Node<T> node);
+
+    /**
+     * Get a read-only collection of the edges pointing out from the node holding the given value,
+     * in the order they were added. Implementations may return a live view or a snapshot.
+     *
+     * @param value the value stored in the given node
+     * @throws RuntimeException if no node holds the value.
+     * @return the edges pointing out from the node holding value
+     */
+    Collection<Edge<T, E>> edgesFrom(T value);
+
+    /**
+     * Get a read-only collection of the edges pointing towards the node holding the given value,
+     * in the order they were added. Implementations may return a live view or a snapshot.
+     *
+     * @param value the value stored in the given node
+     * @throws RuntimeException if no node holds the value.
+     * @return the edges pointing towards the node holding value
+     */
+    Collection<Edge<T, E>> edgesTo(T value);
+
+    /**
+     * Pass every edge pointing out from the node holding the given value to action, in the
+     * order they were added.
+     *
+     * @param value the value stored in the given node
+     * @param action the action to perform on each edge
+     * @throws RuntimeException if no node holds the value or action is null.
+     */
+    void forEachEdge(T value, Consumer<? super Edge<T, E>> action);
+
+    /**
+     * Return the node the graph stores for the given value.
+     *
+     * @param value the value stored in the given node
+     * @return the node holding value, or null if no node holds it.
+     */
+    Node<T> nodeOf(T value);
+
+    /**
+     * Get and return all the nodes in the graph as list.
+     *
+     * @return return all the nodes as list in the graph.
+     */
+    List<Node<T>> allNodes();
+
+    /**
+     * Check whether the graph contain the node.
+     *
+     * @param node The node will be checked
+     * @return Return true if the graph contain the node, return false otherwise.
+     */
+    boolean containsNode(Node<T> node);
+
+    /**
+     * Check whether the graph contain a node holding the given value.
+     *
+     * @param value The value will be checked
+     * @return Return true if the graph contain the value, return false otherwise.
+     */
+    boolean containsValue(T value);
+
+    /**
+     * Return number of nodes in the graph, that is the size of the graph.
+     *
+     * @return Return the number of nodes in the graph.
+     */
+    int size();
+
+    /**
+     * Check whether the graph is empty.
+     *
+     * @return Return true is the graph is empty, return false otherwise.
+     */
+    boolean isEmpty();
+
+    /**
+     * Take an immutable compact snapshot of the graph for read-only traversals.
+     *
+     * @param weigher function mapping an edge label to the numeric weight stored for that edge
+     * @return a compact snapshot of the graph as it is now
+     * @throws RuntimeException if weigher is null.
+     */
+    CompactGraph<T, E> freeze(ToDoubleFunction<? super E> weigher);
+
+    /**
+     * Take an immutable compact snapshot of the graph, with the outgoing edges of every node
+     * sorted by the given order.
+     *
+     * @param weigher function mapping an edge label to the numeric weight stored for that edge
+     * @param order the order of the outgoing edges of each node, or null to keep insertion order
+     * @return a compact snapshot of the graph as it is now
+     * @throws RuntimeException if weigher is null.
+     */
+    CompactGraph<T, E> freeze(ToDoubleFunction<? super E> weigher, Comparator<? super Edge<T, E>> order);
+}
@@ -0,0 +1,389 @@
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Landmark distance tables for ALT (A*, landmarks, triangle inequality) searches on an
+ * {@link IndexedGraph}. A few nodes are picked as landmarks, and the shortest distance from every
+ * landmark to every node and from every node to every landmark is computed once. By the triangle
+ * inequality, for any landmark L the distance from v to t is at least d(L, t) - d(L, v) and at
+ * least d(v, L) - d(t, L), and the largest of these bounds is a consistent A* heuristic. Unlike
+ * a geometric heuristic it needs nothing but the edge weights, so it works on any graph.
+ *
+ * <p>Tables are built by select() and saved and loaded with write() and read(), so a restart
+ * doesn't have to redo the searches. The file is big-endian:
+ * <pre>
+ *   header     5 ints: MAGIC, FORMAT, N, E, K, then a long: the graph fingerprint, then 0
+ *   landmarks  K ints, the node id of each landmark
+ *   from       K * N doubles, the distance from landmark i to node v at i * N + v
+ *   to         K * N doubles, the distance from node v to landmark i at i * N + v
+ * </pre>
+ * Unreachable pairs are stored as positive infinity. The fingerprint is a hash of the graph's
+ * edges and weights, so tables saved for an older version of the graph are refused even when
+ * its node and edge counts haven't changed; such tables could overestimate distances and make
+ * ALT return paths that aren't shortest.
+ */
+public final class Landmarks {
+
+    // AF(this) = for each i < landmarks.length, landmark landmarks[i] with the distance from it
+    // to node v being from[i * nodeCount + v] and the distance from node v to it being
+    // to[i * nodeCount + v], in a graph with nodeCount nodes and edgeCount edges whose
+    // fingerprint is fingerprint.
+    //
+    // Rep invariant: landmarks, from and to != null, 0 <= landmarks[i] < nodeCount,
+    // from.length == to.length == landmarks.length * nodeCount, and from and to hold 0 at every
+    // landmark's own entry.
+
+    /** The first int of every landmark file. */
+    public static final int MAGIC = 0x434C4D4B;
+
+    /** The layout version this class reads and writes. */
+    public static final int FORMAT = 2;
+
+    /** The number of landmarks select(graph) picks. */
+    public static final int DEFAULT_COUNT = 8;
+
+    private static final int HEADER_BYTES = 32;
+
+    private final int nodeCount;
+    private final int edgeCount;
+    private final long fingerprint;
+    private final int[] landmarks;
+    private final double[] from;
+    private final double[] to;
+
+    /**
+     * Constructor wraps already computed tables, which are owned by the new object.
+     *
+     * @param nodeCount the number of nodes in the graph
+     * @param edgeCount the number of edges in the graph
+     * @param fingerprint the fingerprint of the graph
+     * @param landmarks the landmark node ids
+     * @param from the distances from each landmark
+     * @param to the distances to each landmark
+     * @spec.requires the arrays satisfy the rep invariant
+     */
+    private Landmarks(int nodeCount, int edgeCount, long fingerprint, int[] landmarks, double[] from,
+                      double[] to) {
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.fingerprint = fingerprint;
+        this.landmarks = landmarks;
+        this.from = from;
+        this.to = to;
+        checkRep();
+    }
+
+    /**
+     * Pick DEFAULT_COUNT landmarks in the given graph and compute their tables.
+     *
+     * @param graph the graph to pick landmarks in
+     * @return the landmark tables of graph
+     * @throws RuntimeException if graph is null.
+     * @spec.requires every edge weight of graph is non-negative
+     */
+    public static Landmarks select(IndexedGraph<?, ?> graph) {
+        return select(graph, DEFAULT_COUNT);
+    }
+
+    /**
+     * Pick landmarks in the given graph by farthest-point selection and compute their tables.
+     * The first landmark is the node farthest from node 0, and each later one is the node whose
+     * distance from the nearest landmark already picked is largest, so landmarks end up spread
+     * over the edges of the graph where their bounds are tightest. Only nodes reachable from
+     * node 0 or a landmark already picked are candidates, and those no landmark reaches yet go
+     * first, so small disconnected pieces don't use up landmarks while any such node is left.
+     * Picking stops early once every node is a landmark.
+     *
+     * @param graph the graph to pick landmarks in
+     * @param count the number of landmarks to pick
+     * @return the landmark tables of graph
+     * @throws RuntimeException if graph is null or count is negative.
+     * @spec.requires every edge weight of graph is non-negative
+     */
+    public static Landmarks select(IndexedGraph<?, ?> graph, int count) {
+        if (graph == null || count < 0) {
+            throw new RuntimeException("The graph can't be null and count can't be negative");
+        }
+        int n = graph.nodeCount();
+        count = Math.min(count, n);
+        ReverseIndex reverse = new ReverseIndex(graph);
+        int[] landmarks = new int[count];
+        double[] from = new double[count * n];
+        double[] to = new double[count * n];
+        double[] nearest = new double[n];
+        boolean[] reached = new boolean[n];
+        boolean[] picked = new boolean[n];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        if (count > 0) {
+            // The first pick is the node farthest from node 0.
+            double[] seed = distances(graph, reverse, 0, false);
+            for (int v = 0; v < n; v++) {
+                reached[v] = seed[v] < Double.POSITIVE_INFINITY;
+                nearest[v] = seed[v];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            int best = -1;
+            for (int v = 0; v < n; v++) {
+                if (!picked[v] && reached[v] && (best < 0 || nearest[v] > nearest[best])) {
+                    best = v;
+                }
+            }
+            for (int v = 0; best < 0; v++) {
+                if (!picked[v]) {
+                    best = v;
+                }
+            }
+            landmarks[i] = best;
+            picked[best] = true;
+            double[] out = distances(graph, reverse, best, false);
+            double[] in = distances(graph, reverse, best, true);
+            System.arraycopy(out, 0, from, i * n, n);
+            System.arraycopy(in, 0, to, i * n, n);
+            for (int v = 0; v < n; v++) {
+                nearest[v] = i == 0 ? out[v] : Math.min(nearest[v], out[v]);
+                reached[v] |= out[v] < Double.POSITIVE_INFINITY;
+            }
+        }
+        return new Landmarks(n, graph.edgeCount(), GraphFiles.fingerprint(graph), landmarks, from, to);
+    }
+
+    /**
+     * Compute the shortest distance between the given node and every node of a graph.
+     *
+     * @param graph the graph to search
+     * @param reverse the incoming edges of graph
+     * @param source the node id to search from
+     * @param backward whether to find distances to source instead of from it
+     * @return the distance of every node, positive infinity if unreachable
+     */
+    private static double[] distances(IndexedGraph<?, ?> graph, ReverseIndex reverse, int source, boolean backward) {
+        double[] dist = new double[graph.nodeCount()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0;
+        PriorityQueue<Active> active = new PriorityQueue<>();
+        active.add(new Active(source, 0));
+        while (!active.isEmpty()) {
+            Active min = active.remove();
+            if (min.cost > dist[min.node]) {
+                continue;
+            }
+            int first = backward ? reverse.firstEdge(min.node) : graph.firstEdge(min.node);
+            int last = backward ? reverse.lastEdge(min.node) : graph.lastEdge(min.node);
+            for (int i = first; i < last; i++) {
+                int e = backward ? reverse.edge(i) : i;
+                int child = backward ? reverse.source(i) : graph.target(e);
+                double cost = min.cost + graph.weight(e);
+                if (cost < dist[child]) {
+                    dist[child] = cost;
+                    active.add(new Active(child, cost));
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * Load landmark tables saved by write() for the given graph.
+     *
+     * @param graph the graph the tables were built for
+     * @param file the file written by write()
+     * @return the landmark tables held in the file
+     * @throws UncheckedIOException if the file can't be read.
+     * @throws RuntimeException if an argument is null, the file doesn't hold landmark tables of
+     * this format, or they were built for a graph with different edges or weights.
+     */
+    public static Landmarks read(IndexedGraph<?, ?> graph, Path file) {
+        if (graph == null || file == null) {
+            throw new RuntimeException("Parameters can't be null");
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (Files.size(file) < HEADER_BYTES || in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                throw new RuntimeException("Not a landmark file of format " + FORMAT);
+            }
+            int n = in.readInt();
+            int m = in.readInt();
+            int k = in.readInt();
+            long fingerprint = in.readLong();
+            in.skipBytes(4);
+            if (n != graph.nodeCount() || m != graph.edgeCount() || fingerprint != GraphFiles.fingerprint(graph)) {
+                throw new RuntimeException("The landmark file was built for a different graph");
+            }
+            if (k < 0 || k > n || Files.size(file) != HEADER_BYTES + 4L * k + 16L * k * n) {
+                throw new RuntimeException("The landmark file is truncated or corrupt");
+            }
+            int[] landmarks = new int[k];
+            for (int i = 0; i < k; i++) {
+                landmarks[i] = in.readInt();
+            }
+            double[] from = new double[k * n];
+            double[] to = new double[k * n];
+            for (int i = 0; i < from.length; i++) {
+                from[i] = in.readDouble();
+            }
+            for (int i = 0; i < to.length; i++) {
+                to[i] = in.readDouble();
+            }
+            return new Landmarks(n, m, fingerprint, landmarks, from, to);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read landmark file " + file, e);
+        }
+    }
+
+    /**
+     * Check whether the given file holds landmark tables that read() would accept for the given
+     * graph, by its header alone, so a caller can recompute the tables instead of failing when
+     * the graph has changed since they were saved.
+     *
+     * @param graph the graph the tables are wanted for
+     * @param file the file that may hold tables written by write()
+     * @return true if file exists and its header is of this format and matches graph's
+     * fingerprint, false otherwise.
+     * @throws UncheckedIOException if the file exists but can't be read.
+     * @throws RuntimeException if an argument is null.
+     */
+    public static boolean matches(IndexedGraph<?, ?> graph, Path file) {
+        if (graph == null || file == null) {
+            throw new RuntimeException("Parameters can't be null");
+        }
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return Files.size(file) >= HEADER_BYTES && in.readInt() == MAGIC && in.readInt() == FORMAT
+                    && in.readInt() == graph.nodeCount() && in.readInt() == graph.edgeCount()
+                    && in.readInt() >= 0 && in.readLong() == GraphFiles.fingerprint(graph);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read landmark file " + file, e);
+        }
+    }
+
+    /**
+     * Save these tables to a file in the layout above. Like MappedGraph.write(), the file is
+     * written beside its final name and moved into place.
+     *
+     * @param file the file to create or replace
+     * @throws UncheckedIOException if the file can't be written.
+     * @throws RuntimeException if file is null.
+     */
+    public void write(Path file) {
+        if (file == null) {
+            throw new RuntimeException("The file can't be null");
+        }
+        Path temp = null;
+        try {
+            temp = GraphFiles.tempFile(file);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeInt(nodeCount);
+                out.writeInt(edgeCount);
+                out.writeInt(landmarks.length);
+                out.writeLong(fingerprint);
+                out.writeInt(0);
+                for (int landmark : landmarks) {
+                    out.writeInt(landmark);
+                }
+                for (double d : from) {
+                    out.writeDouble(d);
+                }
+                for (double d : to) {
+                    out.writeDouble(d);
+                }
+            }
+            GraphFiles.replace(temp, file);
+        } catch (IOException e) {
+            GraphFiles.discard(temp);
+            throw new UncheckedIOException("Can't write landmark file " + file, e);
+        }
+    }
+
+    /**
+     * Return the number of landmarks.
+     *
+     * @return the number of landmarks
+     */
+    public int count() {
+        return landmarks.length;
+    }
+
+    /**
+     * Return the node id of the given landmark.
+     *
+     * @param i the landmark index, in [0, count())
+     * @return the node id of landmark i
+     */
+    public int landmark(int i) {
+        return landmarks[i];
+    }
+
+    /**
+     * Return a lower bound on the shortest distance from one node to another, the largest
+     * triangle-inequality bound over all landmarks. Bounds that would subtract one infinite
+     * distance from another are skipped. The bound is positive infinity when some landmark shows
+     * target can't be reached from id, and 0 when no landmark tells anything.
+     *
+     * @param id the node id to bound the distance from
+     * @param target the node id to bound the distance to
+     * @return a lower bound on the distance from id to target
+     */
+    public double lowerBound(int id, int target) {
+        double bound = 0;
+        for (int i = 0, at = 0; i < landmarks.length; i++, at += nodeCount) {
+            double forward = from[at + target] - from[at + id];
+            double backward = to[at + id] - to[at + target];
+            if (forward > bound) {
+                bound = forward;
+            }
+            if (backward > bound) {
+                bound = backward;
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Check if rep invariant holds.
+     *
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkRep() {
+        if (from.length != landmarks.length * nodeCount || to.length != from.length) {
+            throw new RuntimeException("The tables don't match the landmarks");
+        }
+        for (int i = 0; i < landmarks.length; i++) {
+            if (landmarks[i] < 0 || landmarks[i] >= nodeCount
+                    || from[i * nodeCount + landmarks[i]] != 0 || to[i * nodeCount + landmarks[i]] != 0) {
+                throw new RuntimeException("Every landmark must be a node at distance 0 from itself");
+            }
+        }
+    }
+
+    /**
+     * A node waiting in the active queue, with the distance it was queued at.
+     */
+    private static class Active implements Comparable<Active> {
+        private final int node;
+        private final double cost;
+
+        private Active(int node, double cost) {
+            this.node = node;
+            this.cost = cost;
+        }
+
+        @Override
+        public int compareTo(Active other) {
+            return Double.compare(cost, other.cost);
+        }
+    }
+}
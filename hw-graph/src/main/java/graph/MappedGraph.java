@@ -0,0 +1,543 @@
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A read-only graph served straight from a memory-mapped binary file, so opening it parses
+ * nothing: it reads the header and checks the offsets, targets and string references in place,
+ * and processes mapping the same file share its pages through the OS page cache. Node values and edge labels are strings. Files are written
+ * from any {@link IndexedGraph} by write() and opened by open().
+ *
+ * <p>The file is big-endian and laid out as consecutive sections, each starting where the one
+ * before ends. N is the node count, E the edge count and S the number of pooled strings.
+ * <pre>
+ *   header     6 ints: MAGIC, FORMAT, N, E, S, string bytes, then a long: the source stamp
+ *   weights    E doubles, the weight of each edge
+ *   nodes      N ints, the pool index of each node's name
+ *   index      N ints, the node ids sorted by name (unsigned UTF-8 byte order)
+ *   offsets    N + 1 ints, the outgoing edges of node v are [offsets[v], offsets[v + 1])
+ *   targets    E ints, the destination id of each edge
+ *   labels     E ints, the pool index of each edge's label
+ *   pool       S + 1 ints, string i is bytes [pool[i], pool[i + 1]) of the string bytes
+ *   strings    the UTF-8 bytes of every pooled string
+ * </pre>
+ * Names and labels share the pool and each distinct string is stored once. Weights come first so
+ * they are 8-byte aligned. The source stamp is whatever the writer passed to identify the data
+ * the graph was built from, such as a checksum of it, so a reader can tell a stale file from a
+ * current one; it is 0 if none was given. A single mapping is limited to 2 GB, which bounds the file size.
+ */
+public final class MappedGraph implements IndexedGraph<String, String> {
+
+    // AF(this) = the graph laid out in buffer as described above, with section positions
+    // weightsAt, nodesAt, indexAt, offsetsAt, targetsAt, labelsAt, poolAt and stringsAt.
+    //
+    // Rep invariant: buffer != null, the header holds MAGIC and FORMAT, the sections fit
+    // exactly in buffer.capacity() bytes, the offsets start at 0, are non-decreasing and end at
+    // edgeCount, every target and index entry is a node id, every name and label is a pool
+    // index, and the pool starts at 0, is non-decreasing and ends at the string bytes.
+
+    /** The first int of every graph file. */
+    public static final int MAGIC = 0x43475048;
+    /** The version of the layout above. Version 1 had no source stamp. */
+    public static final int FORMAT = 2;
+
+    private static final int HEADER_BYTES = 32;
+
+    private final MappedByteBuffer buffer;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final int weightsAt;
+    private final int nodesAt;
+    private final int indexAt;
+    private final int offsetsAt;
+    private final int targetsAt;
+    private final int labelsAt;
+    private final int poolAt;
+    private final int stringsAt;
+    private final String[] names;
+
+    /**
+     * Constructor wrap a mapped graph file and locate its sections from the header.
+     *
+     * @param buffer the whole file, mapped read-only
+     * @throws RuntimeException if the buffer doesn't hold a graph file.
+     */
+    private MappedGraph(MappedByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT) {
+            throw new RuntimeException("Not a graph file of format " + FORMAT);
+        }
+        this.buffer = buffer;
+        this.nodeCount = buffer.getInt(8);
+        this.edgeCount = buffer.getInt(12);
+        int stringCount = buffer.getInt(16);
+        long stringBytes = buffer.getInt(20);
+        long end = size(nodeCount, edgeCount, stringCount, stringBytes);
+        if (nodeCount < 0 || edgeCount < 0 || stringCount < 0 || stringBytes < 0 || end != buffer.capacity()) {
+            throw new RuntimeException("The graph file is truncated or corrupt");
+        }
+        this.weightsAt = HEADER_BYTES;
+        this.nodesAt = weightsAt + 8 * edgeCount;
+        this.indexAt = nodesAt + 4 * nodeCount;
+        this.offsetsAt = indexAt + 4 * nodeCount;
+        this.targetsAt = offsetsAt + 4 * (nodeCount + 1);
+        this.labelsAt = targetsAt + 4 * edgeCount;
+        this.poolAt = labelsAt + 4 * edgeCount;
+        this.stringsAt = poolAt + 4 * (stringCount + 1);
+        this.names = new String[nodeCount];
+        checkRep();
+    }
+
+    /**
+     * Map the given graph file. The file must not be changed while it is mapped; write() never
+     * changes a file in place, so rewriting a graph is safe while other processes map it.
+     *
+     * @param file the file written by write()
+     * @return the graph held in the file
+     * @throws UncheckedIOException if the file can't be read.
+     * @throws RuntimeException if file is null or doesn't hold a graph file.
+     */
+    public static MappedGraph open(Path file) {
+        if (file == null) {
+            throw new RuntimeException("The file can't be null");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new RuntimeException("The graph file is too large to map");
+            }
+            // The mapping stays valid after the channel is closed.
+            return new MappedGraph(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read graph file " + file, e);
+        }
+    }
+
+    /**
+     * Check from its header alone whether the given file is a graph file of the current format
+     * and the right size, written with the given source stamp. A file that doesn't exist, was
+     * written by something else or in an older format, was cut short, or was built from other
+     * data doesn't match, and can be rewritten before it is opened.
+     *
+     * @param file the file to check
+     * @param source the source stamp of the data the graph would be built from now
+     * @return true if open(file) would map a graph written with source, false otherwise.
+     * @throws UncheckedIOException if the file exists but can't be read.
+     * @throws RuntimeException if file is null.
+     */
+    public static boolean matches(Path file, long source) {
+        if (file == null) {
+            throw new RuntimeException("The file can't be null");
+        }
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            long length = Files.size(file);
+            if (length < HEADER_BYTES || in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                return false;
+            }
+            int nodes = in.readInt();
+            int edges = in.readInt();
+            int strings = in.readInt();
+            int stringBytes = in.readInt();
+            return nodes >= 0 && edges >= 0 && strings >= 0 && stringBytes >= 0
+                    && size(nodes, edges, strings, stringBytes) == length && in.readLong() == source;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read graph file " + file, e);
+        }
+    }
+
+    /**
+     * Write the given graph to a file in the layout above with a source stamp of 0.
+     *
+     * @param graph the graph to write
+     * @param names function giving the name stored for each node value
+     * @param labels function giving the string stored for each edge label
+     * @param file the file to create or replace
+     * @param <T> A set of vertices
+     * @param <E> A set of edges
+     * @throws UncheckedIOException if the file can't be written.
+     * @throws RuntimeException if any argument is null, two nodes get the same name, or the
+     * file would be larger than 2 GB.
+     */
+    public static <T, E> void write(IndexedGraph<T, E> graph, Function<? super T, String> names,
+                                    Function<? super E, String> labels, Path file) {
+        write(graph, names, labels, file, 0);
+    }
+
+    /**
+     * Write the given graph to a file in the layout above, keeping its node ids and edge order.
+     * The file is written to a temporary file of its own beside its final name and moved into
+     * place, so a process mapping the old file keeps a consistent view, no process sees a half
+     * written one, and processes writing the same file at once don't write into each other's.
+     *
+     * @param graph the graph to write
+     * @param names function giving the name stored for each node value
+     * @param labels function giving the string stored for each edge label
+     * @param file the file to create or replace
+     * @param source the source stamp to store, read back by source()
+     * @param <T> A set of vertices
+     * @param <E> A set of edges
+     * @throws UncheckedIOException if the file can't be written.
+     * @throws RuntimeException if any argument is null, two nodes get the same name, or the
+     * file would be larger than 2 GB.
+     */
+    public static <T, E> void write(IndexedGraph<T, E> graph, Function<? super T, String> names,
+                                    Function<? super E, String> labels, Path file, long source) {
+        if (graph == null || names == null || labels == null || file == null) {
+            throw new RuntimeException("Parameters can't be null");
+        }
+        int n = graph.nodeCount();
+        int m = graph.edgeCount();
+        Map<String, Integer> pool = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int[] nodeNames = new int[n];
+        for (int v = 0; v < n; v++) {
+            nodeNames[v] = intern(names.apply(graph.valueOf(v)), pool, strings);
+        }
+        if (pool.size() != n) {
+            throw new RuntimeException("The graph can't have multiple nodes with same name");
+        }
+        int[] edgeLabels = new int[m];
+        for (int e = 0; e < m; e++) {
+            edgeLabels[e] = intern(labels.apply(graph.label(e)), pool, strings);
+        }
+        Integer[] index = new Integer[n];
+        for (int v = 0; v < n; v++) {
+            index[v] = v;
+        }
+        Arrays.sort(index, (a, b) -> Arrays.compareUnsigned(strings.get(nodeNames[a]), strings.get(nodeNames[b])));
+        long stringBytes = 0;
+        for (byte[] string : strings) {
+            stringBytes += string.length;
+        }
+        if (size(n, m, strings.size(), stringBytes) > Integer.MAX_VALUE) {
+            throw new RuntimeException("The graph is too large for one graph file");
+        }
+
+        Path temp = null;
+        try {
+            temp = GraphFiles.tempFile(file);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeInt(n);
+                out.writeInt(m);
+                out.writeInt(strings.size());
+                out.writeInt((int) stringBytes);
+                out.writeLong(source);
+                for (int e = 0; e < m; e++) {
+                    out.writeDouble(graph.weight(e));
+                }
+                for (int v = 0; v < n; v++) {
+                    out.writeInt(nodeNames[v]);
+                }
+                for (int v = 0; v < n; v++) {
+                    out.writeInt(index[v]);
+                }
+                for (int v = 0; v < n; v++) {
+                    out.writeInt(graph.firstEdge(v));
+                }
+                out.writeInt(m);
+                for (int e = 0; e < m; e++) {
+                    out.writeInt(graph.target(e));
+                }
+                for (int e = 0; e < m; e++) {
+                    out.writeInt(edgeLabels[e]);
+                }
+                int at = 0;
+                for (byte[] string : strings) {
+                    out.writeInt(at);
+                    at += string.length;
+                }
+                out.writeInt(at);
+                for (byte[] string : strings) {
+                    out.write(string);
+                }
+            }
+            GraphFiles.replace(temp, file);
+        } catch (IOException e) {
+            GraphFiles.discard(temp);
+            throw new UncheckedIOException("Can't write graph file " + file, e);
+        }
+    }
+
+    /**
+     * Return the source stamp the file was written with, to compare against the stamp of the
+     * data the graph would be built from now.
+     *
+     * @return the source stamp, or 0 if none was given
+     */
+    public long source() {
+        return buffer.getLong(24);
+    }
+
+    /**
+     * Return number of nodes in the graph.
+     *
+     * @return Return the number of nodes in the graph.
+     */
+    @Override
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Return number of edges in the graph.
+     *
+     * @return Return the number of edges in the graph.
+     */
+    @Override
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Find the dense id of the node with the given name by binary search over the sorted name
+     * index, comparing the UTF-8 bytes in place. Costs O(log N) string comparisons.
+     *
+     * @param value the name to look up
+     * @return the id of the node with that name, or -1 if no node has it.
+     */
+    @Override
+    public int idOf(String value) {
+        if (value == null) {
+            return -1;
+        }
+        byte[] key = value.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = nodeCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = buffer.getInt(indexAt + 4 * mid);
+            int cmp = compare(buffer.getInt(nodesAt + 4 * id), key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check whether the graph contain a node with the given name.
+     *
+     * @param value The name will be checked
+     * @return Return true if the graph contain the name, return false otherwise.
+     */
+    @Override
+    public boolean containsValue(String value) {
+        return idOf(value) >= 0;
+    }
+
+    /**
+     * Return the name of the node with the given id. Each name is decoded from the file once
+     * and then cached.
+     *
+     * @param id the node id
+     * @return the name of that node
+     * @throws IndexOutOfBoundsException if id is not a node id of this graph.
+     */
+    @Override
+    public String valueOf(int id) {
+        String name = names[id];
+        if (name == null) {
+            // Racing threads decode equal strings, so the cache needs no locking.
+            name = string(buffer.getInt(nodesAt + 4 * id));
+            names[id] = name;
+        }
+        return name;
+    }
+
+    /**
+     * Return the index of the first edge pointing out from the given node.
+     *
+     * @param id the node id
+     * @return the index of the first outgoing edge of id
+     */
+    @Override
+    public int firstEdge(int id) {
+        return buffer.getInt(offsetsAt + 4 * id);
+    }
+
+    /**
+     * Return one past the index of the last edge pointing out from the given node.
+     *
+     * @param id the node id
+     * @return the exclusive end index of the outgoing edges of id
+     */
+    @Override
+    public int lastEdge(int id) {
+        return buffer.getInt(offsetsAt + 4 * (id + 1));
+    }
+
+    /**
+     * Return the destination node id of the given edge.
+     *
+     * @param edge the edge index
+     * @return the id of the node the edge points to
+     */
+    @Override
+    public int target(int edge) {
+        return buffer.getInt(targetsAt + 4 * edge);
+    }
+
+    /**
+     * Return the weight of the given edge.
+     *
+     * @param edge the edge index
+     * @return the weight of the edge
+     */
+    @Override
+    public double weight(int edge) {
+        return buffer.getDouble(weightsAt + 8 * edge);
+    }
+
+    /**
+     * Return the label of the given edge, decoded from the file on every call.
+     *
+     * @param edge the edge index
+     * @return the label of the edge
+     */
+    @Override
+    public String label(int edge) {
+        return string(buffer.getInt(labelsAt + 4 * edge));
+    }
+
+    /**
+     * Return the number of bytes a graph file with the given counts takes.
+     *
+     * @param nodes the node count
+     * @param edges the edge count
+     * @param strings the number of pooled strings
+     * @param stringBytes the total length of the pooled strings
+     * @return the file size in bytes
+     */
+    private static long size(long nodes, long edges, long strings, long stringBytes) {
+        return HEADER_BYTES + 8 * edges + 4 * nodes + 4 * nodes + 4 * (nodes + 1) + 4 * edges + 4 * edges
+                + 4 * (strings + 1) + stringBytes;
+    }
+
+    /**
+     * Add a string to the pool unless it's already there.
+     *
+     * @param string the string to add
+     * @param pool the pool index of every string added so far
+     * @param strings the UTF-8 bytes of every string added so far, in pool order
+     * @return the pool index of string
+     * @throws RuntimeException if string is null.
+     */
+    private static int intern(String string, Map<String, Integer> pool, List<byte[]> strings) {
+        if (string == null) {
+            throw new RuntimeException("The names and labels can't be null");
+        }
+        Integer at = pool.get(string);
+        if (at == null) {
+            at = strings.size();
+            pool.put(string, at);
+            strings.add(string.getBytes(StandardCharsets.UTF_8));
+        }
+        return at;
+    }
+
+    /**
+     * Decode a pooled string.
+     *
+     * @param i the pool index
+     * @return the string
+     */
+    private String string(int i) {
+        int from = buffer.getInt(poolAt + 4 * i);
+        int to = buffer.getInt(poolAt + 4 * (i + 1));
+        byte[] bytes = new byte[to - from];
+        for (int b = 0; b < bytes.length; b++) {
+            bytes[b] = buffer.get(stringsAt + from + b);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compare a pooled string with the given bytes in unsigned byte order, without decoding it.
+     *
+     * @param i the pool index
+     * @param key the bytes to compare with
+     * @return a negative number, zero or a positive number as the pooled string is less than,
+     * equal to or greater than key
+     */
+    private int compare(int i, byte[] key) {
+        int from = stringsAt + buffer.getInt(poolAt + 4 * i);
+        int length = buffer.getInt(poolAt + 4 * (i + 1)) - buffer.getInt(poolAt + 4 * i);
+        for (int b = 0; b < Math.min(length, key.length); b++) {
+            int cmp = Byte.toUnsignedInt(buffer.get(from + b)) - Byte.toUnsignedInt(key[b]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - key.length;
+    }
+
+    /**
+     * Check if rep invariant holds.
+     *
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkRep() {
+        if (buffer == null || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT) {
+            throw new RuntimeException("Not a graph file");
+        }
+        int stringCount = buffer.getInt(16);
+        int stringBytes = buffer.getInt(20);
+        if (stringsAt + (long) stringBytes != buffer.capacity()) {
+            throw new RuntimeException("The graph file is truncated or corrupt");
+        }
+        if (buffer.getInt(offsetsAt) != 0 || buffer.getInt(offsetsAt + 4 * nodeCount) != edgeCount) {
+            throw new RuntimeException("The offsets must start at 0 and end at the edge count");
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            if (firstEdge(v) > lastEdge(v)) {
+                throw new RuntimeException("The offsets must be non-decreasing");
+            }
+            int id = buffer.getInt(indexAt + 4 * v);
+            if (id < 0 || id >= nodeCount) {
+                throw new RuntimeException("The name index must hold node ids");
+            }
+            int name = buffer.getInt(nodesAt + 4 * v);
+            if (name < 0 || name >= stringCount) {
+                throw new RuntimeException("A node name must be a pooled string");
+            }
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            int target = target(e);
+            if (target < 0 || target >= nodeCount) {
+                throw new RuntimeException("An edge must point to a node of the graph");
+            }
+            int label = buffer.getInt(labelsAt + 4 * e);
+            if (label < 0 || label >= stringCount) {
+                throw new RuntimeException("An edge label must be a pooled string");
+            }
+        }
+        if (buffer.getInt(poolAt) != 0 || buffer.getInt(poolAt + 4 * stringCount) != stringBytes) {
+            throw new RuntimeException("The string pool must start at 0 and end at the string bytes");
+        }
+        for (int i = 0; i < stringCount; i++) {
+            if (buffer.getInt(poolAt + 4 * i) > buffer.getInt(poolAt + 4 * (i + 1))) {
+                throw new RuntimeException("The string pool must be non-decreasing");
+            }
+        }
+    }
+}
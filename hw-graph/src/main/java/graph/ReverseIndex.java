@@ -0,0 +1,104 @@
+package graph;
+
+/**
+ * The incoming edges of every node of an {@link IndexedGraph}, laid out in compressed sparse row
+ * form alongside it. The incoming edges of node v are the positions in [firstEdge(v), lastEdge(v)),
+ * and each position names the node the edge comes from and the edge's index in the graph, so a
+ * search can walk edges backward and still read their weights and labels from the graph itself.
+ */
+public final class ReverseIndex {
+
+    // AF(this) = for every node v and every position r in [offsets[v], offsets[v + 1]), the edge
+    // edges[r] of the indexed graph, which goes from sources[r] to v.
+    //
+    // Rep invariant: offsets.length == nodeCount + 1, offsets[0] == 0, offsets is non-decreasing,
+    // offsets[nodeCount] == sources.length == edges.length.
+
+    private final int[] offsets;
+    private final int[] sources;
+    private final int[] edges;
+
+    /**
+     * Constructor lay out the incoming edges of every node of the given graph. Incoming edges of
+     * a node are ordered by the id of the node they come from, then by edge index.
+     *
+     * @param graph the graph to index
+     * @throws RuntimeException if graph is null.
+     */
+    public ReverseIndex(IndexedGraph<?, ?> graph) {
+        if (graph == null) {
+            throw new RuntimeException("The graph can't be null");
+        }
+        int n = graph.nodeCount();
+        offsets = new int[n + 1];
+        sources = new int[graph.edgeCount()];
+        edges = new int[graph.edgeCount()];
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            offsets[graph.target(e) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = new int[n];
+        System.arraycopy(offsets, 0, next, 0, n);
+        for (int v = 0; v < n; v++) {
+            for (int e = graph.firstEdge(v); e < graph.lastEdge(v); e++) {
+                int r = next[graph.target(e)]++;
+                sources[r] = v;
+                edges[r] = e;
+            }
+        }
+        checkRep();
+    }
+
+    /**
+     * Return the position of the first edge pointing into the given node.
+     *
+     * @param id the node id
+     * @return the position of the first incoming edge of id
+     */
+    public int firstEdge(int id) {
+        return offsets[id];
+    }
+
+    /**
+     * Return one past the position of the last edge pointing into the given node.
+     *
+     * @param id the node id
+     * @return the exclusive end position of the incoming edges of id
+     */
+    public int lastEdge(int id) {
+        return offsets[id + 1];
+    }
+
+    /**
+     * Return the node the incoming edge at the given position comes from.
+     *
+     * @param position the position of an incoming edge
+     * @return the id of the node the edge starts at
+     */
+    public int source(int position) {
+        return sources[position];
+    }
+
+    /**
+     * Return the index in the graph of the incoming edge at the given position.
+     *
+     * @param position the position of an incoming edge
+     * @return the edge index to read its weight and label by
+     */
+    public int edge(int position) {
+        return edges[position];
+    }
+
+    /**
+     * Check if rep invariant holds.
+     *
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkRep() {
+        if (offsets[0] != 0 || offsets[offsets.length - 1] != sources.length || edges.length != sources.length) {
+            throw new RuntimeException("Offsets don't match the edge arrays");
+        }
+    }
+}
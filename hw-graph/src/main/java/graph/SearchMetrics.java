@@ -0,0 +1,164 @@
+package graph;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Search statistics that add up the counters of every search recorded, per algorithm. Safe to
+ * share between threads; each algorithm's totals are updated under their own lock, so searches
+ * by different algorithms never wait on each other.
+ */
+public final class SearchMetrics implements SearchStatistics {
+
+    // AF(this) = for each algorithm that is a key of totals, the sums and maxima in
+    // totals.get(algorithm) of the counters of every search recorded under that name.
+    //
+    // Rep invariant: totals != null and has no null keys or values.
+
+    private final Map<String, Totals> totals = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(String algorithm, long settled, long relaxed, long pushes, int peakQueue, long nanos) {
+        if (algorithm == null) {
+            throw new RuntimeException("The algorithm can't be null");
+        }
+        totals.computeIfAbsent(algorithm, name -> new Totals()).add(settled, relaxed, pushes, peakQueue, nanos);
+    }
+
+    /**
+     * Return the totals of every algorithm recorded so far.
+     *
+     * @return a map from each algorithm's name, in alphabetical order, to a summary of its searches
+     */
+    public Map<String, Summary> snapshot() {
+        Map<String, Summary> summaries = new TreeMap<>();
+        totals.forEach((algorithm, total) -> summaries.put(algorithm, total.summary()));
+        return summaries;
+    }
+
+    /**
+     * Forget every search recorded so far.
+     */
+    public void reset() {
+        totals.clear();
+    }
+
+    /**
+     * The running totals of one algorithm.
+     */
+    private static final class Totals {
+        private long searches;
+        private long settled;
+        private long relaxed;
+        private long pushes;
+        private int peakQueue;
+        private long nanos;
+        private long maxNanos;
+
+        private synchronized void add(long settled, long relaxed, long pushes, int peakQueue, long nanos) {
+            this.searches++;
+            this.settled += settled;
+            this.relaxed += relaxed;
+            this.pushes += pushes;
+            this.peakQueue = Math.max(this.peakQueue, peakQueue);
+            this.nanos += nanos;
+            this.maxNanos = Math.max(this.maxNanos, nanos);
+        }
+
+        private synchronized Summary summary() {
+            return new Summary(searches, settled, relaxed, pushes, peakQueue, nanos, maxNanos);
+        }
+    }
+
+    /**
+     * An immutable summary of the searches one algorithm ran.
+     */
+    public static final class Summary {
+        private final long searches;
+        private final long settled;
+        private final long relaxed;
+        private final long pushes;
+        private final int peakQueue;
+        private final double totalMillis;
+        private final double meanMillis;
+        private final double maxMillis;
+
+        /**
+         * @param searches the number of searches
+         * @param settled the total nodes settled
+         * @param relaxed the total edges examined
+         * @param pushes the total queue pushes
+         * @param peakQueue the largest queue any search held
+         * @param nanos the total wall time in nanoseconds
+         * @param maxNanos the longest wall time of one search in nanoseconds
+         */
+        private Summary(long searches, long settled, long relaxed, long pushes, int peakQueue, long nanos,
+                        long maxNanos) {
+            this.searches = searches;
+            this.settled = settled;
+            this.relaxed = relaxed;
+            this.pushes = pushes;
+            this.peakQueue = peakQueue;
+            this.totalMillis = nanos / 1e6;
+            this.meanMillis = searches == 0 ? 0 : nanos / 1e6 / searches;
+            this.maxMillis = maxNanos / 1e6;
+        }
+
+        /**
+         * @return the number of searches recorded
+         */
+        public long searches() {
+            return searches;
+        }
+
+        /**
+         * @return the total number of nodes settled
+         */
+        public long settled() {
+            return settled;
+        }
+
+        /**
+         * @return the total number of edges examined
+         */
+        public long relaxed() {
+            return relaxed;
+        }
+
+        /**
+         * @return the total number of queue pushes
+         */
+        public long pushes() {
+            return pushes;
+        }
+
+        /**
+         * @return the largest number of entries any one search's queue held
+         */
+        public int peakQueue() {
+            return peakQueue;
+        }
+
+        /**
+         * @return the total wall time of every search, in milliseconds
+         */
+        public double totalMillis() {
+            return totalMillis;
+        }
+
+        /**
+         * @return the mean wall time of a search, in milliseconds
+         */
+        public double meanMillis() {
+            return meanMillis;
+        }
+
+        /**
+         * @return the longest wall time of one search, in milliseconds
+         */
+        public double maxMillis() {
+            return maxMillis;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package graph;
+
+/**
+ * The outcome of a search that can run out of time: what it found, that there was nothing to
+ * find, or that it stopped at its {@link Deadline} before it could tell.
+ *
+ * @param <R> the type of what the search finds
+ */
+public final class SearchResult<R> {
+
+    // AF(this) = a search that ended with status, having found value if status is FOUND.
+    //
+    // Rep invariant: status != null, and value != null iff status == FOUND.
+
+    /**
+     * How a search ended.
+     */
+    public enum Status {
+        /** The search found what it was looking for. */
+        FOUND,
+
+        /** The search finished and there was nothing to find. */
+        NOT_FOUND,
+
+        /** The search stopped at its deadline before finishing. */
+        TIMED_OUT
+    }
+
+    private static final SearchResult<?> NOT_FOUND = new SearchResult<>(Status.NOT_FOUND, null);
+    private static final SearchResult<?> TIMED_OUT = new SearchResult<>(Status.TIMED_OUT, null);
+
+    private final Status status;
+    private final R value;
+
+    /**
+     * @param status how the search ended
+     * @param value what the search found, or null
+     */
+    private SearchResult(Status status, R value) {
+        this.status = status;
+        this.value = value;
+        checkRep();
+    }
+
+    /**
+     * Return the result of a search that found the given value.
+     *
+     * @param value what the search found
+     * @return a FOUND result holding value
+     * @throws RuntimeException if value is null.
+     */
+    public static <R> SearchResult<R> found(R value) {
+        if (value == null) {
+            throw new RuntimeException("The value found can't be null");
+        }
+        return new SearchResult<>(Status.FOUND, value);
+    }
+
+    /**
+     * Return the result of a search that finished without finding anything.
+     *
+     * @return a NOT_FOUND result
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> SearchResult<R> notFound() {
+        return (SearchResult<R>) NOT_FOUND;
+    }
+
+    /**
+     * Return the result of a search that stopped at its deadline.
+     *
+     * @return a TIMED_OUT result
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> SearchResult<R> timedOut() {
+        return (SearchResult<R>) TIMED_OUT;
+    }
+
+    /**
+     * Return how the search ended.
+     *
+     * @return the status of this result
+     */
+    public Status status() {
+        return status;
+    }
+
+    /**
+     * Check whether the search stopped at its deadline.
+     *
+     * @return true if the status is TIMED_OUT, false otherwise.
+     */
+    public boolean isTimedOut() {
+        return status == Status.TIMED_OUT;
+    }
+
+    /**
+     * Return what the search found.
+     *
+     * @return the value found, or null if the status isn't FOUND
+     */
+    public R value() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return status == Status.FOUND ? "FOUND " + value : status.toString();
+    }
+
+    /**
+     * Check if rep invariant holds.
+     *
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkRep() {
+        if (status == null || (value != null) != (status == Status.FOUND)) {
+            throw new RuntimeException("Only a FOUND result holds a value");
+        }
+    }
+}
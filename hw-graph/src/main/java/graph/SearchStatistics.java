@@ -0,0 +1,61 @@
+package graph;
+
+/**
+ * Receives the counters of each search as it finishes, so callers can see how much work a query
+ * took. A search keeps its counters in local variables and reports them once at the end, so
+ * collecting costs one call per search however large it is, and the default, {@link #NONE},
+ * ignores them.
+ */
+@FunctionalInterface
+public interface SearchStatistics {
+
+    /** Statistics that are thrown away. */
+    SearchStatistics NONE = (algorithm, settled, relaxed, pushes, peakQueue, nanos) -> { };
+
+    /**
+     * Record the counters of one finished search. Searches that only look up precomputed
+     * answers report zero for the counters and only their time.
+     *
+     * @param algorithm the name of the algorithm that searched
+     * @param settled the number of nodes settled, or visited by a breadth-first search
+     * @param relaxed the number of edges examined
+     * @param pushes the number of times a node was queued or had its key lowered
+     * @param peakQueue the largest number of entries the queue held at once
+     * @param nanos the wall time the search took, in nanoseconds
+     */
+    void record(String algorithm, long settled, long relaxed, long pushes, int peakQueue, long nanos);
+
+    /**
+     * Return statistics that record to this and then to other.
+     *
+     * @param other the statistics to also record to
+     * @return statistics recording every search to both
+     * @throws RuntimeException if other is null.
+     */
+    default SearchStatistics andThen(SearchStatistics other) {
+        if (other == null) {
+            throw new RuntimeException("The statistics can't be null");
+        }
+        return (algorithm, settled, relaxed, pushes, peakQueue, nanos) -> {
+            record(algorithm, settled, relaxed, pushes, peakQueue, nanos);
+            other.record(algorithm, settled, relaxed, pushes, peakQueue, nanos);
+        };
+    }
+
+    /**
+     * Return statistics that record to this under the given algorithm name, whatever name the
+     * search reports. A search run on behalf of another, such as the one that fills a cache,
+     * is then counted toward the algorithm the caller asked for.
+     *
+     * @param algorithm the name to record every search under
+     * @return statistics recording every search to this as algorithm
+     * @throws RuntimeException if algorithm is null.
+     */
+    default SearchStatistics labeled(String algorithm) {
+        if (algorithm == null) {
+            throw new RuntimeException("The algorithm can't be null");
+        }
+        return (ignored, settled, relaxed, pushes, peakQueue, nanos) ->
+                record(algorithm, settled, relaxed, pushes, peakQueue, nanos);
+    }
+}
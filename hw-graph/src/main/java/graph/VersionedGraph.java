@@ -0,0 +1,614 @@
+package graph;
+
+import graph.Graph.Edge;
+import graph.Graph.Node;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A multi graph where edges are labeled that changes by publishing whole new versions, so queries
+ * never block on or observe a half applied edit. Queries call pin() once and run against the
+ * returned {@link Version}, which never changes. Writers stage changes in a {@link Batch} and
+ * publish them together: the new version is built off to the side and becomes current with one
+ * atomic swap, so queries already running keep the version they pinned and new queries see every
+ * change of the batch or none of them.
+ *
+ * <p>A new version shares the edge lists of every node the batch didn't touch with the version it
+ * was built from, so publishing costs O(V) to copy the node table plus the degree of each touched
+ * node. Versions don't refer to each other, so an old version is reclaimed by the garbage collector
+ * as soon as no query still holds it.
+ *
+ * @param <T> A set of vertices
+ * @param <E> A set of edges
+ */
+public class VersionedGraph<T, E> {
+
+    // AF(this) = the graph current.get(), the latest published version.
+    //
+    // Rep invariant: current != null and current.get() != null.
+
+    private final AtomicReference<Version<T, E>> current;
+
+    /**
+     * Constructor create a versioned graph whose first version is empty.
+     *
+     * @spec.effects create a versioned graph holding version 0, an empty graph.
+     */
+    public VersionedGraph() {
+        this.current = new AtomicReference<>(new Version<>(0, new HashMap<>()));
+        checkRep();
+    }
+
+    /**
+     * Constructor create a versioned graph whose first version copies the given graph. Later
+     * changes to graph don't affect this one.
+     *
+     * @param graph the graph to copy
+     * @throws RuntimeException if graph is null.
+     * @spec.effects create a versioned graph holding version 0, a copy of graph.
+     */
+    public VersionedGraph(LabeledGraph<T, E> graph) {
+        if (graph == null) {
+            throw new RuntimeException("The graph can't be null");
+        }
+        Map<T, Entry<T, E>> entries = new HashMap<>();
+        for (Node<T> node : graph.allNodes()) {
+            entries.put(node.getNode(), new Entry<>(node,
+                    List.copyOf(graph.edgesFrom(node.getNode())), List.copyOf(graph.edgesTo(node.getNode()))));
+        }
+        this.current = new AtomicReference<>(new Version<>(0, entries));
+        checkRep();
+    }
+
+    /**
+     * Return the latest published version for a query to run against. The caller keeps the
+     * version for as long as the query runs; later publishes don't change it.
+     *
+     * @return the current version of the graph
+     */
+    public Version<T, E> pin() {
+        return current.get();
+    }
+
+    /**
+     * Start staging a batch of changes to this graph.
+     *
+     * @return a new empty batch that publishes to this graph
+     */
+    public Batch<T, E> batch() {
+        return new Batch<>(this);
+    }
+
+    /**
+     * Apply the given changes to the latest version and make the result current. If another
+     * writer publishes first, the changes are applied again on top of its version, so no
+     * publish is ever lost.
+     *
+     * @param changes the staged changes, in the order they were staged
+     * @return the version published
+     */
+    private Version<T, E> publish(List<Consumer<Draft<T, E>>> changes) {
+        while (true) {
+            Version<T, E> base = current.get();
+            Draft<T, E> draft = new Draft<>(base);
+            for (Consumer<Draft<T, E>> change : changes) {
+                change.accept(draft);
+            }
+            Version<T, E> next = draft.toVersion();
+            if (current.compareAndSet(base, next)) {
+                checkRep();
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Check if rep invariant holds.
+     *
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkRep() {
+        if (current == null || current.get() == null) {
+            throw new RuntimeException("The graph can't be null");
+        }
+    }
+
+    /**
+     * Changes staged against a VersionedGraph. The changes follow the rules of {@link Graph}:
+     * an edge whose endpoints are missing, or that is already in the graph, is skipped, and
+     * deleting a node deletes every edge touching it. Nothing is visible until publish().
+     * A batch is meant to be used by one writer thread.
+     *
+     * @param <T> A set of vertices
+     * @param <E> A set of edges
+     */
+    public static class Batch<T, E> {
+        private final VersionedGraph<T, E> graph;
+        private final List<Consumer<Draft<T, E>>> changes;
+
+        /**
+         * Constructor create an empty batch.
+         *
+         * @param graph the graph the batch publishes to
+         */
+        private Batch(VersionedGraph<T, E> graph) {
+            this.graph = graph;
+            this.changes = new ArrayList<>();
+        }
+
+        /**
+         * Stage adding a node holding the given value.
+         *
+         * @param value the value stored in the new node
+         * @return this batch
+         * @throws RuntimeException if value is null.
+         */
+        public Batch<T, E> addNode(T value) {
+            if (value == null) {
+                throw new RuntimeException("The node can't be null");
+            }
+            changes.add(draft -> draft.addNode(value));
+            return this;
+        }
+
+        /**
+         * Stage deleting the node holding the given value and every edge touching it.
+         *
+         * @param value the value stored in the node
+         * @return this batch
+         * @throws RuntimeException if value is null.
+         */
+        public Batch<T, E> deleteNode(T value) {
+            if (value == null) {
+                throw new RuntimeException("The node can't be null");
+            }
+            changes.add(draft -> draft.deleteNode(value));
+            return this;
+        }
+
+        /**
+         * Stage adding an edge labeled label from the node holding start to the node holding end.
+         *
+         * @param start the value stored in the starting node
+         * @param end the value stored in the ending node
+         * @param label the edge label
+         * @return this batch
+         * @throws RuntimeException if any argument is null.
+         */
+        public Batch<T, E> addEdge(T start, T end, E label) {
+            if (start == null || end == null || label == null) {
+                throw new RuntimeException("The nodes or edge can't be null");
+            }
+            changes.add(draft -> draft.addEdge(start, end, label));
+            return this;
+        }
+
+        /**
+         * Stage removing the edge labeled label from the node holding start to the node holding end.
+         *
+         * @param start the value stored in the starting node
+         * @param end the value stored in the ending node
+         * @param label the edge label
+         * @return this batch
+         * @throws RuntimeException if any argument is null.
+         */
+        public Batch<T, E> deleteEdge(T start, T end, E label) {
+            if (start == null || end == null || label == null) {
+                throw new RuntimeException("The nodes or edge can't be null");
+            }
+            changes.add(draft -> draft.deleteEdge(start, end, label));
+            return this;
+        }
+
+        /**
+         * Apply every staged change at once and make the result the current version of the graph.
+         * The batch is emptied and can be reused.
+         *
+         * @return the version published
+         */
+        public Version<T, E> publish() {
+            Version<T, E> version = graph.publish(changes);
+            changes.clear();
+            return version;
+        }
+    }
+
+    /**
+     * One immutable version of a VersionedGraph. A version supports every read of {@link
+     * LabeledGraph}, so searches written against LabeledGraph run on it directly; the mutators
+     * throw UnsupportedOperationException, as changes go through a {@link Batch}.
+     *
+     * @param <T> A set of vertices
+     * @param <E> A set of edges
+     */
+    public static final class Version<T, E> implements LabeledGraph<T, E> {
+
+        // AF(this) = the graph with a node for every key of entries, whose outgoing and incoming
+        // edges are entries.get(v).out and entries.get(v).in, published as version number.
+        //
+        // Rep invariant: entries != null and is never modified, entries.get(v).node holds v, and
+        // every edge in entries.get(a).out pointing to b is also in entries.get(b).in.
+
+        private final long number;
+        private final Map<T, Entry<T, E>> entries;
+
+        /**
+         * Constructor wrap the node table of a new version. The table is owned by the version
+         * and must not be modified afterwards.
+         *
+         * @param number the version number
+         * @param entries the node table
+         */
+        private Version(long number, Map<T, Entry<T, E>> entries) {
+            this.number = number;
+            this.entries = entries;
+        }
+
+        /**
+         * Return the number of this version. The first version is 0 and every publish adds one.
+         *
+         * @return the version number
+         */
+        public long number() {
+            return number;
+        }
+
+        /**
+         * Versions are immutable; stage the change in a Batch instead.
+         *
+         * @throws UnsupportedOperationException always.
+         */
+        @Override
+        public boolean addNode(Node<T> node) {
+            throw new UnsupportedOperationException("A version can't be changed, publish a batch instead");
+        }
+
+        /**
+         * Versions are immutable; stage the change in a Batch instead.
+         *
+         * @throws UnsupportedOperationException always.
+         */
+        @Override
+        public boolean deleteNode(Node<T> node) {
+            throw new UnsupportedOperationException("A version can't be changed, publish a batch instead");
+        }
+
+        /**
+         * Versions are immutable; stage the change in a Batch instead.
+         *
+         * @throws UnsupportedOperationException always.
+         */
+        @Override
+        public boolean addEdge(Node<T> start, Node<T> end, E labelNum) {
+            throw new UnsupportedOperationException("A version can't be changed, publish a batch instead");
+        }
+
+        /**
+         * Versions are immutable; stage the change in a Batch instead.
+         *
+         * @throws UnsupportedOperationException always.
+         */
+        @Override
+        public boolean deleteEdge(Node<T> start, Node<T> end, E labelNum) {
+            throw new UnsupportedOperationException("A version can't be changed, publish a batch instead");
+        }
+
+        /**
+         * Get and return all the child nodes of the given node.
+         *
+         * @param node the given node
+         * @throws RuntimeException if the node is null or not in this version.
+         * @return Return all the child nodes of the given node.
+         */
+        @Override
+        public List<Node<T>> getChild(Node<T> node) {
+            if (node == null) {
+                throw new RuntimeException("Node can't be null");
+            }
+            List<Node<T>> children = new ArrayList<>();
+            for (Edge<T, E> edge : edgesFrom(node.getNode())) {
+                children.add(edge.getDes());
+            }
+            return children;
+        }
+
+        /**
+         * Get and return all the edges that pointing out from the given node.
+         *
+         * @param node the given node
+         * @throws RuntimeException if the node is not in this version.
+         * @return a list of edges where all those edges are pointing out from the given node
+         */
+        @Override
+        public List<Edge<T, E>> getAllEdgesFrom(Node<T> node) {
+            if (node == null) {
+                throw new RuntimeException("The given node is not in the graph");
+            }
+            return new ArrayList<>(edgesFrom(node.getNode()));
+        }
+
+        /**
+         * Get and return all the edges that pointing towards to the given node, in the order
+         * they were added.
+         *
+         * @param node the given node
+         * @throws RuntimeException if the node is null.
+         * @return a list of edges pointing towards the given node, empty if it's not in this version
+         */
+        @Override
+        public List<Edge<T, E>> getAllEdgesTo(Node<T> node) {
+            if (node == null) {
+                throw new RuntimeException("Node can't be null");
+            }
+            Entry<T, E> entry = entries.get(node.getNode());
+            return entry == null ? new ArrayList<>() : new ArrayList<>(entry.in);
+        }
+
+        /**
+         * Get the immutable list of edges pointing out from the node holding the given value, in the
+         * order they were added. Doesn't copy.
+         *
+         * @param value the value stored in the given node
+         * @throws RuntimeException if no node holds the value.
+         * @return the edges pointing out from the node holding value
+         */
+        @Override
+        public Collection<Edge<T, E>> edgesFrom(T value) {
+            return entry(value).out;
+        }
+
+        /**
+         * Get the immutable list of edges pointing towards the node holding the given value, in the
+         * order they were added. Doesn't copy.
+         *
+         * @param value the value stored in the given node
+         * @throws RuntimeException if no node holds the value.
+         * @return the edges pointing towards the node holding value
+         */
+        @Override
+        public Collection<Edge<T, E>> edgesTo(T value) {
+            return entry(value).in;
+        }
+
+        /**
+         * Pass every edge pointing out from the node holding the given value to action, in the
+         * order they were added.
+         *
+         * @param value the value stored in the given node
+         * @param action the action to perform on each edge
+         * @throws RuntimeException if no node holds the value or action is null.
+         */
+        @Override
+        public void forEachEdge(T value, Consumer<? super Edge<T, E>> action) {
+            if (action == null) {
+                throw new RuntimeException("Action can't be null");
+            }
+            for (Edge<T, E> edge : edgesFrom(value)) {
+                action.accept(edge);
+            }
+        }
+
+        /**
+         * Return the node this version stores for the given value.
+         *
+         * @param value the value stored in the given node
+         * @return the node holding value, or null if no node holds it.
+         */
+        @Override
+        public Node<T> nodeOf(T value) {
+            Entry<T, E> entry = value == null ? null : entries.get(value);
+            return entry == null ? null : entry.node;
+        }
+
+        /**
+         * Get and return all the nodes in this version as list.
+         *
+         * @return return all the nodes as list in this version.
+         */
+        @Override
+        public List<Node<T>> allNodes() {
+            List<Node<T>> nodes = new ArrayList<>(entries.size());
+            for (Entry<T, E> entry : entries.values()) {
+                nodes.add(entry.node);
+            }
+            return nodes;
+        }
+
+        /**
+         * Check whether this version contain the node.
+         *
+         * @param node The node will be checked
+         * @return Return true if this version contain the node, return false otherwise.
+         */
+        @Override
+        public boolean containsNode(Node<T> node) {
+            return node != null && entries.containsKey(node.getNode());
+        }
+
+        /**
+         * Check whether this version contain a node holding the given value.
+         *
+         * @param value The value will be checked
+         * @return Return true if this version contain the value, return false otherwise.
+         */
+        @Override
+        public boolean containsValue(T value) {
+            return value != null && entries.containsKey(value);
+        }
+
+        /**
+         * Return number of nodes in this version.
+         *
+         * @return Return the number of nodes in this version.
+         */
+        @Override
+        public int size() {
+            return entries.size();
+        }
+
+        /**
+         * Check whether this version is empty.
+         *
+         * @return Return true is this version is empty, return false otherwise.
+         */
+        @Override
+        public boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        /**
+         * Lay out this version as a compact graph for read-only traversals.
+         *
+         * @param weigher function mapping an edge label to the numeric weight stored for that edge
+         * @return a compact copy of this version
+         * @throws RuntimeException if weigher is null.
+         */
+        @Override
+        public CompactGraph<T, E> freeze(ToDoubleFunction<? super E> weigher) {
+            return freeze(weigher, null);
+        }
+
+        /**
+         * Lay out this version as a compact graph, with the outgoing edges of every node sorted by
+         * the given order.
+         *
+         * @param weigher function mapping an edge label to the numeric weight stored for that edge
+         * @param order the order of the outgoing edges of each node, or null to keep insertion order
+         * @return a compact copy of this version
+         * @throws RuntimeException if weigher is null.
+         */
+        @Override
+        public CompactGraph<T, E> freeze(ToDoubleFunction<? super E> weigher, Comparator<? super Edge<T, E>> order) {
+            return CompactGraph.of(new ArrayList<>(entries.keySet()), value -> entries.get(value).out, weigher, order);
+        }
+
+        /**
+         * Look up the entry of the node holding the given value.
+         *
+         * @param value the value stored in the node
+         * @return the entry of the node
+         * @throws RuntimeException if no node holds the value.
+         */
+        private Entry<T, E> entry(T value) {
+            Entry<T, E> entry = entries.get(value);
+            if (entry == null) {
+                throw new RuntimeException("The given node is not in the graph");
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * The interned node for one value together with its immutable outgoing and incoming edges.
+     * Entries are shared between every version in which the node didn't change.
+     */
+    private static final class Entry<T, E> {
+        private final Node<T> node;
+        private final List<Edge<T, E>> out;
+        private final List<Edge<T, E>> in;
+
+        private Entry(Node<T> node, List<Edge<T, E>> out, List<Edge<T, E>> in) {
+            this.node = node;
+            this.out = out;
+            this.in = in;
+        }
+    }
+
+    /**
+     * A version under construction. It starts as a shallow copy of the base version's node table
+     * and copies the edge lists of a node only when a change first touches it.
+     */
+    private static final class Draft<T, E> {
+        private final long number;
+        private final Map<T, Entry<T, E>> entries;
+        private final Map<T, List<Edge<T, E>>> out;
+        private final Map<T, List<Edge<T, E>>> in;
+
+        private Draft(Version<T, E> base) {
+            this.number = base.number + 1;
+            this.entries = new HashMap<>(base.entries);
+            this.out = new HashMap<>();
+            this.in = new HashMap<>();
+        }
+
+        private void addNode(T value) {
+            if (!entries.containsKey(value)) {
+                entries.put(value, new Entry<>(new Node<>(value), List.of(), List.of()));
+            }
+        }
+
+        private void deleteNode(T value) {
+            Entry<T, E> entry = entries.get(value);
+            if (entry == null) {
+                return;
+            }
+            for (Edge<T, E> edge : outOf(value)) {
+                if (edge.getDes() != entry.node) {
+                    inOf(edge.getDes().getNode()).remove(edge);
+                }
+            }
+            for (Edge<T, E> edge : inOf(value)) {
+                if (edge.getSource() != entry.node) {
+                    outOf(edge.getSource().getNode()).remove(edge);
+                }
+            }
+            entries.remove(value);
+            out.remove(value);
+            in.remove(value);
+        }
+
+        private void addEdge(T start, T end, E label) {
+            Entry<T, E> from = entries.get(start);
+            Entry<T, E> to = entries.get(end);
+            if (from == null || to == null) {
+                return;
+            }
+            Edge<T, E> edge = new Edge<>(from.node, to.node, label);
+            List<Edge<T, E>> edges = outOf(start);
+            if (!edges.contains(edge)) {
+                edges.add(edge);
+                inOf(end).add(edge);
+            }
+        }
+
+        private void deleteEdge(T start, T end, E label) {
+            Entry<T, E> from = entries.get(start);
+            Entry<T, E> to = entries.get(end);
+            if (from == null || to == null) {
+                return;
+            }
+            Edge<T, E> edge = new Edge<>(from.node, to.node, label);
+            if (outOf(start).remove(edge)) {
+                inOf(end).remove(edge);
+            }
+        }
+
+        private List<Edge<T, E>> outOf(T value) {
+            return out.computeIfAbsent(value, v -> new ArrayList<>(entries.get(v).out));
+        }
+
+        private List<Edge<T, E>> inOf(T value) {
+            return in.computeIfAbsent(value, v -> new ArrayList<>(entries.get(v).in));
+        }
+
+        /**
+         * Freeze the draft into a version, replacing only the entries whose edges changed.
+         *
+         * @return the new version
+         */
+        private Version<T, E> toVersion() {
+            Set<T> touched = new HashSet<>(out.keySet());
+            touched.addAll(in.keySet());
+            for (T value : touched) {
+                Entry<T, E> entry = entries.get(value);
+                List<Edge<T, E>> newOut = out.containsKey(value) ? List.copyOf(out.get(value)) : entry.out;
+                List<Edge<T, E>> newIn = in.containsKey(value) ? List.copyOf(in.get(value)) : entry.in;
+                entries.put(value, new Entry<>(entry.node, newOut, newIn));
+            }
+            return new Version<>(number, entries);
+        }
+    }
+}
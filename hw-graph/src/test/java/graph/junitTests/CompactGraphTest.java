@@ -0,0 +1,89 @@
+package graph.junitTests;
+
+import graph.CompactGraph;
+import graph.Graph;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static graph.junitTests.IndexedGraphs.children;
+import static org.junit.Assert.*;
+
+public class CompactGraphTest {
+    private final Graph.Node<String> n1 = new Graph.Node<>("n1");
+    private final Graph.Node<String> n2 = new Graph.Node<>("n2");
+    private final Graph.Node<String> n3 = new Graph.Node<>("n3");
+    private final Graph.Node<String> n4 = new Graph.Node<>("n4");
+
+    private Graph<String, String> graph;
+
+    @Before
+    public void build() {
+        graph = new Graph<>();
+        graph.addNode(n1);
+        graph.addNode(n2);
+        graph.addNode(n3);
+        graph.addNode(n4);
+        graph.addEdge(n1, n3, "c");
+        graph.addEdge(n1, n2, "bb");
+        graph.addEdge(n2, n3, "a");
+        graph.addEdge(n3, n3, "self");
+    }
+
+    @Test
+    public void testCounts() {
+        CompactGraph<String, String> compact = graph.freeze(String::length);
+        assertEquals(4, compact.nodeCount());
+        assertEquals(4, compact.edgeCount());
+    }
+
+    @Test
+    public void testIds() {
+        CompactGraph<String, String> compact = graph.freeze(String::length);
+        for (int id = 0; id < compact.nodeCount(); id++) {
+            assertEquals(id, compact.idOf(compact.valueOf(id)));
+        }
+        assertTrue(compact.containsValue("n4"));
+        assertFalse(compact.containsValue("n5"));
+        assertEquals(-1, compact.idOf("n5"));
+    }
+
+    @Test
+    public void testEdgesKeepInsertionOrder() {
+        CompactGraph<String, String> compact = graph.freeze(String::length);
+        assertEquals(List.of("n3(c)", "n2(bb)"), children(compact, "n1"));
+        assertEquals(List.of("n3(self)"), children(compact, "n3"));
+        assertEquals(List.of(), children(compact, "n4"));
+    }
+
+    @Test
+    public void testWeights() {
+        CompactGraph<String, String> compact = graph.freeze(String::length);
+        int id = compact.idOf("n1");
+        assertEquals(1.0, compact.weight(compact.firstEdge(id)), 0.0);
+        assertEquals(2.0, compact.weight(compact.firstEdge(id) + 1), 0.0);
+    }
+
+    @Test
+    public void testSortedEdges() {
+        CompactGraph<String, String> compact = graph.freeze(String::length,
+                Comparator.comparing(Graph.Edge::getLabel));
+        assertEquals(List.of("n2(bb)", "n3(c)"), children(compact, "n1"));
+    }
+
+    @Test
+    public void testSnapshotIsIndependent() {
+        CompactGraph<String, String> compact = graph.freeze(String::length);
+        graph.addEdge(n4, n1, "d");
+        graph.deleteEdge(n1, n3, "c");
+        assertEquals(List.of(), children(compact, "n4"));
+        assertEquals(List.of("n3(c)", "n2(bb)"), children(compact, "n1"));
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testNullWeigher() {
+        graph.freeze(null);
+    }
+}
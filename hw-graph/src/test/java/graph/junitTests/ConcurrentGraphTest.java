@@ -0,0 +1,203 @@
+package graph.junitTests;
+
+import graph.CompactGraph;
+import graph.ConcurrentGraph;
+import graph.Graph;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentGraphTest {
+    private final Graph.Node<String> n1 = new Graph.Node<>("n1");
+    private final Graph.Node<String> n2 = new Graph.Node<>("n2");
+    private final Graph.Node<String> n3 = new Graph.Node<>("n3");
+
+    private ConcurrentGraph<String, String> graph;
+
+    @Before
+    public void build() {
+        graph = new ConcurrentGraph<>();
+        graph.addNode(n1);
+        graph.addNode(n2);
+        graph.addNode(n3);
+        graph.addEdge(n1, n2, "a");
+        graph.addEdge(n1, n3, "b");
+        graph.addEdge(n2, n3, "c");
+        graph.addEdge(n3, n3, "self");
+    }
+
+    @Test
+    public void testAddNode() {
+        assertFalse(graph.addNode(new Graph.Node<>("n1")));
+        assertTrue(graph.addNode(new Graph.Node<>("n4")));
+        assertEquals(4, graph.size());
+        assertSame(n1, graph.nodeOf("n1"));
+        assertNull(graph.nodeOf("n5"));
+    }
+
+    @Test
+    public void testAddEdge() {
+        assertFalse(graph.addEdge(n1, n2, "a"));
+        assertTrue(graph.addEdge(n1, n2, "d"));
+        assertFalse(graph.addEdge(n1, new Graph.Node<>("n4"), "a"));
+        List<Graph.Edge<String, String>> edges = new ArrayList<>();
+        edges.add(new Graph.Edge<>(n1, n2, "a"));
+        edges.add(new Graph.Edge<>(n1, n3, "b"));
+        edges.add(new Graph.Edge<>(n1, n2, "d"));
+        assertEquals(edges, graph.getAllEdgesFrom(n1));
+        assertEquals(List.of(n2, n3, n2), graph.getChild(n1));
+    }
+
+    @Test
+    public void testEdgesTo() {
+        List<Graph.Edge<String, String>> edges = new ArrayList<>();
+        edges.add(new Graph.Edge<>(n1, n3, "b"));
+        edges.add(new Graph.Edge<>(n2, n3, "c"));
+        edges.add(new Graph.Edge<>(n3, n3, "self"));
+        assertEquals(edges, graph.getAllEdgesTo(n3));
+        assertEquals(edges, new ArrayList<>(graph.edgesTo("n3")));
+        assertEquals(new ArrayList<>(), graph.getAllEdgesTo(new Graph.Node<>("n4")));
+    }
+
+    @Test
+    public void testDeleteEdge() {
+        assertTrue(graph.deleteEdge(n1, n2, "a"));
+        assertFalse(graph.deleteEdge(n1, n2, "a"));
+        assertEquals(List.of(new Graph.Edge<>(n1, n3, "b")), graph.getAllEdgesFrom(n1));
+        assertEquals(new ArrayList<>(), graph.getAllEdgesTo(n2));
+    }
+
+    @Test
+    public void testDeleteNode() {
+        assertTrue(graph.deleteNode(n3));
+        assertFalse(graph.deleteNode(n3));
+        assertFalse(graph.containsValue("n3"));
+        assertEquals(List.of(new Graph.Edge<>(n1, n2, "a")), graph.getAllEdgesFrom(n1));
+        assertEquals(new ArrayList<>(), graph.getAllEdgesFrom(n2));
+        assertTrue(graph.addNode(n3));
+        assertEquals(new ArrayList<>(), graph.getAllEdgesTo(n3));
+    }
+
+    @Test
+    public void testEdgesFromIsSnapshot() {
+        Collection<Graph.Edge<String, String>> edges = graph.edgesFrom("n1");
+        graph.addEdge(n1, n1, "e");
+        assertEquals(2, edges.size());
+        assertEquals(3, graph.edgesFrom("n1").size());
+    }
+
+    @Test (expected = UnsupportedOperationException.class)
+    public void testEdgesFromIsReadOnly() {
+        graph.edgesFrom("n1").clear();
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testEdgesFromUnknown() {
+        graph.edgesFrom("n4");
+    }
+
+    @Test
+    public void testFreeze() {
+        CompactGraph<String, String> compact = graph.freeze(String::length);
+        assertEquals(3, compact.nodeCount());
+        assertEquals(4, compact.edgeCount());
+    }
+
+    @Test (timeout = 60000)
+    public void testStressReadersAndWriters() throws Exception {
+        int writers = 4;
+        int readers = 4;
+        int rounds = 2000;
+        ConcurrentGraph<String, Integer> stress = new ConcurrentGraph<>();
+        Graph.Node<String> hub = new Graph.Node<>("hub");
+        stress.addNode(hub);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        // Each writer owns its leaves. Leaf edges hub -> leaf are added and never removed, while
+        // a scratch node is repeatedly linked to the hub and deleted again.
+        for (int w = 0; w < writers; w++) {
+            int id = w;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    Graph.Node<String> scratch = new Graph.Node<>("scratch" + id);
+                    for (int i = 0; i < rounds; i++) {
+                        Graph.Node<String> leaf = new Graph.Node<>("w" + id + "-" + i);
+                        assertTrue(stress.addNode(leaf));
+                        assertTrue(stress.addEdge(hub, leaf, i));
+                        assertTrue(stress.addNode(scratch));
+                        assertTrue(stress.addEdge(hub, scratch, i));
+                        assertTrue(stress.addEdge(scratch, hub, i));
+                        assertTrue(stress.deleteNode(scratch));
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+
+        // Once a reader sees hub -> leaf from the leaf's side, a later read from the hub's side
+        // must see it too: both halves of addEdge are published together.
+        for (int r = 0; r < readers; r++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    while (!done.get()) {
+                        for (int w = 0; w < writers; w++) {
+                            for (int i = rounds - 1; i >= 0; i--) {
+                                String leaf = "w" + w + "-" + i;
+                                if (stress.containsValue(leaf) && !stress.edgesTo(leaf).isEmpty()) {
+                                    Graph.Edge<String, Integer> edge = stress.edgesTo(leaf).iterator().next();
+                                    assertTrue(stress.edgesFrom("hub").contains(edge));
+                                    break;
+                                }
+                            }
+                        }
+                        Set<Graph.Edge<String, Integer>> seen = new HashSet<>();
+                        for (Graph.Edge<String, Integer> edge : stress.edgesFrom("hub")) {
+                            assertEquals("hub", edge.getSource().getNode());
+                            assertTrue(seen.add(edge));
+                        }
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (int w = 0; w < writers; w++) {
+            threads.get(w).join();
+        }
+        done.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        assertEquals(writers * rounds + 1, stress.size());
+        assertEquals(writers * rounds, stress.edgesFrom("hub").size());
+        assertEquals(0, stress.edgesTo("hub").size());
+        for (Graph.Edge<String, Integer> edge : stress.edgesFrom("hub")) {
+            assertEquals(List.of(edge), new ArrayList<>(stress.edgesTo(edge.getDes().getNode())));
+        }
+    }
+}
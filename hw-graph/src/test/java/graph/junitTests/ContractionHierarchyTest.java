@@ -0,0 +1,217 @@
+package graph.junitTests;
+
+import graph.CompactGraph;
+import graph.ContractionHierarchy;
+import graph.Graph;
+import graph.SearchMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ContractionHierarchyTest {
+    private Path file;
+    private CompactGraph<Integer, Double> compact;
+
+    @Before
+    public void build() throws Exception {
+        // A grid of two-way streets with a few one-way shortcuts and an unreachable pair.
+        Random random = new Random(331);
+        Graph.Builder<Integer, Double> builder = new Graph.Builder<>();
+        int side = 12;
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                int v = row * side + col;
+                if (col + 1 < side) {
+                    double cost = 1 + random.nextInt(9);
+                    builder.addEdge(v, v + 1, cost);
+                    builder.addEdge(v + 1, v, cost);
+                }
+                if (row + 1 < side) {
+                    double cost = 1 + random.nextInt(9);
+                    builder.addEdge(v, v + side, cost);
+                    builder.addEdge(v + side, v, cost);
+                }
+            }
+        }
+        for (int i = 0; i < 30; i++) {
+            builder.addEdge(random.nextInt(side * side), random.nextInt(side * side), 1.0 + random.nextInt(20));
+        }
+        builder.addEdge(-1, -2, 1.0);
+        compact = builder.buildCompact(Double::doubleValue);
+        file = Files.createTempFile("hierarchy", ".bin");
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * @return the shortest distance from source to every node, by a plain Dijkstra scan.
+     */
+    private double[] distances(int source) {
+        double[] dist = new double[compact.nodeCount()];
+        boolean[] done = new boolean[compact.nodeCount()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0;
+        while (true) {
+            int min = -1;
+            for (int v = 0; v < dist.length; v++) {
+                if (!done[v] && dist[v] < Double.POSITIVE_INFINITY && (min < 0 || dist[v] < dist[min])) {
+                    min = v;
+                }
+            }
+            if (min < 0) {
+                return dist;
+            }
+            done[min] = true;
+            for (int e = compact.firstEdge(min); e < compact.lastEdge(min); e++) {
+                dist[compact.target(e)] = Math.min(dist[compact.target(e)], dist[min] + compact.weight(e));
+            }
+        }
+    }
+
+    /**
+     * Check that route is a chain of edges from source to target costing exactly expected.
+     */
+    private void assertRoute(int source, int target, double expected, int[] route) {
+        if (expected == Double.POSITIVE_INFINITY) {
+            assertNull(route);
+            return;
+        }
+        int at = source;
+        double cost = 0;
+        for (int e : route) {
+            assertTrue(e >= compact.firstEdge(at) && e < compact.lastEdge(at));
+            cost += compact.weight(e);
+            at = compact.target(e);
+        }
+        assertEquals(target, at);
+        assertEquals(expected, cost, 1e-9);
+    }
+
+    @Test
+    public void testShortestRoutes() {
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(compact, 2);
+        for (int source = 0; source < compact.nodeCount(); source++) {
+            double[] dist = distances(source);
+            for (int target = 0; target < compact.nodeCount(); target++) {
+                assertRoute(source, target, dist[target], hierarchy.route(source, target));
+            }
+        }
+    }
+
+    @Test
+    public void testSameForAnyParallelism() throws Exception {
+        Path other = Files.createTempFile("hierarchy", ".bin");
+        try {
+            ContractionHierarchy.build(compact, 1).write(file);
+            ContractionHierarchy.build(compact, 4).write(other);
+            assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(other));
+        } finally {
+            Files.deleteIfExists(other);
+        }
+    }
+
+    @Test
+    public void testWriteRead() {
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(compact);
+        hierarchy.write(file);
+        ContractionHierarchy read = ContractionHierarchy.read(compact, file);
+        assertEquals(hierarchy.shortcutCount(), read.shortcutCount());
+        for (int source = 0; source < compact.nodeCount(); source += 7) {
+            for (int target = 0; target < compact.nodeCount(); target += 5) {
+                assertArrayEquals(hierarchy.route(source, target), read.route(source, target));
+            }
+        }
+    }
+
+    @Test
+    public void testStatisticsCountBothSearches() {
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(compact);
+        SearchMetrics metrics = new SearchMetrics();
+        int target = compact.nodeCount() - 1;
+        assertArrayEquals(hierarchy.route(0, target), hierarchy.route(0, target, metrics));
+        SearchMetrics.Summary summary = metrics.snapshot().get(ContractionHierarchy.CONTRACTION_HIERARCHY);
+        assertEquals(1, summary.searches());
+        // Each direction settles at least its own endpoint.
+        assertTrue(summary.settled() >= 2);
+        assertTrue(summary.relaxed() > 0);
+        assertTrue(summary.pushes() >= 2);
+        assertTrue(summary.peakQueue() >= 1);
+    }
+
+    @Test
+    public void testRouteToItself() {
+        assertEquals(0, ContractionHierarchy.build(compact).route(3, 3).length);
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testReadForOtherGraph() {
+        ContractionHierarchy.build(compact).write(file);
+        Graph.Builder<Integer, Double> other = new Graph.Builder<>();
+        other.addEdge(1, 2, 1.0);
+        ContractionHierarchy.read(other.buildCompact(Double::doubleValue), file);
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testNotAHierarchyFile() throws Exception {
+        Files.write(file, new byte[] {1, 2, 3, 4});
+        ContractionHierarchy.read(compact, file);
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testUnknownNode() {
+        ContractionHierarchy.build(compact).route(0, compact.nodeCount());
+    }
+
+    @Test
+    public void testReadRefusesChangedWeights() {
+        ContractionHierarchy.build(compact).write(file);
+        assertTrue(ContractionHierarchy.matches(compact, file));
+        Graph.Builder<Integer, Double> builder = new Graph.Builder<>();
+        for (int v = 0; v < compact.nodeCount(); v++) {
+            builder.addNode(compact.valueOf(v));
+        }
+        for (int v = 0; v < compact.nodeCount(); v++) {
+            for (int e = compact.firstEdge(v); e < compact.lastEdge(v); e++) {
+                double weight = e == 0 ? compact.weight(e) + 1 : compact.weight(e);
+                builder.addEdge(compact.valueOf(v), compact.valueOf(compact.target(e)), weight);
+            }
+        }
+        CompactGraph<Integer, Double> reweighted = builder.buildCompact(Double::doubleValue);
+        assertEquals(compact.nodeCount(), reweighted.nodeCount());
+        assertEquals(compact.edgeCount(), reweighted.edgeCount());
+        assertFalse(ContractionHierarchy.matches(reweighted, file));
+        try {
+            ContractionHierarchy.read(reweighted, file);
+            fail("read a hierarchy saved for other weights");
+        } catch (RuntimeException e) {
+            // expected
+        }
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testEdgeIndexOutOfRange() throws Exception {
+        ContractionHierarchy.build(compact).write(file);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        int arcs = bytes.getInt(16);
+        int arcEdgeAt = 40 + 8 * arcs;
+        for (int a = 0; a < arcs; a++) {
+            if (bytes.getInt(arcEdgeAt + 4 * a) >= 0) {
+                bytes.putInt(arcEdgeAt + 4 * a, compact.edgeCount());
+                break;
+            }
+        }
+        Files.write(file, bytes.array());
+        ContractionHierarchy.read(compact, file);
+    }
+}
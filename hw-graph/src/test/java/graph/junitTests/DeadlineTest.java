@@ -0,0 +1,58 @@
+package graph.junitTests;
+
+import graph.Deadline;
+import graph.SearchResult;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DeadlineTest {
+
+    @Test
+    public void testNoneNeverExpires() {
+        Deadline deadline = Deadline.none();
+        assertFalse(deadline.expired());
+        assertEquals(Long.MAX_VALUE, deadline.remaining(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testCancel() {
+        Deadline deadline = Deadline.after(1, TimeUnit.HOURS);
+        assertFalse(deadline.expired());
+        assertTrue(deadline.remaining(TimeUnit.MINUTES) > 50);
+        deadline.cancel();
+        assertTrue(deadline.expired());
+        assertEquals(0, deadline.remaining(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testPasses() throws InterruptedException {
+        assertTrue(Deadline.after(0, TimeUnit.MILLISECONDS).expired());
+        Deadline deadline = Deadline.after(20, TimeUnit.MILLISECONDS);
+        Thread.sleep(40);
+        assertTrue(deadline.expired());
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testNegativeTimeout() {
+        Deadline.after(-1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testResults() {
+        SearchResult<String> found = SearchResult.found("path");
+        assertEquals(SearchResult.Status.FOUND, found.status());
+        assertEquals("path", found.value());
+        assertFalse(found.isTimedOut());
+        assertNull(SearchResult.<String>notFound().value());
+        assertEquals(SearchResult.Status.NOT_FOUND, SearchResult.notFound().status());
+        assertTrue(SearchResult.timedOut().isTimedOut());
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testFoundNull() {
+        SearchResult.found(null);
+    }
+}
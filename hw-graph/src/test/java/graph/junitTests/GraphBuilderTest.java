@@ -0,0 +1,118 @@
+package graph.junitTests;
+
+import graph.CompactGraph;
+import graph.Graph;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static graph.junitTests.IndexedGraphs.children;
+import static org.junit.Assert.*;
+
+public class GraphBuilderTest {
+    private final Graph.Node<String> a = new Graph.Node<>("a");
+    private final Graph.Node<String> b = new Graph.Node<>("b");
+    private final Graph.Node<String> c = new Graph.Node<>("c");
+
+    private Graph.Builder<String, String> builder;
+
+    @Before
+    public void build() {
+        builder = new Graph.Builder<>(4, 4);
+        builder.addNode("d");
+        builder.addEdge("a", "c", "x");
+        builder.addEdge("a", "b", "y");
+        builder.addEdge("a", "c", "x");
+        builder.addEdge("b", "a", "z");
+    }
+
+    @Test
+    public void testBuildGraph() {
+        Graph<String, String> graph = builder.build(Graph.Verification.FULL);
+        assertEquals(4, graph.size());
+        List<Graph.Edge<String, String>> edges = new ArrayList<>();
+        edges.add(new Graph.Edge<>(a, c, "x"));
+        edges.add(new Graph.Edge<>(a, b, "y"));
+        assertEquals(edges, graph.getAllEdgesFrom(a));
+        assertEquals(List.of(new Graph.Edge<>(b, a, "z")), graph.getAllEdgesTo(a));
+        assertEquals(List.of(new Graph.Edge<>(a, c, "x")), graph.getAllEdgesTo(c));
+        assertEquals(Graph.Verification.FULL, graph.verification());
+    }
+
+    @Test
+    public void testBuiltGraphIsMutable() {
+        Graph<String, String> graph = builder.build();
+        assertTrue(graph.addEdge(c, a, "w"));
+        assertFalse(graph.addEdge(a, c, "x"));
+        assertTrue(graph.deleteNode(a));
+        assertEquals(new ArrayList<>(), graph.getAllEdgesTo(b));
+    }
+
+    @Test
+    public void testBuildCompact() {
+        CompactGraph<String, String> compact = builder.buildCompact(String::length);
+        assertEquals(4, compact.nodeCount());
+        assertEquals(3, compact.edgeCount());
+        assertEquals(List.of("c(x)", "b(y)"), children(compact, "a"));
+        assertEquals(List.of("a(z)"), children(compact, "b"));
+        assertEquals(List.of(), children(compact, "d"));
+    }
+
+    @Test
+    public void testBuildCompactSorted() {
+        CompactGraph<String, String> compact = builder.buildCompact(String::length,
+                Comparator.comparing((Graph.Edge<String, String> edge) -> edge.getDes().getNode()));
+        assertEquals(List.of("b(y)", "c(x)"), children(compact, "a"));
+    }
+
+    @Test
+    public void testBuildCompactMatchesFreeze() {
+        CompactGraph<String, String> frozen = builder.build().freeze(String::length);
+        CompactGraph<String, String> compact = builder.buildCompact(String::length);
+        for (String value : List.of("a", "b", "c", "d")) {
+            assertEquals(children(frozen, value), children(compact, value));
+        }
+    }
+
+    @Test
+    public void testAddEdgeBatches() {
+        Graph.Builder<String, String> batches = new Graph.Builder<>();
+        batches.addEdges(new String[] {"a", "b"}, new String[] {"b", "c"}, new String[] {"1", "2"});
+        batches.addEdges(Stream.of("ca", "ab"), s -> s.substring(0, 1), s -> s.substring(1), s -> "s");
+        Graph<String, String> graph = batches.build();
+        assertEquals(3, graph.size());
+        List<Graph.Edge<String, String>> edges = new ArrayList<>();
+        edges.add(new Graph.Edge<>(a, b, "1"));
+        edges.add(new Graph.Edge<>(a, b, "s"));
+        assertEquals(edges, graph.getAllEdgesFrom(a));
+        assertEquals(List.of(new Graph.Edge<>(c, a, "s")), graph.getAllEdgesFrom(c));
+    }
+
+    @Test
+    public void testBuildTwice() {
+        Graph<String, String> first = builder.build();
+        builder.addEdge("d", "a", "v");
+        Graph<String, String> second = builder.build();
+        assertEquals(new ArrayList<>(), first.getAllEdgesFrom(new Graph.Node<>("d")));
+        assertEquals(1, second.getAllEdgesFrom(new Graph.Node<>("d")).size());
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testMismatchedBatch() {
+        builder.addEdges(new String[] {"a"}, new String[] {"b", "c"}, new String[] {"1"});
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testNullLabel() {
+        builder.addEdge("a", "b", null);
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testNullNode() {
+        builder.addNode(null);
+    }
+}
@@ -4,6 +4,7 @@ import graph.Graph;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -73,7 +74,7 @@ public class GraphTest {
         assertNotEquals(e4, e5);
     }
 
-    private final Graph<String, String> graph = new Graph<>();
+    private final Graph<String, String> graph = new Graph<>(Graph.Verification.FULL);
 
     @Test
     public void testEmpty1() {
@@ -191,8 +192,167 @@ public class GraphTest {
         List<Graph.Edge<String, String>> edges = new ArrayList<>();
         Graph.Edge<String, String> e1 = new Graph.Edge<>(n1, n3, "e2");
         Graph.Edge<String, String> e2 = new Graph.Edge<>(n2, n3, "e3");
-        edges.add(e2);
         edges.add(e1);
+        edges.add(e2);
         assertEquals(edges, graph.getAllEdgesTo(n3));
     }
+
+    @Test
+    public void testGetEdgesToUnknown() {
+        addEdgeBetweenNodes();
+        assertEquals(new ArrayList<>(), graph.getAllEdgesTo(new Graph.Node<>("n9")));
+    }
+
+    @Test
+    public void testGetEdgesToAfterDeleteEdge() {
+        addEdgeBetweenNodes();
+        graph.deleteEdge(n1, n3, "e2");
+        List<Graph.Edge<String, String>> edges = new ArrayList<>();
+        edges.add(new Graph.Edge<>(n2, n3, "e3"));
+        assertEquals(edges, graph.getAllEdgesTo(n3));
+    }
+
+    @Test
+    public void testDeleteNodeRemovesEdges() {
+        addEdgeBetweenNodes();
+        graph.addEdge(n3, n1, "e4");
+        graph.addEdge(n2, n2, "e5");
+        assertTrue(graph.deleteNode(n2));
+        assertEquals(List.of(new Graph.Edge<>(n1, n3, "e2")), graph.getAllEdgesFrom(n1));
+        assertEquals(List.of(new Graph.Edge<>(n1, n3, "e2")), graph.getAllEdgesTo(n3));
+        assertEquals(List.of(new Graph.Edge<>(n3, n1, "e4")), graph.getAllEdgesTo(n1));
+        assertTrue(graph.addNode(n2));
+        assertEquals(new ArrayList<>(), graph.getAllEdgesTo(n2));
+        assertEquals(new ArrayList<>(), graph.getAllEdgesFrom(n2));
+    }
+
+    @Test
+    public void testContainsValue() {
+        addNodes();
+        assertTrue(graph.containsValue("n1"));
+        assertTrue(graph.containsValue("n3"));
+        assertFalse(graph.containsValue("n9"));
+        assertFalse(graph.containsValue(null));
+    }
+
+    @Test
+    public void testEdgesFromValue() {
+        addEdgeBetweenNodes();
+        assertEquals(graph.getAllEdgesFrom(n1), new ArrayList<>(graph.edgesFrom("n1")));
+        assertEquals(graph.getAllEdgesTo(n3), new ArrayList<>(graph.edgesTo("n3")));
+    }
+
+    @Test
+    public void testEdgesFromIsView() {
+        addEdgeBetweenNodes();
+        Collection<Graph.Edge<String, String>> edges = graph.edgesFrom("n2");
+        assertEquals(1, edges.size());
+        graph.deleteEdge(n2, n3, "e3");
+        assertTrue(edges.isEmpty());
+    }
+
+    @Test (expected = UnsupportedOperationException.class)
+    public void testEdgesFromReadOnly() {
+        addEdgeBetweenNodes();
+        graph.edgesFrom("n1").clear();
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testEdgesFromUnknown() {
+        addNodes();
+        graph.edgesFrom("n9");
+    }
+
+    @Test
+    public void testForEachEdge() {
+        addEdgeBetweenNodes();
+        List<String> labels = new ArrayList<>();
+        graph.forEachEdge("n1", edge -> labels.add(edge.getLabel()));
+        assertEquals(List.of("e1", "e2"), labels);
+    }
+
+    @Test
+    public void testNodeOfIsInterned() {
+        addNodes();
+        assertSame(n1, graph.nodeOf("n1"));
+        assertSame(n2, graph.nodeOf(new String("n2")));
+        assertNull(graph.nodeOf("n9"));
+    }
+
+    @Test
+    public void testNodeHashStable() {
+        assertEquals(n2.hashCode(), n4.hashCode());
+        assertEquals(n2.hashCode(), new Graph.Node<>("n2").hashCode());
+    }
+
+    @Test
+    public void testVerificationPolicy() {
+        assertEquals(Graph.Verification.FULL, graph.verification());
+        assertEquals(Graph.Verification.OFF, new Graph<String, String>(Graph.Verification.OFF).verification());
+    }
+
+    @Test
+    public void testDefaultVerification() {
+        String policy = System.getProperty("graph.verification", "INCREMENTAL");
+        assertEquals(Graph.Verification.valueOf(policy), new Graph<String, String>().verification());
+    }
+
+    @Test
+    public void testEveryPolicySameResults() {
+        for (Graph.Verification verification : Graph.Verification.values()) {
+            Graph<String, String> other = new Graph<>(verification);
+            other.addNode(n1);
+            other.addNode(n2);
+            other.addNode(n3);
+            assertTrue(other.addEdge(n1, n2, "e1"));
+            assertTrue(other.addEdge(n2, n3, "e2"));
+            assertTrue(other.addEdge(n3, n1, "e3"));
+            assertTrue(other.deleteEdge(n2, n3, "e2"));
+            assertTrue(other.deleteNode(n1));
+            assertEquals(new ArrayList<>(), other.getAllEdgesFrom(n2));
+            assertEquals(new ArrayList<>(), other.getAllEdgesTo(n2));
+            assertEquals(2, other.size());
+        }
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testNullVerification() {
+        new Graph<String, String>(null);
+    }
+
+    @Test
+    public void testDuplicateEdgeByValue() {
+        addNodes();
+        assertTrue(graph.addEdge(n1, n2, new String("e1")));
+        assertFalse(graph.addEdge(new Graph.Node<>("n1"), new Graph.Node<>("n2"), new String("e1")));
+        assertEquals(1, graph.getAllEdgesFrom(n1).size());
+    }
+
+    @Test
+    public void testDeleteEdgeByValue() {
+        addEdgeBetweenNodes();
+        assertTrue(graph.deleteEdge(new Graph.Node<>("n1"), new Graph.Node<>("n2"), new String("e1")));
+        assertFalse(graph.deleteEdge(n1, n2, "e1"));
+        assertEquals(List.of(new Graph.Edge<>(n1, n3, "e2")), graph.getAllEdgesFrom(n1));
+        assertEquals(new ArrayList<>(), graph.getAllEdgesTo(n2));
+    }
+
+    @Test
+    public void testEdgeOrderAfterReAdd() {
+        addEdgeBetweenNodes();
+        graph.addEdge(n1, n1, "e4");
+        graph.deleteEdge(n1, n2, "e1");
+        graph.addEdge(n1, n2, "e1");
+        List<Graph.Edge<String, String>> edges = new ArrayList<>();
+        edges.add(new Graph.Edge<>(n1, n3, "e2"));
+        edges.add(new Graph.Edge<>(n1, n1, "e4"));
+        edges.add(new Graph.Edge<>(n1, n2, "e1"));
+        assertEquals(edges, graph.getAllEdgesFrom(n1));
+    }
+
+    @Test
+    public void testEdgeHashStable() {
+        assertEquals(e4.hashCode(), e7.hashCode());
+        assertEquals(e5.hashCode(), new Graph.Edge<>(n3, n3, "c").hashCode());
+    }
 }
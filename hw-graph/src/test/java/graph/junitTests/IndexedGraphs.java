@@ -0,0 +1,32 @@
+package graph.junitTests;
+
+import graph.IndexedGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers shared by the tests of the indexed graph classes.
+ */
+final class IndexedGraphs {
+
+    private IndexedGraphs() {
+    }
+
+    /**
+     * Describe the outgoing edges of a node in edge order, each as its target's name followed by
+     * its label in parentheses, such as "b(x)".
+     *
+     * @param graph the graph to read
+     * @param value the node whose edges to describe
+     * @return the description of every edge leaving value, in edge order
+     */
+    static List<String> children(IndexedGraph<String, String> graph, String value) {
+        List<String> children = new ArrayList<>();
+        int id = graph.idOf(value);
+        for (int e = graph.firstEdge(id); e < graph.lastEdge(id); e++) {
+            children.add(graph.valueOf(graph.target(e)) + "(" + graph.label(e) + ")");
+        }
+        return children;
+    }
+}
@@ -0,0 +1,157 @@
+package graph.junitTests;
+
+import graph.CompactGraph;
+import graph.Graph;
+import graph.Landmarks;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class LandmarksTest {
+    private Path file;
+    private CompactGraph<String, Double> compact;
+    private double[][] dist;
+
+    @Before
+    public void build() throws Exception {
+        Graph.Builder<String, Double> builder = new Graph.Builder<>();
+        builder.addEdge("a", "b", 2.0);
+        builder.addEdge("b", "c", 3.0);
+        builder.addEdge("c", "a", 1.0);
+        builder.addEdge("c", "d", 4.0);
+        builder.addEdge("d", "e", 1.0);
+        builder.addEdge("e", "d", 5.0);
+        builder.addEdge("a", "e", 9.0);
+        builder.addEdge("x", "y", 1.0);
+        compact = builder.buildCompact(Double::doubleValue);
+        file = Files.createTempFile("landmarks", ".bin");
+
+        // All pairs distances by Floyd-Warshall to check the bounds against.
+        int n = compact.nodeCount();
+        dist = new double[n][n];
+        for (int v = 0; v < n; v++) {
+            Arrays.fill(dist[v], Double.POSITIVE_INFINITY);
+            dist[v][v] = 0;
+            for (int e = compact.firstEdge(v); e < compact.lastEdge(v); e++) {
+                dist[v][compact.target(e)] = Math.min(dist[v][compact.target(e)], compact.weight(e));
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    dist[i][j] = Math.min(dist[i][j], dist[i][k] + dist[k][j]);
+                }
+            }
+        }
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testBoundsNeverExceedDistance() {
+        for (int count = 0; count <= compact.nodeCount(); count++) {
+            Landmarks landmarks = Landmarks.select(compact, count);
+            for (int v = 0; v < compact.nodeCount(); v++) {
+                for (int t = 0; t < compact.nodeCount(); t++) {
+                    assertTrue(landmarks.lowerBound(v, t) <= dist[v][t]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testExactAtLandmarks() {
+        Landmarks landmarks = Landmarks.select(compact, 2);
+        for (int i = 0; i < landmarks.count(); i++) {
+            int landmark = landmarks.landmark(i);
+            for (int v = 0; v < compact.nodeCount(); v++) {
+                if (dist[v][landmark] < Double.POSITIVE_INFINITY) {
+                    assertEquals(dist[v][landmark], landmarks.lowerBound(v, landmark), 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDistinctLandmarks() {
+        Landmarks landmarks = Landmarks.select(compact, 100);
+        assertEquals(compact.nodeCount(), landmarks.count());
+        boolean[] seen = new boolean[compact.nodeCount()];
+        for (int i = 0; i < landmarks.count(); i++) {
+            assertFalse(seen[landmarks.landmark(i)]);
+            seen[landmarks.landmark(i)] = true;
+        }
+    }
+
+    @Test
+    public void testWriteRead() {
+        Landmarks landmarks = Landmarks.select(compact, 3);
+        landmarks.write(file);
+        Landmarks read = Landmarks.read(compact, file);
+        assertEquals(landmarks.count(), read.count());
+        for (int i = 0; i < landmarks.count(); i++) {
+            assertEquals(landmarks.landmark(i), read.landmark(i));
+        }
+        for (int v = 0; v < compact.nodeCount(); v++) {
+            for (int t = 0; t < compact.nodeCount(); t++) {
+                assertEquals(landmarks.lowerBound(v, t), read.lowerBound(v, t), 0.0);
+            }
+        }
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testReadForOtherGraph() {
+        Landmarks.select(compact, 2).write(file);
+        Graph.Builder<String, Double> other = new Graph.Builder<>();
+        other.addEdge("a", "b", 1.0);
+        Landmarks.read(other.buildCompact(Double::doubleValue), file);
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testNotALandmarkFile() throws Exception {
+        Files.write(file, new byte[] {1, 2, 3, 4});
+        Landmarks.read(compact, file);
+    }
+
+    @Test
+    public void testReadRefusesChangedWeights() {
+        Landmarks.select(compact, 2).write(file);
+        assertTrue(Landmarks.matches(compact, file));
+        Graph.Builder<String, Double> builder = new Graph.Builder<>();
+        builder.addEdge("a", "b", 2.0);
+        builder.addEdge("b", "c", 3.0);
+        builder.addEdge("c", "a", 1.0);
+        builder.addEdge("c", "d", 4.0);
+        builder.addEdge("d", "e", 1.0);
+        builder.addEdge("e", "d", 5.0);
+        builder.addEdge("a", "e", 2.0);
+        builder.addEdge("x", "y", 1.0);
+        CompactGraph<String, Double> reweighted = builder.buildCompact(Double::doubleValue);
+        assertEquals(compact.nodeCount(), reweighted.nodeCount());
+        assertEquals(compact.edgeCount(), reweighted.edgeCount());
+        assertFalse(Landmarks.matches(reweighted, file));
+        try {
+            Landmarks.read(reweighted, file);
+            fail("read tables saved for other weights");
+        } catch (RuntimeException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testMatchesMissingOrForeignFile() throws Exception {
+        Files.delete(file);
+        assertFalse(Landmarks.matches(compact, file));
+        Files.write(file, new byte[] {1, 2, 3, 4});
+        assertFalse(Landmarks.matches(compact, file));
+    }
+}
@@ -0,0 +1,173 @@
+package graph.junitTests;
+
+import graph.CompactGraph;
+import graph.Graph;
+import graph.MappedGraph;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class MappedGraphTest {
+    private Path file;
+    private CompactGraph<String, String> compact;
+
+    @Before
+    public void build() throws Exception {
+        Graph.Builder<String, String> builder = new Graph.Builder<>();
+        builder.addEdge("b", "a", "ab");
+        builder.addEdge("a", "c", "long");
+        builder.addEdge("a", "b", "ab");
+        builder.addEdge("c", "c", "x");
+        builder.addNode("\u00e9t\u00e9");
+        builder.addNode("Z");
+        compact = builder.buildCompact(String::length);
+        file = Files.createTempFile("mapped", ".graph");
+        MappedGraph.write(compact, name -> name, label -> label, file);
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testSameLayout() {
+        MappedGraph mapped = MappedGraph.open(file);
+        assertEquals(compact.nodeCount(), mapped.nodeCount());
+        assertEquals(compact.edgeCount(), mapped.edgeCount());
+        for (int id = 0; id < compact.nodeCount(); id++) {
+            assertEquals(compact.valueOf(id), mapped.valueOf(id));
+            assertEquals(compact.firstEdge(id), mapped.firstEdge(id));
+            assertEquals(compact.lastEdge(id), mapped.lastEdge(id));
+        }
+        for (int e = 0; e < compact.edgeCount(); e++) {
+            assertEquals(compact.target(e), mapped.target(e));
+            assertEquals(compact.weight(e), mapped.weight(e), 0.0);
+            assertEquals(compact.label(e), mapped.label(e));
+        }
+    }
+
+    @Test
+    public void testIdOf() {
+        MappedGraph mapped = MappedGraph.open(file);
+        for (int id = 0; id < compact.nodeCount(); id++) {
+            assertEquals(id, mapped.idOf(compact.valueOf(id)));
+        }
+        assertTrue(mapped.containsValue("\u00e9t\u00e9"));
+        assertFalse(mapped.containsValue("d"));
+        assertFalse(mapped.containsValue(""));
+        assertEquals(-1, mapped.idOf(null));
+    }
+
+    @Test
+    public void testRewrite() {
+        MappedGraph before = MappedGraph.open(file);
+        MappedGraph.write(new Graph.Builder<String, String>().buildCompact(String::length),
+                name -> name, label -> label, file);
+        assertEquals(0, MappedGraph.open(file).nodeCount());
+        assertEquals("a", before.valueOf(before.idOf("a")));
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testNotAGraphFile() throws Exception {
+        Files.write(file, new byte[] {1, 2, 3, 4});
+        MappedGraph.open(file);
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testDuplicateNames() {
+        MappedGraph.write(compact, name -> "same", label -> label, file);
+    }
+
+    @Test
+    public void testSourceStamp() {
+        assertEquals(0, MappedGraph.open(file).source());
+        MappedGraph.write(compact, name -> name, label -> label, file, 0x123456789L);
+        MappedGraph mapped = MappedGraph.open(file);
+        assertEquals(0x123456789L, mapped.source());
+        assertEquals(compact.nodeCount(), mapped.nodeCount());
+    }
+
+    @Test
+    public void testConcurrentWritesLeaveWholeFile() throws Exception {
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 20; i++) {
+                    MappedGraph.write(compact, name -> name, label -> label, file, 7);
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        MappedGraph mapped = MappedGraph.open(file);
+        assertEquals(7, mapped.source());
+        assertEquals(compact.edgeCount(), mapped.edgeCount());
+        try (Stream<Path> siblings = Files.list(file.toAbsolutePath().getParent())) {
+            assertTrue(siblings.noneMatch(p -> p.getFileName().toString().startsWith(file.getFileName() + ".")));
+        }
+    }
+
+    /**
+     * Overwrite one int of the graph file.
+     *
+     * @param at the byte position of the int
+     * @param value the int to store there
+     */
+    private void patch(int at, int value) throws Exception {
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(at, value);
+        Files.write(file, bytes);
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testOlderFormat() throws Exception {
+        patch(4, MappedGraph.FORMAT - 1);
+        MappedGraph.open(file);
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testTargetOutOfRange() throws Exception {
+        int n = compact.nodeCount();
+        int m = compact.edgeCount();
+        int targetsAt = 32 + 8 * m + 4 * n + 4 * n + 4 * (n + 1);
+        patch(targetsAt + 4 * (m - 1), n);
+        MappedGraph.open(file);
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testOffsetsOutOfOrder() throws Exception {
+        int n = compact.nodeCount();
+        int m = compact.edgeCount();
+        int offsetsAt = 32 + 8 * m + 4 * n + 4 * n;
+        patch(offsetsAt + 4, m + 1);
+        MappedGraph.open(file);
+    }
+
+    @Test
+    public void testMatches() throws Exception {
+        MappedGraph.write(compact, name -> name, label -> label, file, 7);
+        assertTrue(MappedGraph.matches(file, 7));
+        assertFalse(MappedGraph.matches(file, 8));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertFalse(MappedGraph.matches(file, 7));
+        Files.write(file, bytes);
+        patch(4, MappedGraph.FORMAT - 1);
+        assertFalse(MappedGraph.matches(file, 7));
+        Files.write(file, new byte[] {1, 2, 3, 4});
+        assertFalse(MappedGraph.matches(file, 7));
+        Files.delete(file);
+        assertFalse(MappedGraph.matches(file, 7));
+    }
+}
@@ -0,0 +1,62 @@
+package graph.junitTests;
+
+import graph.CompactGraph;
+import graph.Graph;
+import graph.ReverseIndex;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ReverseIndexTest {
+
+    @Test
+    public void testIncomingEdges() {
+        Graph.Builder<String, String> builder = new Graph.Builder<>();
+        builder.addEdge("a", "b", "ab");
+        builder.addEdge("c", "b", "cb");
+        builder.addEdge("b", "b", "bb");
+        builder.addEdge("b", "c", "bc");
+        builder.addNode("d");
+        CompactGraph<String, String> compact = builder.buildCompact(String::length);
+        ReverseIndex reverse = new ReverseIndex(compact);
+        int b = compact.idOf("b");
+        assertEquals(3, reverse.lastEdge(b) - reverse.firstEdge(b));
+        for (int r = reverse.firstEdge(b); r < reverse.lastEdge(b); r++) {
+            int e = reverse.edge(r);
+            assertEquals(b, compact.target(e));
+            assertTrue(e >= compact.firstEdge(reverse.source(r)) && e < compact.lastEdge(reverse.source(r)));
+            assertEquals(compact.valueOf(reverse.source(r)) + "b", compact.label(e));
+        }
+        int d = compact.idOf("d");
+        assertEquals(reverse.firstEdge(d), reverse.lastEdge(d));
+        int a = compact.idOf("a");
+        assertEquals(reverse.firstEdge(a), reverse.lastEdge(a));
+    }
+
+    @Test
+    public void testEveryEdgeOnce() {
+        Graph.Builder<Integer, Integer> builder = new Graph.Builder<>();
+        for (int i = 0; i < 20; i++) {
+            builder.addEdge(i, (i * 7) % 20, i);
+            builder.addEdge(i, (i + 1) % 20, i + 20);
+        }
+        CompactGraph<Integer, Integer> compact = builder.buildCompact(Integer::doubleValue);
+        ReverseIndex reverse = new ReverseIndex(compact);
+        boolean[] seen = new boolean[compact.edgeCount()];
+        for (int v = 0; v < compact.nodeCount(); v++) {
+            for (int r = reverse.firstEdge(v); r < reverse.lastEdge(v); r++) {
+                assertFalse(seen[reverse.edge(r)]);
+                seen[reverse.edge(r)] = true;
+                assertEquals(v, compact.target(reverse.edge(r)));
+            }
+        }
+        for (boolean s : seen) {
+            assertTrue(s);
+        }
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testNullGraph() {
+        new ReverseIndex(null);
+    }
+}
@@ -0,0 +1,94 @@
+package graph.junitTests;
+
+import graph.SearchMetrics;
+import graph.SearchStatistics;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SearchMetricsTest {
+
+    @Test
+    public void testTotalsPerAlgorithm() {
+        SearchMetrics metrics = new SearchMetrics();
+        metrics.record("DIJKSTRA", 10, 20, 12, 4, 2_000_000);
+        metrics.record("DIJKSTRA", 6, 8, 7, 5, 4_000_000);
+        metrics.record("A_STAR", 3, 5, 4, 2, 1_000_000);
+        Map<String, SearchMetrics.Summary> snapshot = metrics.snapshot();
+        assertEquals(List.of("A_STAR", "DIJKSTRA"), List.copyOf(snapshot.keySet()));
+        SearchMetrics.Summary dijkstra = snapshot.get("DIJKSTRA");
+        assertEquals(2, dijkstra.searches());
+        assertEquals(16, dijkstra.settled());
+        assertEquals(28, dijkstra.relaxed());
+        assertEquals(19, dijkstra.pushes());
+        assertEquals(5, dijkstra.peakQueue());
+        assertEquals(6.0, dijkstra.totalMillis(), 1e-9);
+        assertEquals(3.0, dijkstra.meanMillis(), 1e-9);
+        assertEquals(4.0, dijkstra.maxMillis(), 1e-9);
+        assertEquals(1, snapshot.get("A_STAR").searches());
+    }
+
+    @Test
+    public void testSnapshotIsUnaffectedByLaterSearches() {
+        SearchMetrics metrics = new SearchMetrics();
+        metrics.record("BFS", 1, 1, 1, 1, 1);
+        Map<String, SearchMetrics.Summary> snapshot = metrics.snapshot();
+        metrics.record("BFS", 1, 1, 1, 1, 1);
+        metrics.record("ALT", 1, 1, 1, 1, 1);
+        assertEquals(1, snapshot.size());
+        assertEquals(1, snapshot.get("BFS").searches());
+        metrics.reset();
+        assertTrue(metrics.snapshot().isEmpty());
+    }
+
+    @Test
+    public void testAndThenRecordsToBoth() {
+        SearchMetrics first = new SearchMetrics();
+        SearchMetrics second = new SearchMetrics();
+        SearchStatistics both = first.andThen(second).andThen(SearchStatistics.NONE);
+        both.record("BFS", 2, 3, 4, 5, 6);
+        assertEquals(3, first.snapshot().get("BFS").relaxed());
+        assertEquals(3, second.snapshot().get("BFS").relaxed());
+    }
+
+    @Test
+    public void testConcurrentRecords() throws InterruptedException {
+        SearchMetrics metrics = new SearchMetrics();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    metrics.record(i % 2 == 0 ? "DIJKSTRA" : "ALT", 1, 2, 3, i, 1);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(2000, metrics.snapshot().get("DIJKSTRA").searches());
+        assertEquals(4000, metrics.snapshot().get("ALT").relaxed());
+        assertEquals(999, metrics.snapshot().get("ALT").peakQueue());
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testNullAlgorithm() {
+        new SearchMetrics().record(null, 0, 0, 0, 0, 0);
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testAndThenNull() {
+        SearchStatistics.NONE.andThen(null);
+    }
+
+    @Test
+    public void testLabeledRenamesAlgorithm() {
+        SearchMetrics metrics = new SearchMetrics();
+        metrics.labeled("TREE_CACHE").record("DIJKSTRA", 2, 3, 4, 5, 6);
+        assertEquals(List.of("TREE_CACHE"), List.copyOf(metrics.snapshot().keySet()));
+        assertEquals(2, metrics.snapshot().get("TREE_CACHE").settled());
+    }
+}
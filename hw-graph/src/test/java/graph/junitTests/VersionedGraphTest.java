@@ -0,0 +1,162 @@
+package graph.junitTests;
+
+import graph.CompactGraph;
+import graph.Graph;
+import graph.VersionedGraph;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class VersionedGraphTest {
+    private final Graph.Node<String> a = new Graph.Node<>("a");
+    private final Graph.Node<String> b = new Graph.Node<>("b");
+    private final Graph.Node<String> c = new Graph.Node<>("c");
+
+    private VersionedGraph<String, String> graph;
+
+    @Before
+    public void build() {
+        Graph<String, String> base = new Graph<>(Graph.Verification.FULL);
+        base.addNode(a);
+        base.addNode(b);
+        base.addNode(c);
+        base.addEdge(a, b, "x");
+        base.addEdge(b, c, "y");
+        graph = new VersionedGraph<>(base);
+    }
+
+    @Test
+    public void testCopiesGraph() {
+        VersionedGraph.Version<String, String> version = graph.pin();
+        assertEquals(0, version.number());
+        assertEquals(3, version.size());
+        assertEquals(List.of(new Graph.Edge<>(a, b, "x")), version.getAllEdgesFrom(a));
+        assertEquals(List.of(new Graph.Edge<>(a, b, "x")), version.getAllEdgesTo(b));
+        assertSame(a, version.nodeOf("a"));
+    }
+
+    @Test
+    public void testBatchIsInvisibleUntilPublished() {
+        VersionedGraph.Batch<String, String> batch = graph.batch().addNode("d").addEdge("c", "d", "z");
+        assertFalse(graph.pin().containsValue("d"));
+        VersionedGraph.Version<String, String> published = batch.publish();
+        assertSame(published, graph.pin());
+        assertEquals(1, published.number());
+        assertEquals(List.of(new Graph.Node<>("d")), published.getChild(c));
+    }
+
+    @Test
+    public void testPinnedVersionNeverChanges() {
+        VersionedGraph.Version<String, String> pinned = graph.pin();
+        graph.batch().deleteEdge("a", "b", "x").deleteNode("c").addEdge("b", "a", "w").publish();
+        assertEquals(3, pinned.size());
+        assertEquals(List.of(new Graph.Edge<>(a, b, "x")), pinned.getAllEdgesFrom(a));
+        assertEquals(List.of(new Graph.Edge<>(b, c, "y")), pinned.getAllEdgesFrom(b));
+
+        VersionedGraph.Version<String, String> current = graph.pin();
+        assertEquals(2, current.size());
+        assertEquals(new ArrayList<>(), current.getAllEdgesFrom(a));
+        assertEquals(List.of(new Graph.Edge<>(b, a, "w")), current.getAllEdgesFrom(b));
+        assertEquals(List.of(new Graph.Edge<>(b, a, "w")), current.getAllEdgesTo(a));
+    }
+
+    @Test
+    public void testSharesUntouchedNodes() {
+        VersionedGraph.Version<String, String> before = graph.pin();
+        VersionedGraph.Version<String, String> after = graph.batch().addEdge("c", "c", "self").publish();
+        assertSame(before.edgesFrom("a"), after.edgesFrom("a"));
+        assertSame(before.edgesTo("b"), after.edgesTo("b"));
+        assertNotSame(before.edgesFrom("c"), after.edgesFrom("c"));
+    }
+
+    @Test
+    public void testBatchFollowsGraphRules() {
+        VersionedGraph.Version<String, String> version = graph.batch()
+                .addEdge("a", "b", "x")
+                .addEdge("a", "e", "x")
+                .addNode("a")
+                .deleteEdge("a", "c", "x")
+                .publish();
+        assertEquals(3, version.size());
+        assertEquals(1, version.edgesFrom("a").size());
+    }
+
+    @Test
+    public void testBatchIsReusable() {
+        VersionedGraph.Batch<String, String> batch = graph.batch().addNode("d");
+        batch.publish();
+        assertEquals(2, batch.addNode("e").publish().number());
+        assertEquals(5, graph.pin().size());
+    }
+
+    @Test
+    public void testFreezeVersion() {
+        CompactGraph<String, String> compact = graph.pin().freeze(String::length);
+        assertEquals(3, compact.nodeCount());
+        assertEquals(2, compact.edgeCount());
+    }
+
+    @Test (expected = UnsupportedOperationException.class)
+    public void testVersionIsReadOnly() {
+        graph.pin().addNode(new Graph.Node<>("d"));
+    }
+
+    @Test (expected = UnsupportedOperationException.class)
+    public void testEdgesAreReadOnly() {
+        graph.pin().edgesFrom("a").clear();
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testNullEdge() {
+        graph.batch().addEdge("a", null, "x");
+    }
+
+    @Test (timeout = 60000)
+    public void testReadersSeeWholeBatches() throws Exception {
+        // Every batch moves all three edges of a triangle to a new label, so a pinned version
+        // must show one label on all of them.
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        graph.batch().addEdge("c", "a", "0").publish();
+        graph.batch().deleteEdge("a", "b", "x").deleteEdge("b", "c", "y").addEdge("a", "b", "0")
+                .addEdge("b", "c", "0").publish();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    while (!done.get()) {
+                        VersionedGraph.Version<String, String> version = graph.pin();
+                        String label = version.edgesFrom("c").iterator().next().getLabel();
+                        assertEquals(label, version.edgesFrom("a").iterator().next().getLabel());
+                        assertEquals(label, version.edgesTo("c").iterator().next().getLabel());
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        for (int i = 1; i < 2000; i++) {
+            String old = String.valueOf(i - 1);
+            String label = String.valueOf(i);
+            graph.batch().deleteEdge("a", "b", old).deleteEdge("b", "c", old).deleteEdge("c", "a", old)
+                    .addEdge("a", "b", label).addEdge("b", "c", label).addEdge("c", "a", label).publish();
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertEquals(2001, graph.pin().number());
+    }
+}
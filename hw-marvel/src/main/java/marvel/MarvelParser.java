@@ -14,6 +14,7 @@ package marvel;
 import java.io.*;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.zip.CRC32;
 
 /**
  * Parser utility to load the Marvel Comics dataset.
@@ -72,4 +73,31 @@ public class MarvelParser {
         }
         return new BufferedReader(new InputStreamReader(stream)).lines().collect(Collectors.toList());
     }
+
+    /**
+     * Compute a checksum of the bytes of the provided data file, which is located relative to
+     * the data/ folder in this parser's classpath, to tell whether a graph built from it is
+     * still current.
+     *
+     * @param filename The file to read.
+     * @throws IllegalArgumentException if the file doesn't exist, has an invalid name,
+                                        or can't be read
+     * @return the CRC-32 of the file's bytes.
+     */
+    static long checksum(String filename) {
+        InputStream stream = MarvelParser.class.getResourceAsStream("/data/" + filename);
+        if (stream == null) {
+            throw new IllegalArgumentException("No such file: " + filename);
+        }
+        CRC32 crc = new CRC32();
+        try (InputStream in = stream) {
+            byte[] buffer = new byte[1 << 16];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                crc.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Can't read file: " + filename, e);
+        }
+        return crc.getValue();
+    }
 }
@@ -1,6 +1,15 @@
 package marvel;
 
+import graph.CompactGraph;
+import graph.Deadline;
 import graph.Graph;
+import graph.IndexedGraph;
+import graph.LabeledGraph;
+import graph.MappedGraph;
+import graph.SearchResult;
+import graph.SearchStatistics;
+
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -21,20 +30,74 @@ public class MarvelPaths {
      * @throws RuntimeException if the given file is null
      */
     public static Graph<String, String> createGraph(String fileName) {
+        return collect(fileName).build();
+    }
+
+    /**
+     * Create and return a compact graph with the same nodes and edges createGraph would create
+     * from the given file, built directly without the mutable graph. The result is the same as
+     * freezeGraph(createGraph(fileName)).
+     *
+     * @param fileName the file where the graph will create data from it.
+     * @return return the compact graph we create from the given file.
+     * @throws RuntimeException if the given file is null
+     */
+    public static CompactGraph<String, String> createCompactGraph(String fileName) {
+        return collect(fileName).buildCompact(comic -> 1.0, new EdgeComparator());
+    }
+
+    /**
+     * Return the graph createCompactGraph would create from the given file, served from a memory
+     * mapped graph file. The first call writes the graph file; later calls, including from other
+     * processes, only checksum the data file and map the graph file, which is much faster than
+     * parsing the data file. The graph file stores the checksum of the data it was built from,
+     * and is rewritten when the data file no longer matches it, or when it isn't a whole graph
+     * file of the current format.
+     *
+     * @param fileName the file where the graph will create data from it.
+     * @param graphFile the graph file to map, written first if it doesn't exist or is stale
+     * @return return the graph held in the graph file.
+     * @throws RuntimeException if the given file or graph file is null, or the graph file can't be
+     * read or written.
+     */
+    public static IndexedGraph<String, String> loadGraph(String fileName, Path graphFile) {
+        if (fileName == null || graphFile == null) {
+            throw new RuntimeException("The fileName or graphFile can't be null");
+        }
+        long source = MarvelParser.checksum(fileName);
+        if (MappedGraph.matches(graphFile, source)) {
+            return MappedGraph.open(graphFile);
+        }
+        MappedGraph.write(createCompactGraph(fileName), name -> name, comic -> comic, graphFile, source);
+        return MappedGraph.open(graphFile);
+    }
+
+    /**
+     * Read the given file and collect an edge in both directions between every two characters
+     * in the same book, labeled with the book.
+     *
+     * @param fileName the file where the graph will create data from it.
+     * @return return a builder holding the nodes and edges from the given file.
+     * @throws RuntimeException if the given file is null
+     */
+    private static Graph.Builder<String, String> collect(String fileName) {
         if (fileName == null) {
             throw new RuntimeException("The fileName can't be null");
         }
         Map<String, List<String>> comics = MarvelParser.parseData(fileName);
-        Graph<String,String> graph = new Graph<>();
+        int appearances = 0;
+        int edges = 0;
+        for (List<String> characters : comics.values()) {
+            appearances += characters.size();
+            edges += characters.size() * (characters.size() - 1);
+        }
+        Graph.Builder<String, String> graph = new Graph.Builder<>(appearances, edges);
         for (String comic : comics.keySet()) {
-            for (int i = 0; i < comics.get(comic).size() - 1; i++) {
-                Graph.Node<String> node1 = new Graph.Node<>(comics.get(comic).get(i));
-                graph.addNode(node1);
-                for (int j = i + 1; j < comics.get(comic).size(); j++) {
-                    Graph.Node<String> node2 = new Graph.Node<>(comics.get(comic).get(j));
-                    graph.addNode(node2);
-                    graph.addEdge(node1, node2, comic);
-                    graph.addEdge(node2, node1, comic);
+            List<String> characters = comics.get(comic);
+            for (int i = 0; i < characters.size() - 1; i++) {
+                for (int j = i + 1; j < characters.size(); j++) {
+                    graph.addEdge(characters.get(i), characters.get(j), comic);
+                    graph.addEdge(characters.get(j), characters.get(i), comic);
                 }
             }
         }
@@ -51,21 +114,74 @@ public class MarvelPaths {
      * @return return a list of edges contains the shortest path between two given nodes.
      * @throws  RuntimeException if the graph == null  or start node == null or end node == null.
      */
-    public static List<Graph.Edge<String, String>> shortPath (Graph<String, String> graph, String start, String end) {
-        if (graph == null || start == null || end == null) {
+    public static List<Graph.Edge<String, String>> shortPath (LabeledGraph<String, String> graph, String start, String end) {
+        SearchResult<List<Graph.Edge<String, String>>> result = shortPath(graph, start, end, Deadline.none());
+        return result.value() == null ? new ArrayList<>() : result.value();
+    }
+
+    /**
+     * Find the shortest path between the two given nodes like shortPath(graph, start, end), but
+     * give up if the deadline passes first. The deadline is checked every
+     * Deadline.CHECK_INTERVAL nodes the search visits.
+     *
+     * @param graph the graph where contains the nodes we need to find the shortest path between them
+     * @param start the starting node
+     * @param end the ending node
+     * @param deadline when to give up
+     * @return FOUND with the list of edges of the shortest path, which is empty if start equals
+     * end, NOT_FOUND if no path connects them, or TIMED_OUT if the deadline passed first.
+     * @throws  RuntimeException if any argument is null.
+     */
+    public static SearchResult<List<Graph.Edge<String, String>>> shortPath (LabeledGraph<String, String> graph,
+                                                                          String start, String end, Deadline deadline) {
+        return shortPath(graph, start, end, deadline, SearchStatistics.NONE);
+    }
+
+    /**
+     * Find the shortest path between the two given nodes like shortPath(graph, start, end,
+     * deadline), reporting the search's counters to the given statistics as BFS once it ends.
+     * A node counts as settled when it is taken off the queue and every edge out of it counts
+     * as relaxed.
+     *
+     * @param graph the graph where contains the nodes we need to find the shortest path between them
+     * @param start the starting node
+     * @param end the ending node
+     * @param deadline when to give up
+     * @param statistics where to report the search's counters
+     * @return FOUND with the list of edges of the shortest path, which is empty if start equals
+     * end, NOT_FOUND if no path connects them, or TIMED_OUT if the deadline passed first.
+     * @throws  RuntimeException if any argument is null.
+     */
+    public static SearchResult<List<Graph.Edge<String, String>>> shortPath (LabeledGraph<String, String> graph,
+                                                                          String start, String end, Deadline deadline,
+                                                                          SearchStatistics statistics) {
+        if (graph == null || start == null || end == null || deadline == null || statistics == null) {
             throw new RuntimeException("Parameters can't be null");
         }
+        long begin = System.nanoTime();
         Queue<String> nodes = new LinkedList<>();
         Map<String, List<Graph.Edge<String, String>>> visitedNodes = new HashMap<>();
         nodes.add(start);
         visitedNodes.put(start, new ArrayList<>());
+        int visited = 0;
+        long relaxed = 0;
+        long pushes = 1;
+        int peak = 1;
+        SearchResult<List<Graph.Edge<String, String>>> result = SearchResult.notFound();
         while (!nodes.isEmpty()) {
             String node = nodes.remove();
+            visited++;
             if (node.equals(end)) {
-                return new ArrayList<>(visitedNodes.get(node));
+                result = SearchResult.found(new ArrayList<>(visitedNodes.get(node)));
+                break;
+            }
+            if (visited % Deadline.CHECK_INTERVAL == 0 && deadline.expired()) {
+                result = SearchResult.timedOut();
+                break;
             }
-            List<Graph.Edge<String, String>> edges = new ArrayList<>(graph.getAllEdgesFrom(new Graph.Node<>(node)));
+            List<Graph.Edge<String, String>> edges = new ArrayList<>(graph.edgesFrom(node));
             edges.sort(new EdgeComparator());
+            relaxed += edges.size();
             for (Graph.Edge<String, String > edge : edges) {
                 if (!visitedNodes.containsKey(edge.getDes().getNode())) {
                     List<Graph.Edge<String, String>> p = new ArrayList<>(visitedNodes.get(node));
@@ -73,9 +189,83 @@ public class MarvelPaths {
                     pPrime.add(edge);
                     visitedNodes.put(edge.getDes().getNode(), pPrime);
                     nodes.add(edge.getDes().getNode());
+                    pushes++;
+                }
+            }
+            peak = Math.max(peak, nodes.size());
+        }
+        statistics.record("BFS", visited, relaxed, pushes, peak, System.nanoTime() - begin);
+        return result;
+    }
+
+    /**
+     * Take a compact snapshot of the given graph for repeated shortest path queries. The edges
+     * of every node are stored in the order the breadth-first search visits them, so queries
+     * on the snapshot don't sort or copy edge lists.
+     *
+     * @param graph the graph created by createGraph
+     * @return return a compact snapshot of the given graph.
+     * @throws RuntimeException if the graph == null.
+     */
+    public static CompactGraph<String, String> freezeGraph(LabeledGraph<String, String> graph) {
+        if (graph == null) {
+            throw new RuntimeException("The graph can't be null");
+        }
+        return graph.freeze(comic -> 1.0, new EdgeComparator());
+    }
+
+    /**
+     * Find the shortest path between the two given nodes in a compact graph created by
+     * freezeGraph, createCompactGraph or loadGraph. The result is the same as shortPath on the
+     * graph the compact one was taken of.
+     *
+     * @param graph the compact graph where contains the nodes we need to find the shortest path between them
+     * @param start the starting node
+     * @param end the ending node
+     * @return return a list of edges contains the shortest path between two given nodes.
+     * @throws  RuntimeException if the graph == null or start node == null or end node == null,
+     * or start node is not in the graph.
+     */
+    public static List<Graph.Edge<String, String>> compactShortPath(IndexedGraph<String, String> graph, String start, String end) {
+        if (graph == null || start == null || end == null) {
+            throw new RuntimeException("Parameters can't be null");
+        }
+        int startId = graph.idOf(start);
+        if (startId < 0) {
+            throw new RuntimeException("The given node is not in the graph");
+        }
+        int endId = graph.idOf(end);
+        if (endId < 0) {
+            return new ArrayList<>();
+        }
+        int[] parentEdge = new int[graph.nodeCount()];
+        int[] parentNode = new int[graph.nodeCount()];
+        boolean[] visited = new boolean[graph.nodeCount()];
+        int[] nodes = new int[graph.nodeCount()];
+        int head = 0;
+        int tail = 0;
+        nodes[tail++] = startId;
+        visited[startId] = true;
+        while (head < tail) {
+            int node = nodes[head++];
+            if (node == endId) {
+                LinkedList<Graph.Edge<String, String>> path = new LinkedList<>();
+                for (int curr = node; curr != startId; curr = parentNode[curr]) {
+                    path.addFirst(new Graph.Edge<>(new Graph.Node<>(graph.valueOf(parentNode[curr])),
+                            new Graph.Node<>(graph.valueOf(curr)), graph.label(parentEdge[curr])));
+                }
+                return new ArrayList<>(path);
+            }
+            for (int e = graph.firstEdge(node); e < graph.lastEdge(node); e++) {
+                int child = graph.target(e);
+                if (!visited[child]) {
+                    visited[child] = true;
+                    parentEdge[child] = e;
+                    parentNode[child] = node;
+                    nodes[tail++] = child;
                 }
             }
         }
-        return visitedNodes.get(start);
+        return new ArrayList<>();
     }
 }
@@ -1,11 +1,20 @@
 package marvel.junitTests;
 
+import graph.CompactGraph;
+import graph.Deadline;
 import graph.Graph;
+import graph.IndexedGraph;
+import graph.MappedGraph;
+import graph.SearchMetrics;
+import graph.SearchResult;
 import marvel.MarvelPaths;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -143,4 +152,134 @@ public class MarvelTest {
     public void buildNull4() {
         MarvelPaths.shortPath(graph, "Karim-Benzema", null);
     }
+
+    @Test
+    public void testCompactSamePaths() {
+        CompactGraph<String, String> compact = MarvelPaths.freezeGraph(graph);
+        for (Graph.Node<String> start : graph.allNodes()) {
+            for (Graph.Node<String> end : graph.allNodes()) {
+                assertEquals(MarvelPaths.shortPath(graph, start.getNode(), end.getNode()),
+                        MarvelPaths.compactShortPath(compact, start.getNode(), end.getNode()));
+            }
+        }
+    }
+
+    @Test
+    public void testCompactNoPath() {
+        CompactGraph<String, String> compact = MarvelPaths.freezeGraph(graph);
+        assertEquals(new ArrayList<>(), MarvelPaths.compactShortPath(compact, "Federico-Chiesa", "Christiano-Ronaldo"));
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testCompactUnknown() {
+        MarvelPaths.compactShortPath(MarvelPaths.freezeGraph(graph), "Neymar", "Messi");
+    }
+
+    @Test
+    public void testCreateCompactSamePaths() {
+        CompactGraph<String, String> compact = MarvelPaths.createCompactGraph("soccerPlayersInTeams.csv");
+        assertEquals(graph.size(), compact.nodeCount());
+        for (Graph.Node<String> start : graph.allNodes()) {
+            for (Graph.Node<String> end : graph.allNodes()) {
+                assertEquals(MarvelPaths.shortPath(graph, start.getNode(), end.getNode()),
+                        MarvelPaths.compactShortPath(compact, start.getNode(), end.getNode()));
+            }
+        }
+    }
+
+    @Test
+    public void testLoadGraphSamePaths() throws Exception {
+        Path file = Files.createTempFile("soccer", ".graph");
+        Files.delete(file);
+        try {
+            IndexedGraph<String, String> written = MarvelPaths.loadGraph("soccerPlayersInTeams.csv", file);
+            IndexedGraph<String, String> mapped = MarvelPaths.loadGraph("soccerPlayersInTeams.csv", file);
+            assertEquals(graph.size(), mapped.nodeCount());
+            for (Graph.Node<String> start : graph.allNodes()) {
+                for (Graph.Node<String> end : graph.allNodes()) {
+                    List<Graph.Edge<String, String>> expected = MarvelPaths.shortPath(graph, start.getNode(), end.getNode());
+                    assertEquals(expected, MarvelPaths.compactShortPath(written, start.getNode(), end.getNode()));
+                    assertEquals(expected, MarvelPaths.compactShortPath(mapped, start.getNode(), end.getNode()));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testDeadlineNotReached() {
+        SearchResult<List<Graph.Edge<String, String>>> result =
+                MarvelPaths.shortPath(graph, "Marcus-Rashford", "Karim-Benzema", Deadline.none());
+        assertEquals(SearchResult.Status.FOUND, result.status());
+        assertEquals(MarvelPaths.shortPath(graph, "Marcus-Rashford", "Karim-Benzema"), result.value());
+        assertEquals(SearchResult.Status.NOT_FOUND,
+                MarvelPaths.shortPath(graph, "Marcus-Rashford", "Nobody", Deadline.none()).status());
+    }
+
+    @Test
+    public void testCancelledSearchTimesOut() {
+        Graph<String, String> chain = new Graph<>();
+        for (int i = 0; i < 2 * Deadline.CHECK_INTERVAL; i++) {
+            chain.addNode(new Graph.Node<>("n" + i));
+            chain.addNode(new Graph.Node<>("n" + (i + 1)));
+            chain.addEdge(new Graph.Node<>("n" + i), new Graph.Node<>("n" + (i + 1)), "book");
+        }
+        Deadline deadline = Deadline.none();
+        deadline.cancel();
+        assertTrue(MarvelPaths.shortPath(chain, "n0", "n" + 2 * Deadline.CHECK_INTERVAL, deadline).isTimedOut());
+        assertEquals(2 * Deadline.CHECK_INTERVAL,
+                MarvelPaths.shortPath(chain, "n0", "n" + 2 * Deadline.CHECK_INTERVAL).size());
+    }
+
+    @Test
+    public void testStatisticsCountBreadthFirstSearch() {
+        Graph<String, String> chain = new Graph<>();
+        for (int i = 0; i < 3; i++) {
+            chain.addNode(new Graph.Node<>("n" + i));
+            chain.addNode(new Graph.Node<>("n" + (i + 1)));
+            chain.addEdge(new Graph.Node<>("n" + i), new Graph.Node<>("n" + (i + 1)), "book");
+        }
+        SearchMetrics metrics = new SearchMetrics();
+        assertEquals(SearchResult.Status.FOUND,
+                MarvelPaths.shortPath(chain, "n0", "n3", Deadline.none(), metrics).status());
+        SearchMetrics.Summary summary = metrics.snapshot().get("BFS");
+        assertEquals(1, summary.searches());
+        assertEquals(4, summary.settled());
+        assertEquals(3, summary.relaxed());
+        assertEquals(4, summary.pushes());
+        assertEquals(1, summary.peakQueue());
+    }
+
+    @Test
+    public void testLoadGraphRebuildsStaleFile() throws Exception {
+        Path file = Files.createTempFile("soccer", ".graph");
+        try {
+            Graph.Builder<String, String> stale = new Graph.Builder<>();
+            stale.addEdge("Old", "Player", "Team");
+            MappedGraph.write(stale.buildCompact(comic -> 1.0), name -> name, comic -> comic, file);
+            IndexedGraph<String, String> loaded = MarvelPaths.loadGraph("soccerPlayersInTeams.csv", file);
+            assertEquals(graph.size(), loaded.nodeCount());
+            assertEquals(-1, loaded.idOf("Old"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testLoadGraphRebuildsBrokenFile() throws Exception {
+        Path file = Files.createTempFile("soccer", ".graph");
+        try {
+            MarvelPaths.loadGraph("soccerPlayersInTeams.csv", file);
+            byte[] whole = Files.readAllBytes(file);
+            // A truncated file, then a file that isn't a graph file at all.
+            Files.write(file, Arrays.copyOf(whole, whole.length / 2));
+            assertEquals(graph.size(), MarvelPaths.loadGraph("soccerPlayersInTeams.csv", file).nodeCount());
+            Files.write(file, new byte[] {1, 2, 3, 4});
+            assertEquals(graph.size(), MarvelPaths.loadGraph("soccerPlayersInTeams.csv", file).nodeCount());
+            assertArrayEquals(whole, Files.readAllBytes(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
 }
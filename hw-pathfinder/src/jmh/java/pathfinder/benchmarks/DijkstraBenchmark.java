@@ -0,0 +1,64 @@
+package pathfinder.benchmarks;
+
+import graph.CompactGraph;
+import graph.Graph;
+import org.openjdk.jmh.annotations.*;
+import pathfinder.Dijkstra;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+import pathfinder.parser.CampusBuilding;
+import pathfinder.parser.CampusPath;
+import pathfinder.parser.CampusPathsParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the parent-pointer Dijkstra search with the old search that queued whole paths, on
+ * the campus map. Each invocation answers one building-to-building query, cycling through every
+ * ordered pair of buildings so both searches see the same mix of short and long routes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DijkstraBenchmark {
+
+    private CompactGraph<Point, Double> campus;
+    private List<Point> buildings;
+    private int next;
+
+    @Setup
+    public void load() {
+        List<CampusPath> paths = CampusPathsParser.parseCampusPaths("campus_paths.csv");
+        List<CampusBuilding> campusBuildings = CampusPathsParser.parseCampusBuildings("campus_buildings.csv");
+        Graph.Builder<Point, Double> builder = new Graph.Builder<>(campusBuildings.size() + paths.size(), paths.size());
+        buildings = new ArrayList<>();
+        for (CampusBuilding building : campusBuildings) {
+            buildings.add(new Point(building.getX(), building.getY()));
+            builder.addNode(new Point(building.getX(), building.getY()));
+        }
+        for (CampusPath path : paths) {
+            builder.addEdge(new Point(path.getX1(), path.getY1()), new Point(path.getX2(), path.getY2()),
+                    path.getDistance());
+        }
+        campus = builder.buildCompact(Double::doubleValue);
+    }
+
+    @Benchmark
+    public Path<Point> pathQueue() {
+        int pair = next++ % (buildings.size() * buildings.size());
+        return PathQueueDijkstra.getPath(campus, buildings.get(pair / buildings.size()),
+                buildings.get(pair % buildings.size()));
+    }
+
+    @Benchmark
+    public Path<Point> parentPointers() {
+        int pair = next++ % (buildings.size() * buildings.size());
+        return Dijkstra.getPath(campus, buildings.get(pair / buildings.size()),
+                buildings.get(pair % buildings.size()));
+    }
+}
@@ -0,0 +1,68 @@
+package pathfinder.benchmarks;
+
+import graph.IndexedGraph;
+import pathfinder.datastructures.Path;
+
+import java.util.PriorityQueue;
+
+/**
+ * The Dijkstra search as it was before parent pointers: every queue entry carries a whole
+ * Path, and every relaxation copies the path it extends. Kept only as the baseline the
+ * benchmarks compare the current search against.
+ */
+final class PathQueueDijkstra {
+
+    private PathQueueDijkstra() {
+    }
+
+    /**
+     * Find the shortest path from start to dest by queueing whole paths.
+     *
+     * @param graph the graph to search
+     * @param start the starting node
+     * @param dest the ending node
+     * @return the shortest path, or null if dest can't be reached
+     */
+    static <T> Path<T> getPath(IndexedGraph<T, ?> graph, T start, T dest) {
+        int startId = graph.idOf(start);
+        int destId = graph.idOf(dest);
+        PriorityQueue<Active<T>> active = new PriorityQueue<>();
+        boolean[] finished = new boolean[graph.nodeCount()];
+        active.add(new Active<>(new Path<>(start), startId));
+
+        while (!active.isEmpty()) {
+            Active<T> min = active.remove();
+            if (min.id == destId) {
+                return min.path;
+            }
+            if (!finished[min.id]) {
+                for (int e = graph.firstEdge(min.id); e < graph.lastEdge(min.id); e++) {
+                    int child = graph.target(e);
+                    if (!finished[child]) {
+                        active.add(new Active<>(min.path.extend(graph.valueOf(child), graph.weight(e)), child));
+                    }
+                }
+            }
+            finished[min.id] = true;
+        }
+        return null;
+    }
+
+    /**
+     * A path waiting in the active queue, together with the id of the node it ends at.
+     */
+    private static class Active<T> implements Comparable<Active<T>> {
+        private final Path<T> path;
+        private final int id;
+
+        private Active(Path<T> path, int id) {
+            this.path = path;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Active<T> other) {
+            return Double.compare(path.getCost(), other.path.getCost());
+        }
+    }
+}
@@ -13,12 +13,22 @@ package pathfinder;
 
 import pathfinder.datastructures.Path;
 import java.util.Map;
+import graph.CompactGraph;
+import graph.ContractionHierarchy;
+import graph.Deadline;
 import graph.Graph;
+import graph.Landmarks;
+import graph.ReverseIndex;
+import graph.SearchResult;
+import graph.SearchStatistics;
+import pathfinder.datastructures.KdTree;
 import pathfinder.datastructures.Point;
 import pathfinder.parser.CampusBuilding;
 import pathfinder.parser.CampusPath;
 import pathfinder.parser.CampusPathsParser;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 
 /**
@@ -27,34 +37,198 @@ import java.util.List;
  */
 public class CampusMap implements ModelAPI {
 
+    /** The number of shortest path trees kept for TREE_CACHE routing unless told otherwise. */
+    public static final int DEFAULT_TREE_CACHE_CAPACITY = 16;
+
     private final Map<String, String> building;
-    private final Graph<Point, Double> campusMap;
+    private final CompactGraph<Point, Double> campusMap;
     private final Map<String, Point> location;
+    private final Map<String, List<String>> entrances;
+    private final Map<Point, List<String>> buildingsAt;
+    private final KdTree points;
+    private final ReverseIndex reverse;
+    private final Landmarks landmarks;
+    private final double scale;
+    // Built on first use; volatile so later reads see them without taking the lock.
+    private volatile ContractionHierarchy hierarchy;
+    private volatile RouteTable<Point> routes;
+    private final TreeCache<Point> trees;
 
     /**
      * Constructor load the campus path file and campus building file and give initialization.
-     * Build the graph and construct the campus map.
+     * Build the graph and construct the campus map. The map is never edited after loading,
+     * so the graph is built directly into its compact form for routing. Landmark tables for
+     * ALT routing are computed in memory, and the contraction hierarchy is built on first use.
      */
     public CampusMap() {
+        this(null, null);
+    }
+
+    /**
+     * Constructor load the campus path file and campus building file and give initialization,
+     * like CampusMap(), but keep the landmark tables for ALT routing in the given file. The first
+     * run computes and writes them; later runs only read them. If the file was written for other
+     * campus data, or isn't a landmark file of the current format, the tables are computed again
+     * and the file is replaced.
+     *
+     * @param landmarkFile the file holding the landmark tables, or null to compute them in memory
+     * @throws java.io.UncheckedIOException if the landmark file can't be read or written.
+     * @throws RuntimeException if the landmark file is corrupt past its header.
+     */
+    public CampusMap(java.nio.file.Path landmarkFile) {
+        this(landmarkFile, null);
+    }
+
+    /**
+     * Constructor load the campus path file and campus building file and give initialization,
+     * like CampusMap(Path), and also keep the contraction hierarchy in the given file, loading it
+     * now instead of on first use. The first run builds and writes it; later runs only read it.
+     * Like the landmark file, it is built again and replaced if it was written for other campus
+     * data or in an older format.
+     *
+     * @param landmarkFile the file holding the landmark tables, or null to compute them in memory
+     * @param hierarchyFile the file holding the contraction hierarchy, or null to build it on
+     *                      first use
+     * @throws java.io.UncheckedIOException if a file can't be read or written.
+     * @throws RuntimeException if a file is corrupt past its header.
+     */
+    public CampusMap(java.nio.file.Path landmarkFile, java.nio.file.Path hierarchyFile) {
         building = new HashMap<>();
-        campusMap = new Graph<>();
         location = new HashMap<>();
         List<CampusPath> campusPath = CampusPathsParser.parseCampusPaths("campus_paths.csv");
-        List<CampusBuilding> campusBuilding = CampusPathsParser.parseCampusBuildings("campus_building.csv");
+        List<CampusBuilding> campusBuilding = CampusPathsParser.parseCampusBuildings("campus_buildings.csv");
+        Graph.Builder<Point, Double> campusMap =
+                new Graph.Builder<>(campusBuilding.size() + campusPath.size(), campusPath.size());
 
+        Map<String, List<String>> entrances = new HashMap<>();
         for (CampusBuilding build : campusBuilding) {
             building.put(build.getShortName(), build.getLongName());
             location.put(build.getShortName(), new Point(build.getX(), build.getY()));
-            campusMap.addNode(new Graph.Node<>(new Point(build.getX(), build.getY())));
+            campusMap.addNode(new Point(build.getX(), build.getY()));
+            entrances.computeIfAbsent(buildingOf(build.getShortName()), name -> new ArrayList<>())
+                    .add(build.getShortName());
         }
+        entrances.replaceAll((name, names) -> List.copyOf(names));
+        this.entrances = Map.copyOf(entrances);
+        Map<Point, List<String>> buildingsAt = new HashMap<>();
+        for (CampusBuilding build : campusBuilding) {
+            buildingsAt.computeIfAbsent(location.get(build.getShortName()), point -> new ArrayList<>())
+                    .add(build.getShortName());
+        }
+        buildingsAt.replaceAll((point, names) -> List.copyOf(names));
+        this.buildingsAt = Map.copyOf(buildingsAt);
 
-        for (CampusPath path : campusPath) {
-            Point p1 = new Point(path.getX1(), path.getY1());
-            Point p2 = new Point(path.getX2(), path.getY2());
-            campusMap.addNode(new Graph.Node<>(p1));
-            campusMap.addNode(new Graph.Node<>(p2));
-            campusMap.addEdge(new Graph.Node<>(p1), new Graph.Node<>(p2), path.getDistance());
+        campusMap.addEdges(campusPath.stream(),
+                path -> new Point(path.getX1(), path.getY1()),
+                path -> new Point(path.getX2(), path.getY2()),
+                CampusPath::getDistance);
+        this.campusMap = campusMap.buildCompact(Double::doubleValue);
+        this.reverse = new ReverseIndex(this.campusMap);
+        List<Point> nodes = new ArrayList<>(this.campusMap.nodeCount());
+        for (int id = 0; id < this.campusMap.nodeCount(); id++) {
+            nodes.add(this.campusMap.valueOf(id));
+        }
+        this.points = new KdTree(nodes);
+        if (landmarkFile != null && Landmarks.matches(this.campusMap, landmarkFile)) {
+            this.landmarks = Landmarks.read(this.campusMap, landmarkFile);
+        } else {
+            this.landmarks = Landmarks.select(this.campusMap);
+            if (landmarkFile != null) {
+                this.landmarks.write(landmarkFile);
+            }
         }
+        this.scale = minimumScale(this.campusMap);
+        if (hierarchyFile != null && ContractionHierarchy.matches(this.campusMap, hierarchyFile)) {
+            this.hierarchy = ContractionHierarchy.read(this.campusMap, hierarchyFile);
+        } else if (hierarchyFile != null) {
+            this.hierarchy = ContractionHierarchy.build(this.campusMap);
+            this.hierarchy.write(hierarchyFile);
+        }
+        this.trees = new TreeCache<>(this.campusMap, DEFAULT_TREE_CACHE_CAPACITY);
+    }
+
+    /**
+     * Return the cache of shortest path trees that TREE_CACHE routing answers from, with its hit
+     * and miss counts.
+     *
+     * @return the shortest path tree cache of this map
+     */
+    public TreeCache<Point> treeCache() {
+        return trees;
+    }
+
+    /**
+     * Return the table of shortest paths between every two buildings, computing it if this is
+     * the first use. Computing it runs one search per building, in parallel, so call this at
+     * startup to keep the cost off the first ROUTE_TABLE query. Once it is computed, calls don't
+     * lock, so concurrent ROUTE_TABLE queries don't wait on each other.
+     *
+     * @return the route table between all buildings
+     */
+    public RouteTable<Point> routeTable() {
+        RouteTable<Point> table = routes;
+        if (table == null) {
+            synchronized (this) {
+                table = routes;
+                if (table == null) {
+                    table = new RouteTable<>(campusMap, List.copyOf(location.values()));
+                    routes = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Return the contraction hierarchy of the campus graph, building it if this is the first use.
+     * Building takes a fraction of a second, so maps that never route with it don't pay for it.
+     *
+     * @return the contraction hierarchy of the campus graph
+     */
+    private ContractionHierarchy hierarchy() {
+        ContractionHierarchy built = hierarchy;
+        if (built == null) {
+            synchronized (this) {
+                built = hierarchy;
+                if (built == null) {
+                    built = ContractionHierarchy.build(campusMap);
+                    hierarchy = built;
+                }
+            }
+        }
+        return built;
+    }
+
+    /**
+     * Find the largest factor by which straight-line distance between coordinates can be scaled
+     * while never exceeding the length of any path segment. Path lengths are in feet and
+     * coordinates in map pixels, so this converts between the two without overestimating.
+     *
+     * @param graph the campus graph
+     * @return the smallest ratio of segment length to straight-line distance, or 0 if there are
+     * no segments between distinct points.
+     */
+    private static double minimumScale(CompactGraph<Point, Double> graph) {
+        double scale = Double.POSITIVE_INFINITY;
+        for (int id = 0; id < graph.nodeCount(); id++) {
+            Point from = graph.valueOf(id);
+            for (int e = graph.firstEdge(id); e < graph.lastEdge(id); e++) {
+                double straight = distance(from, graph.valueOf(graph.target(e)));
+                if (straight > 0) {
+                    scale = Math.min(scale, graph.weight(e) / straight);
+                }
+            }
+        }
+        return scale == Double.POSITIVE_INFINITY ? 0 : scale;
+    }
+
+    /**
+     * @param a a point on the map
+     * @param b a point on the map
+     * @return the straight-line distance between a and b in map pixels.
+     */
+    private static double distance(Point a, Point b) {
+        return Math.hypot(a.getX() - b.getX(), a.getY() - b.getY());
     }
 
     /**
@@ -99,6 +273,59 @@ public class CampusMap implements ModelAPI {
         return Map.copyOf(building);
     }
 
+    /**
+     * Return the short name of the building the given entrance belongs to. Entrances other than
+     * a building's main one are listed as its short name followed by a parenthesized note, such
+     * as "BAG (NE)" for an entrance of "BAG".
+     *
+     * @param shortName The short name of an entrance.
+     * @return the short name with any parenthesized note removed
+     */
+    private static String buildingOf(String shortName) {
+        int note = shortName.indexOf(" (");
+        return note < 0 ? shortName : shortName.substring(0, note);
+    }
+
+    /**
+     * Find and return the entrances of every building, grouped under the building's short name.
+     * A building with a single entrance is listed with only that one.
+     *
+     * @return the mapping from each building's short name to the short names of its entrances,
+     * in the order they appear in the building file
+     */
+    public Map<String, List<String>> buildingEntrances() {
+        return entrances;
+    }
+
+    /**
+     * Find and return the shortest path from any entrance of the given starting building to any
+     * entrance of the ending building. Every start entrance is searched from at once, so this
+     * costs a single search rather than one per pair of entrances.
+     *
+     * @param startShortName The short name of the starting building or of any of its entrances.
+     * @param endShortName   The short name of the ending building or of any of its entrances.
+     * @return the shortest path between the two buildings, which starts and ends at whichever
+     * entrances it passes through, or null if there is none.
+     * @throws RuntimeException if given starting building is null or given ending building is null
+     * or either starting building or ending building is not in the campus map.
+     */
+    public Path<Point> findShortestPathBetweenBuildings(String startShortName, String endShortName) {
+        checkNames(startShortName, endShortName);
+        return Dijkstra.getPathBetween(campusMap, entrancePoints(startShortName), entrancePoints(endShortName));
+    }
+
+    /**
+     * @param shortName The short name of a building or one of its entrances.
+     * @return the locations of every entrance of the building
+     */
+    private List<Point> entrancePoints(String shortName) {
+        List<Point> points = new ArrayList<>();
+        for (String entrance : entrances.get(buildingOf(shortName))) {
+            points.add(location.get(entrance));
+        }
+        return points;
+    }
+
     /**
      * Find and return the shortest path between the given starting building and the ending building.
      *
@@ -119,4 +346,467 @@ public class CampusMap implements ModelAPI {
 
         return Dijkstra.getPath(campusMap, location.get(startShortName), location.get(endShortName));
     }
+
+    /**
+     * Find and return the shortest path between the points of the campus map nearest the given
+     * locations. Both are snapped with the map's spatial index rather than a scan of every point.
+     *
+     * @param start A location in map coordinates.
+     * @param end   A location in map coordinates.
+     * @return the shortest path between the two snapped points, or null if there is none.
+     * @throws RuntimeException if start or end is null.
+     */
+    @Override
+    public Path<Point> findShortestPath(Point start, Point end) {
+        if (start == null || end == null) {
+            throw new RuntimeException("Locations can't be null");
+        }
+        return Dijkstra.getPath(campusMap, points.nearest(start.getX(), start.getY()),
+                points.nearest(end.getX(), end.getY()));
+    }
+
+    /**
+     * Return the spatial index over every point of the campus map, for nearest-point and
+     * rectangle queries.
+     *
+     * @return the spatial index of the campus map's points
+     */
+    public KdTree pointIndex() {
+        return points;
+    }
+
+    /**
+     * Find every point of the campus map within the given walking distance of a building, with
+     * the distance to each. The search stops at the budget, so a small budget explores only a
+     * small part of campus.
+     *
+     * @param shortName The short name of the building to measure from.
+     * @param budget    The largest walking distance, in feet.
+     * @return the points within budget of the building, nearest first, with their distances
+     * @throws RuntimeException if shortName is null or not in the campus map, or budget is
+     * negative or NaN.
+     */
+    public Isochrone<Point> reachableWithin(String shortName, double budget) {
+        checkName(shortName);
+        return Dijkstra.withinBudget(campusMap, location.get(shortName), budget);
+    }
+
+    /**
+     * Find every point within the given walking distance of a building like reachableWithin,
+     * but give up if the deadline passes first.
+     *
+     * @param shortName The short name of the building to measure from.
+     * @param budget    The largest walking distance, in feet.
+     * @param deadline  When to give up.
+     * @return FOUND with the points reachableWithin returns, or TIMED_OUT if the deadline passed
+     * first.
+     * @throws RuntimeException if any argument is null, shortName is not in the campus map, or
+     * budget is negative or NaN.
+     */
+    public SearchResult<Isochrone<Point>> reachableWithin(String shortName, double budget, Deadline deadline) {
+        return reachableWithin(shortName, budget, deadline, SearchStatistics.NONE);
+    }
+
+    /**
+     * Find every point within the given walking distance of a building like
+     * reachableWithin(shortName, budget, deadline), reporting the search's counters to the given
+     * statistics as ISOCHRONE.
+     *
+     * @param shortName  The short name of the building to measure from.
+     * @param budget     The largest walking distance, in feet.
+     * @param deadline   When to give up.
+     * @param statistics Where to report the search's counters.
+     * @return FOUND with the points reachableWithin returns, or TIMED_OUT if the deadline passed
+     * first.
+     * @throws RuntimeException if any argument is null, shortName is not in the campus map, or
+     * budget is negative or NaN.
+     */
+    public SearchResult<Isochrone<Point>> reachableWithin(String shortName, double budget, Deadline deadline,
+                                                          SearchStatistics statistics) {
+        checkName(shortName);
+        return Dijkstra.withinBudget(campusMap, location.get(shortName), budget, deadline, statistics);
+    }
+
+    /**
+     * Find every building within the given walking distance of a building, with the distance to
+     * each, including the building itself.
+     *
+     * @param shortName The short name of the building to measure from.
+     * @param budget    The largest walking distance, in feet.
+     * @return the short names of the buildings within budget of the building, nearest first,
+     * with their distances
+     * @throws RuntimeException if shortName is null or not in the campus map, or budget is
+     * negative or NaN.
+     */
+    public Map<String, Double> buildingsWithin(String shortName, double budget) {
+        return buildingsReached(reachableWithin(shortName, budget));
+    }
+
+    /**
+     * Find every building among the points reached by a search from reachableWithin, with the
+     * distance to each.
+     *
+     * @param reached The points reached from a building, with their distances.
+     * @return the short names of the buildings at the reached points, nearest first, with their
+     * distances
+     * @throws RuntimeException if reached is null.
+     */
+    public Map<String, Double> buildingsReached(Isochrone<Point> reached) {
+        if (reached == null) {
+            throw new RuntimeException("The reached points can't be null");
+        }
+        Map<String, Double> buildings = new LinkedHashMap<>();
+        reached.distances().forEach((point, distance) -> {
+            for (String name : buildingsAt.getOrDefault(point, List.of())) {
+                buildings.put(name, distance);
+            }
+        });
+        return buildings;
+    }
+
+    /**
+     * Find the shortest distance from one building to each of the given buildings. The start is
+     * searched from once, until every node it can reach is settled.
+     *
+     * @param startShortName The short name of the building to measure from.
+     * @param endShortNames  The short names of the buildings to measure to.
+     * @return the distance from the start to each end building in order, or positive infinity
+     * for an end building that can't be reached.
+     * @throws RuntimeException if any argument is null or any name is not in the campus map.
+     */
+    @Override
+    public double[] distancesFrom(String startShortName, List<String> endShortNames) {
+        if (endShortNames == null) {
+            throw new RuntimeException("Short names can't be null");
+        }
+        return distanceMatrix(List.of(startShortName), endShortNames)[0];
+    }
+
+    /**
+     * Find the shortest distance from each of the given start buildings to each of the given end
+     * buildings. Each distinct start is searched from once, until every node it can reach is
+     * settled, and the end buildings are read off its shortest path tree.
+     *
+     * @param startShortNames The short names of the buildings to measure from.
+     * @param endShortNames   The short names of the buildings to measure to.
+     * @return a matrix whose entry [i][j] is the distance from the i-th start to the j-th end
+     * building, or positive infinity if it can't be reached.
+     * @throws RuntimeException if any argument is null or any name is not in the campus map.
+     */
+    @Override
+    public double[][] distanceMatrix(List<String> startShortNames, List<String> endShortNames) {
+        return distanceMatrix(startShortNames, endShortNames, Deadline.none()).value();
+    }
+
+    /**
+     * Find the shortest distance from each of the given start buildings to each of the given end
+     * buildings like distanceMatrix, but give up if the deadline passes first. The deadline
+     * covers all the searches together, not each one.
+     *
+     * @param startShortNames The short names of the buildings to measure from.
+     * @param endShortNames   The short names of the buildings to measure to.
+     * @param deadline        When to give up.
+     * @return FOUND with the matrix distanceMatrix returns, or TIMED_OUT if the deadline passed
+     * first.
+     * @throws RuntimeException if any argument is null or any name is not in the campus map.
+     */
+    public SearchResult<double[][]> distanceMatrix(List<String> startShortNames, List<String> endShortNames,
+                                                   Deadline deadline) {
+        return distanceMatrix(startShortNames, endShortNames, deadline, SearchStatistics.NONE);
+    }
+
+    /**
+     * Find the shortest distance from each of the given start buildings to each of the given end
+     * buildings like distanceMatrix(startShortNames, endShortNames, deadline), reporting the
+     * counters of the search from each distinct start to the given statistics as DIJKSTRA.
+     *
+     * @param startShortNames The short names of the buildings to measure from.
+     * @param endShortNames   The short names of the buildings to measure to.
+     * @param deadline        When to give up.
+     * @param statistics      Where to report the searches' counters.
+     * @return FOUND with the matrix distanceMatrix returns, or TIMED_OUT if the deadline passed
+     * first.
+     * @throws RuntimeException if any argument is null or any name is not in the campus map.
+     */
+    public SearchResult<double[][]> distanceMatrix(List<String> startShortNames, List<String> endShortNames,
+                                                   Deadline deadline, SearchStatistics statistics) {
+        if (startShortNames == null || endShortNames == null) {
+            throw new RuntimeException("Short names can't be null");
+        }
+        if (deadline == null || statistics == null) {
+            throw new RuntimeException("Deadline and statistics can't be null");
+        }
+        int[] ends = new int[endShortNames.size()];
+        for (int j = 0; j < ends.length; j++) {
+            checkName(endShortNames.get(j));
+            ends[j] = campusMap.idOf(location.get(endShortNames.get(j)));
+        }
+        Map<Point, double[]> rows = new HashMap<>();
+        double[][] matrix = new double[startShortNames.size()][];
+        for (int i = 0; i < matrix.length; i++) {
+            checkName(startShortNames.get(i));
+            Point start = location.get(startShortNames.get(i));
+            double[] row = rows.get(start);
+            if (row == null) {
+                ShortestPathTree<Point> tree = Dijkstra.search(campusMap, campusMap.idOf(start), -1, null, deadline,
+                        statistics, RoutingMode.DIJKSTRA);
+                if (tree == null) {
+                    return SearchResult.timedOut();
+                }
+                row = new double[ends.length];
+                for (int j = 0; j < ends.length; j++) {
+                    row[j] = tree.distanceTo(ends[j]);
+                }
+                rows.put(start, row);
+                matrix[i] = row;
+            } else {
+                matrix[i] = row.clone();
+            }
+        }
+        return SearchResult.found(matrix);
+    }
+
+    /**
+     * Find up to k shortest paths between the given buildings that visit no point twice, with
+     * Yen's algorithm. The spur searches share one tree of shortest paths into the ending
+     * building and run in parallel.
+     *
+     * @param startShortName The short name of the building at the beginning of the paths.
+     * @param endShortName   The short name of the building at the end of the paths.
+     * @param k              The most paths to find.
+     * @return the k shortest paths between the buildings, cheapest first, or all of them if there
+     * are fewer.
+     * @throws RuntimeException if any name is null or not in the campus map, or k is less than 1.
+     */
+    @Override
+    public List<Path<Point>> findKShortestPaths(String startShortName, String endShortName, int k) {
+        checkNames(startShortName, endShortName);
+        return KShortestPaths.find(campusMap, reverse, location.get(startShortName), location.get(endShortName), k);
+    }
+
+    /**
+     * Find up to k shortest paths between the given buildings like findKShortestPaths, but give
+     * up if the deadline passes first.
+     *
+     * @param startShortName The short name of the building at the beginning of the paths.
+     * @param endShortName   The short name of the building at the end of the paths.
+     * @param k              The most paths to find.
+     * @param deadline       When to give up.
+     * @return FOUND with the paths findKShortestPaths returns, or TIMED_OUT if the deadline
+     * passed first.
+     * @throws RuntimeException if any argument is null, any name is not in the campus map, or k
+     * is less than 1.
+     */
+    public SearchResult<List<Path<Point>>> findKShortestPaths(String startShortName, String endShortName, int k,
+                                                              Deadline deadline) {
+        return findKShortestPaths(startShortName, endShortName, k, deadline, SearchStatistics.NONE);
+    }
+
+    /**
+     * Find up to k shortest paths between the given buildings like findKShortestPaths(
+     * startShortName, endShortName, k, deadline), reporting the counters of all its searches
+     * together to the given statistics as YEN.
+     *
+     * @param startShortName The short name of the building at the beginning of the paths.
+     * @param endShortName   The short name of the building at the end of the paths.
+     * @param k              The most paths to find.
+     * @param deadline       When to give up.
+     * @param statistics     Where to report the searches' counters.
+     * @return FOUND with the paths findKShortestPaths returns, or TIMED_OUT if the deadline
+     * passed first.
+     * @throws RuntimeException if any argument is null, any name is not in the campus map, or k
+     * is less than 1.
+     */
+    public SearchResult<List<Path<Point>>> findKShortestPaths(String startShortName, String endShortName, int k,
+                                                              Deadline deadline, SearchStatistics statistics) {
+        checkNames(startShortName, endShortName);
+        return KShortestPaths.find(campusMap, reverse, location.get(startShortName), location.get(endShortName), k,
+                deadline, statistics);
+    }
+
+    /**
+     * Find the shortest path between the given buildings with Dijkstra's algorithm, giving up if
+     * the deadline passes first.
+     *
+     * @param startShortName The short name of the building at the beginning of this path.
+     * @param endShortName   The short name of the building at the end of this path.
+     * @param deadline       When to give up.
+     * @return FOUND with the shortest path, NOT_FOUND if there is none, or TIMED_OUT if the
+     * deadline passed first.
+     * @throws RuntimeException if any argument is null or either building is not in the campus map.
+     */
+    public SearchResult<Path<Point>> findShortestPath(String startShortName, String endShortName, Deadline deadline) {
+        checkNames(startShortName, endShortName);
+        return Dijkstra.getPathBefore(campusMap, location.get(startShortName), location.get(endShortName), deadline);
+    }
+
+    /**
+     * Check that the given building names can be routed between.
+     *
+     * @param startShortName The short name of the building at the beginning of a path.
+     * @param endShortName   The short name of the building at the end of a path.
+     * @throws RuntimeException if either name is null or not in the campus map.
+     */
+    private void checkNames(String startShortName, String endShortName) {
+        checkName(startShortName);
+        checkName(endShortName);
+    }
+
+    /**
+     * Check that the given building name is in the campus map.
+     *
+     * @param shortName The short name of a building.
+     * @throws RuntimeException if the name is null or not in the campus map.
+     */
+    private void checkName(String shortName) {
+        if (shortName == null) {
+            throw new RuntimeException("Short name can't be null");
+        }
+        if (!shortNameExists(shortName)) {
+            throw new RuntimeException("Name doesn't exist in campus");
+        }
+    }
+
+    /**
+     * Find and return the shortest path between the given starting building and the ending
+     * building, searching with the given algorithm.
+     *
+     * @param startShortName The short name of the building at the beginning of this path.
+     * @param endShortName   The short name of the building at the end of this path.
+     * @param mode           The algorithm to search with.
+     * @return return the shortest path between the given starting building and the ending building.
+     * @throws RuntimeException if any argument is null or either starting building or ending
+     * building is not in the campus map.
+     */
+    public Path<Point> findShortestPath(String startShortName, String endShortName, RoutingMode mode) {
+        return findShortestPath(startShortName, endShortName, mode, SearchStatistics.NONE);
+    }
+
+    /**
+     * Find and return the shortest path between the given starting building and the ending
+     * building, searching with the given algorithm and reporting its counters to the given
+     * statistics under the mode's name. ROUTE_TABLE looks its answer up without searching, so it
+     * reports only its time, with zero counters, and so does a TREE_CACHE hit; a TREE_CACHE miss
+     * reports the search that grew the tree, and CONTRACTION_HIERARCHY the two searches of its
+     * query.
+     *
+     * @param startShortName The short name of the building at the beginning of this path.
+     * @param endShortName   The short name of the building at the end of this path.
+     * @param mode           The algorithm to search with.
+     * @param statistics     Where to report the search's counters.
+     * @return return the shortest path between the given starting building and the ending building.
+     * @throws RuntimeException if any argument is null or either starting building or ending
+     * building is not in the campus map.
+     */
+    public Path<Point> findShortestPath(String startShortName, String endShortName, RoutingMode mode,
+                                        SearchStatistics statistics) {
+        return findShortestPath(startShortName, endShortName, mode, Deadline.none(), statistics).value();
+    }
+
+    /**
+     * Find the shortest path between the given buildings with the given algorithm like
+     * findShortestPath(startShortName, endShortName, mode, statistics), but give up if the
+     * deadline passes first. DIJKSTRA, A_STAR, ALT and BIDIRECTIONAL check the deadline as they
+     * search, and TREE_CACHE checks it while growing the tree of a source it has none for, which
+     * it reports with that search's counters. ROUTE_TABLE and CONTRACTION_HIERARCHY answer from
+     * tables built ahead of the query, so once those are built they finish in a bounded time and
+     * never time out.
+     *
+     * @param startShortName The short name of the building at the beginning of this path.
+     * @param endShortName   The short name of the building at the end of this path.
+     * @param mode           The algorithm to search with.
+     * @param deadline       When to give up.
+     * @param statistics     Where to report the search's counters.
+     * @return FOUND with the shortest path, NOT_FOUND if there is none, or TIMED_OUT if the
+     * deadline passed first.
+     * @throws RuntimeException if any argument is null or either building is not in the campus map.
+     */
+    public SearchResult<Path<Point>> findShortestPath(String startShortName, String endShortName, RoutingMode mode,
+                                                      Deadline deadline, SearchStatistics statistics) {
+        if (mode == null || deadline == null || statistics == null) {
+            throw new RuntimeException("Mode and deadline and statistics can't be null");
+        }
+        checkNames(startShortName, endShortName);
+        Point start = location.get(startShortName);
+        Point end = location.get(endShortName);
+        if (mode == RoutingMode.DIJKSTRA) {
+            return Dijkstra.getPathBefore(campusMap, start, end, deadline, statistics);
+        }
+        if (mode == RoutingMode.BIDIRECTIONAL) {
+            return Dijkstra.bidirectional(campusMap, reverse, start, end, deadline, statistics);
+        }
+        if (mode == RoutingMode.A_STAR || mode == RoutingMode.ALT) {
+            SearchResult<ShortestPathTree<Point>> tree = mode == RoutingMode.A_STAR
+                    ? Dijkstra.aStar(campusMap, start, end, point -> scale * distance(point, end), deadline, statistics)
+                    : Dijkstra.alt(campusMap, landmarks, start, end, deadline, statistics);
+            if (tree.isTimedOut()) {
+                return SearchResult.timedOut();
+            }
+            return tree.value() == null ? SearchResult.notFound() : SearchResult.found(tree.value().pathTo(end));
+        }
+        if (mode == RoutingMode.TREE_CACHE) {
+            return trees.path(start, end, deadline, statistics);
+        }
+        Path<Point> path;
+        if (mode == RoutingMode.CONTRACTION_HIERARCHY) {
+            path = Dijkstra.getPath(campusMap, hierarchy(), start, end, statistics);
+        } else {
+            long begin = System.nanoTime();
+            path = routeTable().path(start, end);
+            statistics.record(mode.name(), 0, 0, 0, 0, System.nanoTime() - begin);
+        }
+        return path == null ? SearchResult.notFound() : SearchResult.found(path);
+    }
+
+    /**
+     * Search from the given starting building toward the ending building with the given
+     * algorithm, returning everything the search settled. A* scales the straight-line distance
+     * to the ending building by the smallest segment-length to straight-line ratio on campus,
+     * so it never overestimates and its path costs the same as Dijkstra's.
+     *
+     * @param startShortName The short name of the building to search from.
+     * @param endShortName   The short name of the building to search toward.
+     * @param mode           The algorithm to search with.
+     * @return the tree grown by the search, whose settledCount() is the number of nodes explored
+     * @throws RuntimeException if any argument is null, either starting building or ending
+     * building is not in the campus map, or mode is BIDIRECTIONAL, CONTRACTION_HIERARCHY,
+     * ROUTE_TABLE or TREE_CACHE, which don't grow a single tree toward the ending building.
+     */
+    public ShortestPathTree<Point> search(String startShortName, String endShortName, RoutingMode mode) {
+        return search(startShortName, endShortName, mode, SearchStatistics.NONE);
+    }
+
+    /**
+     * Search like search(startShortName, endShortName, mode), reporting the search's counters
+     * to the given statistics under the mode's name.
+     *
+     * @param startShortName The short name of the building to search from.
+     * @param endShortName   The short name of the building to search toward.
+     * @param mode           The algorithm to search with.
+     * @param statistics     Where to report the search's counters.
+     * @return the tree grown by the search, whose settledCount() is the number of nodes explored
+     * @throws RuntimeException if any argument is null, either starting building or ending
+     * building is not in the campus map, or mode is BIDIRECTIONAL, CONTRACTION_HIERARCHY,
+     * ROUTE_TABLE or TREE_CACHE, which don't grow a single tree toward the ending building.
+     */
+    public ShortestPathTree<Point> search(String startShortName, String endShortName, RoutingMode mode,
+                                          SearchStatistics statistics) {
+        if (statistics == null) {
+            throw new RuntimeException("Statistics can't be null");
+        }
+        if (mode != RoutingMode.DIJKSTRA && mode != RoutingMode.A_STAR && mode != RoutingMode.ALT) {
+            throw new RuntimeException("Mode must be DIJKSTRA, A_STAR or ALT");
+        }
+        checkNames(startShortName, endShortName);
+        Point start = location.get(startShortName);
+        Point end = location.get(endShortName);
+        if (mode == RoutingMode.A_STAR) {
+            return Dijkstra.aStar(campusMap, start, end, point -> scale * distance(point, end), statistics);
+        }
+        if (mode == RoutingMode.ALT) {
+            return Dijkstra.alt(campusMap, landmarks, start, end, statistics);
+        }
+        return Dijkstra.search(campusMap, campusMap.idOf(start), campusMap.idOf(end), null, null,
+                statistics, RoutingMode.DIJKSTRA);
+    }
 }
@@ -1,8 +1,19 @@
 package pathfinder;
 
+import graph.ContractionHierarchy;
+import graph.Deadline;
 import graph.Graph;
+import graph.IndexedGraph;
+import graph.Landmarks;
+import graph.LabeledGraph;
+import graph.ReverseIndex;
+import graph.SearchResult;
+import graph.SearchStatistics;
+import pathfinder.datastructures.IndexedHeap;
 import pathfinder.datastructures.Path;
 import java.util.*;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.ToDoubleFunction;
 
 /**
  * A class for Dijkstra algorithm where finding the minimum-cost path
@@ -10,6 +21,16 @@ import java.util.*;
  */
 public class Dijkstra {
 
+    /**
+     * The algorithm name getPathBetween reports its counters under.
+     */
+    public static final String MULTI_SOURCE = "MULTI_SOURCE";
+
+    /**
+     * The algorithm name withinBudget reports its counters under.
+     */
+    public static final String ISOCHRONE = "ISOCHRONE";
+
     /**
      * Apply the Dijkstra algorithm to find the shortest path and traveling
      * weight from the given starting node to given ending node in the given graph
@@ -21,32 +42,1061 @@ public class Dijkstra {
      *         otherwise, return list of paths and total cost for traveling.
      * @throws RuntimeException if graph or nodes are null or given nodes are not in the given graph.
      */
-    public static <T> Path<T> getPath(Graph<T, Double> graph, T start, T dest) {
+    public static <T> Path<T> getPath(LabeledGraph<T, Double> graph, T start, T dest) {
         if (graph == null || start == null || dest == null) {
             throw new RuntimeException("The input graph or start or dest can't be null");
-        } else if (!graph.containsNode(new Graph.Node<>(start)) || !graph.containsNode(new Graph.Node<>(dest))) {
+        } else if (!graph.containsValue(start) || !graph.containsValue(dest)) {
             throw new RuntimeException("The node start or dest or both are not in the graph");
         }
 
-        PriorityQueue<Path<T>> active = new PriorityQueue<>(new PathComparator());
+        PriorityQueue<Active<T>> active = new PriorityQueue<>();
+        Map<T, Double> dist = new HashMap<>();
+        Map<T, Graph.Edge<T, Double>> parent = new HashMap<>();
         Set<T> finished = new HashSet<>();
-        active.add(new Path<>(start));
+        dist.put(start, 0.0);
+        active.add(new Active<>(start, 0.0));
 
         while (!active.isEmpty()) {
-            Path<T> minPath = active.remove();
-            T minDest = minPath.getEnd();
-            if (minDest.equals(dest)) {
-                return minPath;
-            }
-            if (!finished.contains(minDest)) {
-                for(Graph.Edge<T, Double> edge : graph.getAllEdgesFrom(new Graph.Node<>(minDest))) {
-                    if (!finished.contains(edge.getDes())) {
-                        active.add(minPath.extend(edge.getDes().getNode(), edge.getLabel()));
-                    }
+            Active<T> min = active.remove();
+            if (!finished.add(min.node)) {
+                // A cheaper entry for this node was already settled.
+                continue;
+            }
+            if (min.node.equals(dest)) {
+                List<Graph.Edge<T, Double>> edges = new ArrayList<>();
+                for (T node = dest; !node.equals(start); node = parent.get(node).getSource().getNode()) {
+                    edges.add(parent.get(node));
+                }
+                Path<T> path = new Path<>(start);
+                for (int i = edges.size() - 1; i >= 0; i--) {
+                    path = path.extend(edges.get(i).getDes().getNode(), edges.get(i).getLabel());
+                }
+                return path;
+            }
+            for (Graph.Edge<T, Double> edge : graph.edgesFrom(min.node)) {
+                T child = edge.getDes().getNode();
+                double cost = min.cost + edge.getLabel();
+                if (!finished.contains(child) && cost < dist.getOrDefault(child, Double.POSITIVE_INFINITY)) {
+                    dist.put(child, cost);
+                    parent.put(child, edge);
+                    active.add(new Active<>(child, cost));
                 }
             }
-            finished.add(minDest);
         }
         return null;
     }
+
+    /**
+     * Apply the Dijkstra algorithm to find the shortest path and traveling weight from the
+     * given starting node to given ending node in the given indexed graph. Edge weights are
+     * read from the graph, and visited nodes are tracked by their dense ids. If several paths
+     * are shortest, which of them is returned is unspecified.
+     *
+     * @param graph the indexed graph that our Dijkstra algorithm will be applied on
+     * @param start the starting node for the Dijkstra algorithm
+     * @param dest the ending node for the Dijkstra algorithm
+     * @return return null if no path found from starting node to ending node,
+     *         otherwise, return list of paths and total cost for traveling.
+     * @throws RuntimeException if graph or nodes are null or given nodes are not in the given graph.
+     */
+    public static <T> Path<T> getPath(IndexedGraph<T, ?> graph, T start, T dest) {
+        if (graph == null || start == null || dest == null) {
+            throw new RuntimeException("The input graph or start or dest can't be null");
+        }
+        int startId = graph.idOf(start);
+        int destId = graph.idOf(dest);
+        if (startId < 0 || destId < 0) {
+            throw new RuntimeException("The node start or dest or both are not in the graph");
+        }
+        return search(graph, startId, destId).pathTo(destId);
+    }
+
+    /**
+     * Apply the Dijkstra algorithm to find the shortest path and traveling weight from the given
+     * starting node to given ending node, giving up if the deadline passes first. The deadline is
+     * checked every Deadline.CHECK_INTERVAL settled nodes, so a search that can't finish in time
+     * frees its thread soon after the deadline instead of running to completion.
+     *
+     * @param graph the indexed graph that our Dijkstra algorithm will be applied on
+     * @param start the starting node for the Dijkstra algorithm
+     * @param dest the ending node for the Dijkstra algorithm
+     * @param deadline when to give up
+     * @return FOUND with the shortest path, NOT_FOUND if there is no path from start to dest, or
+     * TIMED_OUT if the deadline passed first.
+     * @throws RuntimeException under the same conditions as
+     * {@link #getPathBefore(IndexedGraph, Object, Object, Deadline, SearchStatistics)}.
+     */
+    public static <T> SearchResult<Path<T>> getPathBefore(IndexedGraph<T, ?> graph, T start, T dest,
+                                                          Deadline deadline) {
+        return getPathBefore(graph, start, dest, deadline, SearchStatistics.NONE);
+    }
+
+    /**
+     * Apply the Dijkstra algorithm like {@link #getPathBefore(IndexedGraph, Object, Object,
+     * Deadline)}, reporting its counters to the given statistics as DIJKSTRA.
+     *
+     * @param graph the indexed graph that our Dijkstra algorithm will be applied on
+     * @param start the starting node for the Dijkstra algorithm
+     * @param dest the ending node for the Dijkstra algorithm
+     * @param deadline when to give up
+     * @param statistics where to report the search's counters
+     * @return FOUND with the shortest path, NOT_FOUND if there is no path from start to dest, or
+     * TIMED_OUT if the deadline passed first.
+     * @throws RuntimeException if any argument is null or given nodes are not in the given graph.
+     */
+    public static <T> SearchResult<Path<T>> getPathBefore(IndexedGraph<T, ?> graph, T start, T dest,
+                                                          Deadline deadline, SearchStatistics statistics) {
+        if (graph == null || deadline == null || statistics == null) {
+            throw new RuntimeException("The input graph or deadline or statistics can't be null");
+        }
+        int startId = checkedId(graph, start);
+        int destId = checkedId(graph, dest);
+        ShortestPathTree<T> tree = search(graph, startId, destId, null, deadline, statistics, RoutingMode.DIJKSTRA);
+        if (tree == null) {
+            return SearchResult.timedOut();
+        }
+        Path<T> path = tree.pathTo(destId);
+        return path == null ? SearchResult.notFound() : SearchResult.found(path);
+    }
+
+    /**
+     * Apply the A* algorithm to find the shortest path and traveling weight from the given
+     * starting node to given ending node in the given indexed graph. The heuristic steers the
+     * search toward dest, so it usually settles far fewer nodes than getPath.
+     *
+     * @param graph the indexed graph that our A* algorithm will be applied on
+     * @param start the starting node for the A* algorithm
+     * @param dest the ending node for the A* algorithm
+     * @param heuristic an estimate of the cost from a node to dest
+     * @return return null if no path found from starting node to ending node,
+     *         otherwise, return list of paths and total cost for traveling.
+     * @throws RuntimeException under the same conditions as
+     * {@link #aStar(IndexedGraph, Object, Object, ToDoubleFunction, Deadline, SearchStatistics)}.
+     * @spec.requires heuristic is consistent: it is 0 at dest, and for every edge from u to v,
+     *                heuristic(u) &lt;= weight + heuristic(v)
+     */
+    public static <T> Path<T> getPath(IndexedGraph<T, ?> graph, T start, T dest,
+                                      ToDoubleFunction<? super T> heuristic) {
+        return aStar(graph, start, dest, heuristic).pathTo(dest);
+    }
+
+    /**
+     * Apply the A* algorithm from the given starting node until dest is settled. Every node in
+     * the returned tree was settled at its true shortest distance, and settledCount() tells how
+     * much of the graph the search had to explore.
+     *
+     * @param graph the indexed graph that our A* algorithm will be applied on
+     * @param start the starting node for the A* algorithm
+     * @param dest the ending node for the A* algorithm
+     * @param heuristic an estimate of the cost from a node to dest
+     * @return the shortest path tree grown by the search, which reaches dest iff a path exists
+     * @throws RuntimeException under the same conditions as
+     * {@link #aStar(IndexedGraph, Object, Object, ToDoubleFunction, Deadline, SearchStatistics)}.
+     * @spec.requires heuristic is consistent: it is 0 at dest, and for every edge from u to v,
+     *                heuristic(u) &lt;= weight + heuristic(v)
+     */
+    public static <T> ShortestPathTree<T> aStar(IndexedGraph<T, ?> graph, T start, T dest,
+                                                ToDoubleFunction<? super T> heuristic) {
+        return aStar(graph, start, dest, heuristic, SearchStatistics.NONE);
+    }
+
+    /**
+     * Apply the A* algorithm like {@link #aStar(IndexedGraph, Object, Object, ToDoubleFunction)},
+     * reporting its counters to the given statistics as A_STAR.
+     *
+     * @param graph the indexed graph that our A* algorithm will be applied on
+     * @param start the starting node for the A* algorithm
+     * @param dest the ending node for the A* algorithm
+     * @param heuristic an estimate of the cost from a node to dest
+     * @param statistics where to report the search's counters
+     * @return the shortest path tree grown by the search, which reaches dest iff a path exists
+     * @throws RuntimeException under the same conditions as
+     * {@link #aStar(IndexedGraph, Object, Object, ToDoubleFunction, Deadline, SearchStatistics)}.
+     * @spec.requires heuristic is consistent: it is 0 at dest, and for every edge from u to v,
+     *                heuristic(u) &lt;= weight + heuristic(v)
+     */
+    public static <T> ShortestPathTree<T> aStar(IndexedGraph<T, ?> graph, T start, T dest,
+                                                ToDoubleFunction<? super T> heuristic, SearchStatistics statistics) {
+        return aStarSearch(graph, start, dest, heuristic, Deadline.none(), statistics);
+    }
+
+    /**
+     * Apply the A* algorithm like {@link #aStar(IndexedGraph, Object, Object, ToDoubleFunction)},
+     * giving up if the deadline passes first. The deadline is checked every
+     * Deadline.CHECK_INTERVAL settled nodes.
+     *
+     * @param graph the indexed graph that our A* algorithm will be applied on
+     * @param start the starting node for the A* algorithm
+     * @param dest the ending node for the A* algorithm
+     * @param heuristic an estimate of the cost from a node to dest
+     * @param deadline when to give up
+     * @return FOUND with the shortest path tree grown by the search, NOT_FOUND if there is no path
+     * from start to dest, or TIMED_OUT if the deadline passed first.
+     * @throws RuntimeException under the same conditions as
+     * {@link #aStar(IndexedGraph, Object, Object, ToDoubleFunction, Deadline, SearchStatistics)}.
+     * @spec.requires heuristic is consistent: it is 0 at dest, and for every edge from u to v,
+     *                heuristic(u) &lt;= weight + heuristic(v)
+     */
+    public static <T> SearchResult<ShortestPathTree<T>> aStar(IndexedGraph<T, ?> graph, T start, T dest,
+                                                              ToDoubleFunction<? super T> heuristic,
+                                                              Deadline deadline) {
+        return aStar(graph, start, dest, heuristic, deadline, SearchStatistics.NONE);
+    }
+
+    /**
+     * Apply the A* algorithm like {@link #aStar(IndexedGraph, Object, Object, ToDoubleFunction,
+     * Deadline)}, reporting its counters to the given statistics as A_STAR, whether it finished
+     * or timed out.
+     *
+     * @param graph the indexed graph that our A* algorithm will be applied on
+     * @param start the starting node for the A* algorithm
+     * @param dest the ending node for the A* algorithm
+     * @param heuristic an estimate of the cost from a node to dest
+     * @param deadline when to give up
+     * @param statistics where to report the search's counters
+     * @return FOUND with the shortest path tree grown by the search, NOT_FOUND if there is no path
+     * from start to dest, or TIMED_OUT if the deadline passed first.
+     * @throws RuntimeException if any argument is null or given nodes are not in the given graph.
+     * @spec.requires heuristic is consistent: it is 0 at dest, and for every edge from u to v,
+     *                heuristic(u) &lt;= weight + heuristic(v)
+     */
+    public static <T> SearchResult<ShortestPathTree<T>> aStar(IndexedGraph<T, ?> graph, T start, T dest,
+                                                              ToDoubleFunction<? super T> heuristic,
+                                                              Deadline deadline, SearchStatistics statistics) {
+        return toward(aStarSearch(graph, start, dest, heuristic, deadline, statistics), dest);
+    }
+
+    /**
+     * Check the arguments of an A* search and run it.
+     *
+     * @param graph the indexed graph that our A* algorithm will be applied on
+     * @param start the starting node for the A* algorithm
+     * @param dest the ending node for the A* algorithm
+     * @param heuristic an estimate of the cost from a node to dest
+     * @param deadline when to give up
+     * @param statistics where to report the search's counters
+     * @return the shortest path tree grown by the search, or null if the deadline passed first
+     * @throws RuntimeException if any argument is null or given nodes are not in the given graph.
+     */
+    private static <T> ShortestPathTree<T> aStarSearch(IndexedGraph<T, ?> graph, T start, T dest,
+                                                       ToDoubleFunction<? super T> heuristic,
+                                                       Deadline deadline, SearchStatistics statistics) {
+        if (graph == null || heuristic == null || deadline == null || statistics == null) {
+            throw new RuntimeException("The input graph or heuristic or deadline or statistics can't be null");
+        }
+        int startId = checkedId(graph, start);
+        int destId = checkedId(graph, dest);
+        return search(graph, startId, destId, id -> heuristic.applyAsDouble(graph.valueOf(id)), deadline,
+                statistics, RoutingMode.A_STAR);
+    }
+
+    /**
+     * @param tree the tree grown by a search that stops at dest, or null if it timed out
+     * @param dest the node the search was looking for
+     * @return TIMED_OUT if tree is null, FOUND with tree if it reaches dest, NOT_FOUND otherwise
+     */
+    private static <T> SearchResult<ShortestPathTree<T>> toward(ShortestPathTree<T> tree, T dest) {
+        if (tree == null) {
+            return SearchResult.timedOut();
+        }
+        return tree.reaches(dest) ? SearchResult.found(tree) : SearchResult.notFound();
+    }
+
+    /**
+     * Find the shortest path and traveling weight from the given starting node to given ending
+     * node with a contraction hierarchy of the given graph. The hierarchy answers with edges of
+     * graph, so the path has the same segments and costs a search of graph itself would give.
+     *
+     * @param graph the indexed graph the hierarchy was built over
+     * @param hierarchy the contraction hierarchy of graph
+     * @param start the starting node for the search
+     * @param dest the ending node for the search
+     * @return return null if no path found from starting node to ending node,
+     *         otherwise, return list of paths and total cost for traveling.
+     * @throws RuntimeException under the same conditions as
+     * {@link #getPath(IndexedGraph, ContractionHierarchy, Object, Object, SearchStatistics)}.
+     * @spec.requires hierarchy was built over or read for graph
+     */
+    public static <T> Path<T> getPath(IndexedGraph<T, ?> graph, ContractionHierarchy hierarchy, T start, T dest) {
+        return getPath(graph, hierarchy, start, dest, SearchStatistics.NONE);
+    }
+
+    /**
+     * Find the shortest path with a contraction hierarchy like {@link #getPath(IndexedGraph,
+     * ContractionHierarchy, Object, Object)}, reporting the counters of the hierarchy's forward
+     * and backward searches to the given statistics as CONTRACTION_HIERARCHY.
+     *
+     * @param graph the indexed graph the hierarchy was built over
+     * @param hierarchy the contraction hierarchy of graph
+     * @param start the starting node for the search
+     * @param dest the ending node for the search
+     * @param statistics where to report the search's counters
+     * @return return null if no path found from starting node to ending node,
+     *         otherwise, return list of paths and total cost for traveling.
+     * @throws RuntimeException if any argument is null or given nodes are not in the given graph.
+     * @spec.requires hierarchy was built over or read for graph
+     */
+    public static <T> Path<T> getPath(IndexedGraph<T, ?> graph, ContractionHierarchy hierarchy, T start, T dest,
+                                      SearchStatistics statistics) {
+        if (graph == null || hierarchy == null || statistics == null) {
+            throw new RuntimeException("The input graph or hierarchy or statistics can't be null");
+        }
+        int startId = checkedId(graph, start);
+        int destId = checkedId(graph, dest);
+        int[] edges = hierarchy.route(startId, destId, statistics);
+        if (edges == null) {
+            return null;
+        }
+        Path<T> path = new Path<>(start);
+        for (int e : edges) {
+            path = path.extend(graph.valueOf(graph.target(e)), graph.weight(e));
+        }
+        return path;
+    }
+
+    /**
+     * Apply the ALT algorithm to find the shortest path tree from the given starting node until
+     * dest is settled: A* whose heuristic is the triangle-inequality lower bound from the given
+     * landmark tables. It needs no coordinates, so it steers searches on any graph.
+     *
+     * @param graph the indexed graph that our search will be applied on
+     * @param landmarks the landmark tables of graph
+     * @param start the starting node for the search
+     * @param dest the ending node for the search
+     * @return the shortest path tree grown by the search, which reaches dest iff a path exists
+     * @throws RuntimeException under the same conditions as
+     * {@link #alt(IndexedGraph, Landmarks, Object, Object, Deadline, SearchStatistics)}.
+     * @spec.requires landmarks were selected in or read for graph
+     */
+    public static <T> ShortestPathTree<T> alt(IndexedGraph<T, ?> graph, Landmarks landmarks, T start, T dest) {
+        return alt(graph, landmarks, start, dest, SearchStatistics.NONE);
+    }
+
+    /**
+     * Apply the ALT algorithm like {@link #alt(IndexedGraph, Landmarks, Object, Object)},
+     * reporting its counters to the given statistics as ALT.
+     *
+     * @param graph the indexed graph that our search will be applied on
+     * @param landmarks the landmark tables of graph
+     * @param start the starting node for the search
+     * @param dest the ending node for the search
+     * @param statistics where to report the search's counters
+     * @return the shortest path tree grown by the search, which reaches dest iff a path exists
+     * @throws RuntimeException under the same conditions as
+     * {@link #alt(IndexedGraph, Landmarks, Object, Object, Deadline, SearchStatistics)}.
+     * @spec.requires landmarks were selected in or read for graph
+     */
+    public static <T> ShortestPathTree<T> alt(IndexedGraph<T, ?> graph, Landmarks landmarks, T start, T dest,
+                                              SearchStatistics statistics) {
+        return altSearch(graph, landmarks, start, dest, Deadline.none(), statistics);
+    }
+
+    /**
+     * Apply the ALT algorithm like {@link #alt(IndexedGraph, Landmarks, Object, Object)}, giving
+     * up if the deadline passes first. The deadline is checked every Deadline.CHECK_INTERVAL
+     * settled nodes.
+     *
+     * @param graph the indexed graph that our search will be applied on
+     * @param landmarks the landmark tables of graph
+     * @param start the starting node for the search
+     * @param dest the ending node for the search
+     * @param deadline when to give up
+     * @return FOUND with the shortest path tree grown by the search, NOT_FOUND if there is no path
+     * from start to dest, or TIMED_OUT if the deadline passed first.
+     * @throws RuntimeException under the same conditions as
+     * {@link #alt(IndexedGraph, Landmarks, Object, Object, Deadline, SearchStatistics)}.
+     * @spec.requires landmarks were selected in or read for graph
+     */
+    public static <T> SearchResult<ShortestPathTree<T>> alt(IndexedGraph<T, ?> graph, Landmarks landmarks,
+                                                            T start, T dest, Deadline deadline) {
+        return alt(graph, landmarks, start, dest, deadline, SearchStatistics.NONE);
+    }
+
+    /**
+     * Apply the ALT algorithm like {@link #alt(IndexedGraph, Landmarks, Object, Object, Deadline)},
+     * reporting its counters to the given statistics as ALT, whether it finished or timed out.
+     *
+     * @param graph the indexed graph that our search will be applied on
+     * @param landmarks the landmark tables of graph
+     * @param start the starting node for the search
+     * @param dest the ending node for the search
+     * @param deadline when to give up
+     * @param statistics where to report the search's counters
+     * @return FOUND with the shortest path tree grown by the search, NOT_FOUND if there is no path
+     * from start to dest, or TIMED_OUT if the deadline passed first.
+     * @throws RuntimeException if any argument is null or given nodes are not in the given graph.
+     * @spec.requires landmarks were selected in or read for graph
+     */
+    public static <T> SearchResult<ShortestPathTree<T>> alt(IndexedGraph<T, ?> graph, Landmarks landmarks,
+                                                            T start, T dest, Deadline deadline,
+                                                            SearchStatistics statistics) {
+        return toward(altSearch(graph, landmarks, start, dest, deadline, statistics), dest);
+    }
+
+    /**
+     * Check the arguments of an ALT search and run it.
+     *
+     * @param graph the indexed graph that our search will be applied on
+     * @param landmarks the landmark tables of graph
+     * @param start the starting node for the search
+     * @param dest the ending node for the search
+     * @param deadline when to give up
+     * @param statistics where to report the search's counters
+     * @return the shortest path tree grown by the search, or null if the deadline passed first
+     * @throws RuntimeException if any argument is null or given nodes are not in the given graph.
+     */
+    private static <T> ShortestPathTree<T> altSearch(IndexedGraph<T, ?> graph, Landmarks landmarks, T start,
+                                                     T dest, Deadline deadline, SearchStatistics statistics) {
+        if (graph == null || landmarks == null || deadline == null || statistics == null) {
+            throw new RuntimeException("The input graph or landmarks or deadline or statistics can't be null");
+        }
+        int startId = checkedId(graph, start);
+        int destId = checkedId(graph, dest);
+        return search(graph, startId, destId, id -> landmarks.lowerBound(id, destId), deadline,
+                statistics, RoutingMode.ALT);
+    }
+
+    /**
+     * Apply a bidirectional Dijkstra search to find the shortest path and traveling weight from
+     * the given starting node to given ending node. One search grows forward from start over the
+     * graph's edges while another grows backward from dest over its incoming edges, each step
+     * advancing whichever has the nearer frontier. Whenever either search relaxes an edge into a
+     * node the other has reached, the path through that node is a candidate, and the searches
+     * stop once the two frontier distances add up to at least the best candidate, since no path
+     * through unsettled nodes could then be shorter. The two balls together usually cover far
+     * less of the graph than the single ball getPath grows.
+     *
+     * @param graph the indexed graph that our search will be applied on
+     * @param reverse the incoming edges of graph
+     * @param start the starting node for the search
+     * @param dest the ending node for the search
+     * @return return null if no path found from starting node to ending node,
+     *         otherwise, return list of paths and total cost for traveling.
+     * @throws RuntimeException under the same conditions as
+     * {@link #bidirectional(IndexedGraph, ReverseIndex, Object, Object, Deadline, SearchStatistics)}.
+     * @spec.requires reverse was built from graph
+     */
+    public static <T> Path<T> bidirectional(IndexedGraph<T, ?> graph, ReverseIndex reverse, T start, T dest) {
+        return bidirectional(graph, reverse, start, dest, SearchStatistics.NONE);
+    }
+
+    /**
+     * Apply a bidirectional Dijkstra search like {@link #bidirectional(IndexedGraph, ReverseIndex,
+     * Object, Object)}, reporting its counters to the given statistics as BIDIRECTIONAL. Both searches count
+     * toward the same totals, and the queue peak is that of both frontiers together.
+     *
+     * @param graph the indexed graph that our search will be applied on
+     * @param reverse the incoming edges of graph
+     * @param start the starting node for the search
+     * @param dest the ending node for the search
+     * @param statistics where to report the search's counters
+     * @return return null if no path found from starting node to ending node,
+     *         otherwise, return list of paths and total cost for traveling.
+     * @throws RuntimeException under the same conditions as
+     * {@link #bidirectional(IndexedGraph, ReverseIndex, Object, Object, Deadline, SearchStatistics)}.
+     * @spec.requires reverse was built from graph
+     */
+    public static <T> Path<T> bidirectional(IndexedGraph<T, ?> graph, ReverseIndex reverse, T start, T dest,
+                                            SearchStatistics statistics) {
+        return bidirectional(graph, reverse, start, dest, Deadline.none(), statistics).value();
+    }
+
+    /**
+     * Apply a bidirectional Dijkstra search like {@link #bidirectional(IndexedGraph, ReverseIndex,
+     * Object, Object)}, giving up if the deadline passes first. The deadline is checked every
+     * Deadline.CHECK_INTERVAL nodes settled by the two searches together.
+     *
+     * @param graph the indexed graph that our search will be applied on
+     * @param reverse the incoming edges of graph
+     * @param start the starting node for the search
+     * @param dest the ending node for the search
+     * @param deadline when to give up
+     * @return FOUND with the shortest path, NOT_FOUND if there is no path from start to dest, or
+     * TIMED_OUT if the deadline passed first.
+     * @throws RuntimeException under the same conditions as
+     * {@link #bidirectional(IndexedGraph, ReverseIndex, Object, Object, Deadline, SearchStatistics)}.
+     * @spec.requires reverse was built from graph
+     */
+    public static <T> SearchResult<Path<T>> bidirectional(IndexedGraph<T, ?> graph, ReverseIndex reverse,
+                                                          T start, T dest, Deadline deadline) {
+        return bidirectional(graph, reverse, start, dest, deadline, SearchStatistics.NONE);
+    }
+
+    /**
+     * Apply a bidirectional Dijkstra search like {@link #bidirectional(IndexedGraph, ReverseIndex,
+     * Object, Object, Deadline)}, reporting its counters to the given statistics as BIDIRECTIONAL, whether it
+     * finished or timed out.
+     *
+     * @param graph the indexed graph that our search will be applied on
+     * @param reverse the incoming edges of graph
+     * @param start the starting node for the search
+     * @param dest the ending node for the search
+     * @param deadline when to give up
+     * @param statistics where to report the search's counters
+     * @return FOUND with the shortest path, NOT_FOUND if there is no path from start to dest, or
+     * TIMED_OUT if the deadline passed first.
+     * @throws RuntimeException if any argument is null or given nodes are not in the given graph.
+     * @spec.requires reverse was built from graph
+     */
+    public static <T> SearchResult<Path<T>> bidirectional(IndexedGraph<T, ?> graph, ReverseIndex reverse,
+                                                          T start, T dest, Deadline deadline,
+                                                          SearchStatistics statistics) {
+        if (graph == null || reverse == null || deadline == null || statistics == null) {
+            throw new RuntimeException("The input graph or reverse or deadline or statistics can't be null");
+        }
+        long begin = System.nanoTime();
+        int startId = checkedId(graph, start);
+        int destId = checkedId(graph, dest);
+        int n = graph.nodeCount();
+        // Forward labels: distance from start and the node and edge each node was reached by.
+        double[] distFrom = new double[n];
+        int[] parent = new int[n];
+        int[] edgeIn = new int[n];
+        boolean[] finishedFrom = new boolean[n];
+        // Backward labels: distance to dest and the edge each node leaves by toward it.
+        double[] distTo = new double[n];
+        int[] edgeOut = new int[n];
+        boolean[] finishedTo = new boolean[n];
+        Arrays.fill(distFrom, Double.POSITIVE_INFINITY);
+        Arrays.fill(distTo, Double.POSITIVE_INFINITY);
+        distFrom[startId] = 0;
+        distTo[destId] = 0;
+        parent[startId] = -1;
+        edgeIn[startId] = -1;
+        edgeOut[destId] = -1;
+        IndexedHeap forward = new IndexedHeap(n);
+        IndexedHeap backward = new IndexedHeap(n);
+        forward.insert(startId, 0);
+        backward.insert(destId, 0);
+        double best = startId == destId ? 0 : Double.POSITIVE_INFINITY;
+        int meet = startId == destId ? startId : -1;
+        long settled = 0;
+        long relaxed = 0;
+        long pushes = 2;
+        int peak = 2;
+
+        while (!forward.isEmpty() && !backward.isEmpty()
+                && forward.key(forward.peek()) + backward.key(backward.peek()) < best) {
+            if (forward.key(forward.peek()) <= backward.key(backward.peek())) {
+                int min = forward.poll();
+                finishedFrom[min] = true;
+                settled++;
+                for (int e = graph.firstEdge(min); e < graph.lastEdge(min); e++) {
+                    int child = graph.target(e);
+                    double cost = distFrom[min] + graph.weight(e);
+                    relaxed++;
+                    if (!finishedFrom[child] && cost < distFrom[child]) {
+                        distFrom[child] = cost;
+                        parent[child] = min;
+                        edgeIn[child] = e;
+                        forward.offer(child, cost);
+                        pushes++;
+                    }
+                    if (distFrom[child] + distTo[child] < best) {
+                        best = distFrom[child] + distTo[child];
+                        meet = child;
+                    }
+                }
+            } else {
+                int min = backward.poll();
+                finishedTo[min] = true;
+                settled++;
+                for (int r = reverse.firstEdge(min); r < reverse.lastEdge(min); r++) {
+                    int e = reverse.edge(r);
+                    int child = reverse.source(r);
+                    double cost = distTo[min] + graph.weight(e);
+                    relaxed++;
+                    if (!finishedTo[child] && cost < distTo[child]) {
+                        distTo[child] = cost;
+                        edgeOut[child] = e;
+                        backward.offer(child, cost);
+                        pushes++;
+                    }
+                    if (distFrom[child] + distTo[child] < best) {
+                        best = distFrom[child] + distTo[child];
+                        meet = child;
+                    }
+                }
+            }
+            peak = Math.max(peak, forward.size() + backward.size());
+            if (settled % Deadline.CHECK_INTERVAL == 0 && deadline.expired()) {
+                statistics.record(RoutingMode.BIDIRECTIONAL.name(), settled, relaxed, pushes, peak,
+                        System.nanoTime() - begin);
+                return SearchResult.timedOut();
+            }
+        }
+        statistics.record(RoutingMode.BIDIRECTIONAL.name(), settled, relaxed, pushes, peak, System.nanoTime() - begin);
+        if (meet < 0) {
+            return SearchResult.notFound();
+        }
+
+        List<Integer> edges = new ArrayList<>();
+        for (int v = meet; v != startId; v = parent[v]) {
+            edges.add(edgeIn[v]);
+        }
+        Collections.reverse(edges);
+        for (int v = meet; v != destId; v = graph.target(edgeOut[v])) {
+            edges.add(edgeOut[v]);
+        }
+        Path<T> path = new Path<>(start);
+        for (int e : edges) {
+            path = path.extend(graph.valueOf(graph.target(e)), graph.weight(e));
+        }
+        return SearchResult.found(path);
+    }
+
+    /**
+     * Apply the Dijkstra algorithm from several starting nodes at once to find the cheapest path
+     * from any of them to any of the given ending nodes. Every start is seeded at distance zero,
+     * so the search grows one ball around all of them together, and it stops at the first ending
+     * node it settles. That costs one search however many starts and ends there are, instead of
+     * one per pair.
+     *
+     * @param graph the indexed graph that our Dijkstra algorithm will be applied on
+     * @param starts the nodes the path may start at
+     * @param dests the nodes the path may end at
+     * @return return null if no path found from any starting node to any ending node,
+     *         otherwise, return the cheapest such path, which is empty if a node is in both.
+     * @throws RuntimeException under the same conditions as
+     * {@link #getPathBetween(IndexedGraph, Collection, Collection, Deadline, SearchStatistics)}.
+     */
+    public static <T> Path<T> getPathBetween(IndexedGraph<T, ?> graph, Collection<? extends T> starts,
+                                             Collection<? extends T> dests) {
+        return getPathBetween(graph, starts, dests, Deadline.none(), SearchStatistics.NONE).value();
+    }
+
+    /**
+     * Apply the Dijkstra algorithm from several starting nodes at once like {@link
+     * #getPathBetween(IndexedGraph, Collection, Collection)}, giving up if the deadline passes first. The deadline is checked every
+     * Deadline.CHECK_INTERVAL settled nodes.
+     *
+     * @param graph the indexed graph that our Dijkstra algorithm will be applied on
+     * @param starts the nodes the path may start at
+     * @param dests the nodes the path may end at
+     * @param deadline when to give up
+     * @return FOUND with the cheapest path from any starting node to any ending node, NOT_FOUND if
+     * there is none, or TIMED_OUT if the deadline passed first.
+     * @throws RuntimeException under the same conditions as
+     * {@link #getPathBetween(IndexedGraph, Collection, Collection, Deadline, SearchStatistics)}.
+     */
+    public static <T> SearchResult<Path<T>> getPathBetween(IndexedGraph<T, ?> graph,
+                                                           Collection<? extends T> starts,
+                                                           Collection<? extends T> dests, Deadline deadline) {
+        return getPathBetween(graph, starts, dests, deadline, SearchStatistics.NONE);
+    }
+
+    /**
+     * Apply the Dijkstra algorithm from several starting nodes at once like {@link
+     * #getPathBetween(IndexedGraph, Collection, Collection, Deadline)}, reporting its counters to the given statistics as MULTI_SOURCE,
+     * whether it finished or timed out.
+     *
+     * @param graph the indexed graph that our Dijkstra algorithm will be applied on
+     * @param starts the nodes the path may start at
+     * @param dests the nodes the path may end at
+     * @param deadline when to give up
+     * @param statistics where to report the search's counters
+     * @return FOUND with the cheapest path from any starting node to any ending node, NOT_FOUND if
+     * there is none, or TIMED_OUT if the deadline passed first.
+     * @throws RuntimeException if any argument or node is null, starts or dests is empty, or a
+     * node is not in the given graph.
+     */
+    public static <T> SearchResult<Path<T>> getPathBetween(IndexedGraph<T, ?> graph,
+                                                           Collection<? extends T> starts,
+                                                           Collection<? extends T> dests, Deadline deadline,
+                                                           SearchStatistics statistics) {
+        if (graph == null || starts == null || dests == null || starts.isEmpty() || dests.isEmpty()) {
+            throw new RuntimeException("The input graph can't be null and starts and dests can't be null or empty");
+        }
+        if (deadline == null || statistics == null) {
+            throw new RuntimeException("The deadline or statistics can't be null");
+        }
+        long begin = System.nanoTime();
+        int n = graph.nodeCount();
+        boolean[] isDest = new boolean[n];
+        for (T dest : dests) {
+            isDest[checkedId(graph, dest)] = true;
+        }
+        double[] dist = new double[n];
+        int[] parent = new int[n];
+        int[] parentEdge = new int[n];
+        boolean[] finished = new boolean[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        IndexedHeap active = new IndexedHeap(n);
+        long pushes = 0;
+        for (T start : starts) {
+            int startId = checkedId(graph, start);
+            if (dist[startId] != 0) {
+                dist[startId] = 0;
+                parent[startId] = -1;
+                parentEdge[startId] = -1;
+                active.insert(startId, 0);
+                pushes++;
+            }
+        }
+        long settled = 0;
+        long relaxed = 0;
+        int peak = active.size();
+
+        while (!active.isEmpty()) {
+            int min = active.poll();
+            finished[min] = true;
+            settled++;
+            if (isDest[min]) {
+                statistics.record(MULTI_SOURCE, settled, relaxed, pushes, peak, System.nanoTime() - begin);
+                int length = 0;
+                for (int v = min; parent[v] != -1; v = parent[v]) {
+                    length++;
+                }
+                int[] edges = new int[length];
+                int first = min;
+                while (parent[first] != -1) {
+                    edges[--length] = parentEdge[first];
+                    first = parent[first];
+                }
+                Path<T> path = new Path<>(graph.valueOf(first));
+                for (int e : edges) {
+                    path = path.extend(graph.valueOf(graph.target(e)), graph.weight(e));
+                }
+                return SearchResult.found(path);
+            }
+            if (settled % Deadline.CHECK_INTERVAL == 0 && deadline.expired()) {
+                statistics.record(MULTI_SOURCE, settled, relaxed, pushes, peak, System.nanoTime() - begin);
+                return SearchResult.timedOut();
+            }
+            for (int e = graph.firstEdge(min); e < graph.lastEdge(min); e++) {
+                int child = graph.target(e);
+                double cost = dist[min] + graph.weight(e);
+                relaxed++;
+                if (!finished[child] && cost < dist[child]) {
+                    dist[child] = cost;
+                    parent[child] = min;
+                    parentEdge[child] = e;
+                    active.offer(child, cost);
+                    pushes++;
+                }
+            }
+            peak = Math.max(peak, active.size());
+        }
+        statistics.record(MULTI_SOURCE, settled, relaxed, pushes, peak, System.nanoTime() - begin);
+        return SearchResult.notFound();
+    }
+
+    /**
+     * @param graph the graph searched
+     * @param value the value stored in a node
+     * @return the id of the node holding value
+     * @throws RuntimeException if value is null or not in the graph.
+     */
+    private static <T> int checkedId(IndexedGraph<T, ?> graph, T value) {
+        int id = value == null ? -1 : graph.idOf(value);
+        if (id < 0) {
+            throw new RuntimeException("Every node must be in the graph");
+        }
+        return id;
+    }
+
+    /**
+     * Apply the Dijkstra algorithm from the given starting node, stopping as soon as the nearest
+     * unsettled node is farther than the budget, to find every node within the budget. Labels
+     * are kept in hash maps and the frontier in a priority queue of only the nodes seen, so the
+     * cost grows with the size of the region reached rather than the size of the graph.
+     *
+     * @param graph the indexed graph that our Dijkstra algorithm will be applied on
+     * @param start the starting node for the Dijkstra algorithm
+     * @param budget the largest distance from start to search to
+     * @return the nodes at most budget from start, with their distances
+     * @throws RuntimeException under the same conditions as
+     * {@link #withinBudget(IndexedGraph, Object, double, Deadline, SearchStatistics)}.
+     */
+    public static <T> Isochrone<T> withinBudget(IndexedGraph<T, ?> graph, T start, double budget) {
+        return withinBudget(graph, start, budget, Deadline.none(), SearchStatistics.NONE).value();
+    }
+
+    /**
+     * Find every node within the budget of the given starting node like {@link
+     * #withinBudget(IndexedGraph, Object, double)}, giving up if the deadline passes first. The deadline is checked every
+     * Deadline.CHECK_INTERVAL settled nodes.
+     *
+     * @param graph the indexed graph that our Dijkstra algorithm will be applied on
+     * @param start the starting node for the Dijkstra algorithm
+     * @param budget the largest distance from start to search to
+     * @param deadline when to give up
+     * @return FOUND with the nodes at most budget from start and their distances, or TIMED_OUT if
+     * the deadline passed first.
+     * @throws RuntimeException under the same conditions as
+     * {@link #withinBudget(IndexedGraph, Object, double, Deadline, SearchStatistics)}.
+     */
+    public static <T> SearchResult<Isochrone<T>> withinBudget(IndexedGraph<T, ?> graph, T start, double budget,
+                                                              Deadline deadline) {
+        return withinBudget(graph, start, budget, deadline, SearchStatistics.NONE);
+    }
+
+    /**
+     * Find every node within the budget of the given starting node like {@link
+     * #withinBudget(IndexedGraph, Object, double, Deadline)}, reporting its counters to the given statistics as ISOCHRONE,
+     * whether it finished or timed out.
+     *
+     * @param graph the indexed graph that our Dijkstra algorithm will be applied on
+     * @param start the starting node for the Dijkstra algorithm
+     * @param budget the largest distance from start to search to
+     * @param deadline when to give up
+     * @param statistics where to report the search's counters
+     * @return FOUND with the nodes at most budget from start and their distances, or TIMED_OUT if
+     * the deadline passed first.
+     * @throws RuntimeException if any argument is null, start is not in the given graph, or
+     * budget is negative or NaN.
+     */
+    public static <T> SearchResult<Isochrone<T>> withinBudget(IndexedGraph<T, ?> graph, T start, double budget,
+                                                              Deadline deadline, SearchStatistics statistics) {
+        if (graph == null || deadline == null || statistics == null) {
+            throw new RuntimeException("The input graph or deadline or statistics can't be null");
+        }
+        if (!(budget >= 0)) {
+            throw new RuntimeException("The budget must be a non-negative number");
+        }
+        int startId = checkedId(graph, start);
+        long begin = System.nanoTime();
+        Map<Integer, Double> dist = new HashMap<>();
+        Map<T, Double> finished = new LinkedHashMap<>();
+        PriorityQueue<Active<Integer>> active = new PriorityQueue<>();
+        dist.put(startId, 0.0);
+        active.add(new Active<>(startId, 0.0));
+        long relaxed = 0;
+        long pushes = 1;
+        int peak = 1;
+
+        while (!active.isEmpty() && active.peek().cost <= budget) {
+            Active<Integer> min = active.remove();
+            T value = graph.valueOf(min.node);
+            if (finished.containsKey(value)) {
+                // A cheaper entry for this node was already settled.
+                continue;
+            }
+            finished.put(value, min.cost);
+            if (finished.size() % Deadline.CHECK_INTERVAL == 0 && deadline.expired()) {
+                statistics.record(ISOCHRONE, finished.size(), relaxed, pushes, peak, System.nanoTime() - begin);
+                return SearchResult.timedOut();
+            }
+            for (int e = graph.firstEdge(min.node); e < graph.lastEdge(min.node); e++) {
+                int child = graph.target(e);
+                double cost = min.cost + graph.weight(e);
+                relaxed++;
+                if (cost <= budget && cost < dist.getOrDefault(child, Double.POSITIVE_INFINITY)) {
+                    dist.put(child, cost);
+                    active.add(new Active<>(child, cost));
+                    pushes++;
+                }
+            }
+            peak = Math.max(peak, active.size());
+        }
+        statistics.record(ISOCHRONE, finished.size(), relaxed, pushes, peak, System.nanoTime() - begin);
+        return SearchResult.found(new Isochrone<>(start, budget, finished));
+    }
+
+    /**
+     * Apply the Dijkstra algorithm from the given starting node until every node it can reach
+     * is settled, keeping the shortest path to each of them.
+     *
+     * @param graph the indexed graph that our Dijkstra algorithm will be applied on
+     * @param start the starting node for the Dijkstra algorithm
+     * @return the shortest path tree rooted at start
+     * @throws RuntimeException under the same conditions as
+     * {@link #shortestPathTree(IndexedGraph, Object, Deadline, SearchStatistics)}.
+     */
+    public static <T> ShortestPathTree<T> shortestPathTree(IndexedGraph<T, ?> graph, T start) {
+        return shortestPathTree(graph, start, SearchStatistics.NONE);
+    }
+
+    /**
+     * Grow the shortest path tree from the given starting node like {@link
+     * #shortestPathTree(IndexedGraph, Object)}, reporting its counters to the given statistics as DIJKSTRA.
+     *
+     * @param graph the indexed graph that our Dijkstra algorithm will be applied on
+     * @param start the starting node for the Dijkstra algorithm
+     * @param statistics where to report the search's counters
+     * @return the shortest path tree rooted at start
+     * @throws RuntimeException under the same conditions as
+     * {@link #shortestPathTree(IndexedGraph, Object, Deadline, SearchStatistics)}.
+     */
+    public static <T> ShortestPathTree<T> shortestPathTree(IndexedGraph<T, ?> graph, T start,
+                                                           SearchStatistics statistics) {
+        return shortestPathTree(graph, start, Deadline.none(), statistics).value();
+    }
+
+    /**
+     * Grow the shortest path tree from the given starting node like {@link
+     * #shortestPathTree(IndexedGraph, Object)}, giving up if the deadline passes first. The deadline is checked every
+     * Deadline.CHECK_INTERVAL settled nodes.
+     *
+     * @param graph the indexed graph that our Dijkstra algorithm will be applied on
+     * @param start the starting node for the Dijkstra algorithm
+     * @param deadline when to give up
+     * @return FOUND with the shortest path tree rooted at start, or TIMED_OUT if the deadline
+     * passed first.
+     * @throws RuntimeException under the same conditions as
+     * {@link #shortestPathTree(IndexedGraph, Object, Deadline, SearchStatistics)}.
+     */
+    public static <T> SearchResult<ShortestPathTree<T>> shortestPathTree(IndexedGraph<T, ?> graph, T start,
+                                                                         Deadline deadline) {
+        return shortestPathTree(graph, start, deadline, SearchStatistics.NONE);
+    }
+
+    /**
+     * Grow the shortest path tree from the given starting node like {@link
+     * #shortestPathTree(IndexedGraph, Object, Deadline)}, reporting its counters to the given statistics as DIJKSTRA, whether it
+     * finished or timed out.
+     *
+     * @param graph the indexed graph that our Dijkstra algorithm will be applied on
+     * @param start the starting node for the Dijkstra algorithm
+     * @param deadline when to give up
+     * @param statistics where to report the search's counters
+     * @return FOUND with the shortest path tree rooted at start, or TIMED_OUT if the deadline
+     * passed first.
+     * @throws RuntimeException if any argument is null or start is not in the given graph.
+     */
+    public static <T> SearchResult<ShortestPathTree<T>> shortestPathTree(IndexedGraph<T, ?> graph, T start,
+                                                                         Deadline deadline,
+                                                                         SearchStatistics statistics) {
+        if (graph == null || deadline == null || statistics == null) {
+            throw new RuntimeException("The input graph or deadline or statistics can't be null");
+        }
+        int startId = checkedId(graph, start);
+        ShortestPathTree<T> tree = search(graph, startId, -1, null, deadline, statistics, RoutingMode.DIJKSTRA);
+        return tree == null ? SearchResult.timedOut() : SearchResult.found(tree);
+    }
+
+    /**
+     * The search core shared by the indexed searches. Each node keeps its best known distance
+     * and the edge that gave it, and the frontier is an indexed heap of node ids whose keys are
+     * lowered in place, so no partial path is ever copied and the heap never holds more than
+     * the frontier. A node's parent only changes when a strictly cheaper path reaches it, so of
+     * several shortest paths to a node it keeps the one through the predecessor settled first,
+     * taking that predecessor's edges in adjacency order. Nodes with equal keys are settled in
+     * whatever order the heap yields them, which depends on its layout and not on the order they
+     * were found. Which of several equal-cost paths is returned is therefore repeatable for a
+     * given graph but otherwise unspecified. The search that queued whole paths didn't specify it
+     * either, and the two don't always pick the same one.
+     *
+     * @param graph the graph to search
+     * @param startId the id of the start node
+     * @param destId the id of the node to stop at once settled, or -1 to settle every node
+     * @return the shortest path tree grown by the search
+     */
+    static <T> ShortestPathTree<T> search(IndexedGraph<T, ?> graph, int startId, int destId) {
+        return search(graph, startId, destId, null);
+    }
+
+    /**
+     * The search core with an optional A* heuristic. Nodes are polled in order of their distance
+     * plus the heuristic's estimate of what remains, which is plain Dijkstra when there's no
+     * heuristic. A consistent heuristic never lets a node be settled before its shortest path is
+     * known, so settled nodes stay final either way.
+     *
+     * @param graph the graph to search
+     * @param startId the id of the start node
+     * @param destId the id of the node to stop at once settled, or -1 to settle every node
+     * @param heuristic the estimated cost from each node id to destId, or null for none
+     * @return the shortest path tree grown by the search
+     */
+    static <T> ShortestPathTree<T> search(IndexedGraph<T, ?> graph, int startId, int destId,
+                                          IntToDoubleFunction heuristic) {
+        return search(graph, startId, destId, heuristic, null);
+    }
+
+    /**
+     * The search core with an optional A* heuristic and an optional deadline, polled every
+     * Deadline.CHECK_INTERVAL settled nodes.
+     *
+     * @param graph the graph to search
+     * @param startId the id of the start node
+     * @param destId the id of the node to stop at once settled, or -1 to settle every node
+     * @param heuristic the estimated cost from each node id to destId, or null for none
+     * @param deadline the deadline to give up at, or null for none
+     * @return the shortest path tree grown by the search, or null if the deadline passed first
+     */
+    static <T> ShortestPathTree<T> search(IndexedGraph<T, ?> graph, int startId, int destId,
+                                          IntToDoubleFunction heuristic, Deadline deadline) {
+        return search(graph, startId, destId, heuristic, deadline, SearchStatistics.NONE,
+                heuristic == null ? RoutingMode.DIJKSTRA : RoutingMode.A_STAR);
+    }
+
+    /**
+     * The search core with an optional A* heuristic and deadline, reporting its counters to the
+     * given statistics when it ends, whether it finished or timed out.
+     *
+     * @param graph the graph to search
+     * @param startId the id of the start node
+     * @param destId the id of the node to stop at once settled, or -1 to settle every node
+     * @param heuristic the estimated cost from each node id to destId, or null for none
+     * @param deadline the deadline to give up at, or null for none
+     * @param statistics where to report the search's counters
+     * @param mode the algorithm to report the search as
+     * @return the shortest path tree grown by the search, or null if the deadline passed first
+     */
+    static <T> ShortestPathTree<T> search(IndexedGraph<T, ?> graph, int startId, int destId,
+                                          IntToDoubleFunction heuristic, Deadline deadline,
+                                          SearchStatistics statistics, RoutingMode mode) {
+        long begin = System.nanoTime();
+        int n = graph.nodeCount();
+        double[] dist = new double[n];
+        int[] parent = new int[n];
+        int[] parentEdge = new int[n];
+        boolean[] finished = new boolean[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[startId] = 0;
+        parent[startId] = -1;
+        parentEdge[startId] = -1;
+        IndexedHeap active = new IndexedHeap(n);
+        active.insert(startId, 0);
+        int settled = 0;
+        long relaxed = 0;
+        long pushes = 1;
+        int peak = 1;
+
+        while (!active.isEmpty()) {
+            int min = active.poll();
+            finished[min] = true;
+            settled++;
+            if (min == destId) {
+                break;
+            }
+            if (deadline != null && settled % Deadline.CHECK_INTERVAL == 0 && deadline.expired()) {
+                statistics.record(mode.name(), settled, relaxed, pushes, peak, System.nanoTime() - begin);
+                return null;
+            }
+            for (int e = graph.firstEdge(min); e < graph.lastEdge(min); e++) {
+                int child = graph.target(e);
+                double cost = dist[min] + graph.weight(e);
+                relaxed++;
+                if (!finished[child] && cost < dist[child]) {
+                    dist[child] = cost;
+                    parent[child] = min;
+                    parentEdge[child] = e;
+                    active.offer(child, heuristic == null ? cost : cost + heuristic.applyAsDouble(child));
+                    pushes++;
+                }
+            }
+            peak = Math.max(peak, active.size());
+        }
+        statistics.record(mode.name(), settled, relaxed, pushes, peak, System.nanoTime() - begin);
+        return new ShortestPathTree<>(graph, startId, dist, parent, parentEdge, finished);
+    }
+
+    /**
+     * A node waiting in the active queue, with the distance it was queued at.
+     */
+    private static class Active<T> implements Comparable<Active<T>> {
+        private final T node;
+        private final double cost;
+
+        private Active(T node, double cost) {
+            this.node = node;
+            this.cost = cost;
+        }
+
+        @Override
+        public int compareTo(Active<T> other) {
+            return Double.compare(cost, other.cost);
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package pathfinder;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The nodes reachable from one start node within a distance budget, each with the cost of its
+ * shortest path from the start. Nodes are kept in the order the search settled them, which is
+ * nearest first.
+ *
+ * @param <T> A set of vertices
+ */
+public final class Isochrone<T> {
+
+    // AF(this) = the nodes that are keys of distances, each at shortest distance
+    // distances.get(node) from source, which are exactly the nodes at most budget from source.
+    //
+    // Rep invariant: source, distances != null, distances.get(source) == 0, and every distance
+    // is in [0, budget], in non-decreasing order of iteration.
+
+    private final T source;
+    private final double budget;
+    private final Map<T, Double> distances;
+
+    /**
+     * Constructor wrap the distances settled by a bounded search. The map is owned by this
+     * object.
+     *
+     * @param source the value of the start node
+     * @param budget the largest distance searched to
+     * @param distances the distance of every node settled, in the order they were settled
+     * @spec.requires the arguments satisfy the rep invariant
+     */
+    Isochrone(T source, double budget, Map<T, Double> distances) {
+        this.source = source;
+        this.budget = budget;
+        this.distances = Collections.unmodifiableMap(distances);
+        checkRep();
+    }
+
+    /**
+     * Return the value of the node the search started from.
+     *
+     * @return the start of every path measured
+     */
+    public T source() {
+        return source;
+    }
+
+    /**
+     * Return the largest distance from the source this holds nodes for.
+     *
+     * @return the budget searched to
+     */
+    public double budget() {
+        return budget;
+    }
+
+    /**
+     * Check whether the node holding the given value is within the budget.
+     *
+     * @param value the value stored in a node
+     * @return true if value can be reached within the budget, false otherwise.
+     */
+    public boolean reaches(T value) {
+        return distances.containsKey(value);
+    }
+
+    /**
+     * Return the cost of the shortest path to the node holding the given value.
+     *
+     * @param value the value stored in a node
+     * @return the shortest distance from the source to value, or positive infinity if it can't be
+     * reached within the budget.
+     */
+    public double distanceTo(T value) {
+        Double distance = distances.get(value);
+        return distance == null ? Double.POSITIVE_INFINITY : distance;
+    }
+
+    /**
+     * Return every node within the budget with its distance from the source.
+     *
+     * @return an unmodifiable map from each reached node to its distance, nearest first
+     */
+    public Map<T, Double> distances() {
+        return distances;
+    }
+
+    /**
+     * Check if rep invariant holds.
+     *
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkRep() {
+        if (source == null || distances == null || !Double.valueOf(0).equals(distances.get(source))) {
+            throw new RuntimeException("The source must be reached at distance 0");
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package pathfinder;
+
+import graph.Deadline;
+import graph.IndexedGraph;
+import graph.ReverseIndex;
+import graph.SearchResult;
+import graph.SearchStatistics;
+import pathfinder.datastructures.IndexedHeap;
+import pathfinder.datastructures.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Yen's algorithm for the k shortest loopless paths between two nodes. Each path after the
+ * first is found by deviating from the previous one: for every node on it (the spur node), the
+ * part before it (the root) is kept, the edges that paths already found take out of the same root
+ * are removed along with the root's other nodes, and the cheapest way from the spur node to the
+ * destination is searched for in what remains. The cheapest of all deviations found so far is the
+ * next path.
+ *
+ * <p>The tree of shortest paths into the destination is grown once per query, backward over the
+ * incoming edges, and shared by every spur search. Its distances are exact on the whole graph and
+ * only underestimate once edges are removed, so each spur search is an A* search guided by them;
+ * when the spur node's own branch of the tree avoids every removed node and edge, that branch is
+ * the spur path and no search runs at all. The spur searches off one path are independent and
+ * run in parallel.
+ */
+public final class KShortestPaths {
+
+    /** The algorithm name find reports its counters under. */
+    public static final String YEN = "YEN";
+
+    /** Returned by a spur search that stopped at its deadline. */
+    private static final int[] TIMED_OUT = new int[0];
+
+    /**
+     * Utility class; not to be constructed.
+     */
+    private KShortestPaths() {
+    }
+
+    /**
+     * Find up to k shortest loopless paths from start to dest, cheapest first. Paths of equal cost
+     * are returned in the order they were found.
+     *
+     * @param graph the indexed graph to search
+     * @param reverse the incoming edges of graph
+     * @param start the starting node
+     * @param dest the ending node
+     * @param k the most paths to return
+     * @return the k shortest loopless paths, or all of them if there are fewer; empty if dest
+     * can't be reached from start, and only the empty path if start equals dest.
+     * @throws RuntimeException if any argument is null, a node is not in the graph, or k is less
+     * than 1.
+     * @spec.requires reverse was built from graph and every edge weight of graph is non-negative
+     */
+    public static <T> List<Path<T>> find(IndexedGraph<T, ?> graph, ReverseIndex reverse, T start, T dest, int k) {
+        return find(graph, reverse, start, dest, k, Deadline.none()).value();
+    }
+
+    /**
+     * Find up to k shortest loopless paths from start to dest, cheapest first, like
+     * find(graph, reverse, start, dest, k), but give up if the deadline passes first. The
+     * deadline is checked between rounds and every Deadline.CHECK_INTERVAL nodes settled by each
+     * search.
+     *
+     * @param graph the indexed graph to search
+     * @param reverse the incoming edges of graph
+     * @param start the starting node
+     * @param dest the ending node
+     * @param k the most paths to return
+     * @param deadline when to give up
+     * @return FOUND with the paths find(graph, reverse, start, dest, k) returns, even if empty,
+     * or TIMED_OUT if the deadline passed first.
+     * @throws RuntimeException if any argument is null, a node is not in the graph, or k is less
+     * than 1.
+     * @spec.requires reverse was built from graph and every edge weight of graph is non-negative
+     */
+    public static <T> SearchResult<List<Path<T>>> find(IndexedGraph<T, ?> graph, ReverseIndex reverse, T start,
+                                                       T dest, int k, Deadline deadline) {
+        return find(graph, reverse, start, dest, k, deadline, SearchStatistics.NONE);
+    }
+
+    /**
+     * Find up to k shortest loopless paths from start to dest like find(graph, reverse, start,
+     * dest, k, deadline), reporting its counters to the given statistics as YEN once it ends,
+     * whether it finished or timed out. The counters are the totals of the backward search and
+     * every spur search, and the queue peak is the largest any one of them reached.
+     *
+     * @param graph the indexed graph to search
+     * @param reverse the incoming edges of graph
+     * @param start the starting node
+     * @param dest the ending node
+     * @param k the most paths to return
+     * @param deadline when to give up
+     * @param statistics where to report the searches' counters
+     * @return FOUND with the paths find(graph, reverse, start, dest, k) returns, even if empty,
+     * or TIMED_OUT if the deadline passed first.
+     * @throws RuntimeException if any argument is null, a node is not in the graph, or k is less
+     * than 1.
+     * @spec.requires reverse was built from graph and every edge weight of graph is non-negative
+     */
+    public static <T> SearchResult<List<Path<T>>> find(IndexedGraph<T, ?> graph, ReverseIndex reverse, T start,
+                                                       T dest, int k, Deadline deadline, SearchStatistics statistics) {
+        if (graph == null || reverse == null || start == null || dest == null || k < 1 || deadline == null
+                || statistics == null) {
+            throw new RuntimeException("The input graph or reverse or start or dest or deadline or statistics can't be null and k must be positive");
+        }
+        int startId = graph.idOf(start);
+        int destId = graph.idOf(dest);
+        if (startId < 0 || destId < 0) {
+            throw new RuntimeException("The node start or dest or both are not in the graph");
+        }
+        long begin = System.nanoTime();
+        Work work = new Work();
+        SearchResult<List<Path<T>>> result = find(graph, reverse, startId, destId, k, deadline, work);
+        statistics.record(YEN, work.settled.sum(), work.relaxed.sum(), work.pushes.sum(), (int) work.peak.get(),
+                System.nanoTime() - begin);
+        return result;
+    }
+
+    /**
+     * Find up to k shortest loopless paths between the nodes with the given ids.
+     *
+     * @param graph the graph searched
+     * @param reverse the incoming edges of graph
+     * @param startId the id of the starting node
+     * @param destId the id of the ending node
+     * @param k the most paths to return
+     * @param deadline when to give up
+     * @param work where every search adds its counters
+     * @return FOUND with the paths, or TIMED_OUT if the deadline passed first
+     */
+    private static <T> SearchResult<List<Path<T>>> find(IndexedGraph<T, ?> graph, ReverseIndex reverse, int startId,
+                                                        int destId, int k, Deadline deadline, Work work) {
+        int n = graph.nodeCount();
+        double[] distTo = new double[n];
+        int[] edgeOut = new int[n];
+        if (!growBackward(graph, reverse, destId, distTo, edgeOut, deadline, work)) {
+            return SearchResult.timedOut();
+        }
+
+        List<Route> found = new ArrayList<>();
+        if (distTo[startId] == Double.POSITIVE_INFINITY) {
+            return SearchResult.found(List.of());
+        }
+        Route first = new Route(graph, startId, branch(graph, startId, destId, edgeOut), 0);
+        found.add(first);
+        Set<Route> seen = new HashSet<>();
+        seen.add(first);
+        PriorityQueue<Route> candidates = new PriorityQueue<>(
+                Comparator.comparingDouble((Route route) -> route.cost).thenComparingInt(route -> route.order));
+        int order = 1;
+
+        while (found.size() < k) {
+            if (deadline.expired()) {
+                return SearchResult.timedOut();
+            }
+            Route previous = found.get(found.size() - 1);
+            List<Route> done = List.copyOf(found);
+            List<int[]> spurs = IntStream.range(0, previous.edges.length).parallel()
+                    .mapToObj(i -> spur(graph, previous, i, done, destId, distTo, edgeOut, deadline, work))
+                    .collect(Collectors.toList());
+            for (int[] edges : spurs) {
+                if (edges == TIMED_OUT) {
+                    return SearchResult.timedOut();
+                }
+                if (edges != null) {
+                    Route candidate = new Route(graph, startId, edges, order++);
+                    if (seen.add(candidate)) {
+                        candidates.add(candidate);
+                    }
+                }
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+            found.add(candidates.poll());
+        }
+
+        List<Path<T>> paths = new ArrayList<>();
+        for (Route route : found) {
+            Path<T> path = new Path<>(graph.valueOf(startId));
+            for (int e : route.edges) {
+                path = path.extend(graph.valueOf(graph.target(e)), graph.weight(e));
+            }
+            paths.add(path);
+        }
+        return SearchResult.found(paths);
+    }
+
+    /**
+     * Find the cheapest deviation from a path at one of its nodes: the path's first i edges
+     * followed by the cheapest way from its i-th node to dest that leaves by none of the edges
+     * the found paths sharing those first i edges take next, and visits none of the nodes
+     * before the i-th.
+     *
+     * @param graph the graph searched
+     * @param previous the path to deviate from
+     * @param i the number of edges of previous to keep
+     * @param found the paths found so far
+     * @param destId the id of the destination
+     * @param distTo the distance from every node to the destination
+     * @param edgeOut the edge each node leaves by toward the destination in its tree, or -1
+     * @param deadline when to give up
+     * @param work where the search adds its counters
+     * @return the edges of the deviating path, null if there is none, or TIMED_OUT if the
+     * deadline passed first
+     */
+    private static int[] spur(IndexedGraph<?, ?> graph, Route previous, int i, List<Route> found,
+                              int destId, double[] distTo, int[] edgeOut, Deadline deadline, Work work) {
+        int n = graph.nodeCount();
+        boolean[] blockedNode = new boolean[n];
+        int spurId = previous.nodes[i];
+        for (int j = 0; j < i; j++) {
+            blockedNode[previous.nodes[j]] = true;
+        }
+        Set<Integer> blockedEdge = new HashSet<>();
+        for (Route route : found) {
+            if (route.edges.length > i && Arrays.equals(route.edges, 0, i, previous.edges, 0, i)) {
+                blockedEdge.add(route.edges[i]);
+            }
+        }
+
+        // The spur node's own branch of the tree into dest is the cheapest spur if it's still open.
+        int[] tail = branch(graph, spurId, destId, edgeOut);
+        if (tail != null && isOpen(graph, tail, blockedNode, blockedEdge)) {
+            return join(previous.edges, i, tail);
+        }
+
+        double[] dist = new double[n];
+        int[] parentEdge = new int[n];
+        int[] parent = new int[n];
+        boolean[] finished = new boolean[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[spurId] = 0;
+        parent[spurId] = -1;
+        IndexedHeap active = new IndexedHeap(n);
+        active.insert(spurId, distTo[spurId]);
+        int settled = 0;
+        long relaxed = 0;
+        long pushes = 1;
+        int peak = 1;
+        while (!active.isEmpty()) {
+            int min = active.poll();
+            finished[min] = true;
+            if (++settled % Deadline.CHECK_INTERVAL == 0 && deadline.expired()) {
+                work.add(settled, relaxed, pushes, peak);
+                return TIMED_OUT;
+            }
+            if (min == destId) {
+                work.add(settled, relaxed, pushes, peak);
+                int length = 0;
+                for (int v = destId; v != spurId; v = parent[v]) {
+                    length++;
+                }
+                int[] edges = new int[length];
+                for (int v = destId; v != spurId; v = parent[v]) {
+                    edges[--length] = parentEdge[v];
+                }
+                return join(previous.edges, i, edges);
+            }
+            for (int e = graph.firstEdge(min); e < graph.lastEdge(min); e++) {
+                int child = graph.target(e);
+                if (blockedNode[child] || distTo[child] == Double.POSITIVE_INFINITY
+                        || (min == spurId && blockedEdge.contains(e))) {
+                    continue;
+                }
+                double cost = dist[min] + graph.weight(e);
+                relaxed++;
+                if (!finished[child] && cost < dist[child]) {
+                    dist[child] = cost;
+                    parent[child] = min;
+                    parentEdge[child] = e;
+                    active.offer(child, cost + distTo[child]);
+                    pushes++;
+                }
+            }
+            peak = Math.max(peak, active.size());
+        }
+        work.add(settled, relaxed, pushes, peak);
+        return null;
+    }
+
+    /**
+     * Grow the tree of shortest paths into dest over the incoming edges of every node.
+     *
+     * @param graph the graph searched
+     * @param reverse the incoming edges of graph
+     * @param destId the id of the destination
+     * @param distTo filled with the distance from every node to dest, or positive infinity
+     * @param edgeOut filled with the edge each node leaves by toward dest, or -1
+     * @param deadline when to give up
+     * @param work where the search adds its counters
+     * @return true if the tree was grown, false if the deadline passed first
+     */
+    private static boolean growBackward(IndexedGraph<?, ?> graph, ReverseIndex reverse, int destId,
+                                        double[] distTo, int[] edgeOut, Deadline deadline, Work work) {
+        Arrays.fill(distTo, Double.POSITIVE_INFINITY);
+        Arrays.fill(edgeOut, -1);
+        boolean[] finished = new boolean[distTo.length];
+        distTo[destId] = 0;
+        IndexedHeap active = new IndexedHeap(distTo.length);
+        active.insert(destId, 0);
+        int settled = 0;
+        long relaxed = 0;
+        long pushes = 1;
+        int peak = 1;
+        while (!active.isEmpty()) {
+            int min = active.poll();
+            finished[min] = true;
+            if (++settled % Deadline.CHECK_INTERVAL == 0 && deadline.expired()) {
+                work.add(settled, relaxed, pushes, peak);
+                return false;
+            }
+            for (int r = reverse.firstEdge(min); r < reverse.lastEdge(min); r++) {
+                int e = reverse.edge(r);
+                int child = reverse.source(r);
+                double cost = distTo[min] + graph.weight(e);
+                relaxed++;
+                if (!finished[child] && cost < distTo[child]) {
+                    distTo[child] = cost;
+                    edgeOut[child] = e;
+                    active.offer(child, cost);
+                    pushes++;
+                }
+            }
+            peak = Math.max(peak, active.size());
+        }
+        work.add(settled, relaxed, pushes, peak);
+        return true;
+    }
+
+    /**
+     * @param graph the graph searched
+     * @param from the id of a node
+     * @param destId the id of the destination
+     * @param edgeOut the edge each node leaves by toward dest in its tree, or -1
+     * @return the edges of the branch of the tree from the given node into dest, or null if
+     * dest can't be reached from it
+     */
+    private static int[] branch(IndexedGraph<?, ?> graph, int from, int destId, int[] edgeOut) {
+        int length = 0;
+        for (int v = from; v != destId; v = graph.target(edgeOut[v])) {
+            if (edgeOut[v] < 0) {
+                return null;
+            }
+            length++;
+        }
+        int[] edges = new int[length];
+        int v = from;
+        for (int j = 0; j < length; j++) {
+            edges[j] = edgeOut[v];
+            v = graph.target(edgeOut[v]);
+        }
+        return edges;
+    }
+
+    /**
+     * @param graph the graph searched
+     * @param edges a path from the spur node, as edges
+     * @param blockedNode whether each node is removed
+     * @param blockedEdge the edges removed at the spur node
+     * @return true if the path uses no removed edge and enters no removed node.
+     */
+    private static boolean isOpen(IndexedGraph<?, ?> graph, int[] edges, boolean[] blockedNode,
+                                  Set<Integer> blockedEdge) {
+        if (edges.length > 0 && blockedEdge.contains(edges[0])) {
+            return false;
+        }
+        for (int e : edges) {
+            if (blockedNode[graph.target(e)]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param root the edges of the path the root is taken from
+     * @param i the number of edges of root to keep
+     * @param tail the edges to follow the root with
+     * @return the first i edges of root followed by tail
+     */
+    private static int[] join(int[] root, int i, int[] tail) {
+        int[] edges = Arrays.copyOf(root, i + tail.length);
+        System.arraycopy(tail, 0, edges, i, tail.length);
+        return edges;
+    }
+
+    /**
+     * The counters of every search one query runs. Spur searches run on several threads at once,
+     * so each adds its totals once, when it ends.
+     */
+    private static final class Work {
+        private final LongAdder settled = new LongAdder();
+        private final LongAdder relaxed = new LongAdder();
+        private final LongAdder pushes = new LongAdder();
+        private final LongAccumulator peak = new LongAccumulator(Math::max, 0);
+
+        /**
+         * @param settled the nodes one search settled
+         * @param relaxed the edges it examined
+         * @param pushes the times it queued a node or lowered a key
+         * @param peak the most entries its queue held at once
+         */
+        private void add(long settled, long relaxed, long pushes, int peak) {
+            this.settled.add(settled);
+            this.relaxed.add(relaxed);
+            this.pushes.add(pushes);
+            this.peak.accumulate(peak);
+        }
+    }
+
+    /**
+     * A loopless path found or proposed by the search, as the edges it takes. Routes are equal
+     * when they take the same edges.
+     */
+    private static final class Route {
+        private final int[] edges;
+        private final int[] nodes;
+        private final double cost;
+        private final int order;
+
+        /**
+         * @param graph the graph the edges are in
+         * @param startId the id of the node the route starts at
+         * @param edges the edges the route takes, in order
+         * @param order the position of this route among those proposed, to break ties in cost
+         */
+        private Route(IndexedGraph<?, ?> graph, int startId, int[] edges, int order) {
+            this.edges = edges;
+            this.order = order;
+            this.nodes = new int[edges.length];
+            double total = 0;
+            int node = startId;
+            // nodes[j] is the node edges[j] leaves from.
+            for (int j = 0; j < edges.length; j++) {
+                nodes[j] = node;
+                total += graph.weight(edges[j]);
+                node = graph.target(edges[j]);
+            }
+            this.cost = total;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Route && Arrays.equals(edges, ((Route) obj).edges);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(edges);
+        }
+    }
+}
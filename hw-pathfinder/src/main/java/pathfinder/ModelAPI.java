@@ -14,6 +14,7 @@ package pathfinder;
 import pathfinder.datastructures.Path;
 import pathfinder.datastructures.Point;
 
+import java.util.List;
 import java.util.Map;
 
 /*
@@ -71,4 +72,55 @@ public interface ModelAPI {
     // You'll need to change this return type to use the generic Path once you've
     // updated the Path ADT to be generic.
 
+    /**
+     * Finds the shortest path between the points of the campus map nearest the given
+     * locations, so callers holding raw map coordinates don't need a building name.
+     *
+     * @param start A location in map coordinates, snapped to the nearest point of the map.
+     * @param end   A location in map coordinates, snapped to the nearest point of the map.
+     * @return The shortest path between the two snapped points, or {@literal null} if none exists.
+     * @throws IllegalArgumentException if {@code start} or {@code end} is {@literal null}.
+     */
+    public Path<Point> findShortestPath(Point start, Point end);
+
+    /**
+     * Finds the shortest distance from one building to each of the given buildings, with a
+     * single search from the start.
+     *
+     * @param startShortName The short name of the building to measure from.
+     * @param endShortNames  The short names of the buildings to measure to.
+     * @return An array whose i-th entry is the distance from {@code startShortName} to
+     * {@code endShortNames.get(i)}, or positive infinity if no path exists.
+     * @throws IllegalArgumentException if any argument is {@literal null}, or any name is not a
+     *                                  valid short name of a building in this campus map.
+     */
+    public double[] distancesFrom(String startShortName, List<String> endShortNames);
+
+    /**
+     * Finds the shortest distance from each of the given start buildings to each of the given
+     * end buildings, with a single search per distinct start.
+     *
+     * @param startShortNames The short names of the buildings to measure from.
+     * @param endShortNames   The short names of the buildings to measure to.
+     * @return A matrix whose entry [i][j] is the distance from {@code startShortNames.get(i)} to
+     * {@code endShortNames.get(j)}, or positive infinity if no path exists.
+     * @throws IllegalArgumentException if any argument is {@literal null}, or any name is not a
+     *                                  valid short name of a building in this campus map.
+     */
+    public double[][] distanceMatrix(List<String> startShortNames, List<String> endShortNames);
+
+    /**
+     * Finds up to k shortest paths between two buildings that visit no point twice, cheapest
+     * first, so the shortest path is followed by its best alternatives.
+     *
+     * @param startShortName The short name of the building at the beginning of the paths.
+     * @param endShortName   The short name of the building at the end of the paths.
+     * @param k              The most paths to find.
+     * @return The k shortest paths between the buildings, or all of them if there are fewer.
+     * @throws IllegalArgumentException if {@code startShortName} or {@code endShortName} are
+     *                                  {@literal null}, or not valid short names of buildings
+     *                                  in this campus map, or k is less than 1.
+     */
+    public List<Path<Point>> findKShortestPaths(String startShortName, String endShortName, int k);
+
 }
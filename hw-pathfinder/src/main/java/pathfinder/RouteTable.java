@@ -0,0 +1,212 @@
+package pathfinder;
+
+import graph.IndexedGraph;
+import pathfinder.datastructures.Path;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The shortest paths between every pair of a fixed set of endpoint nodes, computed up front by
+ * one shortest path tree per endpoint. The table keeps the distance between every two endpoints
+ * and, for every endpoint, the edge each node was reached by in its tree, so a query is a table
+ * lookup plus a walk back along those edges. Paths are the same ones Dijkstra.getPath finds.
+ *
+ * @param <T> A set of vertices
+ */
+public final class RouteTable<T> {
+
+    // AF(this) = for endpoints i and j, the shortest path from graph.valueOf(endpoints[i]) to
+    // graph.valueOf(endpoints[j]) costs dist[i * endpoints.length + j] and ends with the edge
+    // parentEdge[i * nodeCount + endpoints[j]], whose source is edgeSource[edge], and so on back
+    // to endpoints[i], where parentEdge is -1.
+    //
+    // Rep invariant: graph, endpoints, index, dist, parentEdge and edgeSource != null,
+    // dist.length == endpoints.length squared, parentEdge.length == endpoints.length * nodeCount,
+    // edgeSource.length == graph.edgeCount(), and index maps the value of endpoints[i] to i.
+
+    private final IndexedGraph<T, ?> graph;
+    private final int[] endpoints;
+    private final Map<T, Integer> index;
+    private final double[] dist;
+    private final int[] parentEdge;
+    private final int[] edgeSource;
+    private final long buildMillis;
+
+    /**
+     * Constructor compute the routes between every two of the given endpoints using every
+     * available processor.
+     *
+     * @param graph the indexed graph to route on
+     * @param endpoints the values of the nodes to route between
+     * @throws RuntimeException if an argument is null or an endpoint is not in the graph.
+     * @spec.requires every edge weight of graph is non-negative
+     */
+    public RouteTable(IndexedGraph<T, ?> graph, List<T> endpoints) {
+        this(graph, endpoints, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor compute the routes between every two of the given endpoints, running the
+     * search from each endpoint as a task on a fork-join pool of the given size. Repeated
+     * endpoints are searched once.
+     *
+     * @param graph the indexed graph to route on
+     * @param endpoints the values of the nodes to route between
+     * @param parallelism the number of threads to search on
+     * @throws RuntimeException if an argument is null, an endpoint is not in the graph, or
+     * parallelism is less than 1.
+     * @spec.requires every edge weight of graph is non-negative
+     */
+    public RouteTable(IndexedGraph<T, ?> graph, List<T> endpoints, int parallelism) {
+        if (graph == null || endpoints == null || parallelism < 1) {
+            throw new RuntimeException("The graph and endpoints can't be null and parallelism must be positive");
+        }
+        long start = System.nanoTime();
+        this.graph = graph;
+        this.index = new HashMap<>();
+        for (T endpoint : endpoints) {
+            if (endpoint == null || !graph.containsValue(endpoint)) {
+                throw new RuntimeException("Every endpoint must be in the graph");
+            }
+            index.putIfAbsent(endpoint, index.size());
+        }
+        int count = index.size();
+        int n = graph.nodeCount();
+        this.endpoints = new int[count];
+        index.forEach((value, i) -> this.endpoints[i] = graph.idOf(value));
+        this.dist = new double[count * count];
+        this.parentEdge = new int[count * n];
+        this.edgeSource = new int[graph.edgeCount()];
+        for (int v = 0; v < n; v++) {
+            Arrays.fill(edgeSource, graph.firstEdge(v), graph.lastEdge(v), v);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(i -> {
+                ShortestPathTree<T> tree = Dijkstra.search(graph, this.endpoints[i], -1);
+                for (int j = 0; j < count; j++) {
+                    dist[i * count + j] = tree.distanceTo(this.endpoints[j]);
+                }
+                for (int v = 0; v < n; v++) {
+                    parentEdge[i * n + v] = tree.parentEdge(v);
+                }
+            })).join();
+        } finally {
+            pool.shutdown();
+        }
+        this.buildMillis = (System.nanoTime() - start) / 1_000_000;
+        checkRep();
+    }
+
+    /**
+     * Check whether the given value is one of the endpoints of this table.
+     *
+     * @param value the value stored in a node
+     * @return true if value is an endpoint, false otherwise.
+     */
+    public boolean contains(T value) {
+        return index.containsKey(value);
+    }
+
+    /**
+     * Return the number of distinct endpoints in this table.
+     *
+     * @return the number of endpoints
+     */
+    public int size() {
+        return endpoints.length;
+    }
+
+    /**
+     * Return the cost of the shortest path between two endpoints.
+     *
+     * @param start the endpoint the path starts at
+     * @param dest the endpoint the path ends at
+     * @return the cost of the shortest path from start to dest, or positive infinity if there
+     * is none.
+     * @throws RuntimeException if start or dest is not an endpoint of this table.
+     */
+    public double distance(T start, T dest) {
+        return dist[indexOf(start) * endpoints.length + indexOf(dest)];
+    }
+
+    /**
+     * Rebuild the shortest path between two endpoints from the table.
+     *
+     * @param start the endpoint the path starts at
+     * @param dest the endpoint the path ends at
+     * @return the shortest path from start to dest, or null if there is none.
+     * @throws RuntimeException if start or dest is not an endpoint of this table.
+     */
+    public Path<T> path(T start, T dest) {
+        int i = indexOf(start);
+        int target = endpoints[indexOf(dest)];
+        if (dist[i * endpoints.length + indexOf(dest)] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        int offset = i * graph.nodeCount();
+        int length = 0;
+        for (int v = target; v != endpoints[i]; v = edgeSource[parentEdge[offset + v]]) {
+            length++;
+        }
+        int[] edges = new int[length];
+        for (int v = target; v != endpoints[i]; v = edgeSource[parentEdge[offset + v]]) {
+            edges[--length] = parentEdge[offset + v];
+        }
+        Path<T> path = new Path<>(start);
+        for (int e : edges) {
+            path = path.extend(graph.valueOf(graph.target(e)), graph.weight(e));
+        }
+        return path;
+    }
+
+    /**
+     * Return how long building this table took.
+     *
+     * @return the build time in milliseconds
+     */
+    public long buildMillis() {
+        return buildMillis;
+    }
+
+    /**
+     * Return the memory held by the table's arrays, not counting the graph it routes on.
+     *
+     * @return the approximate footprint in bytes
+     */
+    public long footprintBytes() {
+        return 8L * dist.length + 4L * (parentEdge.length + edgeSource.length + endpoints.length);
+    }
+
+    /**
+     * @param value the value stored in a node
+     * @return the index of value among the endpoints
+     * @throws RuntimeException if value is not an endpoint of this table.
+     */
+    private int indexOf(T value) {
+        Integer i = index.get(value);
+        if (i == null) {
+            throw new RuntimeException("The node is not an endpoint of the route table");
+        }
+        return i;
+    }
+
+    /**
+     * Check if rep invariant holds.
+     *
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkRep() {
+        if (dist.length != endpoints.length * endpoints.length
+                || parentEdge.length != endpoints.length * graph.nodeCount()
+                || edgeSource.length != graph.edgeCount() || index.size() != endpoints.length) {
+            throw new RuntimeException("The tables don't match the endpoints");
+        }
+    }
+}
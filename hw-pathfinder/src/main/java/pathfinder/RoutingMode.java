@@ -0,0 +1,32 @@
+package pathfinder;
+
+/**
+ * The ways a CampusMap can find a route. Every mode returns a path of the shortest cost; when
+ * several paths tie, they may return different ones. DIJKSTRA, A_STAR, ALT and BIDIRECTIONAL
+ * search the campus on every query and differ in how much of it they explore.
+ * CONTRACTION_HIERARCHY searches a small precomputed overlay instead. ROUTE_TABLE and TREE_CACHE
+ * answer from shortest paths computed earlier, at startup or on a start's first query, so
+ * they trade memory for queries that barely search at all.
+ */
+public enum RoutingMode {
+    /** Dijkstra's algorithm, which explores outward from the start in every direction. */
+    DIJKSTRA,
+
+    /** A* guided by the straight-line distance to the destination. */
+    A_STAR,
+
+    /** A* guided by lower bounds from precomputed landmark distances. */
+    ALT,
+
+    /** Dijkstra's algorithm run forward from the start and backward from the destination at once. */
+    BIDIRECTIONAL,
+
+    /** Upward searches in a precomputed contraction hierarchy, with shortcuts unpacked. */
+    CONTRACTION_HIERARCHY,
+
+    /** A lookup in the table of shortest paths between every two buildings. */
+    ROUTE_TABLE,
+
+    /** A walk back through the cached shortest path tree of the start, grown on its first use. */
+    TREE_CACHE
+}
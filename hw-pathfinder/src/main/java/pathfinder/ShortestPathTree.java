@@ -0,0 +1,174 @@
+package pathfinder;
+
+import graph.IndexedGraph;
+import pathfinder.datastructures.Path;
+
+/**
+ * The result of a Dijkstra or A* search from one start node: the distance of every node the search
+ * settled and, for each, the edge it was reached by. A tree grown until every reachable node was
+ * settled answers distance and path queries for all of them; a search that stopped at a
+ * destination only answers them for the nodes settled before it stopped.
+ *
+ * @param <T> A set of vertices
+ */
+public final class ShortestPathTree<T> {
+
+    // AF(this) = the search from graph.valueOf(source) where node v was settled at distance
+    // dist[v] by the edge parentEdge[v] leaving parent[v], or wasn't settled if settled[v] is
+    // false.
+    //
+    // Rep invariant: graph != null, all arrays have length graph.nodeCount(),
+    // settled[source], dist[source] == 0 and parent[source] == -1, and for every other settled v,
+    // parent[v] is settled and parentEdge[v] is an edge from parent[v] to v.
+
+    private final IndexedGraph<T, ?> graph;
+    private final int source;
+    private final double[] dist;
+    private final int[] parent;
+    private final int[] parentEdge;
+    private final boolean[] settled;
+
+    /**
+     * Constructor wrap the arrays filled in by a search. The arrays are owned by the tree.
+     *
+     * @param graph the graph searched
+     * @param source the id of the start node
+     * @param dist the distance of every node from the start
+     * @param parent the node each node was reached from, or -1
+     * @param parentEdge the edge each node was reached by, or -1
+     * @param settled whether the search settled each node
+     * @spec.requires the arrays satisfy the rep invariant
+     */
+    ShortestPathTree(IndexedGraph<T, ?> graph, int source, double[] dist, int[] parent, int[] parentEdge,
+                     boolean[] settled) {
+        this.graph = graph;
+        this.source = source;
+        this.dist = dist;
+        this.parent = parent;
+        this.parentEdge = parentEdge;
+        this.settled = settled;
+        checkRep();
+    }
+
+    /**
+     * Return the value of the node the search started from.
+     *
+     * @return the start of every path in this tree
+     */
+    public T source() {
+        return graph.valueOf(source);
+    }
+
+    /**
+     * Return how many nodes the search settled, including the source. This is the measure of
+     * how much of the graph a search had to explore.
+     *
+     * @return the number of nodes this tree holds shortest paths to
+     */
+    public int settledCount() {
+        int count = 0;
+        for (boolean s : settled) {
+            if (s) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Check whether the search settled the node holding the given value.
+     *
+     * @param value the value stored in the node
+     * @return true if the tree holds a shortest path to value, false otherwise.
+     */
+    public boolean reaches(T value) {
+        int id = graph.idOf(value);
+        return id >= 0 && settled[id];
+    }
+
+    /**
+     * Return the cost of the shortest path to the node holding the given value.
+     *
+     * @param value the value stored in the node
+     * @return the shortest distance from the source to value, or positive infinity if the tree
+     * doesn't reach value.
+     */
+    public double distanceTo(T value) {
+        int id = graph.idOf(value);
+        return id >= 0 && settled[id] ? dist[id] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Build the shortest path to the node holding the given value by following parent pointers
+     * back to the source. Only this one path is ever materialized.
+     *
+     * @param value the value stored in the node
+     * @return the shortest path from the source to value, or null if the tree doesn't reach value.
+     */
+    public Path<T> pathTo(T value) {
+        int id = graph.idOf(value);
+        return id >= 0 ? pathTo(id) : null;
+    }
+
+    /**
+     * Return the cost of the shortest path to the node with the given id.
+     *
+     * @param id the node id
+     * @return the shortest distance from the source to id, or positive infinity if the tree
+     * doesn't reach id.
+     */
+    double distanceTo(int id) {
+        return settled[id] ? dist[id] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Return the edge the search reached the node with the given id by.
+     *
+     * @param id the node id
+     * @return the last edge of the shortest path to id, or -1 if id is the source or the tree
+     * doesn't reach it.
+     */
+    int parentEdge(int id) {
+        return settled[id] ? parentEdge[id] : -1;
+    }
+
+    /**
+     * Build the shortest path to the node with the given id.
+     *
+     * @param id the node id
+     * @return the shortest path from the source to id, or null if the tree doesn't reach id.
+     */
+    Path<T> pathTo(int id) {
+        if (!settled[id]) {
+            return null;
+        }
+        int length = 0;
+        for (int v = id; v != source; v = parent[v]) {
+            length++;
+        }
+        int[] edges = new int[length];
+        for (int v = id; v != source; v = parent[v]) {
+            edges[--length] = parentEdge[v];
+        }
+        Path<T> path = new Path<>(graph.valueOf(source));
+        for (int e : edges) {
+            path = path.extend(graph.valueOf(graph.target(e)), graph.weight(e));
+        }
+        return path;
+    }
+
+    /**
+     * Check if rep invariant holds.
+     *
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkRep() {
+        if (graph == null || dist.length != graph.nodeCount() || parent.length != dist.length
+                || parentEdge.length != dist.length || settled.length != dist.length) {
+            throw new RuntimeException("The tree doesn't match the graph");
+        }
+        if (!settled[source] || dist[source] != 0 || parent[source] != -1) {
+            throw new RuntimeException("The tree must be rooted at its source");
+        }
+    }
+}
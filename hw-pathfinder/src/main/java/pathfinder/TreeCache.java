@@ -0,0 +1,269 @@
+package pathfinder;
+
+import graph.Deadline;
+import graph.IndexedGraph;
+import graph.SearchResult;
+import graph.SearchStatistics;
+import pathfinder.datastructures.Path;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of complete shortest path trees, one per source node. The first query from a
+ * source grows its whole tree; every later query from that source, to any destination, is
+ * answered from the tree without searching. When the cache is full the least recently used tree
+ * is dropped. All methods are safe to call from several threads; searches run outside the lock,
+ * so a slow miss doesn't hold up hits on other sources.
+ *
+ * @param <T> A set of vertices
+ */
+public final class TreeCache<T> {
+
+    // AF(this) = the trees cached for the sources in trees, most recently used last, all grown
+    // on graph, with hits and misses counting the lookups since construction.
+    //
+    // Rep invariant: graph != null, capacity > 0, trees.size() <= capacity, and every tree in
+    // trees was grown on graph from its key.
+
+    private final int capacity;
+    private final LinkedHashMap<T, ShortestPathTree<T>> trees;
+    private IndexedGraph<T, ?> graph;
+    private long generation;
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructor create an empty cache of trees grown on the given graph.
+     *
+     * @param graph the indexed graph to grow trees on
+     * @param capacity the most trees the cache holds
+     * @throws RuntimeException if graph is null or capacity is less than 1.
+     */
+    public TreeCache(IndexedGraph<T, ?> graph, int capacity) {
+        if (graph == null || capacity < 1) {
+            throw new RuntimeException("The graph can't be null and capacity must be positive");
+        }
+        this.graph = graph;
+        this.capacity = capacity;
+        this.trees = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<T, ShortestPathTree<T>> eldest) {
+                return size() > TreeCache.this.capacity;
+            }
+        };
+        checkRep();
+    }
+
+    /**
+     * Return the shortest path tree from the given source, growing and caching it on a miss.
+     *
+     * @param source the value stored in the source node
+     * @return the complete shortest path tree from source
+     * @throws RuntimeException if source is null or not in the graph.
+     */
+    public ShortestPathTree<T> tree(T source) {
+        return tree(source, Deadline.none()).value();
+    }
+
+    /**
+     * Return the shortest path tree from the given source like tree(source), but give up growing
+     * it on a miss if the deadline passes first. A tree that wasn't finished isn't cached.
+     *
+     * @param source the value stored in the source node
+     * @param deadline when to give up
+     * @return FOUND with the complete shortest path tree from source, or TIMED_OUT if the
+     * deadline passed first.
+     * @throws RuntimeException if source or deadline is null or source is not in the graph.
+     */
+    public SearchResult<ShortestPathTree<T>> tree(T source, Deadline deadline) {
+        return tree(source, deadline, SearchStatistics.NONE);
+    }
+
+    /**
+     * Return the shortest path tree from the given source like tree(source, deadline), reporting
+     * to the given statistics as TREE_CACHE. A hit reports zero counters and only its time; a
+     * miss reports the counters of the search that grew the tree, whether it finished or timed
+     * out.
+     *
+     * @param source the value stored in the source node
+     * @param deadline when to give up
+     * @param statistics where to report the lookup's counters
+     * @return FOUND with the complete shortest path tree from source, or TIMED_OUT if the
+     * deadline passed first.
+     * @throws RuntimeException if any argument is null or source is not in the graph.
+     */
+    public SearchResult<ShortestPathTree<T>> tree(T source, Deadline deadline, SearchStatistics statistics) {
+        if (deadline == null || statistics == null) {
+            throw new RuntimeException("The deadline or statistics can't be null");
+        }
+        long begin = System.nanoTime();
+        IndexedGraph<T, ?> searched;
+        long version;
+        synchronized (this) {
+            ShortestPathTree<T> tree = trees.get(source);
+            if (tree != null) {
+                hits++;
+                statistics.record(RoutingMode.TREE_CACHE.name(), 0, 0, 0, 0, System.nanoTime() - begin);
+                return SearchResult.found(tree);
+            }
+            misses++;
+            searched = graph;
+            version = generation;
+        }
+        SearchResult<ShortestPathTree<T>> tree = Dijkstra.shortestPathTree(searched, source, deadline,
+                statistics.labeled(RoutingMode.TREE_CACHE.name()));
+        if (tree.isTimedOut()) {
+            return tree;
+        }
+        synchronized (this) {
+            // Don't cache a tree of a graph that was replaced while it was being grown.
+            if (version == generation) {
+                trees.put(source, tree.value());
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Return the shortest path between the given nodes, from the cached tree of start.
+     *
+     * @param start the starting node
+     * @param dest the ending node
+     * @return the shortest path from start to dest, or null if there is none.
+     * @throws RuntimeException if start or dest is null or not in the graph.
+     */
+    public Path<T> path(T start, T dest) {
+        if (dest == null) {
+            throw new RuntimeException("The dest can't be null");
+        }
+        ShortestPathTree<T> tree = tree(start);
+        if (!currentGraph().containsValue(dest)) {
+            throw new RuntimeException("The node dest is not in the graph");
+        }
+        return tree.pathTo(dest);
+    }
+
+    /**
+     * Return the shortest path between the given nodes like path(start, dest), but give up
+     * growing the tree of start on a miss if the deadline passes first.
+     *
+     * @param start the starting node
+     * @param dest the ending node
+     * @param deadline when to give up
+     * @return FOUND with the shortest path from start to dest, NOT_FOUND if there is none, or
+     * TIMED_OUT if the deadline passed first.
+     * @throws RuntimeException if any argument is null or start or dest is not in the graph.
+     */
+    public SearchResult<Path<T>> path(T start, T dest, Deadline deadline) {
+        return path(start, dest, deadline, SearchStatistics.NONE);
+    }
+
+    /**
+     * Return the shortest path between the given nodes like path(start, dest, deadline),
+     * reporting the lookup of the tree of start to the given statistics like tree(start,
+     * deadline, statistics).
+     *
+     * @param start the starting node
+     * @param dest the ending node
+     * @param deadline when to give up
+     * @param statistics where to report the lookup's counters
+     * @return FOUND with the shortest path from start to dest, NOT_FOUND if there is none, or
+     * TIMED_OUT if the deadline passed first.
+     * @throws RuntimeException if any argument is null or start or dest is not in the graph.
+     */
+    public SearchResult<Path<T>> path(T start, T dest, Deadline deadline, SearchStatistics statistics) {
+        if (dest == null) {
+            throw new RuntimeException("The dest can't be null");
+        }
+        SearchResult<ShortestPathTree<T>> tree = tree(start, deadline, statistics);
+        if (!currentGraph().containsValue(dest)) {
+            throw new RuntimeException("The node dest is not in the graph");
+        }
+        if (tree.isTimedOut()) {
+            return SearchResult.timedOut();
+        }
+        Path<T> path = tree.value().pathTo(dest);
+        return path == null ? SearchResult.notFound() : SearchResult.found(path);
+    }
+
+    /**
+     * Drop every cached tree, for when the weights they were grown with are no longer current.
+     * Hit and miss counts are kept.
+     */
+    public synchronized void invalidate() {
+        trees.clear();
+        generation++;
+    }
+
+    /**
+     * Drop every cached tree and grow future trees on the given graph instead, for when the
+     * underlying graph changes.
+     *
+     * @param graph the graph to grow trees on from now on
+     * @throws RuntimeException if graph is null.
+     */
+    public synchronized void invalidate(IndexedGraph<T, ?> graph) {
+        if (graph == null) {
+            throw new RuntimeException("The graph can't be null");
+        }
+        this.graph = graph;
+        invalidate();
+    }
+
+    /**
+     * Return the most trees this cache holds.
+     *
+     * @return the capacity of the cache
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Return the number of trees cached now.
+     *
+     * @return the number of cached trees
+     */
+    public synchronized int size() {
+        return trees.size();
+    }
+
+    /**
+     * Return the number of lookups answered from a cached tree.
+     *
+     * @return the number of hits
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * Return the number of lookups that had to grow a tree.
+     *
+     * @return the number of misses
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * @return the graph trees are grown on now
+     */
+    private synchronized IndexedGraph<T, ?> currentGraph() {
+        return graph;
+    }
+
+    /**
+     * Check if rep invariant holds.
+     *
+     * @throws RuntimeException if violate rep invariant
+     */
+    private void checkRep() {
+        if (graph == null || capacity < 1 || trees.size() > capacity) {
+            throw new RuntimeException("The cache is over capacity or has no graph");
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package pathfinder.datastructures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A min-priority queue of int ids in [0, capacity) keyed by doubles, stored as a d-ary heap of
+ * primitive arrays. Each id is in the queue at most once and knows its heap position, so its key
+ * can be lowered in place (decrease-key) instead of queueing a second entry. The queue therefore
+ * never holds more entries than the search frontier, and no operation allocates.
+ *
+ * <p>insert and decreaseKey cost O(log_d n), poll costs O(d log_d n). A wider heap is shallower,
+ * which favours searches that lower keys far more often than they poll, such as Dijkstra on road
+ * like graphs; the default arity is 4. The heap is not stable: poll moves the last leaf to the
+ * root and sifts it down, so ids with equal keys come out in an unspecified order.
+ */
+public final class IndexedHeap {
+
+    // AF(this) = the ids heap[0..size), each with priority keys[id].
+    //
+    // Rep invariant: 0 <= size <= capacity, arity >= 2, heap[0..size) are distinct ids,
+    // position[heap[i]] == i for i < size, position[id] == -1 for every id not in the heap,
+    // and keys[heap[(i - 1) / arity]] <= keys[heap[i]] for 0 < i < size.
+
+    /** The arity used by IndexedHeap(int). */
+    public static final int DEFAULT_ARITY = 4;
+
+    private final int arity;
+    private final int[] heap;
+    private final int[] position;
+    private final double[] keys;
+    private int size;
+
+    /**
+     * Constructor create an empty 4-ary heap for ids in [0, capacity).
+     *
+     * @param capacity one more than the largest id the heap will hold
+     * @throws IllegalArgumentException if capacity is negative.
+     */
+    public IndexedHeap(int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    /**
+     * Constructor create an empty heap with the given arity for ids in [0, capacity).
+     *
+     * @param capacity one more than the largest id the heap will hold
+     * @param arity the number of children of each heap node
+     * @throws IllegalArgumentException if capacity is negative or arity is less than 2.
+     */
+    public IndexedHeap(int capacity, int arity) {
+        if (capacity < 0 || arity < 2) {
+            throw new IllegalArgumentException("Capacity must be non-negative and arity at least 2");
+        }
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(position, -1);
+        checkRep();
+    }
+
+    /**
+     * @return the number of ids in the heap.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@literal true} iff the heap holds no ids.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param id an id in [0, capacity)
+     * @return {@literal true} iff id is in the heap.
+     */
+    public boolean contains(int id) {
+        return position[id] >= 0;
+    }
+
+    /**
+     * @param id an id in the heap
+     * @return the key of id.
+     * @throws NoSuchElementException if id is not in the heap.
+     */
+    public double key(int id) {
+        if (!contains(id)) {
+            throw new NoSuchElementException("Id " + id + " is not in the heap");
+        }
+        return keys[id];
+    }
+
+    /**
+     * Add an id with the given key.
+     *
+     * @param id an id in [0, capacity) that is not in the heap
+     * @param key the priority of id
+     * @throws IllegalArgumentException if id is already in the heap or key is NaN.
+     */
+    public void insert(int id, double key) {
+        if (contains(id) || Double.isNaN(key)) {
+            throw new IllegalArgumentException("Id " + id + " is already in the heap or key is NaN");
+        }
+        keys[id] = key;
+        heap[size] = id;
+        position[id] = size;
+        size++;
+        siftUp(size - 1);
+    }
+
+    /**
+     * Lower the key of an id already in the heap.
+     *
+     * @param id an id in the heap
+     * @param key the new priority of id, no greater than its current key
+     * @throws IllegalArgumentException if id is not in the heap or key is greater than its key.
+     */
+    public void decreaseKey(int id, double key) {
+        if (!contains(id) || !(key <= keys[id])) {
+            throw new IllegalArgumentException("Id " + id + " is not in the heap or key would increase");
+        }
+        keys[id] = key;
+        siftUp(position[id]);
+    }
+
+    /**
+     * Insert id with the given key, or lower its key if it's already in the heap with a greater
+     * one. This is the relaxation step of a shortest-path search.
+     *
+     * @param id an id in [0, capacity)
+     * @param key the priority offered for id
+     * @return {@literal true} iff id was inserted or its key lowered.
+     */
+    public boolean offer(int id, double key) {
+        if (!contains(id)) {
+            insert(id, key);
+            return true;
+        }
+        if (key < keys[id]) {
+            decreaseKey(id, key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the id with the smallest key, without removing it.
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("The heap is empty");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Remove and return the id with the smallest key. Callers that need its key read
+     * key(peek()) before polling.
+     *
+     * @return the id with the smallest key
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    public int poll() {
+        int min = peek();
+        size--;
+        position[min] = -1;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Remove every id, in time proportional to the number removed.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Move the entry at index i up until its parent's key is no greater than its own.
+     *
+     * @param i the heap index of the entry
+     */
+    private void siftUp(int i) {
+        int id = heap[i];
+        double key = keys[id];
+        while (i > 0) {
+            int parent = (i - 1) / arity;
+            int parentId = heap[parent];
+            if (keys[parentId] <= key) {
+                break;
+            }
+            heap[i] = parentId;
+            position[parentId] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        position[id] = i;
+    }
+
+    /**
+     * Move the entry at index i down until no child has a smaller key.
+     *
+     * @param i the heap index of the entry
+     */
+    private void siftDown(int i) {
+        int id = heap[i];
+        double key = keys[id];
+        while (true) {
+            int first = i * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + arity, size);
+            int best = first;
+            double bestKey = keys[heap[first]];
+            for (int child = first + 1; child < last; child++) {
+                double childKey = keys[heap[child]];
+                if (childKey < bestKey) {
+                    best = child;
+                    bestKey = childKey;
+                }
+            }
+            if (key <= bestKey) {
+                break;
+            }
+            heap[i] = heap[best];
+            position[heap[i]] = i;
+            i = best;
+        }
+        heap[i] = id;
+        position[id] = i;
+    }
+
+    /**
+     * Ensures that the representation invariant has not been violated. Returns normally if
+     * there is no violation.
+     */
+    private void checkRep() {
+        assert arity >= 2;
+        assert 0 <= size && size <= heap.length;
+        for (int i = 0; i < size; i++) {
+            assert position[heap[i]] == i;
+            assert i == 0 || keys[heap[(i - 1) / arity]] <= keys[heap[i]];
+        }
+    }
+}
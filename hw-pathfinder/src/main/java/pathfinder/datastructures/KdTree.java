@@ -0,0 +1,281 @@
+package pathfinder.datastructures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * An immutable 2-d tree over a fixed set of points, for finding the points nearest a location
+ * and the points inside a rectangle without scanning every point. The tree is stored implicitly
+ * in one array: the point splitting a range of the array sits at its middle, the points before
+ * it are no greater on the range's axis and the points after it no smaller, and the two halves
+ * split on the other axis. A query only descends into a half that could hold an answer, so on
+ * spread out points it looks at O(log n) of them for nearest and O(sqrt n + answers) for a
+ * rectangle.
+ */
+public final class KdTree {
+
+    // AF(this) = the set of points in points.
+    //
+    // Rep invariant: points != null and has no null elements, and for every range [lo, hi) of
+    // the implicit tree at depth d with mid = (lo + hi) >>> 1, every point in [lo, mid) has a
+    // coordinate on axis d % 2 no greater than points[mid]'s and every point in (mid, hi) has
+    // one no smaller. Axis 0 is x and axis 1 is y.
+
+    private final Point[] points;
+
+    /**
+     * Constructor build a tree over the given points. Repeated points are kept.
+     *
+     * @param points the points to index
+     * @throws IllegalArgumentException if points is null or holds null.
+     */
+    public KdTree(Collection<Point> points) {
+        if (points == null) {
+            throw new IllegalArgumentException("Points can't be null");
+        }
+        this.points = points.toArray(new Point[0]);
+        for (Point p : this.points) {
+            if (p == null) {
+                throw new IllegalArgumentException("Points can't be null");
+            }
+        }
+        build(0, this.points.length, 0);
+        checkRep();
+    }
+
+    /**
+     * @return the number of points in the tree.
+     */
+    public int size() {
+        return points.length;
+    }
+
+    /**
+     * Find the point nearest the given location by straight-line distance.
+     *
+     * @param x the x coordinate of the location
+     * @param y the y coordinate of the location
+     * @return the nearest point, or null if the tree is empty. Of points at the same distance,
+     * any one may be returned.
+     */
+    public Point nearest(double x, double y) {
+        if (points.length == 0) {
+            return null;
+        }
+        return points[nearest(x, y, 0, points.length, 0, -1)];
+    }
+
+    /**
+     * Find the k points nearest the given location by straight-line distance.
+     *
+     * @param x the x coordinate of the location
+     * @param y the y coordinate of the location
+     * @param k the number of points to find
+     * @return the k nearest points, or all of them if there are fewer, nearest first
+     * @throws IllegalArgumentException if k is negative.
+     */
+    public List<Point> nearest(double x, double y, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k can't be negative");
+        }
+        // A max-heap of the best k so far, so the farthest of them is the one to beat.
+        PriorityQueue<Point> best = new PriorityQueue<>(Math.max(1, k),
+                Comparator.comparingDouble((Point p) -> squaredDistance(p, x, y)).reversed());
+        if (k > 0) {
+            nearest(x, y, k, 0, points.length, 0, best);
+        }
+        Point[] sorted = best.toArray(new Point[0]);
+        Arrays.sort(sorted, Comparator.comparingDouble(p -> squaredDistance(p, x, y)));
+        return List.of(sorted);
+    }
+
+    /**
+     * Find every point inside the given rectangle, edges included.
+     *
+     * @param minX the smallest x coordinate of the rectangle
+     * @param minY the smallest y coordinate of the rectangle
+     * @param maxX the largest x coordinate of the rectangle
+     * @param maxY the largest y coordinate of the rectangle
+     * @return the points inside the rectangle, in no particular order
+     * @throws IllegalArgumentException if minX &gt; maxX or minY &gt; maxY.
+     */
+    public List<Point> within(double minX, double minY, double maxX, double maxY) {
+        if (minX > maxX || minY > maxY) {
+            throw new IllegalArgumentException("The rectangle's minimum can't exceed its maximum");
+        }
+        List<Point> found = new ArrayList<>();
+        within(minX, minY, maxX, maxY, 0, points.length, 0, found);
+        return found;
+    }
+
+    /**
+     * Arrange points[lo, hi) so the point at its middle splits it on the given axis, then
+     * arrange both halves on the other axis.
+     *
+     * @param lo the first index of the range
+     * @param hi one past the last index of the range
+     * @param axis 0 to split on x, 1 to split on y
+     */
+    private void build(int lo, int hi, int axis) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        Arrays.sort(points, lo, hi, Comparator.comparingDouble(p -> coordinate(p, axis)));
+        int mid = (lo + hi) >>> 1;
+        build(lo, mid, 1 - axis);
+        build(mid + 1, hi, 1 - axis);
+    }
+
+    /**
+     * @param x the x coordinate of the location
+     * @param y the y coordinate of the location
+     * @param lo the first index of the range searched
+     * @param hi one past the last index of the range searched
+     * @param axis the axis the range splits on
+     * @param best the index of the nearest point found so far, or -1
+     * @return the index of the nearest point found in the range or best, whichever is nearer
+     */
+    private int nearest(double x, double y, int lo, int hi, int axis, int best) {
+        if (lo >= hi) {
+            return best;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (best < 0 || squaredDistance(points[mid], x, y) < squaredDistance(points[best], x, y)) {
+            best = mid;
+        }
+        double gap = (axis == 0 ? x : y) - coordinate(points[mid], axis);
+        // Search the side holding the location first; the other side can only hold a nearer point
+        // if the splitting line is nearer than the best so far.
+        if (gap < 0) {
+            best = nearest(x, y, lo, mid, 1 - axis, best);
+            if (gap * gap < squaredDistance(points[best], x, y)) {
+                best = nearest(x, y, mid + 1, hi, 1 - axis, best);
+            }
+        } else {
+            best = nearest(x, y, mid + 1, hi, 1 - axis, best);
+            if (gap * gap < squaredDistance(points[best], x, y)) {
+                best = nearest(x, y, lo, mid, 1 - axis, best);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Add the points of a range to best where they are nearer than its farthest, keeping at
+     * most k.
+     *
+     * @param x the x coordinate of the location
+     * @param y the y coordinate of the location
+     * @param k the most points to keep
+     * @param lo the first index of the range searched
+     * @param hi one past the last index of the range searched
+     * @param axis the axis the range splits on
+     * @param best the nearest points found so far, farthest first
+     */
+    private void nearest(double x, double y, int k, int lo, int hi, int axis, PriorityQueue<Point> best) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (best.size() < k) {
+            best.add(points[mid]);
+        } else if (squaredDistance(points[mid], x, y) < squaredDistance(best.peek(), x, y)) {
+            best.poll();
+            best.add(points[mid]);
+        }
+        double gap = (axis == 0 ? x : y) - coordinate(points[mid], axis);
+        int nearLo = gap < 0 ? lo : mid + 1;
+        int nearHi = gap < 0 ? mid : hi;
+        int farLo = gap < 0 ? mid + 1 : lo;
+        int farHi = gap < 0 ? hi : mid;
+        nearest(x, y, k, nearLo, nearHi, 1 - axis, best);
+        if (best.size() < k || gap * gap < squaredDistance(best.peek(), x, y)) {
+            nearest(x, y, k, farLo, farHi, 1 - axis, best);
+        }
+    }
+
+    /**
+     * Add the points of a range that lie inside the rectangle to found.
+     *
+     * @param minX the smallest x coordinate of the rectangle
+     * @param minY the smallest y coordinate of the rectangle
+     * @param maxX the largest x coordinate of the rectangle
+     * @param maxY the largest y coordinate of the rectangle
+     * @param lo the first index of the range searched
+     * @param hi one past the last index of the range searched
+     * @param axis the axis the range splits on
+     * @param found the points found so far
+     */
+    private void within(double minX, double minY, double maxX, double maxY, int lo, int hi, int axis,
+                        List<Point> found) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        Point p = points[mid];
+        if (minX <= p.getX() && p.getX() <= maxX && minY <= p.getY() && p.getY() <= maxY) {
+            found.add(p);
+        }
+        double split = coordinate(p, axis);
+        if ((axis == 0 ? minX : minY) <= split) {
+            within(minX, minY, maxX, maxY, lo, mid, 1 - axis, found);
+        }
+        if ((axis == 0 ? maxX : maxY) >= split) {
+            within(minX, minY, maxX, maxY, mid + 1, hi, 1 - axis, found);
+        }
+    }
+
+    /**
+     * @param p a point
+     * @param axis 0 for x, 1 for y
+     * @return the coordinate of p on axis
+     */
+    private static double coordinate(Point p, int axis) {
+        return axis == 0 ? p.getX() : p.getY();
+    }
+
+    /**
+     * @param p a point
+     * @param x the x coordinate of a location
+     * @param y the y coordinate of a location
+     * @return the squared straight-line distance between p and the location
+     */
+    private static double squaredDistance(Point p, double x, double y) {
+        double dx = p.getX() - x;
+        double dy = p.getY() - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Ensures that the representation invariant has not been violated. Returns normally if
+     * there is no violation.
+     */
+    private void checkRep() {
+        assert points != null;
+        assert checkRange(0, points.length, 0);
+    }
+
+    /**
+     * @param lo the first index of the range
+     * @param hi one past the last index of the range
+     * @param axis the axis the range splits on
+     * @return true if the range and its halves are split as the rep invariant requires
+     */
+    private boolean checkRange(int lo, int hi, int axis) {
+        if (hi - lo <= 1) {
+            return true;
+        }
+        int mid = (lo + hi) >>> 1;
+        double split = coordinate(points[mid], axis);
+        for (int i = lo; i < hi; i++) {
+            if (i < mid && coordinate(points[i], axis) > split || i > mid && coordinate(points[i], axis) < split) {
+                return false;
+            }
+        }
+        return checkRange(lo, mid, 1 - axis) && checkRange(mid + 1, hi, 1 - axis);
+    }
+}
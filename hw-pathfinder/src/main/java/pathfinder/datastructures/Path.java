@@ -11,20 +11,26 @@
 
 package pathfinder.datastructures;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * This represents an immutable path between two cartesian coordinate points, particularly
  * Path#getStart() and Path#getEnd(). Also contains a cached
  * version of the total cost along this path, for efficient repeated access.
+ *
+ * <p>A path shares all but its last segment with the path it was extended from, so extend
+ * takes constant time and memory however long the path is. The segments are copied into an
+ * array only the first time the path is iterated or serialized.
  */
 public class Path<T> implements Iterable<Path<T>.Segment> {
 
     // AF(this) =
     //      first point in the path => start
-    //      each "step" along the path between points => elements of list path, where
+    //      each "step" along the path between points => elements of list path, which are the
+    //          segments of prefix followed by last, or no segments if prefix is null, where
     //          path.get(0) is the first step from the start point to an intermediate point, and
     //          path.get(path.size() - 1) is the final step from an intermediate point to the end
     //      total cost along the path => cost
@@ -35,22 +41,46 @@ public class Path<T> implements Iterable<Path<T>.Segment> {
     //      Double.isFinite(cost) &&
     //      start != null &&
     //      path != null &&
-    //      path does not contain null elements
+    //      (prefix == null) == (last == null) &&
+    //      size == (prefix == null ? 0 : prefix.size + 1) &&
+    //      segmentsHash == path.hashCode()
 
     /**
      * The total cost along all the segments in this path.
      */
-    private double cost;
+    private final double cost;
 
     /**
      * The point at the beginning of this path.
      */
-    private T start;
+    private final T start;
 
     /**
-     * The ordered sequence of segments representing a path between points.
+     * The ordered sequence of segments representing a path between points. This is the only
+     * segment field serialized, so JSON sees the same list of segments as before paths shared
+     * their prefixes.
      */
-    private List<Segment> path;
+    private final List<Segment> path;
+
+    /**
+     * The path this one was extended from, or null if this path has no segments.
+     */
+    private final transient Path<T> prefix;
+
+    /**
+     * The final segment of this path, or null if this path has no segments.
+     */
+    private final transient Segment last;
+
+    /**
+     * The number of segments in this path.
+     */
+    private final transient int size;
+
+    /**
+     * The List#hashCode() of the segments, kept up as the path is extended.
+     */
+    private final transient int segmentsHash;
 
     /**
      * Creates a new, empty path containing a start point. Essentially this represents a path
@@ -59,9 +89,25 @@ public class Path<T> implements Iterable<Path<T>.Segment> {
      * @param start The starting point of the path.
      */
     public Path(T start) {
+        this(start, 0, null, null);
+    }
+
+    /**
+     * Creates a path that is prefix followed by the given last segment.
+     *
+     * @param start  The starting point of the path.
+     * @param cost   The total cost along the path.
+     * @param prefix The path without its last segment, or null if the path has no segments.
+     * @param last   The final segment of the path, or null if the path has no segments.
+     */
+    private Path(T start, double cost, Path<T> prefix, Segment last) {
         this.start = start;
-        this.cost = 0;
-        this.path = new ArrayList<>();
+        this.cost = cost;
+        this.prefix = prefix;
+        this.last = last;
+        this.size = prefix == null ? 0 : prefix.size + 1;
+        this.segmentsHash = prefix == null ? 1 : 31 * prefix.segmentsHash + last.hashCode();
+        this.path = new Segments();
         checkRep();
     }
 
@@ -79,12 +125,9 @@ public class Path<T> implements Iterable<Path<T>.Segment> {
     public Path<T> extend(T newEnd, double segmentCost) {
         checkRep();
         //
-        Path<T> extendedPath = new Path<>(start);
-        extendedPath.path.addAll(this.path);
-        extendedPath.path.add(new Segment(this.getEnd(), newEnd, segmentCost));
-        extendedPath.cost = this.cost + segmentCost;
+        Path<T> extendedPath = new Path<>(start, this.cost + segmentCost, this,
+                new Segment(this.getEnd(), newEnd, segmentCost));
         //
-        extendedPath.checkRep();
         checkRep();
         //
         return extendedPath;
@@ -109,10 +152,10 @@ public class Path<T> implements Iterable<Path<T>.Segment> {
      * contains no segments (i.e. this path is from the start point to itself).
      */
     public T getEnd() {
-        if(path.size() == 0) {
+        if(last == null) {
             return start;
         }
-        return path.get(path.size() - 1).getEnd();
+        return last.getEnd();
     }
 
     /**
@@ -148,16 +191,16 @@ public class Path<T> implements Iterable<Path<T>.Segment> {
 
     /**
      * Ensures that the representation invariant has not been violated. Returns normally if
-     * there is no violation.
+     * there is no violation. Only checks this path's own fields, so extending stays constant
+     * time; the prefix was checked when it was made.
      */
     private void checkRep() {
         assert cost >= 0;
         assert Double.isFinite(cost);
         assert start != null;
         assert path != null;
-        for(Segment segment : path) {
-            assert segment != null;
-        }
+        assert (prefix == null) == (last == null);
+        assert size == (prefix == null ? 0 : prefix.size + 1);
     }
 
     /**
@@ -177,23 +220,27 @@ public class Path<T> implements Iterable<Path<T>.Segment> {
             return false;
         }
         Path<?> other = (Path<?>) obj;
-        if(this.path.size() != other.path.size()) {
+        if(this.size != other.size || this.segmentsHash != other.segmentsHash) {
             return false;
         }
-        if(this.path.size() == 0 && !this.start.equals(other.start)) {
+        if(this.size == 0 && !this.start.equals(other.start)) {
             return false;
         }
-        for(int i = 0; i < this.path.size(); i++) {
-            if(!this.path.get(i).equals(other.path.get(i))) {
+        // Compare from the end back, stopping early at a prefix the two paths share.
+        Path<?> mine = this;
+        while(mine.last != null && mine != other) {
+            if(!mine.last.equals(other.last)) {
                 return false;
             }
+            mine = mine.prefix;
+            other = other.prefix;
         }
         return true;
     }
 
     @Override
     public int hashCode() {
-        return (31 * start.hashCode()) + path.hashCode();
+        return (31 * start.hashCode()) + segmentsHash;
     }
 
     @Override
@@ -209,6 +256,54 @@ public class Path<T> implements Iterable<Path<T>.Segment> {
         return sb.toString();
     }
 
+    /**
+     * The segments of this path as an unmodifiable list. The list is a view of the chain of
+     * prefixes until it is first read by position or iterated, when the segments are copied
+     * into an array it keeps.
+     */
+    private class Segments extends AbstractList<Segment> implements RandomAccess {
+
+        /**
+         * The segments in order, or null until they are first needed.
+         */
+        private volatile Segment[] array;
+
+        @Override
+        public Segment get(int index) {
+            return materialize()[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int hashCode() {
+            return segmentsHash;
+        }
+
+        /**
+         * @return the segments of this path in order, copying them out of the chain of prefixes
+         * if this is the first use.
+         */
+        private Segment[] materialize() {
+            Segment[] segments = array;
+            if(segments == null) {
+                @SuppressWarnings("unchecked")
+                Segment[] copy = (Segment[]) new Path<?>.Segment[size];
+                Path<T> current = Path.this;
+                for(int i = size - 1; i >= 0; i--) {
+                    copy[i] = current.last;
+                    current = current.prefix;
+                }
+                segments = copy;
+                array = segments;
+            }
+            return segments;
+        }
+    }
+
     /**
      * Segment represents a single segment as part of a longer, more complex path between points.
      * Segments are immutable parts of a larger path that cannot be instantiated directly, and
@@ -0,0 +1,255 @@
+package pathfinder.junitTests;
+
+import graph.Deadline;
+import graph.SearchMetrics;
+import graph.SearchResult;
+import graph.SearchStatistics;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import pathfinder.CampusMap;
+import pathfinder.RoutingMode;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CampusMapTest {
+    private static CampusMap map;
+    private static List<String> names;
+
+    @BeforeClass
+    public static void load() {
+        map = new CampusMap();
+        names = new ArrayList<>(map.buildingNames().keySet());
+        names.sort(null);
+    }
+
+    @Test
+    public void testEveryModeSameCost() {
+        for (int i = 0; i < names.size(); i += 5) {
+            for (int j = 0; j < names.size(); j += 7) {
+                Path<Point> expected = map.findShortestPath(names.get(i), names.get(j));
+                for (RoutingMode mode : RoutingMode.values()) {
+                    Path<Point> path = map.findShortestPath(names.get(i), names.get(j), mode);
+                    assertEquals(mode.toString(), expected.getCost(), path.getCost(), 1e-9);
+                    assertEquals(expected.getStart(), path.getStart());
+                    assertEquals(expected.getEnd(), path.getEnd());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDistanceMatrix() {
+        List<String> starts = List.of(names.get(0), names.get(3), names.get(0));
+        List<String> ends = names.subList(10, 20);
+        double[][] matrix = map.distanceMatrix(starts, ends);
+        assertEquals(starts.size(), matrix.length);
+        for (int i = 0; i < starts.size(); i++) {
+            assertEquals(ends.size(), matrix[i].length);
+            for (int j = 0; j < ends.size(); j++) {
+                assertEquals(map.findShortestPath(starts.get(i), ends.get(j)).getCost(), matrix[i][j], 0.0);
+            }
+        }
+        matrix[0][0] = -1;
+        assertNotEquals(matrix[0][0], matrix[2][0], 0.0);
+    }
+
+    @Test
+    public void testDistancesFrom() {
+        double[] row = map.distancesFrom(names.get(1), names);
+        assertArrayEquals(map.distanceMatrix(List.of(names.get(1)), names)[0], row, 0.0);
+        assertEquals(0.0, row[1], 0.0);
+    }
+
+    @Test
+    public void testEmptyMatrix() {
+        assertEquals(0, map.distanceMatrix(List.of(), names).length);
+        assertEquals(0, map.distancesFrom(names.get(0), List.of()).length);
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testMatrixUnknownName() {
+        map.distanceMatrix(List.of(names.get(0)), List.of("NOT A BUILDING"));
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testSearchRejectsTableMode() {
+        map.search(names.get(0), names.get(1), RoutingMode.ROUTE_TABLE);
+    }
+
+    @Test
+    public void testKShortestPaths() {
+        List<Path<Point>> paths = map.findKShortestPaths(names.get(2), names.get(30), 4);
+        assertEquals(4, paths.size());
+        assertEquals(map.findShortestPath(names.get(2), names.get(30)).getCost(), paths.get(0).getCost(), 1e-9);
+        for (int i = 1; i < paths.size(); i++) {
+            assertTrue(paths.get(i - 1).getCost() <= paths.get(i).getCost());
+            assertNotEquals(paths.get(i - 1), paths.get(i));
+        }
+    }
+
+    @Test
+    public void testEntrancesGrouped() {
+        assertEquals(List.of("BAG", "BAG (NE)"), map.buildingEntrances().get("BAG"));
+        assertEquals(List.of("CSE"), map.buildingEntrances().get("CSE"));
+        int total = 0;
+        for (List<String> entrances : map.buildingEntrances().values()) {
+            total += entrances.size();
+        }
+        assertEquals(names.size(), total);
+    }
+
+    @Test
+    public void testPathBetweenBuildingsIsCheapestEntrancePair() {
+        List<String> buildings = List.of("KNE", "MGH", "HUB", "CSE", "UBS");
+        for (String start : buildings) {
+            for (String end : buildings) {
+                double best = Double.POSITIVE_INFINITY;
+                for (String from : map.buildingEntrances().get(start)) {
+                    for (String to : map.buildingEntrances().get(end)) {
+                        best = Math.min(best, map.findShortestPath(from, to).getCost());
+                    }
+                }
+                Path<Point> path = map.findShortestPathBetweenBuildings(start, end + (end.equals("KNE") ? " (S)" : ""));
+                assertEquals(best, path.getCost(), 1e-9);
+                assertTrue(map.buildingEntrances().get(start).stream()
+                        .anyMatch(name -> map.findShortestPath(name, name).getStart().equals(path.getStart())));
+            }
+        }
+    }
+
+    @Test
+    public void testPathBetweenLocations() {
+        Point cse = map.findShortestPath("CSE", "CSE").getStart();
+        Point mgh = map.findShortestPath("MGH", "MGH").getStart();
+        Path<Point> path = map.findShortestPath(new Point(cse.getX() + 0.5, cse.getY() - 0.5),
+                new Point(mgh.getX() - 0.25, mgh.getY()));
+        assertEquals(map.findShortestPath("CSE", "MGH"), path);
+        assertEquals(cse, map.pointIndex().nearest(cse.getX(), cse.getY()));
+    }
+
+    @Test
+    public void testBuildingsWithin() {
+        Map<String, Double> buildings = map.buildingsWithin("CSE", 1500.0);
+        assertEquals(0.0, buildings.get("CSE"), 0.0);
+        for (String name : names) {
+            double distance = map.findShortestPath("CSE", name).getCost();
+            assertEquals(name, distance <= 1500.0, buildings.containsKey(name));
+            if (buildings.containsKey(name)) {
+                assertEquals(distance, buildings.get(name), 1e-9);
+            }
+        }
+        assertTrue(map.reachableWithin("CSE", 1500.0).distances().size() > buildings.size());
+    }
+
+    @Test
+    public void testStatisticsCompareModes() {
+        SearchMetrics metrics = new SearchMetrics();
+        for (RoutingMode mode : RoutingMode.values()) {
+            map.findShortestPath(names.get(0), names.get(names.size() - 1), mode, metrics);
+        }
+        Map<String, SearchMetrics.Summary> snapshot = metrics.snapshot();
+        assertEquals(RoutingMode.values().length, snapshot.size());
+        for (SearchMetrics.Summary summary : snapshot.values()) {
+            assertEquals(1, summary.searches());
+        }
+        assertTrue(snapshot.get("A_STAR").settled() <= snapshot.get("DIJKSTRA").settled());
+        assertEquals(0, snapshot.get("ROUTE_TABLE").settled());
+        // A hierarchy query runs two real searches, so it isn't reported as a table lookup.
+        assertTrue(snapshot.get("CONTRACTION_HIERARCHY").settled() > 0);
+        assertTrue(snapshot.get("CONTRACTION_HIERARCHY").relaxed() > 0);
+        assertEquals(map.search(names.get(0), names.get(names.size() - 1), RoutingMode.ALT).settledCount(),
+                snapshot.get("ALT").settled());
+    }
+
+    @Test
+    public void testSearchesBeforeDeadline() {
+        List<String> starts = names.subList(0, 3);
+        List<String> ends = names.subList(3, 8);
+        assertArrayEquals(map.distanceMatrix(starts, ends),
+                map.distanceMatrix(starts, ends, Deadline.none()).value());
+        assertEquals(map.reachableWithin(names.get(0), 500.0).distances(),
+                map.reachableWithin(names.get(0), 500.0, Deadline.none()).value().distances());
+    }
+
+    @Test
+    public void testSearchesTimeOut() {
+        Deadline deadline = Deadline.none();
+        deadline.cancel();
+        assertTrue(map.distanceMatrix(names.subList(0, 3), names.subList(3, 8), deadline).isTimedOut());
+        assertTrue(map.reachableWithin(names.get(0), 1e9, deadline).isTimedOut());
+    }
+
+    @Test
+    public void testEveryModeBeforeDeadline() {
+        String start = names.get(0);
+        String end = names.get(names.size() - 1);
+        Path<Point> expected = map.findShortestPath(start, end);
+        for (RoutingMode mode : RoutingMode.values()) {
+            SearchResult<Path<Point>> path =
+                    map.findShortestPath(start, end, mode, Deadline.none(), SearchStatistics.NONE);
+            assertEquals(mode.toString(), SearchResult.Status.FOUND, path.status());
+            assertEquals(mode.toString(), expected.getCost(), path.value().getCost(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testSearchingModesTimeOut() {
+        // The farthest building from the first is past the first deadline check in every search.
+        String start = names.get(0);
+        double[] distances = map.distancesFrom(start, names);
+        int farthest = 0;
+        for (int j = 0; j < distances.length; j++) {
+            if (distances[j] > distances[farthest]) {
+                farthest = j;
+            }
+        }
+        String end = names.get(farthest);
+        Deadline deadline = Deadline.none();
+        deadline.cancel();
+        map.treeCache().invalidate();
+        for (RoutingMode mode : List.of(RoutingMode.DIJKSTRA, RoutingMode.A_STAR, RoutingMode.ALT,
+                RoutingMode.BIDIRECTIONAL, RoutingMode.TREE_CACHE)) {
+            SearchMetrics metrics = new SearchMetrics();
+            assertTrue(mode.toString(), map.findShortestPath(start, end, mode, deadline, metrics).isTimedOut());
+            assertEquals(1, metrics.snapshot().get(mode.name()).searches());
+        }
+        // Tables answer without searching the graph.
+        assertEquals(SearchResult.Status.FOUND,
+                map.findShortestPath(start, end, RoutingMode.ROUTE_TABLE, deadline, SearchStatistics.NONE).status());
+    }
+
+    @Test
+    public void testStatisticsOfEveryQuery() {
+        SearchMetrics metrics = new SearchMetrics();
+        map.findKShortestPaths(names.get(0), names.get(1), 2, Deadline.none(), metrics);
+        map.reachableWithin(names.get(0), 500.0, Deadline.none(), metrics);
+        map.distanceMatrix(List.of(names.get(0), names.get(1), names.get(0)), names.subList(2, 4), Deadline.none(),
+                metrics);
+        Map<String, SearchMetrics.Summary> snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.get("YEN").searches());
+        assertTrue(snapshot.get("YEN").settled() > 0);
+        assertEquals(map.reachableWithin(names.get(0), 500.0).distances().size(), snapshot.get("ISOCHRONE").settled());
+        // The repeated start is searched from once.
+        assertEquals(2, snapshot.get("DIJKSTRA").searches());
+    }
+
+    @Test
+    public void testTreeCacheMissReportsSearch() {
+        map.treeCache().invalidate();
+        SearchMetrics metrics = new SearchMetrics();
+        map.findShortestPath(names.get(0), names.get(1), RoutingMode.TREE_CACHE, metrics);
+        map.findShortestPath(names.get(0), names.get(2), RoutingMode.TREE_CACHE, metrics);
+        SearchMetrics.Summary summary = metrics.snapshot().get("TREE_CACHE");
+        assertEquals(1, metrics.snapshot().size());
+        assertEquals(2, summary.searches());
+        // Only the miss searched, and it settled the whole tree.
+        Point start = map.findShortestPath(names.get(0), names.get(1)).getStart();
+        assertEquals(map.treeCache().tree(start).settledCount(), summary.settled());
+    }
+}
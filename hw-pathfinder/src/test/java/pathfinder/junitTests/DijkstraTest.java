@@ -0,0 +1,451 @@
+package pathfinder.junitTests;
+
+import graph.CompactGraph;
+import graph.ContractionHierarchy;
+import graph.Deadline;
+import graph.Graph;
+import graph.Landmarks;
+import graph.ReverseIndex;
+import graph.SearchMetrics;
+import graph.SearchResult;
+import graph.SearchStatistics;
+import graph.VersionedGraph;
+import org.junit.Before;
+import org.junit.Test;
+import pathfinder.Dijkstra;
+import pathfinder.Isochrone;
+import pathfinder.ShortestPathTree;
+import pathfinder.datastructures.Path;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DijkstraTest {
+    private Graph<String, Double> graph;
+    private CompactGraph<String, Double> compact;
+
+    private void addEdge(String start, String end, double cost) {
+        graph.addNode(new Graph.Node<>(start));
+        graph.addNode(new Graph.Node<>(end));
+        graph.addEdge(new Graph.Node<>(start), new Graph.Node<>(end), cost);
+    }
+
+    @Before
+    public void build() {
+        graph = new Graph<>();
+        addEdge("A", "B", 10.0);
+        addEdge("A", "C", 1.0);
+        addEdge("C", "D", 1.0);
+        addEdge("D", "B", 1.0);
+        addEdge("B", "E", 2.0);
+        addEdge("E", "A", 1.0);
+        graph.addNode(new Graph.Node<>("F"));
+        compact = graph.freeze(Double::doubleValue);
+    }
+
+    @Test
+    public void testCompactSamePaths() {
+        for (Graph.Node<String> start : graph.allNodes()) {
+            for (Graph.Node<String> end : graph.allNodes()) {
+                assertEquals(Dijkstra.getPath(graph, start.getNode(), end.getNode()),
+                        Dijkstra.getPath(compact, start.getNode(), end.getNode()));
+            }
+        }
+    }
+
+    @Test
+    public void testCompactCost() {
+        Path<String> path = Dijkstra.getPath(compact, "A", "E");
+        assertEquals(5.0, path.getCost(), 0.0);
+        assertEquals("A", path.getStart());
+        assertEquals("E", path.getEnd());
+    }
+
+    @Test
+    public void testCompactToItself() {
+        assertEquals(new Path<>("C"), Dijkstra.getPath(compact, "C", "C"));
+    }
+
+    @Test
+    public void testCompactNoPath() {
+        assertNull(Dijkstra.getPath(compact, "A", "F"));
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testCompactUnknown() {
+        Dijkstra.getPath(compact, "A", "G");
+    }
+
+    @Test
+    public void testPinnedVersion() {
+        VersionedGraph<String, Double> versioned = new VersionedGraph<>(graph);
+        VersionedGraph.Version<String, Double> pinned = versioned.pin();
+        versioned.batch().deleteNode("C").addEdge("A", "F", 0.5).publish();
+        assertEquals(Dijkstra.getPath(graph, "A", "B"), Dijkstra.getPath(pinned, "A", "B"));
+        assertEquals(10.0, Dijkstra.getPath(versioned.pin(), "A", "B").getCost(), 0.0);
+        assertEquals(0.5, Dijkstra.getPath(versioned.pin(), "A", "F").getCost(), 0.0);
+    }
+
+    @Test
+    public void testTreeDistances() {
+        ShortestPathTree<String> tree = Dijkstra.shortestPathTree(compact, "A");
+        assertEquals("A", tree.source());
+        assertEquals(0.0, tree.distanceTo("A"), 0.0);
+        assertEquals(3.0, tree.distanceTo("B"), 0.0);
+        assertEquals(5.0, tree.distanceTo("E"), 0.0);
+        assertFalse(tree.reaches("F"));
+        assertEquals(Double.POSITIVE_INFINITY, tree.distanceTo("F"), 0.0);
+        assertNull(tree.pathTo("F"));
+    }
+
+    @Test
+    public void testTreePathsMatchGetPath() {
+        for (Graph.Node<String> start : graph.allNodes()) {
+            ShortestPathTree<String> tree = Dijkstra.shortestPathTree(compact, start.getNode());
+            for (Graph.Node<String> end : graph.allNodes()) {
+                assertEquals(Dijkstra.getPath(compact, start.getNode(), end.getNode()), tree.pathTo(end.getNode()));
+            }
+        }
+    }
+
+    @Test
+    public void testEqualCostKeepsFirstFound() {
+        graph = new Graph<>();
+        addEdge("S", "X", 1.0);
+        addEdge("S", "Y", 1.0);
+        addEdge("X", "T", 1.0);
+        addEdge("Y", "T", 1.0);
+        Path<String> expected = new Path<>("S").extend("X", 1.0).extend("T", 1.0);
+        assertEquals(expected, Dijkstra.getPath(graph, "S", "T"));
+        assertEquals(expected, Dijkstra.getPath(graph.freeze(Double::doubleValue), "S", "T"));
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testTreeUnknown() {
+        Dijkstra.shortestPathTree(compact, "G");
+    }
+
+    @Test
+    public void testAStarZeroHeuristicMatchesDijkstra() {
+        for (Graph.Node<String> start : graph.allNodes()) {
+            for (Graph.Node<String> end : graph.allNodes()) {
+                assertEquals(Dijkstra.getPath(compact, start.getNode(), end.getNode()),
+                        Dijkstra.getPath(compact, start.getNode(), end.getNode(), node -> 0.0));
+            }
+        }
+    }
+
+    @Test
+    public void testAStarSettlesFewerNodes() {
+        // A 10 by 10 grid with unit edges both ways, searched corner to corner along one row.
+        graph = new Graph<>();
+        for (int row = 0; row < 10; row++) {
+            for (int col = 0; col < 10; col++) {
+                if (col < 9) {
+                    addEdge(row + "," + col, row + "," + (col + 1), 1.0);
+                    addEdge(row + "," + (col + 1), row + "," + col, 1.0);
+                }
+                if (row < 9) {
+                    addEdge(row + "," + col, (row + 1) + "," + col, 1.0);
+                    addEdge((row + 1) + "," + col, row + "," + col, 1.0);
+                }
+            }
+        }
+        CompactGraph<String, Double> grid = graph.freeze(Double::doubleValue);
+        ShortestPathTree<String> aStar = Dijkstra.aStar(grid, "0,0", "0,9",
+                node -> Math.abs(9 - Integer.parseInt(node.substring(node.indexOf(',') + 1)))
+                        + Integer.parseInt(node.substring(0, node.indexOf(','))));
+        ShortestPathTree<String> dijkstra = Dijkstra.shortestPathTree(grid, "0,0");
+        assertEquals(9.0, aStar.distanceTo("0,9"), 0.0);
+        assertEquals(dijkstra.distanceTo("0,9"), aStar.distanceTo("0,9"), 0.0);
+        assertEquals(10, aStar.settledCount());
+        assertEquals(100, dijkstra.settledCount());
+    }
+
+    @Test
+    public void testAStarNoPath() {
+        assertNull(Dijkstra.getPath(compact, "A", "F", node -> 0.0));
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testAStarNullHeuristic() {
+        Dijkstra.aStar(compact, "A", "B", null);
+    }
+
+    @Test
+    public void testBidirectionalSameCost() {
+        ReverseIndex reverse = new ReverseIndex(compact);
+        for (Graph.Node<String> start : graph.allNodes()) {
+            for (Graph.Node<String> end : graph.allNodes()) {
+                Path<String> expected = Dijkstra.getPath(compact, start.getNode(), end.getNode());
+                Path<String> actual = Dijkstra.bidirectional(compact, reverse, start.getNode(), end.getNode());
+                if (expected == null) {
+                    assertNull(actual);
+                } else {
+                    assertEquals(expected.getCost(), actual.getCost(), 0.0);
+                    assertEquals(start.getNode(), actual.getStart());
+                    assertEquals(end.getNode(), actual.getEnd());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBidirectionalFollowsEdges() {
+        Path<String> path = Dijkstra.bidirectional(compact, new ReverseIndex(compact), "A", "E");
+        Path<String> expected = new Path<>("A").extend("C", 1.0).extend("D", 1.0).extend("B", 1.0)
+                .extend("E", 2.0);
+        assertEquals(expected, path);
+    }
+
+    @Test
+    public void testBidirectionalToItself() {
+        assertEquals(new Path<>("F"), Dijkstra.bidirectional(compact, new ReverseIndex(compact), "F", "F"));
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testBidirectionalUnknown() {
+        Dijkstra.bidirectional(compact, new ReverseIndex(compact), "A", "G");
+    }
+
+    @Test
+    public void testAltSameCost() {
+        Landmarks landmarks = Landmarks.select(compact, 2);
+        for (Graph.Node<String> start : graph.allNodes()) {
+            for (Graph.Node<String> end : graph.allNodes()) {
+                Path<String> expected = Dijkstra.getPath(compact, start.getNode(), end.getNode());
+                ShortestPathTree<String> tree = Dijkstra.alt(compact, landmarks, start.getNode(), end.getNode());
+                if (expected == null) {
+                    assertNull(tree.pathTo(end.getNode()));
+                } else {
+                    assertEquals(expected.getCost(), tree.distanceTo(end.getNode()), 0.0);
+                    assertEquals(expected.getCost(), tree.pathTo(end.getNode()).getCost(), 0.0);
+                }
+            }
+        }
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testAltNullLandmarks() {
+        Dijkstra.alt(compact, null, "A", "B");
+    }
+
+    @Test
+    public void testHierarchySamePaths() {
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(compact);
+        for (Graph.Node<String> start : graph.allNodes()) {
+            for (Graph.Node<String> end : graph.allNodes()) {
+                assertEquals(Dijkstra.getPath(compact, start.getNode(), end.getNode()),
+                        Dijkstra.getPath(compact, hierarchy, start.getNode(), end.getNode()));
+            }
+        }
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testHierarchyUnknown() {
+        Dijkstra.getPath(compact, ContractionHierarchy.build(compact), "A", "G");
+    }
+
+    @Test
+    public void testPathBetweenSets() {
+        // From {A, D} the cheapest way into {B, E} is D -> B.
+        Path<String> path = Dijkstra.getPathBetween(compact, List.of("A", "D"), List.of("E", "B"));
+        assertEquals(Dijkstra.getPath(compact, "D", "B"), path);
+        assertEquals(new Path<>("C"), Dijkstra.getPathBetween(compact, List.of("A", "C"), List.of("C")));
+        assertNull(Dijkstra.getPathBetween(compact, List.of("A", "B"), List.of("F")));
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testPathBetweenEmptySet() {
+        Dijkstra.getPathBetween(compact, List.of("A"), List.of());
+    }
+
+    @Test
+    public void testWithinBudget() {
+        // From A: C is 1, D is 2, B is 3 and E is 5; F can't be reached.
+        Isochrone<String> reached = Dijkstra.withinBudget(compact, "A", 3.0);
+        assertEquals(List.of("A", "C", "D", "B"), List.copyOf(reached.distances().keySet()));
+        assertEquals(3.0, reached.distanceTo("B"), 0.0);
+        assertFalse(reached.reaches("E"));
+        assertEquals(Double.POSITIVE_INFINITY, reached.distanceTo("E"), 0.0);
+        assertEquals(Set.of("A", "B", "C", "D", "E"),
+                Dijkstra.withinBudget(compact, "A", Double.POSITIVE_INFINITY).distances().keySet());
+        assertEquals(Set.of("A"), Dijkstra.withinBudget(compact, "A", 0.0).distances().keySet());
+    }
+
+    @Test
+    public void testWithinBudgetMatchesTree() {
+        ShortestPathTree<String> tree = Dijkstra.shortestPathTree(compact, "E");
+        Isochrone<String> reached = Dijkstra.withinBudget(compact, "E", 4.0);
+        for (String node : List.of("A", "B", "C", "D", "E", "F")) {
+            double distance = tree.distanceTo(node);
+            assertEquals(distance <= 4.0, reached.reaches(node));
+            if (reached.reaches(node)) {
+                assertEquals(distance, reached.distanceTo(node), 0.0);
+            }
+        }
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testNegativeBudget() {
+        Dijkstra.withinBudget(compact, "A", -1.0);
+    }
+
+    @Test
+    public void testDeadlineNotReached() {
+        SearchResult<Path<String>> result = Dijkstra.getPathBefore(compact, "A", "E", Deadline.none());
+        assertEquals(SearchResult.Status.FOUND, result.status());
+        assertEquals(Dijkstra.getPath(compact, "A", "E"), result.value());
+        assertEquals(SearchResult.Status.NOT_FOUND,
+                Dijkstra.getPathBefore(compact, "A", "F", Deadline.none()).status());
+    }
+
+    @Test
+    public void testCancelledSearchTimesOut() {
+        Graph.Builder<Integer, Double> builder = new Graph.Builder<>();
+        for (int i = 0; i < 2 * Deadline.CHECK_INTERVAL; i++) {
+            builder.addEdge(i, i + 1, 1.0);
+        }
+        CompactGraph<Integer, Double> chain = builder.buildCompact(Double::doubleValue);
+        Deadline deadline = Deadline.after(1, TimeUnit.MINUTES);
+        deadline.cancel();
+        assertTrue(Dijkstra.getPathBefore(chain, 0, 2 * Deadline.CHECK_INTERVAL, deadline).isTimedOut());
+        // A search that finishes before its first check still answers.
+        assertEquals(SearchResult.Status.FOUND, Dijkstra.getPathBefore(chain, 0, 3, deadline).status());
+    }
+
+    @Test
+    public void testStatisticsCountSearchWork() {
+        SearchMetrics metrics = new SearchMetrics();
+        SearchResult<Path<String>> result = Dijkstra.getPathBefore(compact, "A", "E", Deadline.none(), metrics);
+        assertEquals(Dijkstra.getPath(compact, "A", "E"), result.value());
+        SearchMetrics.Summary summary = metrics.snapshot().get("DIJKSTRA");
+        assertEquals(1, summary.searches());
+        assertEquals(5, summary.settled());
+        assertEquals(5, summary.relaxed());
+        assertEquals(6, summary.pushes());
+        assertEquals(2, summary.peakQueue());
+    }
+
+    @Test
+    public void testStatisticsPerAlgorithm() {
+        SearchMetrics metrics = new SearchMetrics();
+        Dijkstra.aStar(compact, "A", "E", node -> 0.0, metrics);
+        Dijkstra.alt(compact, Landmarks.select(compact, 2), "A", "E", metrics);
+        Dijkstra.bidirectional(compact, new ReverseIndex(compact), "A", "E", metrics);
+        Dijkstra.shortestPathTree(compact, "A", metrics);
+        assertEquals(Set.of("A_STAR", "ALT", "BIDIRECTIONAL", "DIJKSTRA"), metrics.snapshot().keySet());
+        assertEquals(5, metrics.snapshot().get("A_STAR").settled());
+        assertEquals(5, metrics.snapshot().get("DIJKSTRA").settled());
+        assertTrue(metrics.snapshot().get("BIDIRECTIONAL").relaxed() > 0);
+    }
+
+    @Test
+    public void testStatisticsRecordedOnTimeout() {
+        // The chain is long enough for the search to reach its first deadline check.
+        int last = 2 * Deadline.CHECK_INTERVAL;
+        Graph.Builder<Integer, Double> builder = new Graph.Builder<>();
+        for (int i = 0; i < last; i++) {
+            builder.addEdge(i, i + 1, 1.0);
+        }
+        CompactGraph<Integer, Double> chain = builder.buildCompact(Double::doubleValue);
+        SearchMetrics metrics = new SearchMetrics();
+        Deadline deadline = Deadline.none();
+        deadline.cancel();
+        assertTrue(Dijkstra.getPathBefore(chain, 0, last, deadline, metrics).isTimedOut());
+        assertTrue(Dijkstra.bidirectional(chain, new ReverseIndex(chain), 0, last, deadline, metrics).isTimedOut());
+        SearchMetrics.Summary dijkstra = metrics.snapshot().get("DIJKSTRA");
+        assertEquals(1, dijkstra.searches());
+        assertEquals(Deadline.CHECK_INTERVAL, dijkstra.settled());
+        assertEquals(1, metrics.snapshot().get("BIDIRECTIONAL").searches());
+        assertEquals(Deadline.CHECK_INTERVAL, metrics.snapshot().get("BIDIRECTIONAL").settled());
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testNullStatistics() {
+        Dijkstra.shortestPathTree(compact, "A", (SearchStatistics) null);
+    }
+
+    @Test
+    public void testEqualCostAlternatives() {
+        // A 4 by 4 grid of unit edges going right and down has 20 shortest corner to corner paths.
+        Graph.Builder<String, Double> builder = new Graph.Builder<>();
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+                if (col < 3) {
+                    builder.addEdge(row + "," + col, row + "," + (col + 1), 1.0);
+                }
+                if (row < 3) {
+                    builder.addEdge(row + "," + col, (row + 1) + "," + col, 1.0);
+                }
+            }
+        }
+        CompactGraph<String, Double> grid = builder.buildCompact(Double::doubleValue);
+        Path<String> path = Dijkstra.getPath(grid, "0,0", "3,3");
+        assertEquals(6.0, path.getCost(), 0.0);
+        String at = "0,0";
+        int segments = 0;
+        for (Path<String>.Segment segment : path) {
+            assertEquals(at, segment.getStart());
+            String[] from = segment.getStart().split(",");
+            String[] to = segment.getEnd().split(",");
+            int step = Integer.parseInt(to[0]) - Integer.parseInt(from[0])
+                    + Integer.parseInt(to[1]) - Integer.parseInt(from[1]);
+            assertEquals(1, step);
+            at = segment.getEnd();
+            segments++;
+        }
+        assertEquals("3,3", at);
+        assertEquals(6, segments);
+        assertEquals(path, Dijkstra.getPath(grid, "0,0", "3,3"));
+        assertEquals(path, Dijkstra.shortestPathTree(grid, "0,0").pathTo("3,3"));
+    }
+
+    @Test
+    public void testEverySearchTimesOut() {
+        int last = 2 * Deadline.CHECK_INTERVAL;
+        Graph.Builder<Integer, Double> builder = new Graph.Builder<>();
+        for (int i = 0; i < last; i++) {
+            builder.addEdge(i, i + 1, 1.0);
+        }
+        CompactGraph<Integer, Double> chain = builder.buildCompact(Double::doubleValue);
+        Deadline deadline = Deadline.none();
+        deadline.cancel();
+        assertTrue(Dijkstra.aStar(chain, 0, last, node -> 0.0, deadline).isTimedOut());
+        assertTrue(Dijkstra.alt(chain, Landmarks.select(chain, 2), 0, last, deadline).isTimedOut());
+        assertTrue(Dijkstra.bidirectional(chain, new ReverseIndex(chain), 0, last, deadline).isTimedOut());
+        assertTrue(Dijkstra.getPathBetween(chain, List.of(0), List.of(last), deadline).isTimedOut());
+        assertTrue(Dijkstra.withinBudget(chain, 0, last, deadline).isTimedOut());
+        assertTrue(Dijkstra.shortestPathTree(chain, 0, deadline).isTimedOut());
+    }
+
+    @Test
+    public void testEverySearchAnswersBeforeDeadline() {
+        Deadline deadline = Deadline.none();
+        Path<String> expected = Dijkstra.getPath(compact, "A", "E");
+        assertEquals(expected, Dijkstra.aStar(compact, "A", "E", node -> 0.0, deadline).value().pathTo("E"));
+        assertEquals(expected,
+                Dijkstra.alt(compact, Landmarks.select(compact, 2), "A", "E", deadline).value().pathTo("E"));
+        assertEquals(expected, Dijkstra.bidirectional(compact, new ReverseIndex(compact), "A", "E", deadline).value());
+        assertEquals(expected, Dijkstra.getPathBetween(compact, List.of("A"), List.of("E"), deadline).value());
+        assertEquals(Dijkstra.withinBudget(compact, "A", 3.0).distances(),
+                Dijkstra.withinBudget(compact, "A", 3.0, deadline).value().distances());
+        assertEquals(expected, Dijkstra.shortestPathTree(compact, "A", deadline).value().pathTo("E"));
+
+        assertEquals(SearchResult.Status.NOT_FOUND, Dijkstra.aStar(compact, "A", "F", node -> 0.0, deadline).status());
+        assertEquals(SearchResult.Status.NOT_FOUND,
+                Dijkstra.alt(compact, Landmarks.select(compact, 2), "A", "F", deadline).status());
+        assertEquals(SearchResult.Status.NOT_FOUND,
+                Dijkstra.bidirectional(compact, new ReverseIndex(compact), "A", "F", deadline).status());
+        assertEquals(SearchResult.Status.NOT_FOUND,
+                Dijkstra.getPathBetween(compact, List.of("A"), List.of("F"), deadline).status());
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testNullDeadline() {
+        Dijkstra.withinBudget(compact, "A", 1.0, null);
+    }
+}
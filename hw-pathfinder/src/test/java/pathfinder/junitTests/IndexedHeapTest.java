@@ -0,0 +1,118 @@
+package pathfinder.junitTests;
+
+import org.junit.Test;
+import pathfinder.datastructures.IndexedHeap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IndexedHeapTest {
+
+    @Test
+    public void testPollsInKeyOrder() {
+        IndexedHeap heap = new IndexedHeap(5);
+        heap.insert(3, 2.0);
+        heap.insert(0, 5.0);
+        heap.insert(4, 1.0);
+        heap.insert(1, 3.0);
+        assertEquals(4, heap.size());
+        assertEquals(4, heap.poll());
+        assertEquals(3, heap.poll());
+        assertEquals(1, heap.poll());
+        assertEquals(0, heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void testDecreaseKey() {
+        IndexedHeap heap = new IndexedHeap(3);
+        heap.insert(0, 1.0);
+        heap.insert(1, 2.0);
+        heap.insert(2, 3.0);
+        heap.decreaseKey(2, 0.5);
+        assertEquals(0.5, heap.key(2), 0.0);
+        assertEquals(3, heap.size());
+        assertEquals(2, heap.poll());
+        assertFalse(heap.contains(2));
+        assertTrue(heap.contains(1));
+    }
+
+    @Test
+    public void testOffer() {
+        IndexedHeap heap = new IndexedHeap(2);
+        assertTrue(heap.offer(1, 4.0));
+        assertFalse(heap.offer(1, 4.0));
+        assertFalse(heap.offer(1, 5.0));
+        assertTrue(heap.offer(1, 3.0));
+        assertEquals(1, heap.size());
+        assertEquals(3.0, heap.key(1), 0.0);
+    }
+
+    @Test
+    public void testEqualKeysKeepInsertionOrder() {
+        IndexedHeap heap = new IndexedHeap(3);
+        heap.insert(2, 1.0);
+        heap.insert(0, 1.0);
+        assertEquals(2, heap.poll());
+        assertEquals(0, heap.poll());
+    }
+
+    @Test
+    public void testClearAndReuse() {
+        IndexedHeap heap = new IndexedHeap(4);
+        heap.insert(0, 1.0);
+        heap.insert(3, 2.0);
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(3));
+        heap.insert(3, 7.0);
+        assertEquals(3, heap.peek());
+    }
+
+    @Test
+    public void testMatchesSortForEveryArity() {
+        Random random = new Random(331);
+        for (int arity = 2; arity <= 8; arity++) {
+            int n = 500;
+            IndexedHeap heap = new IndexedHeap(n, arity);
+            double[] keys = new double[n];
+            for (int id = 0; id < n; id++) {
+                keys[id] = random.nextInt(1000);
+                heap.insert(id, keys[id]);
+            }
+            for (int id = 0; id < n; id += 3) {
+                keys[id] -= random.nextInt(100) + 1;
+                heap.decreaseKey(id, keys[id]);
+            }
+            double[] sorted = keys.clone();
+            Arrays.sort(sorted);
+            for (double key : sorted) {
+                assertEquals(key, heap.key(heap.peek()), 0.0);
+                heap.poll();
+            }
+            assertTrue(heap.isEmpty());
+        }
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testInsertTwice() {
+        IndexedHeap heap = new IndexedHeap(1);
+        heap.insert(0, 1.0);
+        heap.insert(0, 2.0);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testIncreaseKey() {
+        IndexedHeap heap = new IndexedHeap(1);
+        heap.insert(0, 1.0);
+        heap.decreaseKey(0, 2.0);
+    }
+
+    @Test (expected = NoSuchElementException.class)
+    public void testPollEmpty() {
+        new IndexedHeap(1).poll();
+    }
+}
@@ -0,0 +1,117 @@
+package pathfinder.junitTests;
+
+import graph.CompactGraph;
+import graph.Deadline;
+import graph.Graph;
+import graph.ReverseIndex;
+import graph.SearchMetrics;
+import graph.SearchResult;
+import org.junit.Before;
+import org.junit.Test;
+import pathfinder.Dijkstra;
+import pathfinder.KShortestPaths;
+import pathfinder.datastructures.Path;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class KShortestPathsTest {
+    private CompactGraph<String, Double> compact;
+    private ReverseIndex reverse;
+
+    @Before
+    public void build() {
+        // The classic example for Yen's algorithm: three shortest paths from C to H cost 5, 7 and 8.
+        Graph.Builder<String, Double> builder = new Graph.Builder<>();
+        builder.addEdge("C", "D", 3.0);
+        builder.addEdge("C", "E", 2.0);
+        builder.addEdge("D", "F", 4.0);
+        builder.addEdge("E", "D", 1.0);
+        builder.addEdge("E", "F", 2.0);
+        builder.addEdge("E", "G", 3.0);
+        builder.addEdge("F", "G", 2.0);
+        builder.addEdge("F", "H", 1.0);
+        builder.addEdge("G", "H", 2.0);
+        builder.addNode("X");
+        compact = builder.buildCompact(Double::doubleValue);
+        reverse = new ReverseIndex(compact);
+    }
+
+    @Test
+    public void testClassicExample() {
+        List<Path<String>> paths = KShortestPaths.find(compact, reverse, "C", "H", 3);
+        assertEquals(3, paths.size());
+        assertEquals(Dijkstra.getPath(compact, "C", "H"), paths.get(0));
+        assertEquals(5.0, paths.get(0).getCost(), 0.0);
+        assertEquals(7.0, paths.get(1).getCost(), 0.0);
+        assertEquals(8.0, paths.get(2).getCost(), 0.0);
+    }
+
+    @Test
+    public void testEveryLooplessPath() {
+        List<Path<String>> paths = KShortestPaths.find(compact, reverse, "C", "H", 100);
+        assertEquals(7, paths.size());
+        assertEquals(paths.size(), new HashSet<>(paths).size());
+        for (int i = 1; i < paths.size(); i++) {
+            assertTrue(paths.get(i - 1).getCost() <= paths.get(i).getCost());
+        }
+        for (Path<String> path : paths) {
+            HashSet<String> visited = new HashSet<>();
+            visited.add(path.getStart());
+            for (Path<String>.Segment segment : path) {
+                assertTrue(visited.add(segment.getEnd()));
+            }
+            assertEquals("H", path.getEnd());
+        }
+    }
+
+    @Test
+    public void testSameStartAndDest() {
+        assertEquals(List.of(new Path<>("C")), KShortestPaths.find(compact, reverse, "C", "C", 3));
+    }
+
+    @Test
+    public void testUnreachable() {
+        assertTrue(KShortestPaths.find(compact, reverse, "C", "X", 3).isEmpty());
+        assertTrue(KShortestPaths.find(compact, reverse, "H", "C", 3).isEmpty());
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testZeroPaths() {
+        KShortestPaths.find(compact, reverse, "C", "H", 0);
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testNotInGraph() {
+        KShortestPaths.find(compact, reverse, "C", "Z", 2);
+    }
+
+    @Test
+    public void testDeadline() {
+        SearchResult<List<Path<String>>> result = KShortestPaths.find(compact, reverse, "C", "H", 3, Deadline.none());
+        assertEquals(KShortestPaths.find(compact, reverse, "C", "H", 3), result.value());
+        Deadline deadline = Deadline.none();
+        deadline.cancel();
+        assertTrue(KShortestPaths.find(compact, reverse, "C", "H", 3, deadline).isTimedOut());
+    }
+
+    @Test
+    public void testStatistics() {
+        SearchMetrics metrics = new SearchMetrics();
+        KShortestPaths.find(compact, reverse, "C", "H", 3, Deadline.none(), metrics);
+        SearchMetrics.Summary summary = metrics.snapshot().get(KShortestPaths.YEN);
+        assertEquals(1, summary.searches());
+        // The backward tree alone settles the six nodes that reach H.
+        assertTrue(summary.settled() >= 6);
+        assertTrue(summary.relaxed() >= summary.settled() - 1);
+
+        Deadline deadline = Deadline.none();
+        deadline.cancel();
+        metrics.reset();
+        assertTrue(KShortestPaths.find(compact, reverse, "C", "H", 3, deadline, metrics).isTimedOut());
+        assertEquals(1, metrics.snapshot().get(KShortestPaths.YEN).searches());
+        assertEquals(6, metrics.snapshot().get(KShortestPaths.YEN).settled());
+    }
+}
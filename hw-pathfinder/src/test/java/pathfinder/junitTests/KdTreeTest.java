@@ -0,0 +1,97 @@
+package pathfinder.junitTests;
+
+import org.junit.Test;
+import pathfinder.datastructures.KdTree;
+import pathfinder.datastructures.Point;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class KdTreeTest {
+
+    private static List<Point> randomPoints(Random random, int count) {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            points.add(new Point(random.nextInt(1000), random.nextInt(1000)));
+        }
+        return points;
+    }
+
+    private static double distance(Point p, double x, double y) {
+        return Math.hypot(p.getX() - x, p.getY() - y);
+    }
+
+    @Test
+    public void testNearestMatchesScan() {
+        Random random = new Random(331);
+        List<Point> points = randomPoints(random, 500);
+        KdTree tree = new KdTree(points);
+        assertEquals(500, tree.size());
+        for (int i = 0; i < 200; i++) {
+            double x = random.nextDouble() * 1200 - 100;
+            double y = random.nextDouble() * 1200 - 100;
+            double best = points.stream().mapToDouble(p -> distance(p, x, y)).min().getAsDouble();
+            assertEquals(best, distance(tree.nearest(x, y), x, y), 0.0);
+        }
+    }
+
+    @Test
+    public void testKNearestMatchesScan() {
+        Random random = new Random(332);
+        List<Point> points = randomPoints(random, 300);
+        KdTree tree = new KdTree(points);
+        for (int i = 0; i < 50; i++) {
+            double x = random.nextDouble() * 1000;
+            double y = random.nextDouble() * 1000;
+            List<Point> sorted = new ArrayList<>(points);
+            sorted.sort(Comparator.comparingDouble(p -> distance(p, x, y)));
+            List<Point> nearest = tree.nearest(x, y, 7);
+            assertEquals(7, nearest.size());
+            for (int j = 0; j < 7; j++) {
+                assertEquals(distance(sorted.get(j), x, y), distance(nearest.get(j), x, y), 0.0);
+            }
+        }
+        assertEquals(300, tree.nearest(0, 0, 1000).size());
+        assertTrue(tree.nearest(0, 0, 0).isEmpty());
+    }
+
+    @Test
+    public void testWithinMatchesScan() {
+        Random random = new Random(333);
+        List<Point> points = randomPoints(random, 400);
+        KdTree tree = new KdTree(points);
+        for (int i = 0; i < 50; i++) {
+            double minX = random.nextInt(1000);
+            double minY = random.nextInt(1000);
+            double maxX = minX + random.nextInt(300);
+            double maxY = minY + random.nextInt(300);
+            List<Point> expected = new ArrayList<>();
+            for (Point p : points) {
+                if (minX <= p.getX() && p.getX() <= maxX && minY <= p.getY() && p.getY() <= maxY) {
+                    expected.add(p);
+                }
+            }
+            List<Point> found = tree.within(minX, minY, maxX, maxY);
+            assertEquals(expected.size(), found.size());
+            assertEquals(new HashSet<>(expected), new HashSet<>(found));
+        }
+    }
+
+    @Test
+    public void testEmptyTree() {
+        KdTree tree = new KdTree(List.of());
+        assertNull(tree.nearest(1, 2));
+        assertTrue(tree.nearest(1, 2, 3).isEmpty());
+        assertTrue(tree.within(0, 0, 10, 10).isEmpty());
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testInvertedRectangle() {
+        new KdTree(List.of(new Point(1, 1))).within(5, 0, 4, 10);
+    }
+}
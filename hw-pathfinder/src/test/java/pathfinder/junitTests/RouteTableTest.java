@@ -0,0 +1,111 @@
+package pathfinder.junitTests;
+
+import graph.CompactGraph;
+import graph.Graph;
+import org.junit.Before;
+import org.junit.Test;
+import pathfinder.Dijkstra;
+import pathfinder.RouteTable;
+import pathfinder.ShortestPathTree;
+import pathfinder.datastructures.Path;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RouteTableTest {
+    private static final List<String> NODES = List.of("A", "B", "C", "D", "E", "X", "Y", "Z");
+    private CompactGraph<String, Double> compact;
+
+    @Before
+    public void build() {
+        // Two equal-cost routes from A to D, a zero-weight edge, a self loop, a one-way cycle
+        // back to A, an island X-Y no one else reaches, and an isolated node Z.
+        Graph.Builder<String, Double> builder = new Graph.Builder<>();
+        builder.addEdge("A", "B", 1.0);
+        builder.addEdge("A", "C", 1.0);
+        builder.addEdge("B", "D", 1.0);
+        builder.addEdge("C", "D", 1.0);
+        builder.addEdge("B", "B", 2.0);
+        builder.addEdge("D", "E", 0.0);
+        builder.addEdge("E", "A", 3.0);
+        builder.addEdge("X", "Y", 1.0);
+        builder.addEdge("Y", "X", 1.0);
+        builder.addNode("Z");
+        compact = builder.buildCompact(Double::doubleValue);
+    }
+
+    @Test
+    public void testSameCostsAsDijkstra() {
+        RouteTable<String> table = new RouteTable<>(compact, NODES, 2);
+        assertEquals(NODES.size(), table.size());
+        for (String start : NODES) {
+            for (String end : NODES) {
+                Path<String> expected = Dijkstra.getPath(compact, start, end);
+                Path<String> path = table.path(start, end);
+                if (expected == null) {
+                    assertNull(path);
+                    assertEquals(Double.POSITIVE_INFINITY, table.distance(start, end), 0.0);
+                } else {
+                    assertEquals(expected.getCost(), path.getCost(), 0.0);
+                    assertEquals(expected.getCost(), table.distance(start, end), 0.0);
+                    assertEquals(start, path.getStart());
+                    assertEquals(end, path.getEnd());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSamePathsAsTrees() {
+        RouteTable<String> table = new RouteTable<>(compact, NODES, 3);
+        for (String start : NODES) {
+            ShortestPathTree<String> tree = Dijkstra.shortestPathTree(compact, start);
+            for (String end : NODES) {
+                assertEquals(tree.pathTo(end), table.path(start, end));
+            }
+        }
+    }
+
+    @Test
+    public void testTiesAndZeroWeights() {
+        RouteTable<String> table = new RouteTable<>(compact, List.of("A", "D", "E"));
+        Path<String> path = table.path("A", "E");
+        assertEquals(2.0, path.getCost(), 0.0);
+        assertEquals(2.0, table.distance("A", "D"), 0.0);
+        assertEquals(0.0, table.distance("D", "E"), 0.0);
+        assertEquals(path, table.path("A", "E"));
+        assertEquals(3.0, table.distance("E", "A"), 0.0);
+    }
+
+    @Test
+    public void testUnreachableEndpoints() {
+        RouteTable<String> table = new RouteTable<>(compact, List.of("A", "X", "Y", "Z"));
+        assertNull(table.path("A", "X"));
+        assertNull(table.path("X", "Z"));
+        assertEquals(Double.POSITIVE_INFINITY, table.distance("Z", "A"), 0.0);
+        assertEquals(1.0, table.distance("Y", "X"), 0.0);
+        assertEquals(new Path<>("Z"), table.path("Z", "Z"));
+    }
+
+    @Test
+    public void testSomeEndpoints() {
+        RouteTable<String> table = new RouteTable<>(compact, List.of("E", "D", "E"));
+        assertEquals(2, table.size());
+        assertTrue(table.contains("D"));
+        assertFalse(table.contains("C"));
+        assertEquals(Dijkstra.getPath(compact, "E", "D"), table.path("E", "D"));
+        assertEquals(new Path<>("D"), table.path("D", "D"));
+        assertTrue(table.footprintBytes() > 0);
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testNotAnEndpoint() {
+        new RouteTable<>(compact, List.of("A", "B")).path("A", "C");
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testEndpointNotInGraph() {
+        new RouteTable<>(compact, List.of("A", "W"));
+    }
+}
@@ -0,0 +1,147 @@
+package pathfinder.junitTests;
+
+import graph.CompactGraph;
+import graph.Deadline;
+import graph.Graph;
+import graph.SearchMetrics;
+import graph.SearchResult;
+import org.junit.Before;
+import org.junit.Test;
+import pathfinder.Dijkstra;
+import pathfinder.ShortestPathTree;
+import pathfinder.TreeCache;
+import pathfinder.datastructures.Path;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TreeCacheTest {
+    private static final List<String> NODES = List.of("S", "A", "B", "T", "U");
+    private CompactGraph<String, Double> compact;
+
+    @Before
+    public void build() {
+        // The direct edges from S are never the shortest, and U reaches nothing and is reached
+        // by nothing, so its tree holds only itself.
+        Graph.Builder<String, Double> builder = new Graph.Builder<>();
+        builder.addEdge("S", "A", 4.0);
+        builder.addEdge("S", "B", 1.0);
+        builder.addEdge("B", "A", 1.0);
+        builder.addEdge("A", "T", 1.0);
+        builder.addEdge("B", "T", 5.0);
+        builder.addEdge("T", "S", 2.0);
+        builder.addNode("U");
+        compact = builder.buildCompact(Double::doubleValue);
+    }
+
+    @Test
+    public void testSamePathsAsDijkstra() {
+        TreeCache<String> cache = new TreeCache<>(compact, NODES.size());
+        for (String start : NODES) {
+            for (String end : NODES) {
+                assertEquals(Dijkstra.getPath(compact, start, end), cache.path(start, end));
+            }
+        }
+        assertEquals(NODES.size(), cache.misses());
+        assertEquals(NODES.size() * (NODES.size() - 1), cache.hits());
+    }
+
+    @Test
+    public void testHitReturnsSameTree() {
+        TreeCache<String> cache = new TreeCache<>(compact, 2);
+        ShortestPathTree<String> tree = cache.tree("S");
+        assertSame(tree, cache.tree("S"));
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        TreeCache<String> cache = new TreeCache<>(compact, 2);
+        ShortestPathTree<String> s = cache.tree("S");
+        cache.tree("A");
+        cache.tree("S");
+        cache.tree("B");
+        assertEquals(2, cache.size());
+        assertSame(s, cache.tree("S"));
+        cache.tree("A");
+        assertEquals(4, cache.misses());
+        assertEquals(2, cache.hits());
+    }
+
+    @Test
+    public void testInvalidateOnGraphChange() {
+        TreeCache<String> cache = new TreeCache<>(compact, 4);
+        assertEquals(3.0, cache.path("S", "T").getCost(), 0.0);
+        Graph.Builder<String, Double> builder = new Graph.Builder<>();
+        builder.addEdge("S", "T", 2.0);
+        builder.addNode("A");
+        cache.invalidate(builder.buildCompact(Double::doubleValue));
+        assertEquals(0, cache.size());
+        assertEquals(2.0, cache.path("S", "T").getCost(), 0.0);
+        assertNull(cache.path("S", "A"));
+        assertEquals(2, cache.misses());
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testZeroCapacity() {
+        new TreeCache<>(compact, 0);
+    }
+
+    @Test (expected = RuntimeException.class)
+    public void testDestNotInGraph() {
+        new TreeCache<>(compact, 1).path("S", "Z");
+    }
+
+    @Test
+    public void testUnreachableSource() {
+        TreeCache<String> cache = new TreeCache<>(compact, 2);
+        assertEquals(new Path<>("U"), cache.path("U", "U"));
+        assertNull(cache.path("U", "S"));
+        assertNull(cache.path("S", "U"));
+        assertEquals(1, cache.hits());
+    }
+
+    @Test
+    public void testTimedOutTreeNotCached() {
+        Graph.Builder<Integer, Double> builder = new Graph.Builder<>();
+        for (int i = 0; i < 2 * Deadline.CHECK_INTERVAL; i++) {
+            builder.addEdge(i, i + 1, 1.0);
+        }
+        TreeCache<Integer> cache = new TreeCache<>(builder.buildCompact(Double::doubleValue), 2);
+        Deadline deadline = Deadline.none();
+        deadline.cancel();
+        assertTrue(cache.tree(0, deadline).isTimedOut());
+        assertTrue(cache.path(0, 1, deadline).isTimedOut());
+        assertEquals(0, cache.size());
+        ShortestPathTree<Integer> tree = cache.tree(0);
+        // A hit needs no search, so it answers even after the deadline.
+        assertSame(tree, cache.tree(0, deadline).value());
+        assertEquals(SearchResult.Status.FOUND, cache.path(0, 1, deadline).status());
+    }
+
+    @Test
+    public void testPathBeforeDeadline() {
+        TreeCache<String> cache = new TreeCache<>(compact, NODES.size());
+        assertEquals(Dijkstra.getPath(compact, "S", "T"), cache.path("S", "T", Deadline.none()).value());
+        assertEquals(SearchResult.Status.NOT_FOUND, cache.path("S", "U", Deadline.none()).status());
+    }
+
+    @Test
+    public void testStatisticsReportMissesAsTreeCache() {
+        TreeCache<String> cache = new TreeCache<>(compact, 2);
+        SearchMetrics metrics = new SearchMetrics();
+        cache.path("S", "T", Deadline.none(), metrics);
+        SearchMetrics.Summary miss = metrics.snapshot().get("TREE_CACHE");
+        assertEquals(1, metrics.snapshot().size());
+        assertEquals(1, miss.searches());
+        // S reaches A, B and T, so the search that grew its tree settled four nodes.
+        assertEquals(4, miss.settled());
+        assertTrue(miss.relaxed() > 0);
+        cache.path("S", "A", Deadline.none(), metrics);
+        SearchMetrics.Summary both = metrics.snapshot().get("TREE_CACHE");
+        assertEquals(2, both.searches());
+        assertEquals(4, both.settled());
+    }
+}
@@ -106,4 +106,46 @@ public class TestPath {
         assertEquals(path2.hashCode(), path2.hashCode());
         assertEquals(path3.hashCode(), path3.hashCode());
     }
+
+    @Test
+    public void testExtendLeavesPrefixUnchanged() {
+        Path<Point> prefix = new Path<>(new Point(0.0, 0.0)).extend(new Point(1.0, 0.0), 1.0D);
+        Path<Point> left = prefix.extend(new Point(1.0, 1.0), 1.0D);
+        Path<Point> right = prefix.extend(new Point(1.0, -1.0), 3.0D);
+        assertEquals(new Point(1.0, 0.0), prefix.getEnd());
+        assertEquals(1.0D, prefix.getCost(), EPSILON);
+        assertEquals(new Point(1.0, 1.0), left.getEnd());
+        assertEquals(new Point(1.0, -1.0), right.getEnd());
+        assertEquals(4.0D, right.getCost(), EPSILON);
+        assertNotEquals(left, right);
+    }
+
+    @Test
+    public void testLongPathIteratesInOrder() {
+        Path<Point> path = new Path<>(new Point(0.0, 0.0));
+        for (int i = 1; i <= 1000; i++) {
+            path = path.extend(new Point(i, 0.0), 1.0D);
+        }
+        int i = 0;
+        for (Path<Point>.Segment segment : path) {
+            assertEquals(new Point(i, 0.0), segment.getStart());
+            assertEquals(new Point(i + 1, 0.0), segment.getEnd());
+            i++;
+        }
+        assertEquals(1000, i);
+        assertEquals(1000.0D, path.getCost(), EPSILON);
+    }
+
+    @Test
+    public void testSeparatelyBuiltPathsEqual() {
+        Path<Point> a = new Path<>(new Point(0.0, 0.0));
+        Path<Point> b = new Path<>(new Point(0.0, 0.0));
+        for (int i = 1; i <= 50; i++) {
+            a = a.extend(new Point(i, i), 2.0D);
+            b = b.extend(new Point(i, i), 2.0D);
+        }
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, b.extend(new Point(0.0, 0.0), 1.0D));
+    }
 }